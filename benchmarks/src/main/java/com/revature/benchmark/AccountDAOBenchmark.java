@@ -0,0 +1,66 @@
+package com.revature.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.dao.AccountDAO;
+import com.revature.dao.AccountDAOImpl;
+import com.revature.dao.AccountQuery;
+import com.revature.model.Account;
+
+/**
+ * AccountDAOImpl on its own: one query for a client with many accounts, so the time is dominated by reading and
+ * mapping rows. Loading fewer columns shows what the row mapping itself costs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountDAOBenchmark {
+
+	private static final int CLIENT_ID = 3;
+
+	@Param({ "1000", "10000" })
+	public int accountsPerClient;
+
+	private BenchmarkDatabase database;
+	private AccountDAO accountDao;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		database = BenchmarkDatabase.start(5, accountsPerClient);
+		accountDao = new AccountDAOImpl();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		database.stop();
+	}
+
+	@Benchmark
+	public List<Account> allColumns() throws Exception {
+		return accountDao.findAccounts(AccountQuery.forClient(CLIENT_ID));
+	}
+
+	@Benchmark
+	public List<Account> balanceOnly() throws Exception {
+		return accountDao.findAccounts(AccountQuery.forClient(CLIENT_ID).columns(AccountQuery.Column.BALANCE));
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.revature.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.model.Account;
+import com.revature.service.AccountService;
+
+/**
+ * GET /client/:clientid/account minus the HTTP layer, for each combination of the amount filters
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+	// The client that is read is one of the generated ones, which all have the same number of accounts
+	private static final String CLIENT_ID = "3";
+
+	@Param({ "none", "lessThan", "greaterThan", "between" })
+	public String filter;
+
+	@Param({ "10", "1000" })
+	public int accountsPerClient;
+
+	private BenchmarkDatabase database;
+	private AccountService accountService;
+
+	private String lessThan;
+	private String greaterThan;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		database = BenchmarkDatabase.start(100, accountsPerClient);
+		accountService = new AccountService();
+
+		lessThan = filter.equals("lessThan") || filter.equals("between") ? "2000" : null;
+		greaterThan = filter.equals("greaterThan") || filter.equals("between") ? "400" : null;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		database.stop();
+	}
+
+	@Benchmark
+	public List<Account> getAllAccountsFromClient() throws Exception {
+		return accountService.getAllAccountsFromClient(CLIENT_ID, lessThan, greaterThan);
+	}
+
+}
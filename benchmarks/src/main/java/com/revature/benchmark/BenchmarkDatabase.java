@@ -0,0 +1,156 @@
+package com.revature.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.revature.dao.DAOFactory;
+import com.revature.dto.AddClientWithAccountsDTO;
+import com.revature.dto.AddOrEditAccountDTO;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * An embedded MariaDB server loaded with the application's schema (project0_script.sql) and a generated data set.
+ * JMH runs every benchmark in its own JVM, and a benchmark starts the database in its trial setup, so each
+ * measurement gets a fresh server and the application's connection pool is created against it.
+ */
+public class BenchmarkDatabase {
+
+	private static final String DATABASE = "jdbc_demo";
+	private static final int SEED_CHUNK_SIZE = 1000;
+
+	private final DB db;
+
+	// Kept open so that reading the server's counters doesn't add the statements a new connection sends to them
+	private final Connection monitor;
+	private long countsRead;
+
+	private BenchmarkDatabase(DB db, Connection monitor) {
+		this.db = db;
+		this.monitor = monitor;
+	}
+
+	/**
+	 * Starts the server and points the application at it (db_url, db_username and db_password are read from system
+	 * properties before environment variables). The first two clients are the ones from the script itself
+	 *
+	 * @param clients           how many clients to add on top of the script's data
+	 * @param accountsPerClient how many accounts each added client gets
+	 */
+	public static BenchmarkDatabase start(int clients, int accountsPerClient) throws ManagedProcessException, SQLException, IOException {
+		DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+		config.setPort(0);
+
+		// mysqld refuses to start as root unless it is told to
+		if ("root".equals(System.getProperty("user.name"))) {
+			config.addArg("--user=root");
+		}
+
+		DB db = DB.newEmbeddedDB(config.build());
+		db.start();
+
+		String serverUrl = "jdbc:mariadb://localhost:" + config.getPort() + "/";
+		loadSchema(serverUrl);
+
+		System.setProperty("db_url", serverUrl + DATABASE);
+		System.setProperty("db_username", "root");
+		System.setProperty("db_password", "");
+
+		seed(clients, accountsPerClient);
+
+		return new BenchmarkDatabase(db, DriverManager.getConnection(serverUrl, "root", ""));
+	}
+
+	// Goes through JDBC rather than DB.source(), which needs the mysql command line client and the native
+	// libraries it links against
+	private static void loadSchema(String serverUrl) throws SQLException, IOException {
+		StringBuilder script = new StringBuilder();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				BenchmarkDatabase.class.getResourceAsStream("/project0_script.sql"), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.trim().startsWith("--")) {
+					script.append(line).append('\n');
+				}
+			}
+		}
+
+		try (Connection con = DriverManager.getConnection(serverUrl, "root", ""); Statement stmt = con.createStatement()) {
+			stmt.execute("CREATE DATABASE " + DATABASE);
+			stmt.execute("USE " + DATABASE);
+
+			for (String sql : script.toString().split(";")) {
+				if (!sql.trim().isEmpty()) {
+					stmt.execute(sql);
+				}
+			}
+		}
+	}
+
+	private static void seed(int clients, int accountsPerClient) throws SQLException {
+		List<AddClientWithAccountsDTO> batch = new ArrayList<>(SEED_CHUNK_SIZE);
+
+		for (int i = 0; i < clients; i++) {
+			batch.add(seedClient(i, accountsPerClient));
+
+			if (batch.size() == SEED_CHUNK_SIZE) {
+				DAOFactory.getClientDao().addClientsWithAccounts(batch, SEED_CHUNK_SIZE);
+				batch.clear();
+			}
+		}
+
+		if (!batch.isEmpty()) {
+			DAOFactory.getClientDao().addClientsWithAccounts(batch, SEED_CHUNK_SIZE);
+		}
+	}
+
+	/**
+	 * The i-th client seeded on top of the script's data, for benchmarks that load the same data somewhere else
+	 */
+	static AddClientWithAccountsDTO seedClient(int i, int accountsPerClient) {
+		List<AddOrEditAccountDTO> accounts = new ArrayList<>(accountsPerClient);
+		for (int j = 0; j < accountsPerClient; j++) {
+			// Balances spread over 0..4999 so the range filters select a predictable fraction of the accounts
+			AddOrEditAccountDTO account = new AddOrEditAccountDTO();
+			account.setName("Account " + j);
+			account.setBalance((i * 31 + j * 977) % 5000);
+			accounts.add(account);
+		}
+
+		AddClientWithAccountsDTO client = new AddClientWithAccountsDTO();
+		client.setName("Client " + i);
+		client.setAge(18 + i % 70);
+		client.setAccounts(accounts);
+		return client;
+	}
+
+	/**
+	 * How many statements the server has been sent so far, over every connection. The difference between two calls is
+	 * what was sent in between, not counting either call
+	 */
+	public long statementCount() throws SQLException {
+		try (Statement stmt = monitor.createStatement(); ResultSet rs = stmt.executeQuery("SHOW GLOBAL STATUS LIKE 'Questions'")) {
+			rs.next();
+
+			// Questions already counts the SHOW that reads it, and every one sent before it
+			return rs.getLong("Value") - ++countsRead;
+		}
+	}
+
+	public void stop() throws ManagedProcessException, SQLException {
+		monitor.close();
+		db.stop();
+	}
+
+}
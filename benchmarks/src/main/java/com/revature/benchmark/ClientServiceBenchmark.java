@@ -0,0 +1,127 @@
+package com.revature.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.dao.AccountDAO;
+import com.revature.dao.AccountQuery;
+import com.revature.dao.ClientDAO;
+import com.revature.dao.DAOFactory;
+import com.revature.model.Client;
+import com.revature.service.ClientService;
+
+/**
+ * GET /client minus the HTTP layer: loading every client together with its accounts, and the clients in an age range
+ * (a seventh of them), filtered in Java after loading everything versus by the database with and without accounts.
+ *
+ * Loading every client is also measured the way it used to be done, with one account query per client. Both report
+ * how many statements they sent to the server (:statements) over how many calls (:calls) next to the time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientServiceBenchmark {
+
+	@Param({ "100", "10000" })
+	public int clients;
+
+	@Param({ "5" })
+	public int accountsPerClient;
+
+	private BenchmarkDatabase database;
+	private ClientService clientService;
+	private ClientDAO clientDao;
+	private AccountDAO accountDao;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		database = BenchmarkDatabase.start(clients, accountsPerClient);
+		clientService = new ClientService();
+		clientDao = DAOFactory.getClientDao();
+		accountDao = DAOFactory.getAccountDao();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		database.stop();
+	}
+
+	@Benchmark
+	public List<Client> getAllClients(Statements statements) throws Exception {
+		statements.calls++;
+		return clientService.getAllClients();
+	}
+
+	// What getAllClients() did before it was one JOIN: the clients, then the accounts of each one in turn
+	@Benchmark
+	public List<Client> getAllClientsPerClientQueries(Statements statements) throws Exception {
+		statements.calls++;
+
+		List<Client> clients = clientDao.getAllClients();
+		for (Client client : clients) {
+			client.setAccounts(accountDao.findAccounts(AccountQuery.forClient(client.getId())));
+		}
+		return clients;
+	}
+
+	@Benchmark
+	public List<Client> ageRangeFilteredInJava() throws Exception {
+		return clientService.getAllClients().stream().filter((client) -> client.getAge() >= 30 && client.getAge() <= 39)
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Client> ageRange() throws Exception {
+		return clientService.getClientsWithAgeBetween("30", "39", null, null, true);
+	}
+
+	@Benchmark
+	public List<Client> ageRangeWithoutAccounts() throws Exception {
+		return clientService.getClientsWithAgeBetween("30", "39", null, null, false);
+	}
+
+	/**
+	 * Counts the statements the server was sent during each iteration, which only the benchmark's own calls send. JMH
+	 * adds both counters up over the iterations, so it is their ratio that is the statements per call
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Statements {
+
+		public long statements;
+		public long calls;
+
+		private long countAtStart;
+
+		@Setup(Level.Iteration)
+		public void start(ClientServiceBenchmark benchmark) throws Exception {
+			countAtStart = benchmark.database.statementCount();
+		}
+
+		@TearDown(Level.Iteration)
+		public void stop(ClientServiceBenchmark benchmark) throws Exception {
+			statements = benchmark.database.statementCount() - countAtStart;
+		}
+
+	}
+
+}
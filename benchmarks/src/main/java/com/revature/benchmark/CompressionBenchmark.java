@@ -0,0 +1,102 @@
+package com.revature.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.model.Account;
+import com.revature.model.Client;
+import com.revature.util.GzipPool;
+
+import io.javalin.plugin.json.JavalinJackson;
+
+/**
+ * The CPU cost of gzipping a GET /client response against the bytes it saves. serialize is the baseline every
+ * response pays; pooledGzip is what ResponseCompression does, newDeflaterGzip what a GZIPOutputStream per response
+ * (Javalin's own compression) does. The compressed size of each shape is printed once at setup, and the difference
+ * between a gzip benchmark and serialize is the CPU time those saved bytes cost
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+	@Param({ "10", "1000" })
+	public int clients;
+
+	@Param({ "1", "6" })
+	public int level;
+
+	private List<Client> graph;
+	private GzipPool pool;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		graph = new ArrayList<>(clients);
+
+		int accountId = 1;
+		for (int i = 1; i <= clients; i++) {
+			Client client = new Client(i, "Client " + i, 18 + i % 70);
+
+			List<Account> accounts = new ArrayList<>(5);
+			for (int j = 0; j < 5; j++) {
+				accounts.add(new Account(accountId++, "Account " + j, (i * 31 + j * 977) % 5000, i));
+			}
+			client.setAccounts(accounts);
+
+			graph.add(client);
+		}
+
+		pool = new GzipPool(level, 1);
+
+		byte[] json = serialize();
+		byte[] compressed = pool.compress(json);
+		System.out.printf("%n%d clients at level %d: %d bytes of JSON, %d gzipped (%.1f%%)%n", clients, level, json.length,
+				compressed.length, 100.0 * compressed.length / json.length);
+	}
+
+	@Benchmark
+	public byte[] serialize() throws IOException {
+		return JavalinJackson.getObjectMapper().writeValueAsBytes(graph);
+	}
+
+	@Benchmark
+	public byte[] pooledGzip() throws IOException {
+		return pool.compress(serialize());
+	}
+
+	@Benchmark
+	public byte[] newDeflaterGzip() throws IOException {
+		byte[] json = serialize();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+			{
+				def.setLevel(level);
+			}
+		}) {
+			gzip.write(json);
+		}
+		return out.toByteArray();
+	}
+
+}
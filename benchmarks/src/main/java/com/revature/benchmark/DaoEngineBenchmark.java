@@ -0,0 +1,122 @@
+package com.revature.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.dao.AccountDAO;
+import com.revature.dao.AccountDAOImpl;
+import com.revature.dao.AccountQuery;
+import com.revature.dao.ClientDAO;
+import com.revature.dao.ClientDAOImpl;
+import com.revature.dao.MemoryAccountDAO;
+import com.revature.dao.MemoryClientDAO;
+import com.revature.dao.MemoryStore;
+import com.revature.dto.AddClientWithAccountsDTO;
+import com.revature.dto.BalanceDTO;
+import com.revature.model.Account;
+import com.revature.model.Client;
+
+/**
+ * The same DAO calls against the database and against MemoryStore, loaded with the same data: 5 clients with 1000
+ * accounts each. The memory engine's deposits include appending to its write-ahead log, without forcing it to disk
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class DaoEngineBenchmark {
+
+	private static final int CLIENTS = 5;
+	private static final int ACCOUNTS_PER_CLIENT = 1000;
+
+	@Param({ "jdbc", "memory" })
+	public String engine;
+
+	private BenchmarkDatabase database;
+	private Path memoryDirectory;
+	private MemoryStore memoryStore;
+
+	private ClientDAO clientDao;
+	private AccountDAO accountDao;
+
+	private int clientId;
+	private int accountId;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		if (engine.equals("jdbc")) {
+			database = BenchmarkDatabase.start(CLIENTS, ACCOUNTS_PER_CLIENT);
+			clientDao = new ClientDAOImpl();
+			accountDao = new AccountDAOImpl();
+		} else {
+			memoryDirectory = Files.createTempDirectory("memory-store");
+			memoryStore = MemoryStore.open(memoryDirectory, 64 * 1024 * 1024, false, 0);
+			clientDao = new MemoryClientDAO(memoryStore);
+			accountDao = new MemoryAccountDAO(memoryStore);
+
+			List<AddClientWithAccountsDTO> clients = new ArrayList<>(CLIENTS);
+			for (int i = 0; i < CLIENTS; i++) {
+				clients.add(BenchmarkDatabase.seedClient(i, ACCOUNTS_PER_CLIENT));
+			}
+			clientDao.addClientsWithAccounts(clients, CLIENTS);
+		}
+
+		// The last seeded client, whichever ids the engine handed out
+		List<Client> clients = clientDao.getAllClients();
+		clientId = clients.get(clients.size() - 1).getId();
+		accountId = accountDao.findAccounts(AccountQuery.forClient(clientId).limit(1)).get(0).getId();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		if (database != null) {
+			database.stop();
+		}
+		if (memoryStore != null) {
+			memoryStore.close();
+			try (Stream<Path> files = Files.walk(memoryDirectory)) {
+				files.sorted(Comparator.reverseOrder()).forEach((file) -> file.toFile().delete());
+			}
+		}
+	}
+
+	@Benchmark
+	public Client getClientById() throws Exception {
+		return clientDao.getClientById(clientId);
+	}
+
+	@Benchmark
+	public List<Account> richestTenAccounts() throws Exception {
+		return accountDao.findAccounts(AccountQuery.forClient(clientId).balanceAtLeast(1000)
+				.sortBy(AccountQuery.Sort.BALANCE_DESC).limit(10));
+	}
+
+	@Benchmark
+	public BalanceDTO deposit() throws Exception {
+		return accountDao.changeBalance(clientId, accountId, 1);
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.revature.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.dao.BalanceFoldJob;
+import com.revature.dao.DAOFactory;
+import com.revature.dto.AmountDTO;
+import com.revature.dto.BalanceDTO;
+import com.revature.service.AccountService;
+
+/**
+ * Deposits per second with 8 threads all depositing into the same account (account 1 of the script's data). With
+ * 0 stripes every deposit updates the account row and waits for the row lock of the one before it; with stripes the
+ * deposits are spread over that many slot rows, while BalanceFoldJob folds them back every 100 ms
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class HotAccountBenchmark {
+
+	@Param({ "0", "8" })
+	public int stripes;
+
+	private BenchmarkDatabase database;
+	private AccountService accountService;
+	private BalanceFoldJob foldJob;
+
+	private final AmountDTO deposit = new AmountDTO(1);
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		// Has to be set before anything touches DAOFactory, which reads it once
+		if (stripes > 0) {
+			System.setProperty("striped_accounts", "1");
+			System.setProperty("balance_stripes", String.valueOf(stripes));
+		}
+
+		database = BenchmarkDatabase.start(0, 0);
+		accountService = new AccountService();
+
+		if (DAOFactory.getStripedBalances().isEnabled()) {
+			foldJob = new BalanceFoldJob(DAOFactory.getAccountDao(), 100);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		if (foldJob != null) {
+			foldJob.close();
+		}
+		database.stop();
+	}
+
+	@Benchmark
+	public BalanceDTO deposit() throws Exception {
+		return accountService.deposit("1", "1", deposit);
+	}
+
+}
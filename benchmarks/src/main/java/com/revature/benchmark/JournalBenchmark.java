@@ -0,0 +1,77 @@
+package com.revature.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.dto.BalanceDTO;
+import com.revature.model.Account;
+import com.revature.service.MutationJournal;
+import com.revature.util.MetricsRegistry;
+import com.revature.util.SegmentedJournal;
+
+/**
+ * What journaling adds to every write, with 4 threads writing at once. Without waiting for the sync that is encoding
+ * the entry and copying it into the mapped segment; waiting adds a share of one fsync, which the threads waiting at
+ * the same time split between them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class JournalBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean waitForSync;
+
+	private Path directory;
+	private MutationJournal journal;
+
+	private final Account account = new Account(1, "Checking", 100, 1);
+	private final BalanceDTO balance = new BalanceDTO(1, 1, 100);
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		directory = Files.createTempDirectory("journal");
+		journal = new MutationJournal(new SegmentedJournal(directory, 64 * 1024 * 1024, 10), waitForSync, new MetricsRegistry());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		journal.close();
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach((file) -> file.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public void accountEdited() {
+		journal.accountEdited(account);
+	}
+
+	@Benchmark
+	public void balanceChanged() {
+		journal.balanceChanged(balance, 1);
+	}
+
+}
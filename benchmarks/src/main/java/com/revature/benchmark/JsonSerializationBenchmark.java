@@ -0,0 +1,68 @@
+package com.revature.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.model.Account;
+import com.revature.model.Client;
+
+import io.javalin.plugin.json.JavalinJson;
+
+/**
+ * What ctx.json() does with a large client/account graph: Javalin turns it into a String with its configured mapper.
+ * No database is involved
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+	@Param({ "100", "10000" })
+	public int clients;
+
+	@Param({ "5" })
+	public int accountsPerClient;
+
+	private List<Client> graph;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		graph = new ArrayList<>(clients);
+
+		int accountId = 1;
+		for (int i = 1; i <= clients; i++) {
+			Client client = new Client(i, "Client " + i, 18 + i % 70);
+
+			List<Account> accounts = new ArrayList<>(accountsPerClient);
+			for (int j = 0; j < accountsPerClient; j++) {
+				accounts.add(new Account(accountId++, "Account " + j, (i * 31 + j * 977) % 5000, i));
+			}
+			client.setAccounts(accounts);
+
+			graph.add(client);
+		}
+	}
+
+	@Benchmark
+	public String toJson() {
+		return JavalinJson.toJson(graph);
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.revature.benchmark;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.dto.TransferDTO;
+import com.revature.dto.TransferResultDTO;
+import com.revature.service.AccountService;
+import com.revature.util.ConnectionUtility;
+
+/**
+ * Transfers per second with 8 threads transferring between random pairs of accounts at once. The fewer accounts there
+ * are, the more often two transfers want the same rows and have to wait for each other's locks; with 2 accounts every
+ * transfer contends, in both directions. A deadlock would surface as a failed benchmark iteration
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class TransferBenchmark {
+
+	@Param({ "2", "16", "1000" })
+	public int accounts;
+
+	private BenchmarkDatabase database;
+	private AccountService accountService;
+
+	private String[] clientIds;
+	private String[] accountIds;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		// The script's own accounts are not used, only the ones added here, one per client
+		database = BenchmarkDatabase.start(accounts, 1);
+		accountService = new AccountService();
+
+		List<String> clients = new ArrayList<>();
+		List<String> ids = new ArrayList<>();
+		try (Connection con = ConnectionUtility.getConnection(); Statement stmt = con.createStatement()) {
+			// Enough money that no transfer ever fails for lack of it
+			stmt.executeUpdate("UPDATE jdbc_demo.account SET balance = 1000000000");
+
+			try (ResultSet rs = stmt.executeQuery("SELECT id, client_id FROM jdbc_demo.account WHERE client_id > 2 ORDER BY id")) {
+				while (rs.next()) {
+					ids.add(rs.getString("id"));
+					clients.add(rs.getString("client_id"));
+				}
+			}
+		}
+
+		clientIds = clients.toArray(new String[0]);
+		accountIds = ids.toArray(new String[0]);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		database.stop();
+	}
+
+	@Benchmark
+	public TransferResultDTO transfer() throws Exception {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+
+		int from = random.nextInt(accountIds.length);
+		int to = random.nextInt(accountIds.length - 1);
+		if (to >= from) {
+			to++;
+		}
+
+		TransferDTO transfer = new TransferDTO(Integer.parseInt(clientIds[to]), Integer.parseInt(accountIds[to]), 1);
+		return accountService.transfer(clientIds[from], accountIds[from], transfer);
+	}
+
+}
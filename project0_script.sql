@@ -1,20 +1,45 @@
+DROP TABLE IF EXISTS account_balance_slot;
 DROP TABLE IF EXISTS account;
 DROP TABLE IF EXISTS client;
 
 CREATE TABLE client (
 	id INTEGER PRIMARY KEY AUTO_INCREMENT,
 	name VARCHAR(255) NOT NULL,
-	age INTEGER DEFAULT 0
+	age INTEGER DEFAULT 0,
+	-- Goes up by one with every update, so an edit can be made conditional on the row not having changed since it was read
+	version INTEGER NOT NULL DEFAULT 0
 );
 
+-- Serves GET /client?ageMin=&ageMax=. InnoDB appends the primary key to every secondary index, so this is really
+-- (age, id), and each age's clients come out of it already in id order
+CREATE INDEX idx_client_age ON client (age);
+
 CREATE TABLE account (
 	id INTEGER PRIMARY KEY AUTO_INCREMENT,
 	name VARCHAR(255) NOT NULL,
 	balance INTEGER NOT NULL,
 	client_id INTEGER NOT NULL,
+	version INTEGER NOT NULL DEFAULT 0,
 	CONSTRAINT `fk_account_client` FOREIGN KEY (client_id) REFERENCES client(id) ON DELETE CASCADE
 );
 
+-- Serves every account listing: the client filter, the balance range and ordering by balance all come from this one index
+CREATE INDEX idx_account_client_balance ON account (client_id, balance);
+
+-- Deposits to the accounts configured as striped_accounts go to one of these rows instead of the account's own, and are
+-- folded back into account.balance in the background. client_id is repeated here so a deposit never has to touch the
+-- account row to check who it belongs to
+CREATE TABLE account_balance_slot (
+	account_id INTEGER NOT NULL,
+	slot INTEGER NOT NULL,
+	client_id INTEGER NOT NULL,
+	amount INTEGER NOT NULL DEFAULT 0,
+	-- How many deposits the slot has taken. It is never cleared, and the account's version counts it, see StripedBalances
+	deposits INTEGER NOT NULL DEFAULT 0,
+	PRIMARY KEY (account_id, slot),
+	CONSTRAINT `fk_account_balance_slot_account` FOREIGN KEY (account_id) REFERENCES account(id) ON DELETE CASCADE
+);
+
 
 
 INSERT INTO client 
@@ -1,15 +1,29 @@
 package com.revature.app;
 
+import java.io.IOException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.revature.controller.AccessLogger;
+import com.revature.controller.AsyncExecution;
 import com.revature.controller.Controller;
+import com.revature.controller.EventController;
 import com.revature.controller.ExceptionController;
 import com.revature.controller.AccountController;
 import com.revature.controller.ClientController;
+import com.revature.controller.MetricsController;
+import com.revature.controller.ResponseCompression;
 import com.revature.controller.TestController;
+import com.revature.dao.BalanceFoldJob;
+import com.revature.dao.DAOFactory;
+import com.revature.dao.MemoryStore;
+import com.revature.service.MutationJournal;
+import com.revature.util.AccessLog;
+import com.revature.util.ConfigUtility;
 
 import io.javalin.Javalin;
+import io.javalin.core.compression.CompressionStrategy;
 
 public class Application {
 
@@ -17,15 +31,73 @@ public class Application {
 	private static Logger logger = LoggerFactory.getLogger(Application.class);
 	
 	public static void main(String[] args) {
-		app = Javalin.create();
-		
-		mapControllers(new ClientController(), new ExceptionController(), new AccountController()); // variable arguments (var-args)
+		AccessLog accessLog = new AccessLog(ConfigUtility.getInt("access_log_buffer_size", 8192),
+				ConfigUtility.getInt("access_log_success_sample_every", 100));
+		Runtime.getRuntime().addShutdownHook(new Thread(accessLog::close));
 		
-		app.before((ctx) -> {
-			logger.info(ctx.method() + " request received to the " + ctx.path() + " endpoint");
+		app = Javalin.create((config) -> {
+			// One access log line per request is written by a background thread, instead of logging on the request thread
+			config.requestLogger(new AccessLogger(accessLog));
 			
+			// Javalin would gzip every response over 1500 bytes with a new Deflater each time. The listing endpoints
+			// are compressed by ResponseCompression instead, and nothing else is big enough to be worth it
+			config.compressionStrategy(CompressionStrategy.NONE);
 		});
 		
+		// Database-bound handlers run on a fixed set of worker threads rather than on Jetty's, so the number of
+		// requests doing JDBC work at the same time stays below the connection pool size
+		int workers = ConfigUtility.getInt("db_max_concurrency", ConfigUtility.getInt("db_pool_max_size", 10));
+		if (ConfigUtility.getBoolean("async_handlers", true)) {
+			AsyncExecution.enable(workers, ConfigUtility.getInt("async_queue_capacity", 1000),
+					ConfigUtility.getLong("async_queue_timeout_ms", 10000));
+		}
+		
+		String compression = ConfigUtility.getString("response_compression", "gzip");
+		if (compression.equals("gzip")) {
+			// Responses are compressed by the worker threads, so that's how many Deflaters are worth keeping
+			ResponseCompression.enable(ConfigUtility.getInt("compression_min_bytes", 1024),
+					ConfigUtility.getInt("compression_level", 6), ConfigUtility.getInt("compression_pool_size", workers));
+		} else if (!compression.equals("none")) {
+			throw new IllegalStateException("response_compression is configured as " + compression
+					+ ", but only gzip and none are supported (brotli would need the native jvm-brotli library)");
+		}
+		
+		// Deposits to striped accounts pile up in their balance slots until this moves them back into the accounts. What
+		// an earlier run left in them is folded first, because without striped accounts nothing reads the slots
+		if (DAOFactory.usesDatabase()) {
+			int folded = BalanceFoldJob.foldOnce(DAOFactory.getAccountDao());
+			if (folded > 0) {
+				logger.info("Folded the balance slots of {} accounts left over from the last run", folded);
+			}
+		}
+		if (DAOFactory.getStripedBalances().isEnabled()) {
+			BalanceFoldJob foldJob = new BalanceFoldJob(DAOFactory.getAccountDao(), ConfigUtility.getLong("balance_fold_interval_ms", 1000));
+			Runtime.getRuntime().addShutdownHook(new Thread(foldJob::close));
+		}
+		
+		// Closing takes a final snapshot, so the next start doesn't have to replay the whole log
+		if (DAOFactory.getMemoryStore() != null) {
+			MemoryStore memoryStore = DAOFactory.getMemoryStore();
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					memoryStore.close();
+				} catch (IOException e) {
+					logger.error("The in-memory store could not be closed", e);
+				}
+			}));
+		}
+		
+		// Entries are on disk within journal_sync_interval_ms anyway, closing only saves waiting for the last sync
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				MutationJournal.getDefault().close();
+			} catch (IOException e) {
+				logger.error("The mutation journal could not be closed", e);
+			}
+		}));
+		
+		mapControllers(new ClientController(), new ExceptionController(), new AccountController(), new MetricsController(), new EventController()); // variable arguments (var-args)
+		
 		app.start(7000);
 		
 	}
@@ -0,0 +1,49 @@
+package com.revature.app;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.revature.service.MutationJournal;
+
+/**
+ * Reads a mutation journal written with journal_enabled=true, without starting the application:
+ *
+ * entries [fromSequence] prints one JSON object per entry and line, for feeding another system from where it left off.
+ * state prints the clients and accounts the whole journal adds up to, as a JSON array.
+ */
+public class JournalReplay {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || !(args[1].equals("entries") || args[1].equals("state"))) {
+			System.err.println("Usage: JournalReplay <journal directory> entries [fromSequence]");
+			System.err.println("       JournalReplay <journal directory> state");
+			System.exit(2);
+		}
+
+		Path directory = Paths.get(args[0]);
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+		OutputStream out = new BufferedOutputStream(System.out);
+		if (args[1].equals("entries")) {
+			long fromSequence = args.length > 2 ? Long.parseLong(args[2]) : 0;
+			ObjectWriter writer = mapper.writer();
+
+			MutationJournal.replay(directory, fromSequence, (entry) -> {
+				writer.writeValue(out, entry);
+				out.write('\n');
+			});
+		} else {
+			mapper.writerWithDefaultPrettyPrinter().writeValue(out, MutationJournal.rebuild(directory));
+			out.write('\n');
+		}
+		out.flush();
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.revature.controller;
+
+import org.eclipse.jetty.server.Request;
+
+import com.revature.util.AccessLog;
+
+import io.javalin.http.Context;
+import io.javalin.http.RequestLogger;
+
+/**
+ * Feeds every finished request into an {@link AccessLog}. Javalin calls a request logger after the response has been
+ * written, so the status and the byte count are final at this point
+ */
+public class AccessLogger implements RequestLogger {
+
+	private AccessLog accessLog;
+	
+	public AccessLogger(AccessLog accessLog) {
+		this.accessLog = accessLog;
+	}
+	
+	@Override
+	public void handle(Context ctx, Float executionTimeMs) {
+		String route = ctx.endpointHandlerPath();
+		if (route.startsWith("No handler matched")) {
+			route = "unmatched";
+		}
+		
+		accessLog.record(ctx.method(), route, ctx.status(), (long) (executionTimeMs * 1000), bytesWritten(ctx));
+	}
+	
+	// Bytes of the response body as written by Javalin (after compression), including any still sitting in Jetty's
+	// output buffer
+	private long bytesWritten(Context ctx) {
+		Request request = Request.getBaseRequest(ctx.req);
+		if (request == null) {
+			return -1;
+		}
+		
+		return request.getResponse().getHttpOutput().getWritten();
+	}
+
+}
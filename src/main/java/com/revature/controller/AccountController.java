@@ -1,15 +1,28 @@
 package com.revature.controller;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.dto.AccountSummaryDTO;
 import com.revature.dto.AddOrEditAccountDTO;
 import com.revature.dto.AddOrEditClientDTO;
+import com.revature.dto.AmountDTO;
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.TransferDTO;
+import com.revature.dto.TransferResultDTO;
+import com.revature.exception.BadParameterException;
 import com.revature.model.Account;
 import com.revature.model.Client;
 import com.revature.service.AccountService;
 
 import io.javalin.Javalin;
+import io.javalin.http.Context;
 import io.javalin.http.Handler;
+import io.javalin.plugin.json.JavalinJackson;
 
 
 public class AccountController implements Controller {
@@ -29,15 +42,62 @@ public class AccountController implements Controller {
 		
 	};
 	
+	private Handler addAccountsToClient = (ctx) -> {
+		String clientId = ctx.pathParam("clientid");
+		
+		List<AddOrEditAccountDTO> accountsToAdd = readAccounts(ctx);
+		
+		List<Account> addedAccounts = accountService.addAccounts(clientId, accountsToAdd);
+		ctx.status(200);
+		ctx.json(addedAccounts);
+	};
+	
+	// The body is either a JSON array of accounts, or one account per line (NDJSON) when the
+	// Content-Type says so, which lets an import be produced line by line without building one huge array
+	private List<AddOrEditAccountDTO> readAccounts(Context ctx) throws BadParameterException {
+		ObjectMapper mapper = JavalinJackson.getObjectMapper();
+		
+		try {
+			String contentType = ctx.contentType();
+			
+			if (contentType != null && contentType.contains("ndjson")) {
+				List<AddOrEditAccountDTO> accounts = new ArrayList<>();
+				
+				MappingIterator<AddOrEditAccountDTO> lines = mapper.readerFor(AddOrEditAccountDTO.class).readValues(ctx.bodyAsInputStream());
+				while (lines.hasNextValue()) {
+					accounts.add(lines.nextValue());
+				}
+				
+				return accounts;
+			}
+			
+			return new ArrayList<>(Arrays.asList(mapper.readValue(ctx.bodyAsInputStream(), AddOrEditAccountDTO[].class)));
+		} catch (IOException e) {
+			throw new BadParameterException("The request body could not be read as a list of accounts");
+		}
+	}
+	
 	private Handler getAccountFromClient = (ctx) -> {
 		String clientId = ctx.pathParam("clientid");
 		
 		String lessThan = ctx.queryParam("amountLessThan");
 		String greaterThan = ctx.queryParam("amountGreaterThan");
 		
-		List<Account> accountsFromClient = accountService.getAllAccountsFromClient(clientId, lessThan, greaterThan);
+		String after = ctx.queryParam("after");
+		String limit = ctx.queryParam("limit");
+		String sort = ctx.queryParam("sort");
+		
+		List<Account> accountsFromClient = accountService.getAccountsFromClient(clientId, lessThan, greaterThan, after, limit, sort);
+		
+		// Only an id ordered page can be continued with ?after=
+		if (limit != null || after != null) {
+			if (!accountsFromClient.isEmpty() && (sort == null || sort.equals("id"))) {
+				ctx.header(ClientController.NEXT_CURSOR_HEADER, String.valueOf(accountsFromClient.get(accountsFromClient.size() - 1).getId()));
+			}
+		}
 		ctx.status(200);
-		ctx.json(accountsFromClient);
+		ConditionalGet.setETag(ctx);
+		ResponseCompression.json(ctx, accountsFromClient);
 	};
 	
 	
@@ -48,10 +108,20 @@ public class AccountController implements Controller {
 		
 		Account accountById = accountService.getAccountById(clientId,accountId);
 		ctx.status(200);
+		ConditionalGet.setETag(ctx);
 		ctx.json(accountById);
 	};
 	
 	
+	private Handler getAccountSummary = (ctx) -> {
+		String clientId = ctx.pathParam("clientid");
+		
+		AccountSummaryDTO summary = accountService.getAccountSummary(clientId);
+		ctx.status(200);
+		ConditionalGet.setETag(ctx);
+		ctx.json(summary);
+	};
+	
 	private Handler editAccount = (ctx) -> {
 		AddOrEditAccountDTO accountToEdit = ctx.bodyAsClass(AddOrEditAccountDTO.class);
 		
@@ -74,14 +144,55 @@ public class AccountController implements Controller {
 	};
 	
 	
+	private Handler deposit = (ctx) -> {
+		AmountDTO deposit = ctx.bodyAsClass(AmountDTO.class);
+		
+		String clientId = ctx.pathParam("clientid");
+		String accountId = ctx.pathParam("accountid");
+		
+		BalanceDTO balance = accountService.deposit(clientId, accountId, deposit);
+		ctx.status(200);
+		ctx.json(balance);
+	};
+	
+	private Handler withdraw = (ctx) -> {
+		AmountDTO withdrawal = ctx.bodyAsClass(AmountDTO.class);
+		
+		String clientId = ctx.pathParam("clientid");
+		String accountId = ctx.pathParam("accountid");
+		
+		BalanceDTO balance = accountService.withdraw(clientId, accountId, withdrawal);
+		ctx.status(200);
+		ctx.json(balance);
+	};
+	
+	private Handler transfer = (ctx) -> {
+		TransferDTO transfer = ctx.bodyAsClass(TransferDTO.class);
+		
+		String clientId = ctx.pathParam("clientid");
+		String accountId = ctx.pathParam("accountid");
+		
+		TransferResultDTO result = accountService.transfer(clientId, accountId, transfer);
+		ctx.status(200);
+		ctx.json(result);
+	};
+	
+	// Every account of a client shares the client's ETag, whichever filter, page or single account was asked for
+	private ConditionalGet.ETagSource accountsETag = (ctx) -> accountService.getAccountsETag(ctx.pathParam("clientid"));
+	
 	@Override
 	public void mapEndpoints(Javalin app) {
-		app.post("/client/:clientid/account", addAccountToClient);
-		app.get("/client/:clientid/account", getAccountFromClient);
+		app.post("/client/:clientid/account", AsyncExecution.blocking(addAccountToClient));
+		app.post("/client/:clientid/account/bulk", AsyncExecution.blocking(addAccountsToClient));
+		app.get("/client/:clientid/account", ConditionalGet.conditional(accountsETag, AsyncExecution.blocking(getAccountFromClient)));
 		//app.get("/client/:clientid/account/amountLTE2000GTE400", getAccountLTE2000GTE400);
-		app.get("/client/:clientid/account/:accountid", getAccountById);
-		app.put("/client/:clientid/account/:accountid", editAccount);
-		app.delete("/client/:clientid/account/:accountid", deleteAccount);
+		app.get("/client/:clientid/account/:accountid", ConditionalGet.conditional(accountsETag, AsyncExecution.blocking(getAccountById)));
+		app.get("/client/:clientid/summary", ConditionalGet.conditional(accountsETag, AsyncExecution.blocking(getAccountSummary)));
+		app.put("/client/:clientid/account/:accountid", AsyncExecution.blocking(editAccount));
+		app.delete("/client/:clientid/account/:accountid", AsyncExecution.blocking(deleteAccount));
+		app.post("/client/:clientid/account/:accountid/deposit", AsyncExecution.blocking(deposit));
+		app.post("/client/:clientid/account/:accountid/withdraw", AsyncExecution.blocking(withdraw));
+		app.post("/client/:clientid/account/:accountid/transfer", AsyncExecution.blocking(transfer));
 		
 	}
 
@@ -0,0 +1,166 @@
+package com.revature.controller;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.revature.exception.ServiceUnavailableException;
+
+import io.javalin.http.Handler;
+
+/**
+ * Moves blocking (JDBC) handlers off Jetty's request threads. A wrapped handler hands Javalin a CompletableFuture and
+ * runs on a fixed pool of worker threads instead, so slow database calls park the request rather than a server thread.
+ * The size of that pool is the limit on how many requests can be doing database work at once; requests beyond it wait
+ * in a bounded queue and are answered with 503 if the queue is full or they waited too long.
+ * 
+ * Until {@link #enable(int, int, long)} is called, wrapped handlers simply run on the request thread.
+ */
+public class AsyncExecution {
+
+	private static volatile ThreadPoolExecutor executor;
+	private static volatile long queueTimeoutNanos;
+	
+	private AsyncExecution() {
+	}
+	
+	public static synchronized void enable(int maxConcurrency, int queueCapacity, long queueTimeoutMillis) {
+		if (executor != null) {
+			executor.shutdown();
+		}
+		
+		AtomicInteger threadNumber = new AtomicInteger();
+		queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+		executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), (runnable) -> {
+					Thread thread = new Thread(runnable, "db-worker-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+	
+	public static int getActiveCount() {
+		ThreadPoolExecutor current = executor;
+		return current == null ? 0 : current.getActiveCount();
+	}
+	
+	public static int getQueuedCount() {
+		ThreadPoolExecutor current = executor;
+		return current == null ? 0 : current.getQueue().size();
+	}
+	
+	public static Handler blocking(Handler handler) {
+		return (ctx) -> {
+			ThreadPoolExecutor current = executor;
+			if (current == null) {
+				handler.handle(ctx);
+				return;
+			}
+			
+			ctx.result(new DeferredResult(current, () -> handler.handle(ctx)));
+		};
+	}
+	
+	private interface Work {
+		
+		void run() throws Exception;
+		
+	}
+	
+	/**
+	 * The wrapped handler writes its response through the same Context (ctx.json() and friends), and setting a result
+	 * on the Context clears the future Javalin is about to pick up. So the handler must not start before Javalin has
+	 * taken hold of the future, which is the moment it attaches its first callback to it.
+	 */
+	private static class DeferredResult extends CompletableFuture<Object> {
+		
+		private final AtomicBoolean started = new AtomicBoolean();
+		private final long enqueuedAt = System.nanoTime();
+		private final ThreadPoolExecutor executor;
+		private final Work work;
+		
+		private DeferredResult(ThreadPoolExecutor executor, Work work) {
+			this.executor = executor;
+			this.work = work;
+		}
+		
+		private void start() {
+			if (!started.compareAndSet(false, true)) {
+				return;
+			}
+			
+			try {
+				executor.execute(this::run);
+			} catch (RejectedExecutionException e) {
+				completeExceptionally(new ServiceUnavailableException("The server is too busy to handle this request right now"));
+			}
+		}
+		
+		private void run() {
+			if (System.nanoTime() - enqueuedAt > queueTimeoutNanos) {
+				completeExceptionally(new ServiceUnavailableException("The server is too busy to handle this request right now"));
+				return;
+			}
+			
+			try {
+				work.run();
+				complete(null);
+			} catch (Exception e) {
+				completeExceptionally(e);
+			}
+		}
+
+		@Override
+		public CompletableFuture<Object> exceptionally(Function<Throwable, ? extends Object> fn) {
+			CompletableFuture<Object> next = super.exceptionally(fn);
+			start();
+			return next;
+		}
+
+		@Override
+		public CompletableFuture<Void> thenAccept(Consumer<? super Object> action) {
+			CompletableFuture<Void> next = super.thenAccept(action);
+			start();
+			return next;
+		}
+
+		@Override
+		public <U> CompletableFuture<U> thenApply(Function<? super Object, ? extends U> fn) {
+			CompletableFuture<U> next = super.thenApply(fn);
+			start();
+			return next;
+		}
+
+		@Override
+		public <U> CompletableFuture<U> handle(BiFunction<? super Object, Throwable, ? extends U> fn) {
+			CompletableFuture<U> next = super.handle(fn);
+			start();
+			return next;
+		}
+
+		@Override
+		public CompletableFuture<Object> whenComplete(BiConsumer<? super Object, ? super Throwable> action) {
+			CompletableFuture<Object> next = super.whenComplete(action);
+			start();
+			return next;
+		}
+
+		@Override
+		public <U> CompletableFuture<U> thenCompose(Function<? super Object, ? extends CompletionStage<U>> fn) {
+			CompletableFuture<U> next = super.thenCompose(fn);
+			start();
+			return next;
+		}
+		
+	}
+	
+}
@@ -1,41 +1,176 @@
 package com.revature.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.revature.dto.AddClientWithAccountsDTO;
 import com.revature.dto.AddOrEditClientDTO;
+import com.revature.dto.BulkItemResultDTO;
+import com.revature.exception.BadParameterException;
+import com.revature.exception.DatabaseException;
 import com.revature.model.Client;
+import com.revature.service.AccountSummaries;
 import com.revature.service.ClientService;
+import com.revature.util.ConfigUtility;
 
 import io.javalin.Javalin;
+import io.javalin.http.Context;
 import io.javalin.http.Handler;
+import io.javalin.plugin.json.JavalinJackson;
 
 public class ClientController implements Controller {
 
+	static final String NEXT_CURSOR_HEADER = "X-Next-After";
+
+	// Shared by every ClientController, the same way the client cache behind DAOFactory is, so a client written
+	// through one controller can't be served stale by another
+	private static final ClientDocumentCache DOCUMENTS = ConfigUtility.getBoolean("client_document_cache_enabled", true)
+			? new ClientDocumentCache(ConfigUtility.getInt("client_document_cache_max_size", 10000),
+					ConfigUtility.getLong("client_document_cache_ttl_ms", 30000))
+			: null;
+
 	private ClientService clientService;
 	
 	public ClientController() {
 		this.clientService = new ClientService();
 	}
 	
+	/**
+	 * @return the cache of serialized clients, or null if it has been switched off with client_document_cache_enabled=false
+	 */
+	static ClientDocumentCache getDocumentCache() {
+		return DOCUMENTS;
+	}
+	
 	private Handler getAllClients = (ctx) -> {	
 		
-		List<Client> clients = clientService.getAllClients();
+		String ageMin = ctx.queryParam("ageMin");
+		String ageMax = ctx.queryParam("ageMax");
+		boolean withAccounts = !"false".equals(ctx.queryParam("withAccounts"));
+		boolean filtered = ageMin != null || ageMax != null || !withAccounts;
+		
+		if ("true".equals(ctx.queryParam("stream"))) {
+			if (filtered) {
+				throw new BadParameterException("stream cannot be combined with ageMin, ageMax or withAccounts");
+			}
+			
+			streamAllClients(ctx, "true".equals(ctx.queryParam("summary")));
+			return;
+		}
+		
+		String after = ctx.queryParam("after");
+		String limit = ctx.queryParam("limit");
+		
+		List<Client> clients;
+		if (filtered) {
+			// The age range is applied by the database, and withAccounts=false doesn't read a single account
+			clients = clientService.getClientsWithAgeBetween(ageMin, ageMax, after, limit, withAccounts);
+		} else if (after != null || limit != null) {
+			clients = clientService.getClientsPage(after, limit);
+		} else {
+			clients = clientService.getAllClients();
+		}
+		
+		// The cursor for the next page is simply the last id of this one
+		if ((after != null || limit != null) && !clients.isEmpty()) {
+			ctx.header(NEXT_CURSOR_HEADER, String.valueOf(clients.get(clients.size() - 1).getId()));
+		}
+		
+		if ("true".equals(ctx.queryParam("summary"))) {
+			for (Client client : clients) {
+				clientService.addSummary(client);
+			}
+		}
 		
 		ctx.status(200); // 200 means OK
-		ctx.json(clients);
+		ResponseCompression.json(ctx, clients);
 	};
 	
+	// Writes each client to the response as soon as it comes off the ResultSet instead of serializing one big List
+	private void streamAllClients(Context ctx, boolean withSummaries) throws DatabaseException, IOException {
+		ctx.status(200);
+		ctx.contentType("application/json");
+		
+		OutputStream out = ResponseCompression.outputStream(ctx);
+		JsonGenerator generator = JavalinJackson.getObjectMapper().getFactory().createGenerator(out);
+		
+		// Clients go out whenever the generator's buffer fills up rather than one by one. Flushing after every client
+		// would cost a network write each, and when gzipped would also end a deflate block each time
+		ObjectWriter writer = JavalinJackson.getObjectMapper().writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		
+		// The opening bracket is written (and flushed) only once the first client has been read, so a failing query
+		// can still be answered with a normal error response, which also won't have been marked as gzipped yet
+		boolean[] started = { false };
+		clientService.streamAllClients((client) -> {
+			if (!started[0]) {
+				generator.writeStartArray();
+				generator.flush();
+				started[0] = true;
+			}
+			// Streamed clients always come with their accounts, so summarizing them never needs the database
+			if (withSummaries) {
+				client.setSummary(AccountSummaries.summarize(client.getId(), client.getAccounts()));
+			}
+			writer.writeValue(generator, client);
+		});
+		
+		if (!started[0]) {
+			generator.writeStartArray();
+		}
+		generator.writeEndArray();
+		generator.close();
+	}
+	
 	private Handler getClientById = (ctx) -> {
 		String clientid = ctx.pathParam("clientid");
 		
 		Client client = clientService.getClientById(clientid);
-		ctx.status(200);
-		ctx.json(client);
+		byte[] json = JavalinJackson.getObjectMapper().writeValueAsBytes(client);
+		
+		String eTag = ctx.attribute(ConditionalGet.ETAG_ATTRIBUTE);
+		if (DOCUMENTS != null && eTag != null) {
+			DOCUMENTS.put(client.getId(), eTag, json);
+		}
+		
+		writeJson(ctx, json);
+	};
+	
+	private Handler loadClientById = AsyncExecution.blocking(getClientById);
+	
+	// Runs on the request thread, before getClientById is queued for a database worker: a client whose serialized
+	// JSON is still cached under its current ETag needs neither the database nor Jackson
+	private Handler getCachedClientById = (ctx) -> {
+		String eTag = ctx.attribute(ConditionalGet.ETAG_ATTRIBUTE);
+		
+		byte[] json = null;
+		if (DOCUMENTS != null && eTag != null) {
+			// The ETag lookup has already checked that the id is an int
+			json = DOCUMENTS.get(Integer.parseInt(ctx.pathParam("clientid")), eTag);
+		}
+		
+		if (json != null) {
+			writeJson(ctx, json);
+		} else {
+			loadClientById.handle(ctx);
+		}
 	};
 	
+	private void writeJson(Context ctx, byte[] json) throws IOException {
+		ctx.status(200);
+		ConditionalGet.setETag(ctx);
+		ctx.contentType("application/json");
+		ctx.res.setContentLength(json.length);
+		ctx.res.getOutputStream().write(json);
+	}
+	
 	private Handler addClient = (ctx) -> {
 		AddOrEditClientDTO clientToAdd = ctx.bodyAsClass(AddOrEditClientDTO.class);
 		
@@ -44,6 +179,19 @@ public class ClientController implements Controller {
 		ctx.json(addedClient);
 	};
 	
+	private Handler addClients = (ctx) -> {
+		AddClientWithAccountsDTO[] clientsToAdd;
+		try {
+			clientsToAdd = JavalinJackson.getObjectMapper().readValue(ctx.bodyAsInputStream(), AddClientWithAccountsDTO[].class);
+		} catch (IOException e) {
+			throw new BadParameterException("The request body could not be read as a list of clients");
+		}
+		
+		List<BulkItemResultDTO> results = clientService.addClients(Arrays.asList(clientsToAdd));
+		ctx.status(200);
+		ctx.json(results);
+	};
+	
 	private Handler editClient = (ctx) -> {
 		AddOrEditClientDTO clientToEdit = ctx.bodyAsClass(AddOrEditClientDTO.class);
 		
@@ -56,16 +204,23 @@ public class ClientController implements Controller {
 	private Handler deleteClient = (ctx) -> {
 		String clientId = ctx.pathParam("clientid");
 		clientService.deleteClient(clientId);
+		
+		// Not needed for correctness, the ETag has changed anyway, but there's no point holding on to the bytes
+		if (DOCUMENTS != null) {
+			DOCUMENTS.invalidate(Integer.parseInt(clientId));
+		}
 		ctx.status(200);
 	};
 	
 	@Override
 	public void mapEndpoints(Javalin app) {
-		app.post("/client", addClient);
-		app.get("/client", getAllClients);
-		app.get("/client/:clientid", getClientById);
-		app.put("/client/:clientid", editClient);
-		app.delete("/client/:clientid", deleteClient);
+		app.post("/client", AsyncExecution.blocking(addClient));
+		app.post("/client/bulk", AsyncExecution.blocking(addClients));
+		app.get("/client", AsyncExecution.blocking(getAllClients));
+		app.get("/client/:clientid", ConditionalGet.conditional((ctx) -> clientService.getClientETag(ctx.pathParam("clientid")),
+				getCachedClientById));
+		app.put("/client/:clientid", AsyncExecution.blocking(editClient));
+		app.delete("/client/:clientid", AsyncExecution.blocking(deleteClient));
 	}
 
 }
@@ -0,0 +1,114 @@
+package com.revature.controller;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The serialized JSON of GET /client/:clientid, by client id. Each document is stored together with the ETag it was
+ * loaded under, and is only served while the client still has that ETag, so any write to the client or one of its
+ * accounts makes the cached bytes unusable without anything having to be removed. Like ClientCache, entries also
+ * expire after a fixed time-to-live and the least recently used one is evicted once the cache is full.
+ */
+class ClientDocumentCache {
+
+	private final int maxSize;
+	private final long ttlNanos;
+
+	// Access-ordered, so the eldest entry is always the least recently used one
+	private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	ClientDocumentCache(int maxSize, long ttlMillis) {
+		this.maxSize = maxSize;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+	}
+
+	/**
+	 * @return the cached JSON if it was stored under eTag and hasn't expired, otherwise null. The array is shared, so
+	 *         it must only be written out, never modified
+	 */
+	byte[] get(int clientId, String eTag) {
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(clientId);
+
+			if (entry != null && (!entry.eTag.equals(eTag) || System.nanoTime() - entry.storedAt > ttlNanos)) {
+				entries.remove(clientId);
+				evictions.increment();
+				entry = null;
+			}
+		}
+
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+
+		hits.increment();
+		return entry.json;
+	}
+
+	/**
+	 * @param eTag the ETag that was read before the client was loaded. If a write happened in between, the document is
+	 *             stored under an ETag the client no longer has, so it is never served
+	 */
+	void put(int clientId, String eTag, byte[] json) {
+		Entry entry = new Entry(eTag, json, System.nanoTime());
+
+		synchronized (entries) {
+			entries.put(clientId, entry);
+
+			Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+			while (entries.size() > maxSize && eldest.hasNext()) {
+				eldest.next();
+				eldest.remove();
+				evictions.increment();
+			}
+		}
+	}
+
+	void invalidate(int clientId) {
+		synchronized (entries) {
+			entries.remove(clientId);
+		}
+	}
+
+	int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	long getHitCount() {
+		return hits.sum();
+	}
+
+	long getMissCount() {
+		return misses.sum();
+	}
+
+	long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	private static class Entry {
+
+		private final String eTag;
+		private final byte[] json;
+		private final long storedAt;
+
+		private Entry(String eTag, byte[] json, long storedAt) {
+			this.eTag = eTag;
+			this.json = json;
+			this.storedAt = storedAt;
+		}
+
+	}
+
+}
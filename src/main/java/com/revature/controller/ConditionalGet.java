@@ -0,0 +1,83 @@
+package com.revature.controller;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+
+/**
+ * Answers GET requests whose If-None-Match still matches the resource's current ETag with 304 Not Modified. The
+ * check runs on the request thread, before the wrapped handler (which is usually queued for a database worker), so
+ * an unchanged resource costs neither a query nor serializing the body
+ */
+class ConditionalGet {
+
+	static final String ETAG_ATTRIBUTE = "etag";
+	
+	@FunctionalInterface
+	interface ETagSource {
+		
+		/**
+		 * Must be read before the resource is loaded, so the ETag can only ever be older than the body it goes with
+		 */
+		String eTag(Context ctx) throws Exception;
+		
+	}
+	
+	private ConditionalGet() {
+	}
+	
+	static Handler conditional(ETagSource source, Handler handler) {
+		return (ctx) -> {
+			String eTag = source.eTag(ctx);
+			
+			if (matches(ctx.header("If-None-Match"), eTag)) {
+				ctx.header("ETag", eTag);
+				ctx.status(304);
+				return;
+			}
+			
+			ctx.attribute(ETAG_ATTRIBUTE, eTag);
+			handler.handle(ctx);
+		};
+	}
+	
+	/**
+	 * Sets the ETag that was read for this request. Handlers call this once the resource was found, so error responses
+	 * don't carry one
+	 */
+	static void setETag(Context ctx) {
+		String eTag = ctx.attribute(ETAG_ATTRIBUTE);
+		if (eTag != null) {
+			ctx.header("ETag", eTag);
+		}
+	}
+	
+	/**
+	 * The ETag of the same resource sent with a Content-Encoding, such as "abc-1-4-gzip" for "abc-1-4"
+	 */
+	static String encodedETag(String eTag, String encoding) {
+		return eTag.substring(0, eTag.length() - 1) + "-" + encoding + "\"";
+	}
+	
+	// If-None-Match may list several ETags and uses the weak comparison (W/ prefixes are ignored). A gzipped response's
+	// ETag matches too, since the resource behind it is the same. * is not honoured: it would need to know whether the
+	// resource exists, which only the database can tell
+	static boolean matches(String ifNoneMatch, String eTag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		
+		for (String candidate : ifNoneMatch.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.startsWith("W/")) {
+				candidate = candidate.substring(2);
+			}
+			
+			if (candidate.equals(eTag) || candidate.equals(encodedETag(eTag, "gzip"))) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+}
@@ -0,0 +1,138 @@
+package com.revature.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.revature.service.ChangeEvents;
+import com.revature.service.ChangeEvents.Event;
+import com.revature.service.ChangeEvents.Subscription;
+import com.revature.util.ConfigUtility;
+
+import io.javalin.Javalin;
+import io.javalin.http.Handler;
+
+/**
+ * GET /events streams every client and account change as server-sent events, so whoever polls GET /client to notice
+ * changes can be told about them instead. A reconnecting EventSource sends the id of the last event it got in
+ * Last-Event-ID (or it can be passed as ?lastEventId=) and carries on from there. If that is no longer possible it gets
+ * a "reset" event first, meaning it should load the clients again.
+ *
+ * Each subscriber is written to by a thread of its own, so one stuck on a slow network only ever holds up itself.
+ * When it has fallen too far behind, ChangeEvents drops it and its stream ends.
+ */
+public class EventController implements Controller {
+
+	private static Logger logger = LoggerFactory.getLogger(EventController.class);
+
+	private static final AtomicInteger threadNumber = new AtomicInteger();
+
+	private ChangeEvents changeEvents = ChangeEvents.getDefault();
+
+	// Sent when nothing else has been for this long, which is also how a subscriber that went away is noticed
+	private long heartbeatMillis = ConfigUtility.getLong("events_heartbeat_ms", 15000);
+
+	private Handler streamEvents = (ctx) -> {
+		String lastEventId = ctx.header("Last-Event-ID");
+		if (lastEventId == null) {
+			lastEventId = ctx.queryParam("lastEventId");
+		}
+
+		Subscription subscription = changeEvents.subscribe(lastEventId);
+
+		ctx.res.setStatus(200);
+		ctx.res.setCharacterEncoding("UTF-8");
+		ctx.res.setContentType("text/event-stream");
+		ctx.res.addHeader("Cache-Control", "no-cache");
+		// Keeps proxies such as nginx from buffering the stream
+		ctx.res.addHeader("X-Accel-Buffering", "no");
+		ctx.res.flushBuffer();
+
+		AsyncContext asyncContext = ctx.req.startAsync(ctx.req, ctx.res);
+		asyncContext.setTimeout(0);
+		asyncContext.addListener(new AsyncListener() {
+
+			@Override
+			public void onComplete(AsyncEvent event) {
+				subscription.close();
+			}
+
+			@Override
+			public void onTimeout(AsyncEvent event) {
+				subscription.close();
+			}
+
+			@Override
+			public void onError(AsyncEvent event) {
+				subscription.close();
+			}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+			}
+
+		});
+
+		Thread sender = new Thread(() -> send(subscription, asyncContext), "events-" + threadNumber.incrementAndGet());
+		sender.setDaemon(true);
+		sender.start();
+	};
+
+	private void send(Subscription subscription, AsyncContext asyncContext) {
+		try {
+			ServletOutputStream out = asyncContext.getResponse().getOutputStream();
+
+			if (subscription.isReset()) {
+				out.write("event: reset\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8));
+				out.flush();
+			}
+
+			while (true) {
+				Event event = subscription.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+				if (subscription.isSlow()) {
+					logger.debug("Subscriber to events fell too far behind and was dropped");
+					return;
+				}
+
+				if (event == null) {
+					out.write(": heartbeat\n\n".getBytes(StandardCharsets.UTF_8));
+				} else {
+					// Everything already queued goes out before the one flush
+					do {
+						out.write(event.getFrame());
+						event = subscription.poll(0, TimeUnit.MILLISECONDS);
+					} while (event != null);
+				}
+				out.flush();
+			}
+		} catch (IOException e) {
+			logger.debug("Subscriber to events went away. Message is {}", e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			logger.warn("Sending events failed", e);
+		} finally {
+			subscription.close();
+			try {
+				asyncContext.complete();
+			} catch (IllegalStateException e) {
+				// Already completed because the connection was closed
+			}
+		}
+	}
+
+	@Override
+	public void mapEndpoints(Javalin app) {
+		app.get("/events", streamEvents);
+	}
+
+}
@@ -5,18 +5,22 @@ import org.slf4j.LoggerFactory;
 
 import com.revature.dto.ExceptionMessageDTO;
 import com.revature.exception.BadParameterException;
+import com.revature.exception.ConflictException;
 import com.revature.exception.DatabaseException;
 import com.revature.exception.ClientNotFoundException;
+import com.revature.exception.ServiceUnavailableException;
 
 import io.javalin.Javalin;
 import io.javalin.http.ExceptionHandler;
 
 public class ExceptionController implements Controller {
 
+	// Every error response is already written to the access log, so only a DatabaseException (which points at a real
+	// problem) is logged above DEBUG here
 	private Logger logger = LoggerFactory.getLogger(ExceptionController.class);
 	
 	private ExceptionHandler<DatabaseException> databaseExceptionHandler = (e, ctx) -> {
-		logger.error("DatabaseException occurred from " + ctx.method() + " " + ctx.path() +  ". Message is " + e.getMessage());
+		logger.error("DatabaseException occurred from {} {}. Message is {}", ctx.method(), ctx.path(), e.getMessage());
 		
 		ctx.status(500); // 500 means "Internal Server Error"
 		// That status code makes sense for a DatabaseException, because it either means something weird is going on with
@@ -30,7 +34,7 @@ public class ExceptionController implements Controller {
 	};
 	
 	private ExceptionHandler<ClientNotFoundException> shipNotFoundExceptionHandler = (e, ctx) -> {
-		logger.info("ClientNotFoundException occurred from " + ctx.method() + " " + ctx.path() +  ". Message is " + e.getMessage());
+		logger.debug("ClientNotFoundException occurred from {} {}. Message is {}", ctx.method(), ctx.path(), e.getMessage());
 
 		ctx.status(404); // 404 is "Not Found"
 		
@@ -41,7 +45,7 @@ public class ExceptionController implements Controller {
 	};
 	
 	private ExceptionHandler<BadParameterException> badParameterExceptionHandler = (e, ctx) -> {
-		logger.info("BadParameterException occurred from " + ctx.method() + " " + ctx.path() +  ". Message is " + e.getMessage());
+		logger.debug("BadParameterException occurred from {} {}. Message is {}", ctx.method(), ctx.path(), e.getMessage());
 
 		ctx.status(400);
 		
@@ -51,11 +55,35 @@ public class ExceptionController implements Controller {
 		ctx.json(messageDTO);
 	};
 	
+	private ExceptionHandler<ConflictException> conflictExceptionHandler = (e, ctx) -> {
+		logger.debug("ConflictException occurred from {} {}. Message is {}", ctx.method(), ctx.path(), e.getMessage());
+
+		ctx.status(409); // 409 is "Conflict", the resource was changed since the version the edit was based on
+		
+		ExceptionMessageDTO messageDTO = new ExceptionMessageDTO();
+		messageDTO.setMessage(e.getMessage());
+		
+		ctx.json(messageDTO);
+	};
+	
+	private ExceptionHandler<ServiceUnavailableException> serviceUnavailableExceptionHandler = (e, ctx) -> {
+		logger.debug("ServiceUnavailableException occurred from {} {}. Message is {}", ctx.method(), ctx.path(), e.getMessage());
+
+		ctx.status(503); // 503 is "Service Unavailable", the request was shed because too many were already waiting
+		
+		ExceptionMessageDTO messageDTO = new ExceptionMessageDTO();
+		messageDTO.setMessage(e.getMessage());
+		
+		ctx.json(messageDTO);
+	};
+	
 	@Override
 	public void mapEndpoints(Javalin app) {
 		app.exception(DatabaseException.class, databaseExceptionHandler);
 		app.exception(ClientNotFoundException.class, shipNotFoundExceptionHandler);
 		app.exception(BadParameterException.class, badParameterExceptionHandler);
+		app.exception(ConflictException.class, conflictExceptionHandler);
+		app.exception(ServiceUnavailableException.class, serviceUnavailableExceptionHandler);
 	}
 
 }
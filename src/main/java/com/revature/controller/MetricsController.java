@@ -0,0 +1,145 @@
+package com.revature.controller;
+
+import com.revature.dao.ClientCache;
+import com.revature.dao.DAOFactory;
+import com.revature.service.AccountSummaries;
+import com.revature.service.ChangeEvents;
+import com.revature.util.ConnectionPool;
+import com.revature.util.ConnectionUtility;
+import com.revature.util.MetricsRegistry;
+
+import io.javalin.Javalin;
+import io.javalin.http.Handler;
+
+public class MetricsController implements Controller {
+
+	private static final String START_ATTRIBUTE = "metrics.start";
+	
+	private MetricsRegistry registry = MetricsRegistry.getDefault();
+	
+	private Handler startTimer = (ctx) -> {
+		ctx.attribute(START_ATTRIBUTE, System.nanoTime());
+	};
+	
+	// After handlers run once the response is final, including for asynchronous handlers and for requests that ended
+	// in an exception, so the status recorded here is the one the client gets
+	private Handler recordRequest = (ctx) -> {
+		Long start = ctx.attribute(START_ATTRIBUTE);
+		if (start == null) {
+			return;
+		}
+		
+		// The route pattern rather than the path, so /client/1 and /client/2 are counted together
+		String route = ctx.endpointHandlerPath();
+		if (route.startsWith("No handler matched")) {
+			route = "unmatched";
+		}
+		
+		registry.recordRequest(ctx.method(), route, ctx.status(), System.nanoTime() - start);
+	};
+
+	private Handler getMetrics = (ctx) -> {
+		StringBuilder sb = new StringBuilder(4096);
+		
+		// The memory engine never opens a connection, and getPool() would create the pool just to report it empty
+		if (DAOFactory.usesDatabase()) {
+			writePoolMetrics(sb, ConnectionUtility.getPool());
+		}
+		
+		writeRequestExecutionMetrics(sb);
+		registry.writePrometheus(sb);
+		
+		ClientCache clientCache = DAOFactory.getClientCache();
+		if (clientCache != null) {
+			writeClientCacheMetrics(sb, clientCache);
+		}
+		
+		ClientDocumentCache documentCache = ClientController.getDocumentCache();
+		if (documentCache != null) {
+			writeDocumentCacheMetrics(sb, documentCache);
+		}
+		
+		writeEventMetrics(sb, ChangeEvents.getDefault());
+		writeAccountSummaryMetrics(sb, AccountSummaries.getDefault());
+		
+		ctx.status(200);
+		ctx.contentType("text/plain; version=0.0.4; charset=utf-8");
+		ctx.result(sb.toString());
+	};
+	
+	private void writePoolMetrics(StringBuilder sb, ConnectionPool pool) {
+		sb.append("# TYPE db_pool_connections_active gauge\n");
+		sb.append("db_pool_connections_active ").append(pool.getActiveCount()).append('\n');
+		sb.append("# TYPE db_pool_connections_idle gauge\n");
+		sb.append("db_pool_connections_idle ").append(pool.getIdleCount()).append('\n');
+		sb.append("# TYPE db_pool_connections_total gauge\n");
+		sb.append("db_pool_connections_total ").append(pool.getTotalCount()).append('\n');
+		sb.append("# TYPE db_pool_connections_max gauge\n");
+		sb.append("db_pool_connections_max ").append(pool.getMaxSize()).append('\n');
+		sb.append("# TYPE db_pool_threads_waiting gauge\n");
+		sb.append("db_pool_threads_waiting ").append(pool.getWaitingCount()).append('\n');
+		sb.append("# TYPE db_pool_acquire_seconds histogram\n");
+		pool.getAcquireLatency().writePrometheus(sb, "db_pool_acquire_seconds", "");
+		sb.append("# TYPE db_statement_cache_hits_total counter\n");
+		sb.append("db_statement_cache_hits_total ").append(pool.getStatementCacheHits()).append('\n');
+		sb.append("# TYPE db_statement_cache_misses_total counter\n");
+		sb.append("db_statement_cache_misses_total ").append(pool.getStatementCacheMisses()).append('\n');
+	}
+	
+	private void writeRequestExecutionMetrics(StringBuilder sb) {
+		sb.append("# TYPE http_db_workers_active gauge\n");
+		sb.append("http_db_workers_active ").append(AsyncExecution.getActiveCount()).append('\n');
+		sb.append("# TYPE http_db_requests_queued gauge\n");
+		sb.append("http_db_requests_queued ").append(AsyncExecution.getQueuedCount()).append('\n');
+	}
+	
+	private void writeClientCacheMetrics(StringBuilder sb, ClientCache cache) {
+		sb.append("# TYPE client_cache_hits_total counter\n");
+		sb.append("client_cache_hits_total ").append(cache.getHitCount()).append('\n');
+		sb.append("# TYPE client_cache_misses_total counter\n");
+		sb.append("client_cache_misses_total ").append(cache.getMissCount()).append('\n');
+		sb.append("# TYPE client_cache_evictions_total counter\n");
+		sb.append("client_cache_evictions_total ").append(cache.getEvictionCount()).append('\n');
+		sb.append("# TYPE client_cache_size gauge\n");
+		sb.append("client_cache_size ").append(cache.size()).append('\n');
+	}
+	
+	private void writeDocumentCacheMetrics(StringBuilder sb, ClientDocumentCache cache) {
+		sb.append("# TYPE client_document_cache_hits_total counter\n");
+		sb.append("client_document_cache_hits_total ").append(cache.getHitCount()).append('\n');
+		sb.append("# TYPE client_document_cache_misses_total counter\n");
+		sb.append("client_document_cache_misses_total ").append(cache.getMissCount()).append('\n');
+		sb.append("# TYPE client_document_cache_evictions_total counter\n");
+		sb.append("client_document_cache_evictions_total ").append(cache.getEvictionCount()).append('\n');
+		sb.append("# TYPE client_document_cache_size gauge\n");
+		sb.append("client_document_cache_size ").append(cache.size()).append('\n');
+	}
+	
+	private void writeEventMetrics(StringBuilder sb, ChangeEvents events) {
+		sb.append("# TYPE events_subscribers gauge\n");
+		sb.append("events_subscribers ").append(events.getSubscriberCount()).append('\n');
+		sb.append("# TYPE events_published_total counter\n");
+		sb.append("events_published_total ").append(events.getLastOffset()).append('\n');
+		sb.append("# TYPE events_slow_subscribers_dropped_total counter\n");
+		sb.append("events_slow_subscribers_dropped_total ").append(events.getSlowSubscriberCount()).append('\n');
+	}
+	
+	private void writeAccountSummaryMetrics(StringBuilder sb, AccountSummaries summaries) {
+		sb.append("# TYPE account_summaries_hits_total counter\n");
+		sb.append("account_summaries_hits_total ").append(summaries.getHitCount()).append('\n');
+		sb.append("# TYPE account_summaries_loads_total counter\n");
+		sb.append("account_summaries_loads_total ").append(summaries.getMissCount()).append('\n');
+		sb.append("# TYPE account_summaries_evictions_total counter\n");
+		sb.append("account_summaries_evictions_total ").append(summaries.getEvictionCount()).append('\n');
+		sb.append("# TYPE account_summaries_size gauge\n");
+		sb.append("account_summaries_size ").append(summaries.size()).append('\n');
+	}
+	
+	@Override
+	public void mapEndpoints(Javalin app) {
+		app.before(startTimer);
+		app.after(recordRequest);
+		app.get("/metrics", getMetrics);
+	}
+
+}
@@ -0,0 +1,168 @@
+package com.revature.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.revature.util.GzipPool;
+
+import io.javalin.http.Context;
+import io.javalin.plugin.json.JavalinJackson;
+
+/**
+ * Gzip for the listing endpoints, whose responses (every client with its accounts) are by far the largest this API
+ * sends. Bodies below the minimum size go out as they are, since compressing a few hundred bytes costs more CPU than
+ * it saves on the wire.
+ *
+ * Until {@link #enable(int, int, int)} is called, nothing is compressed.
+ */
+public class ResponseCompression {
+
+	private static final String GZIP = "gzip";
+
+	private static volatile GzipPool gzip;
+	private static volatile int minBytes;
+
+	private ResponseCompression() {
+	}
+
+	/**
+	 * @param poolSize how many Deflaters to keep, which only needs to match the number of threads that compress at
+	 *                 once (the database workers)
+	 */
+	public static synchronized void enable(int minBytes, int level, int poolSize) {
+		ResponseCompression.minBytes = minBytes;
+		ResponseCompression.gzip = new GzipPool(level, poolSize);
+	}
+
+	/**
+	 * Replaces ctx.json() for listing responses: the body is serialized straight to bytes and gzipped if it is large
+	 * enough and the client accepts it
+	 */
+	static void json(Context ctx, Object body) throws IOException {
+		byte[] json = JavalinJackson.getObjectMapper().writeValueAsBytes(body);
+		ctx.contentType("application/json");
+
+		GzipPool pool = gzip;
+		if (pool == null) {
+			ctx.result(json);
+			return;
+		}
+
+		ctx.header("Vary", "Accept-Encoding");
+		if (json.length < minBytes || !acceptsGzip(ctx)) {
+			ctx.result(json);
+			return;
+		}
+
+		useGzip(ctx);
+		ctx.result(pool.compress(json));
+	}
+
+	/**
+	 * The response output stream for a body that is written directly instead of through ctx.result(). Nothing is
+	 * decided until the first byte is written, so a handler that fails before that can still send a normal
+	 * (uncompressed) error response. Closing the returned stream closes the response's
+	 */
+	static OutputStream outputStream(Context ctx) throws IOException {
+		GzipPool pool = gzip;
+		if (pool == null) {
+			return ctx.res.getOutputStream();
+		}
+
+		ctx.header("Vary", "Accept-Encoding");
+		if (!acceptsGzip(ctx)) {
+			return ctx.res.getOutputStream();
+		}
+
+		return new DeferredGzipStream(ctx, pool);
+	}
+
+	private static void useGzip(Context ctx) {
+		ctx.header("Content-Encoding", GZIP);
+
+		// The compressed bytes are a different representation, so they can't share the strong ETag of the
+		// uncompressed ones
+		String eTag = ctx.res.getHeader("ETag");
+		if (eTag != null) {
+			ctx.header("ETag", ConditionalGet.encodedETag(eTag, GZIP));
+		}
+	}
+
+	static boolean acceptsGzip(Context ctx) {
+		String acceptEncoding = ctx.header("Accept-Encoding");
+		if (acceptEncoding == null) {
+			return false;
+		}
+
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.trim().split(";");
+			if (!parts[0].trim().equalsIgnoreCase(GZIP)) {
+				continue;
+			}
+
+			// gzip;q=0 means the client explicitly refuses it
+			for (int i = 1; i < parts.length; i++) {
+				String parameter = parts[i].trim();
+				if (parameter.startsWith("q=")) {
+					try {
+						return Double.parseDouble(parameter.substring(2)) > 0;
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				}
+			}
+
+			return true;
+		}
+
+		return false;
+	}
+
+	private static class DeferredGzipStream extends OutputStream {
+
+		private final Context ctx;
+		private final GzipPool pool;
+		private OutputStream out;
+
+		private DeferredGzipStream(Context ctx, GzipPool pool) {
+			this.ctx = ctx;
+			this.pool = pool;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			start().write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			start().write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (out != null) {
+				out.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (out != null) {
+				out.close();
+			} else {
+				ctx.res.getOutputStream().close();
+			}
+		}
+
+		private OutputStream start() throws IOException {
+			if (out == null) {
+				useGzip(ctx);
+				out = pool.wrap(ctx.res.getOutputStream());
+			}
+			return out;
+		}
+
+	}
+
+}
@@ -4,27 +4,80 @@ import java.sql.SQLException;
 import java.util.List;
 
 import com.revature.dto.AddOrEditAccountDTO;
+import com.revature.dto.BalanceDTO;
 import com.revature.dto.AddOrEditClientDTO;
+import com.revature.dto.TransferResultDTO;
 import com.revature.model.Account;
 import com.revature.model.Client;
 
 public interface AccountDAO {
 
-	List<Account> getAllAccountsFromClient(int clientId) throws SQLException;
-	
-	List<Account> getAccountsBetween(int clientId, int lessThan, int greaterThan) throws SQLException;
-	
-	List<Account> getAccountsLessThan(int clientId, int lessThan) throws SQLException;
-	
-	List<Account> getAccountsGreaterThan(int clientId, int greaterThan) throws SQLException;
+	/**
+	 * This method returns a client's accounts as described by the query (balance range, order, pagination, columns),
+	 * all in one statement
+	 * 
+	 * @return the matching accounts, which is empty if there are none (or the client does not exist)
+	 */
+	List<Account> findAccounts(AccountQuery query) throws SQLException;
 	
 	public abstract Account getAccountById(int clientId, int accountId) throws SQLException;
 	
 	public abstract Account addAccount(AddOrEditAccountDTO account) throws SQLException;
 	
+	/**
+	 * This method inserts all of the accounts in a single transaction, sending them to the database in JDBC batches
+	 * 
+	 * @param chunkSize how many rows are sent per executeBatch() call
+	 * @return the added Accounts with their generated ids, in the same order as the input
+	 */
+	public abstract List<Account> addAccounts(List<AddOrEditAccountDTO> accounts, int chunkSize) throws SQLException;
+	
+	/**
+	 * This method updates an account in a single statement and increments its version
+	 * 
+	 * @param account if its version is set, the update only happens while the account is still at that version
+	 * @return the edited Account with its new version, or null if the client has no account with that id (and version)
+	 */
 	public abstract Account editAccount(int clientId, int accountId, AddOrEditAccountDTO account) throws SQLException;
 	
-	public abstract void deleteAccount(int clientId,int accountId) throws SQLException;
+	/**
+	 * This method deletes an account in a single statement
+	 * 
+	 * @return true if the account was deleted, false if the client has no account with that id
+	 */
+	public abstract boolean deleteAccount(int clientId,int accountId) throws SQLException;
+	
+	/**
+	 * This method adds delta (which may be negative) to an account's balance in a single statement, unless that would
+	 * take the balance below 0. The database does the arithmetic, so concurrent changes never overwrite each other
+	 * 
+	 * @return the balance and the version after the change, or null if the client has no account with that id or the
+	 *         balance is too low
+	 */
+	public abstract BalanceDTO changeBalance(int clientId, int accountId, int delta) throws SQLException;
+	
+	/**
+	 * This method moves amount from one account to another in a single transaction. Both accounts are locked before
+	 * either balance is checked or changed, always in the order of their ids, so concurrent transfers between the same
+	 * accounts wait for each other instead of deadlocking
+	 * 
+	 * @return both accounts after the transfer, or null if nothing was transferred because one of the accounts does
+	 *         not exist (for the given client) or the source balance is lower than amount
+	 */
+	public abstract TransferResultDTO transfer(int fromClientId, int fromAccountId, int toClientId, int toAccountId, int amount) throws SQLException;
+	
+	/**
+	 * This method returns the accounts whose balance slots hold an amount that hasn't been folded into the account yet
+	 * (see StripedBalances)
+	 */
+	public abstract List<Integer> findAccountsWithUnfoldedBalance() throws SQLException;
+	
+	/**
+	 * This method moves what an account's balance slots hold into the account's own balance, in a single transaction
+	 * 
+	 * @return the amount that was moved, 0 if there was nothing to move or the account no longer exists
+	 */
+	public abstract int foldBalanceSlots(int accountId) throws SQLException;
 
 	
 	
@@ -9,212 +9,596 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.revature.dto.AddOrEditAccountDTO;
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.TransferResultDTO;
 import com.revature.model.Account;
 import com.revature.model.Client;
 import com.revature.util.ConnectionUtility;
 
 public class AccountDAOImpl implements AccountDAO {
 
+	private final StripedBalances stripedBalances;
+	
+	public AccountDAOImpl() {
+		this(StripedBalances.disabled());
+	}
+	
+	public AccountDAOImpl(StripedBalances stripedBalances) {
+		this.stripedBalances = stripedBalances;
+	}
+
 	@Override
-	public List<Account> getAllAccountsFromClient(int clientId) throws SQLException {
+	public List<Account> findAccounts(AccountQuery query) throws SQLException {
 		try(Connection con = ConnectionUtility.getConnection()) {
 			List<Account> accounts = new ArrayList<>();
 			
-			String sql = "SELECT * FROM jdbc_demo.account p WHERE p.client_id = ?";
+			String sql = query.toSql(stripedBalances.balance("a"), stripedBalances.version("a"));
 			
-			PreparedStatement pstmt = con.prepareStatement(sql);
-			pstmt.setInt(1, clientId);
-			
-			ResultSet rs = pstmt.executeQuery();
-			
-			while (rs.next()) {
-				int id = rs.getInt("id");
-				String name = rs.getString("name");
-				int balance = rs.getInt("balance");
-				
+			try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+				query.bind(pstmt);
 				
-				Account p = new Account(id, name, balance, clientId);
-				accounts.add(p);
+				try (ResultSet rs = pstmt.executeQuery()) {
+					while (rs.next()) {
+						accounts.add(query.readRow(rs));
+					}
+				}
 			}
 			
 			return accounts;
 		}
 	}
-	
+
 	@Override
-	public List<Account> getAccountsBetween(int clientId, int lessThan, int greaterThan) throws SQLException {
-		try(Connection con = ConnectionUtility.getConnection()) {
-			List<Account> accounts = new ArrayList<>();
-			
-			String sql = "SELECT * FROM jdbc_demo.account p WHERE p.client_id = ? AND p.balance <= ? AND p.balance >= ?" ;
-			
-			PreparedStatement pstmt = con.prepareStatement(sql);
-			pstmt.setInt(1, clientId);
-			pstmt.setInt(2, lessThan);
-			pstmt.setInt(3, greaterThan);
-			
-			ResultSet rs = pstmt.executeQuery();
-			
-			while (rs.next()) {
-				int id = rs.getInt("id");
-				String name = rs.getString("name");
-				int balance = rs.getInt("balance");
+	public Account addAccount(AddOrEditAccountDTO account) throws SQLException {
+		try (Connection con = ConnectionUtility.getConnection()) {
+			String sql = "INSERT INTO jdbc_demo.account (name, balance, client_id) VALUES (?, ?, ?)";
+			try (PreparedStatement pstmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 				
+				pstmt.setString(1, account.getName());
+				pstmt.setInt(2, account.getBalance());
+				pstmt.setInt(3, account.getClientId());
 				
-				Account p = new Account(id, name, balance, clientId);
-				accounts.add(p);
+				int recordsUpdated = pstmt.executeUpdate(); 
+				
+				if (recordsUpdated != 1) {
+					throw new SQLException("Could not insert a account record");
+				}
+				
+				
+				try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+					if (generatedKeys.next()) {
+						Account createdAccount = new Account(generatedKeys.getInt(1), account.getName(), account.getBalance(), account.getClientId());
+						
+						return createdAccount;
+					} else {
+						throw new SQLException("Autogenerated id could not be obtained for Account");
+					}
+				}
 			}
 			
-			return accounts;
 		}
 	}
 
 	@Override
-	public List<Account> getAccountsLessThan(int clientId, int lessThan) throws SQLException {
-		try(Connection con = ConnectionUtility.getConnection()) {
-			List<Account> accounts = new ArrayList<>();
-			
-			String sql = "SELECT * FROM jdbc_demo.account p WHERE p.client_id = ? AND p.balance <= ?";
-			
-			PreparedStatement pstmt = con.prepareStatement(sql);
-			pstmt.setInt(1, clientId);
-			pstmt.setInt(2, lessThan);
+	public List<Account> addAccounts(List<AddOrEditAccountDTO> accounts, int chunkSize) throws SQLException {
+		try (Connection con = ConnectionUtility.getConnection()) {
+			con.setAutoCommit(false);
 			
-			ResultSet rs = pstmt.executeQuery();
+			String sql = "INSERT INTO jdbc_demo.account (name, balance, client_id) VALUES (?, ?, ?)";
 			
-			while (rs.next()) {
-				int id = rs.getInt("id");
-				String name = rs.getString("name");
-				int balance = rs.getInt("balance");
+			try (PreparedStatement pstmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+				List<Account> addedAccounts = new ArrayList<>(accounts.size());
+				
+				for (int start = 0; start < accounts.size(); start += chunkSize) {
+					List<AddOrEditAccountDTO> chunk = accounts.subList(start, Math.min(start + chunkSize, accounts.size()));
+					
+					for (AddOrEditAccountDTO account : chunk) {
+						pstmt.setString(1, account.getName());
+						pstmt.setInt(2, account.getBalance());
+						pstmt.setInt(3, account.getClientId());
+						pstmt.addBatch();
+					}
+					
+					pstmt.executeBatch();
+					
+					try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+						for (AddOrEditAccountDTO account : chunk) {
+							if (!generatedKeys.next()) {
+								throw new SQLException("Autogenerated ids could not be obtained for every Account");
+							}
+							
+							addedAccounts.add(new Account(generatedKeys.getInt(1), account.getName(), account.getBalance(), account.getClientId()));
+						}
+					}
+				}
 				
+				con.commit();
 				
-				Account p = new Account(id, name, balance, clientId);
-				accounts.add(p);
+				return addedAccounts;
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
 			}
-			
-			return accounts;
 		}
 	}
 
 	@Override
-	public List<Account> getAccountsGreaterThan(int clientId, int greaterThan) throws SQLException {
-		try(Connection con = ConnectionUtility.getConnection()) {
-			List<Account> accounts = new ArrayList<>();
-			
-			String sql = "SELECT * FROM jdbc_demo.account p WHERE p.client_id = ? AND p.balance >= ?";
-			
-			PreparedStatement pstmt = con.prepareStatement(sql);
-			pstmt.setInt(1, clientId);
-			pstmt.setInt(2, greaterThan);
-			
-			ResultSet rs = pstmt.executeQuery();
+	public Account editAccount(int clientId, int accountId, AddOrEditAccountDTO account) throws SQLException {
+		if (stripedBalances.isEnabled()) {
+			return editWithBalanceSlots(clientId, accountId, account);
+		}
+		
+		try (Connection con = ConnectionUtility.getConnection()) {
+			// The new version comes back as the generated key, the same way changeBalance() returns the new balance
+			String sql = "UPDATE jdbc_demo.account p SET name = ?, balance = ?, version = LAST_INSERT_ID(version + 1) "
+					+ "WHERE p.client_id = ? AND p.id = ?";
+			if (account.getVersion() != null) {
+				sql += " AND p.version = ?";
+			}
 			
-			while (rs.next()) {
-				int id = rs.getInt("id");
-				String name = rs.getString("name");
-				int balance = rs.getInt("balance");
+			try (PreparedStatement pstmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 				
+				pstmt.setString(1, account.getName());
+				pstmt.setInt(2, account.getBalance());
+				pstmt.setInt(3, clientId);
+				pstmt.setInt(4, accountId);
+				if (account.getVersion() != null) {
+					pstmt.setInt(5, account.getVersion());
+				}
 				
-				Account p = new Account(id, name, balance, clientId);
-				accounts.add(p);
+				// The MariaDB driver reports matched rows (not only changed ones), so an edit that
+				// doesn't change any value still counts as 1
+				int recordsUpdated = pstmt.executeUpdate();
+				if (recordsUpdated == 0) {
+					return null;
+				}
+				
+				Account editedAccount = new Account(accountId, account.getName(), account.getBalance(), clientId);
+				try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+					if (generatedKeys.next()) {
+						editedAccount.setVersion(generatedKeys.getInt(1));
+					} else {
+						throw new SQLException("New version could not be obtained for Account");
+					}
+				}
+				
+				return editedAccount;
+			}
+		}
+	}
+	
+	// The edit sets the whole balance, so whatever the account's slots hold has to be cleared along with it. The version
+	// the caller expects includes the deposits the slots have taken (see StripedBalances.version()), so it can only be
+	// checked with the slots locked: a deposit that lands between the check and the update would otherwise be cleared
+	// without the edit failing
+	private Account editWithBalanceSlots(int clientId, int accountId, AddOrEditAccountDTO account) throws SQLException {
+		try (Connection con = ConnectionUtility.getConnection()) {
+			con.setAutoCommit(false);
+			
+			try {
+				// Account row first, then its slots: the same order BalanceFoldJob and withdrawals lock them in
+				int version;
+				try (PreparedStatement pstmt = con.prepareStatement("SELECT version FROM jdbc_demo.account WHERE client_id = ? AND id = ? FOR UPDATE")) {
+					pstmt.setInt(1, clientId);
+					pstmt.setInt(2, accountId);
+					
+					try (ResultSet rs = pstmt.executeQuery()) {
+						if (!rs.next()) {
+							con.rollback();
+							return null;
+						}
+						version = rs.getInt("version");
+					}
+				}
+				
+				try (PreparedStatement pstmt = con.prepareStatement("SELECT COALESCE(SUM(deposits), 0) FROM jdbc_demo.account_balance_slot WHERE account_id = ? FOR UPDATE")) {
+					pstmt.setInt(1, accountId);
+					
+					try (ResultSet rs = pstmt.executeQuery()) {
+						rs.next();
+						version += rs.getInt(1);
+					}
+				}
+				
+				if (account.getVersion() != null && account.getVersion() != version) {
+					con.rollback();
+					return null;
+				}
+				
+				try (PreparedStatement pstmt = con.prepareStatement("UPDATE jdbc_demo.account SET name = ?, balance = ?, version = version + 1 WHERE id = ?")) {
+					pstmt.setString(1, account.getName());
+					pstmt.setInt(2, account.getBalance());
+					pstmt.setInt(3, accountId);
+					pstmt.executeUpdate();
+				}
+				
+				// The deposit counts stay, so the version keeps going up from where it was
+				try (PreparedStatement pstmt = con.prepareStatement("UPDATE jdbc_demo.account_balance_slot SET amount = 0 WHERE account_id = ?")) {
+					pstmt.setInt(1, accountId);
+					pstmt.executeUpdate();
+				}
+				
+				con.commit();
+				
+				Account editedAccount = new Account(accountId, account.getName(), account.getBalance(), clientId);
+				editedAccount.setVersion(version + 1);
+				return editedAccount;
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
 			}
-			
-			return accounts;
 		}
 	}
 
 	@Override
-	public Account addAccount(AddOrEditAccountDTO account) throws SQLException {
+	public boolean deleteAccount(int clientId, int accountId) throws SQLException {
 		try (Connection con = ConnectionUtility.getConnection()) {
-			String sql = "INSERT INTO jdbc_demo.account (name, balance, client_id) VALUES (?, ?, ?)";
-			PreparedStatement pstmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-			
-			pstmt.setString(1, account.getName());
-			pstmt.setInt(2, account.getBalance());
-			pstmt.setInt(3, account.getClientId());
-			
-			int recordsUpdated = pstmt.executeUpdate(); 
-			
-			if (recordsUpdated != 1) {
-				throw new SQLException("Could not insert a account record");
-			}
-			
-			
-			ResultSet generatedKeys = pstmt.getGeneratedKeys();
-			if (generatedKeys.next()) {
-				Account createdAccount = new Account(generatedKeys.getInt(1), account.getName(), account.getBalance(), account.getClientId());
+			String sql = "DELETE FROM jdbc_demo.account WHERE client_id = ? AND id = ?";
+			try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+				
+				pstmt.setInt(1, clientId);
+				pstmt.setInt(2, accountId);
 				
-				return createdAccount;
-			} else {
-				throw new SQLException("Autogenerated id could not be obtained for Account");
+				int recordsDeleted = pstmt.executeUpdate();
+				
+				return recordsDeleted == 1;
 			}
-			
 		}
+		
 	}
+	
 
 	@Override
-	public Account editAccount(int clientId, int accountId, AddOrEditAccountDTO account) throws SQLException {
+	public BalanceDTO changeBalance(int clientId, int accountId, int delta) throws SQLException {
+		if (stripedBalances.isStriped(accountId)) {
+			return delta >= 0 ? depositToSlot(clientId, accountId, delta) : withdrawFromStriped(clientId, accountId, delta);
+		}
+		
 		try (Connection con = ConnectionUtility.getConnection()) {
-			String sql = "UPDATE jdbc_demo.account p SET name = ?, balance = ? WHERE p.client_id = ? AND p.id = ?";
-			PreparedStatement pstmt = con.prepareStatement(sql);
-			
-			pstmt.setString(1, account.getName());
-			pstmt.setInt(2, account.getBalance());
-			pstmt.setInt(3, clientId);
-			pstmt.setInt(4, accountId);
+			// MariaDB's UPDATE can't return columns, but LAST_INSERT_ID(expr) both evaluates to expr and makes it the
+			// statement's insert id, which comes back with the update count as a generated key. So the new balance
+			// arrives in the same round trip, and it is the value this statement wrote, whatever else runs concurrently.
+			// The assignments run left to right, so the new version and the new balance (never negative here) can be
+			// packed into the one id, and the version assignment shifts its own half back out
+			String sql = "UPDATE jdbc_demo.account SET balance = balance + ?, "
+					+ "version = LAST_INSERT_ID(((version + 1) << 32) | balance) >> 32 "
+					+ "WHERE client_id = ? AND id = ? AND balance + ? >= 0";
+			
+			try (PreparedStatement pstmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+				pstmt.setInt(1, delta);
+				pstmt.setInt(2, clientId);
+				pstmt.setInt(3, accountId);
+				pstmt.setInt(4, delta);
+				
+				if (pstmt.executeUpdate() == 0) {
+					return null;
+				}
+				
+				try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+					if (!generatedKeys.next()) {
+						throw new SQLException("New balance could not be obtained for Account");
+					}
+					long packed = generatedKeys.getLong(1);
+					return new BalanceDTO(clientId, accountId, (int) packed, (int) (packed >>> 32));
+				}
+			}
+		}
+	}
+	
+	// Only locks the one slot row, which is what lets deposits to the same account run side by side. The balance and
+	// version returned may already include deposits made to other slots in the meantime. They are read before the slot
+	// is unlocked, though, so they never include an edit that came after this deposit (an edit locks every slot)
+	private BalanceDTO depositToSlot(int clientId, int accountId, int amount) throws SQLException {
+		try (Connection con = ConnectionUtility.getConnection()) {
+			con.setAutoCommit(false);
 			
-			int recordsUpdated = pstmt.executeUpdate();
-			if (recordsUpdated != 1) {
-				throw new SQLException("Record was not able to be updated");
+			try {
+				int slot = stripedBalances.slotForCurrentThread();
+				
+				// Counting the deposit is what moves the account's version on (see StripedBalances.version())
+				String sql = "UPDATE jdbc_demo.account_balance_slot SET amount = amount + ?, deposits = deposits + 1 "
+						+ "WHERE account_id = ? AND slot = ? AND client_id = ?";
+				
+				try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+					pstmt.setInt(1, amount);
+					pstmt.setInt(2, accountId);
+					pstmt.setInt(3, slot);
+					pstmt.setInt(4, clientId);
+					
+					if (pstmt.executeUpdate() == 0) {
+						// The slots are created on the first deposit after an account has been made striped. If there
+						// is still no slot afterwards, the client has no account with that id
+						createBalanceSlots(con, accountId);
+						
+						if (pstmt.executeUpdate() == 0) {
+							con.rollback();
+							return null;
+						}
+					}
+				}
+				
+				String balanceSql = "SELECT " + stripedBalances.balance("a") + " AS balance, " + stripedBalances.version("a")
+						+ " AS version FROM jdbc_demo.account a WHERE a.id = ?";
+				
+				BalanceDTO balance;
+				try (PreparedStatement pstmt = con.prepareStatement(balanceSql)) {
+					pstmt.setInt(1, accountId);
+					
+					try (ResultSet rs = pstmt.executeQuery()) {
+						rs.next();
+						balance = new BalanceDTO(clientId, accountId, rs.getInt("balance"), rs.getInt("version"));
+					}
+				}
+				
+				con.commit();
+				
+				return balance;
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
+			}
+		}
+	}
+	
+	private void createBalanceSlots(Connection con, int accountId) throws SQLException {
+		String sql = "INSERT IGNORE INTO jdbc_demo.account_balance_slot (account_id, slot, client_id) "
+				+ "SELECT id, ?, client_id FROM jdbc_demo.account WHERE id = ?";
+		
+		try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+			for (int slot = 0; slot < stripedBalances.getStripes(); slot++) {
+				pstmt.setInt(1, slot);
+				pstmt.setInt(2, accountId);
+				pstmt.addBatch();
 			}
 			
-			return new Account(accountId, account.getName(), account.getBalance(), clientId);
+			pstmt.executeBatch();
 		}
 	}
-
-	@Override
-	public void deleteAccount(int clientId, int accountId) throws SQLException {
+	
+	// A withdrawal has to see the whole balance, so it locks the account row (which keeps BalanceFoldJob from moving
+	// the slots in the meantime) and reads the slots without locking them. Deposits can still go to the slots while it
+	// runs, but they only ever add to the balance it checked. The account row's own balance may end up below 0, which
+	// is fine as long as the slots make up for it
+	private BalanceDTO withdrawFromStriped(int clientId, int accountId, int delta) throws SQLException {
 		try (Connection con = ConnectionUtility.getConnection()) {
-			String sql = "DELETE FROM jdbc_demo.account WHERE client_id = ? AND id = ?";
-			PreparedStatement pstmt = con.prepareStatement(sql);
+			con.setAutoCommit(false);
 			
-			pstmt.setInt(1, clientId);
-			pstmt.setInt(2, accountId);
-			
-			int recordsDeleted = pstmt.executeUpdate();
+			try {
+				String lockSql = "SELECT balance, version FROM jdbc_demo.account WHERE client_id = ? AND id = ? FOR UPDATE";
+				
+				int balance;
+				int version;
+				try (PreparedStatement pstmt = con.prepareStatement(lockSql)) {
+					pstmt.setInt(1, clientId);
+					pstmt.setInt(2, accountId);
+					
+					try (ResultSet rs = pstmt.executeQuery()) {
+						if (!rs.next()) {
+							con.rollback();
+							return null;
+						}
+						balance = rs.getInt("balance");
+						version = rs.getInt("version");
+					}
+				}
+				
+				balance += sumSlots(con, accountId, "amount");
+				version += sumSlots(con, accountId, "deposits");
+				
+				if (balance + delta < 0) {
+					con.rollback();
+					return null;
+				}
+				
+				String updateSql = "UPDATE jdbc_demo.account SET balance = balance + ?, version = version + 1 WHERE id = ?";
+				
+				try (PreparedStatement pstmt = con.prepareStatement(updateSql)) {
+					pstmt.setInt(1, delta);
+					pstmt.setInt(2, accountId);
+					pstmt.executeUpdate();
+				}
+				
+				con.commit();
+				
+				return new BalanceDTO(clientId, accountId, balance + delta, version + 1);
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
+			}
+		}
+	}
+	
+	// What the account's slots hold (amount), or how many deposits they have taken (deposits), read without locking them
+	private static int sumSlots(Connection con, int accountId, String column) throws SQLException {
+		String sql = "SELECT COALESCE(SUM(" + column + "), 0) FROM jdbc_demo.account_balance_slot WHERE account_id = ?";
+		
+		try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+			pstmt.setInt(1, accountId);
 			
+			try (ResultSet rs = pstmt.executeQuery()) {
+				rs.next();
+				return rs.getInt(1);
+			}
+		}
+	}
+	
+	@Override
+	public List<Integer> findAccountsWithUnfoldedBalance() throws SQLException {
+		try (Connection con = ConnectionUtility.getConnection(); Statement stmt = con.createStatement()) {
+			List<Integer> accountIds = new ArrayList<>();
+			
+			try (ResultSet rs = stmt.executeQuery("SELECT DISTINCT account_id FROM jdbc_demo.account_balance_slot WHERE amount <> 0")) {
+				while (rs.next()) {
+					accountIds.add(rs.getInt("account_id"));
+				}
+			}
 			
-			if (recordsDeleted != 1) {
-				throw new SQLException("Record was not able to be deleted");
+			return accountIds;
+		}
+	}
+	
+	@Override
+	public int foldBalanceSlots(int accountId) throws SQLException {
+		try (Connection con = ConnectionUtility.getConnection()) {
+			con.setAutoCommit(false);
+			
+			try {
+				// Account row first, then its slots: the same order withdrawals and edits lock them in
+				try (PreparedStatement pstmt = con.prepareStatement("SELECT id FROM jdbc_demo.account WHERE id = ? FOR UPDATE")) {
+					pstmt.setInt(1, accountId);
+					
+					try (ResultSet rs = pstmt.executeQuery()) {
+						if (!rs.next()) {
+							con.rollback();
+							return 0;
+						}
+					}
+				}
+				
+				// Locking the slots makes the deposits to them wait until the fold has committed, so none of them can
+				// be lost when the slots are cleared
+				int pending = 0;
+				try (PreparedStatement pstmt = con.prepareStatement("SELECT amount FROM jdbc_demo.account_balance_slot WHERE account_id = ? FOR UPDATE")) {
+					pstmt.setInt(1, accountId);
+					
+					try (ResultSet rs = pstmt.executeQuery()) {
+						while (rs.next()) {
+							pending += rs.getInt("amount");
+						}
+					}
+				}
+				
+				if (pending == 0) {
+					con.rollback();
+					return 0;
+				}
+				
+				// The version stays the same: the balance as anyone reads it doesn't change, only where it is kept
+				try (PreparedStatement pstmt = con.prepareStatement("UPDATE jdbc_demo.account SET balance = balance + ? WHERE id = ?")) {
+					pstmt.setInt(1, pending);
+					pstmt.setInt(2, accountId);
+					pstmt.executeUpdate();
+				}
+				
+				try (PreparedStatement pstmt = con.prepareStatement("UPDATE jdbc_demo.account_balance_slot SET amount = 0 WHERE account_id = ?")) {
+					pstmt.setInt(1, accountId);
+					pstmt.executeUpdate();
+				}
+				
+				con.commit();
+				
+				return pending;
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
 			}
 		}
-		
 	}
 	
+	@Override
+	public TransferResultDTO transfer(int fromClientId, int fromAccountId, int toClientId, int toAccountId, int amount) throws SQLException {
+		try (Connection con = ConnectionUtility.getConnection()) {
+			con.setAutoCommit(false);
+			
+			try {
+				// One statement locks both rows, and it walks the primary key in ascending order, so every transfer takes
+				// its two locks lowest id first. Two transfers in opposite directions between the same accounts then
+				// queue up on the first lock instead of each holding the lock the other one needs
+				String lockSql = "SELECT id, name, balance, client_id, version FROM jdbc_demo.account WHERE id IN (?, ?) ORDER BY id FOR UPDATE";
+				
+				Account from = null;
+				Account to = null;
+				
+				try (PreparedStatement pstmt = con.prepareStatement(lockSql)) {
+					pstmt.setInt(1, fromAccountId);
+					pstmt.setInt(2, toAccountId);
+					
+					try (ResultSet rs = pstmt.executeQuery()) {
+						while (rs.next()) {
+							Account account = new Account(rs.getInt("id"), rs.getString("name"), rs.getInt("balance"), rs.getInt("client_id"));
+							account.setVersion(rs.getInt("version"));
+							
+							if (account.getId() == fromAccountId && account.getClientId() == fromClientId) {
+								from = account;
+							} else if (account.getId() == toAccountId && account.getClientId() == toClientId) {
+								to = account;
+							}
+						}
+					}
+				}
+				
+				// With the rows locked, the slots can only grow (through deposits) until this commits
+				if (from != null && to != null && stripedBalances.isEnabled()) {
+					from.setBalance(from.getBalance() + sumSlots(con, fromAccountId, "amount"));
+					from.setVersion(from.getVersion() + sumSlots(con, fromAccountId, "deposits"));
+					to.setBalance(to.getBalance() + sumSlots(con, toAccountId, "amount"));
+					to.setVersion(to.getVersion() + sumSlots(con, toAccountId, "deposits"));
+				}
+				
+				if (from == null || to == null || from.getBalance() < amount) {
+					con.rollback();
+					return null;
+				}
+				
+				// Both balances change in one statement. The rows are already locked, so nothing can have changed them
+				// since they were read
+				String transferSql = "UPDATE jdbc_demo.account SET balance = CASE WHEN id = ? THEN balance - ? ELSE balance + ? END, version = version + 1 "
+						+ "WHERE id IN (?, ?)";
+				
+				try (PreparedStatement pstmt = con.prepareStatement(transferSql)) {
+					pstmt.setInt(1, fromAccountId);
+					pstmt.setInt(2, amount);
+					pstmt.setInt(3, amount);
+					pstmt.setInt(4, fromAccountId);
+					pstmt.setInt(5, toAccountId);
+					
+					if (pstmt.executeUpdate() != 2) {
+						throw new SQLException("Transfer was not able to update both accounts");
+					}
+				}
+				
+				con.commit();
+				
+				from.setBalance(from.getBalance() - amount);
+				from.setVersion(from.getVersion() + 1);
+				to.setBalance(to.getBalance() + amount);
+				to.setVersion(to.getVersion() + 1);
+				
+				return new TransferResultDTO(from, to);
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
+			}
+		}
+	}
 
 	@Override
 	public Account getAccountById(int clientId, int accountId) throws SQLException {
 		try(Connection con = ConnectionUtility.getConnection()) {
 			
-			String sql = "SELECT * FROM jdbc_demo.account p WHERE p.client_id = ? AND p.id = ?";
-			
-			PreparedStatement pstmt = con.prepareStatement(sql);
-			pstmt.setInt(1, clientId);
-			pstmt.setInt(2, accountId);
+			String sql = "SELECT p.id, p.name, " + stripedBalances.balance("p") + " AS balance, p.client_id, "
+					+ stripedBalances.version("p") + " AS version "
+					+ "FROM jdbc_demo.account p WHERE p.client_id = ? AND p.id = ?";
 			
-			ResultSet rs = pstmt.executeQuery();
-			
-			if (rs.next()) {
-				int id = rs.getInt("id");
-				String name = rs.getString("name");
-				int balance = rs.getInt("balance");
-				int client_Id = rs.getInt("client_id");
-				
-				Account account = new Account(id, name, balance, client_Id);
+			try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+				pstmt.setInt(1, clientId);
+				pstmt.setInt(2, accountId);
 				
-				return account;
-			} else {
-				return null;
+				try (ResultSet rs = pstmt.executeQuery()) {
+					if (rs.next()) {
+						int id = rs.getInt("id");
+						String name = rs.getString("name");
+						int balance = rs.getInt("balance");
+						int client_Id = rs.getInt("client_id");
+						
+						Account account = new Account(id, name, balance, client_Id);
+						account.setVersion(rs.getInt("version"));
+						
+						return account;
+					} else {
+						return null;
+					}
+				}
 			}
 			
 		}
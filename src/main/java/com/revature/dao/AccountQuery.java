@@ -0,0 +1,216 @@
+package com.revature.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.revature.model.Account;
+
+/**
+ * Describes which of a client's accounts to read: an optional balance range, the order, keyset pagination and the
+ * columns to load. Every combination of options always produces the same SQL text, so each shape is prepared once per
+ * connection and then served from the statement cache.
+ *
+ * AccountQuery.forClient(1).balanceAtLeast(400).balanceAtMost(2000).sortBy(Sort.BALANCE_DESC).limit(10)
+ */
+public class AccountQuery {
+
+	public enum Sort {
+		ID("a.id"), BALANCE_ASC("%s, a.id"), BALANCE_DESC("%s DESC, a.id DESC");
+
+		// %s stands for the balance, which isn't always just the balance column
+		private final String orderBy;
+
+		private Sort(String orderBy) {
+			this.orderBy = orderBy;
+		}
+
+	}
+
+	public enum Column {
+		NAME("a.name"), BALANCE("a.balance"), VERSION("a.version");
+
+		private final String sql;
+
+		private Column(String sql) {
+			this.sql = sql;
+		}
+
+	}
+
+	private final int clientId;
+	private Integer minBalance;
+	private Integer maxBalance;
+	private Integer afterId;
+	private Integer limit;
+	private Sort sort = Sort.ID;
+	private Set<Column> columns = EnumSet.allOf(Column.class);
+
+	private AccountQuery(int clientId) {
+		this.clientId = clientId;
+	}
+
+	public static AccountQuery forClient(int clientId) {
+		return new AccountQuery(clientId);
+	}
+
+	public AccountQuery balanceAtLeast(int minBalance) {
+		this.minBalance = minBalance;
+		return this;
+	}
+
+	public AccountQuery balanceAtMost(int maxBalance) {
+		this.maxBalance = maxBalance;
+		return this;
+	}
+
+	/**
+	 * Keyset pagination: only accounts with an id greater than afterId are returned. This relies on the accounts being
+	 * ordered by id, so it can only be combined with {@link Sort#ID}
+	 */
+	public AccountQuery after(int afterId) {
+		this.afterId = afterId;
+		return this;
+	}
+
+	public AccountQuery limit(int limit) {
+		this.limit = limit;
+		return this;
+	}
+
+	public AccountQuery sortBy(Sort sort) {
+		this.sort = sort;
+		return this;
+	}
+
+	/**
+	 * Only loads the given columns. The id and client id of an account are always filled in, anything not loaded is
+	 * left at its default value (null or 0)
+	 */
+	public AccountQuery columns(Column first, Column... rest) {
+		this.columns = EnumSet.of(first, rest);
+		return this;
+	}
+
+	public int getClientId() {
+		return clientId;
+	}
+
+	public Integer getMinBalance() {
+		return minBalance;
+	}
+
+	public Integer getMaxBalance() {
+		return maxBalance;
+	}
+
+	public Integer getAfterId() {
+		return afterId;
+	}
+
+	public Integer getLimit() {
+		return limit;
+	}
+
+	public Sort getSort() {
+		return sort;
+	}
+
+	public Set<Column> getColumns() {
+		return columns;
+	}
+
+	String toSql() {
+		return toSql("a.balance");
+	}
+
+	/**
+	 * @param balance the SQL for an account's balance, see {@link StripedBalances#balance(String)}
+	 */
+	String toSql(String balance) {
+		return toSql(balance, Column.VERSION.sql);
+	}
+
+	/**
+	 * @param version the SQL for an account's version, see {@link StripedBalances#version(String)}
+	 */
+	String toSql(String balance, String version) {
+		if (afterId != null && sort != Sort.ID) {
+			throw new IllegalStateException("after() can only be used when sorting by id");
+		}
+
+		StringBuilder sql = new StringBuilder("SELECT a.id");
+		for (Column column : columns) {
+			sql.append(", ");
+			if (column == Column.BALANCE && !balance.equals(column.sql)) {
+				sql.append(balance).append(" AS balance");
+			} else if (column == Column.VERSION && !version.equals(column.sql)) {
+				sql.append(version).append(" AS version");
+			} else {
+				sql.append(column.sql);
+			}
+		}
+
+		// Every predicate starts with client_id, so the (client_id, balance) index serves the balance range and the
+		// balance ordering as well. With striped balances the range and order are on the sum instead, so the index
+		// only narrows it down to the client's accounts
+		sql.append(" FROM jdbc_demo.account a WHERE a.client_id = ?");
+		if (minBalance != null) {
+			sql.append(" AND ").append(balance).append(" >= ?");
+		}
+		if (maxBalance != null) {
+			sql.append(" AND ").append(balance).append(" <= ?");
+		}
+		if (afterId != null) {
+			sql.append(" AND a.id > ?");
+		}
+
+		sql.append(" ORDER BY ").append(String.format(sort.orderBy, balance));
+
+		if (limit != null) {
+			sql.append(" LIMIT ?");
+		}
+
+		return sql.toString();
+	}
+
+	// Binds the parameters in the same order toSql() wrote the placeholders
+	void bind(PreparedStatement pstmt) throws SQLException {
+		int i = 1;
+
+		pstmt.setInt(i++, clientId);
+		if (minBalance != null) {
+			pstmt.setInt(i++, minBalance);
+		}
+		if (maxBalance != null) {
+			pstmt.setInt(i++, maxBalance);
+		}
+		if (afterId != null) {
+			pstmt.setInt(i++, afterId);
+		}
+		if (limit != null) {
+			pstmt.setInt(i++, limit);
+		}
+	}
+
+	Account readRow(ResultSet rs) throws SQLException {
+		Account account = new Account();
+		account.setId(rs.getInt("id"));
+		account.setClientId(clientId);
+
+		if (columns.contains(Column.NAME)) {
+			account.setName(rs.getString("name"));
+		}
+		if (columns.contains(Column.BALANCE)) {
+			account.setBalance(rs.getInt("balance"));
+		}
+		if (columns.contains(Column.VERSION)) {
+			account.setVersion(rs.getInt("version"));
+		}
+
+		return account;
+	}
+
+}
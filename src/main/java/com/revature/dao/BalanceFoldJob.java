@@ -0,0 +1,91 @@
+package com.revature.dao;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically moves what the balance slots of striped accounts hold back into the accounts themselves. Reads add the
+ * slots to the balance either way, so this doesn't change any balance anyone sees; it keeps the slots from drifting
+ * far from 0 and gives an account that is no longer striped its whole balance back in its own row.
+ *
+ * Each account is folded in its own short transaction, so a deposit to a slot waits for at most one account's fold.
+ *
+ * Reads only add the slots while some account is striped, so whatever the slots hold has to be folded before a run
+ * without striped accounts serves anything. close() folds one last time, and Application calls foldOnce() on startup
+ * whatever striped_accounts says, which also covers a run that never got to close().
+ */
+public class BalanceFoldJob {
+
+	private static Logger logger = LoggerFactory.getLogger(BalanceFoldJob.class);
+
+	private final AccountDAO accountDao;
+	private final ScheduledExecutorService scheduler;
+
+	private final LongAdder folds = new LongAdder();
+
+	public BalanceFoldJob(AccountDAO accountDao, long intervalMillis) {
+		this.accountDao = accountDao;
+
+		this.scheduler = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "balance-fold");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.scheduler.scheduleWithFixedDelay(this::foldAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	// An exception thrown from here would cancel every later run, so failures are only logged and retried next time
+	void foldAll() {
+		folds.add(foldOnce(accountDao));
+	}
+
+	/**
+	 * Folds every account whose slots hold anything, once. Failures are logged, not thrown
+	 *
+	 * @return how many accounts were folded
+	 */
+	public static int foldOnce(AccountDAO accountDao) {
+		int folded = 0;
+		try {
+			for (int accountId : accountDao.findAccountsWithUnfoldedBalance()) {
+				try {
+					if (accountDao.foldBalanceSlots(accountId) != 0) {
+						folded++;
+					}
+				} catch (SQLException e) {
+					logger.warn("Balance slots of account {} could not be folded. Message is {}", accountId, e.getMessage());
+				}
+			}
+		} catch (SQLException | RuntimeException e) {
+			logger.warn("Balance slots could not be folded. Message is {}", e.getMessage());
+		}
+		return folded;
+	}
+
+	/**
+	 * @return how many times the slots of an account have been folded into it
+	 */
+	public long getFoldCount() {
+		return folds.sum();
+	}
+
+	// Folds one last time once the scheduled runs have stopped, so the next run starts with empty slots even if it has
+	// no striped accounts
+	public void close() {
+		scheduler.shutdown();
+		try {
+			scheduler.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		foldAll();
+	}
+
+}
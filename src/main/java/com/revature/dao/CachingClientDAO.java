@@ -0,0 +1,103 @@
+package com.revature.dao;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.revature.dto.AddClientWithAccountsDTO;
+import com.revature.dto.AddOrEditClientDTO;
+import com.revature.model.Client;
+
+/**
+ * A ClientDAO decorator that serves getClientById from a ClientCache and invalidates the cached client whenever it is
+ * written through this DAO. Every other call goes straight to the wrapped ClientDAO.
+ */
+public class CachingClientDAO implements ClientDAO {
+
+	private ClientDAO clientDao;
+	private ClientCache cache;
+	
+	public CachingClientDAO(ClientDAO clientDao, ClientCache cache) {
+		this.clientDao = clientDao;
+		this.cache = cache;
+	}
+
+	@Override
+	public List<Client> getAllClients() throws SQLException {
+		return clientDao.getAllClients();
+	}
+
+	@Override
+	public List<Client> getAllClientsWithAccounts() throws SQLException {
+		return clientDao.getAllClientsWithAccounts();
+	}
+
+	@Override
+	public List<Client> getClientsWithAccountsAfter(int afterId, int limit) throws SQLException {
+		return clientDao.getClientsWithAccountsAfter(afterId, limit);
+	}
+
+	@Override
+	public List<Client> getClientsWithAgeBetween(Integer minAge, Integer maxAge, int afterId, int limit, boolean withAccounts) throws SQLException {
+		return clientDao.getClientsWithAgeBetween(minAge, maxAge, afterId, limit, withAccounts);
+	}
+
+	@Override
+	public void streamAllClientsWithAccounts(RowHandler<Client> handler) throws SQLException, IOException {
+		clientDao.streamAllClientsWithAccounts(handler);
+	}
+
+	@Override
+	public Client getClientById(int id) throws SQLException {
+		Client cached = cache.get(id);
+		if (cached != null) {
+			return cached;
+		}
+		
+		long generation = cache.currentGeneration();
+		Client client = clientDao.getClientById(id);
+		
+		if (client != null) {
+			cache.put(client, generation);
+		}
+		
+		return client;
+	}
+
+	@Override
+	public Client addClient(AddOrEditClientDTO client) throws SQLException {
+		Client addedClient = clientDao.addClient(client);
+		cache.invalidate(addedClient.getId());
+		
+		return addedClient;
+	}
+
+	@Override
+	public List<Client> addClientsWithAccounts(List<AddClientWithAccountsDTO> clients, int chunkSize) throws SQLException {
+		List<Client> addedClients = clientDao.addClientsWithAccounts(clients, chunkSize);
+		for (Client addedClient : addedClients) {
+			cache.invalidate(addedClient.getId());
+		}
+		
+		return addedClients;
+	}
+
+	@Override
+	public Client editClient(int clientId, AddOrEditClientDTO client) throws SQLException {
+		try {
+			return clientDao.editClient(clientId, client);
+		} finally {
+			cache.invalidate(clientId);
+		}
+	}
+
+	@Override
+	public void deleteClient(int clientId) throws SQLException {
+		try {
+			clientDao.deleteClient(clientId);
+		} finally {
+			cache.invalidate(clientId);
+		}
+	}
+
+}
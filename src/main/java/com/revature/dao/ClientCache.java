@@ -0,0 +1,139 @@
+package com.revature.dao;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.revature.model.Client;
+
+/**
+ * A bounded in-process cache of Clients by id. Entries expire after a fixed time-to-live and the least recently used
+ * entry is evicted once the cache is full.
+ */
+public class ClientCache {
+
+	private final int maxSize;
+	private final long ttlNanos;
+
+	// Access-ordered, so the eldest entry is always the least recently used one. The lock is only held for a map
+	// operation, which is orders of magnitude cheaper than the database round trip it saves
+	private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	// Bumped by every invalidation. A value loaded from the database is only stored if no invalidation happened
+	// while it was being loaded, otherwise a slow read could put back a client that was just edited or deleted
+	private final AtomicLong generation = new AtomicLong();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public ClientCache(int maxSize, long ttlMillis) {
+		this.maxSize = maxSize;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+	}
+
+	/**
+	 * @return a copy of the cached Client, or null if it isn't cached (or has expired)
+	 */
+	public Client get(int id) {
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(id);
+
+			if (entry != null && System.nanoTime() - entry.storedAt > ttlNanos) {
+				entries.remove(id);
+				evictions.increment();
+				entry = null;
+			}
+		}
+
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+
+		hits.increment();
+		return copy(entry.client);
+	}
+
+	public long currentGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * Stores the client unless the cache was invalidated after generationAtLoad was read
+	 */
+	public void put(Client client, long generationAtLoad) {
+		Entry entry = new Entry(copy(client), System.nanoTime());
+
+		synchronized (entries) {
+			if (generation.get() != generationAtLoad) {
+				return;
+			}
+
+			entries.put(client.getId(), entry);
+
+			Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+			while (entries.size() > maxSize && eldest.hasNext()) {
+				eldest.next();
+				eldest.remove();
+				evictions.increment();
+			}
+		}
+	}
+
+	public void invalidate(int id) {
+		synchronized (entries) {
+			generation.incrementAndGet();
+			entries.remove(id);
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			generation.incrementAndGet();
+			entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	// Clients are mutable (services attach their accounts), so callers never get to share the cached instance
+	private static Client copy(Client client) {
+		Client copy = new Client(client.getId(), client.getName(), client.getAge());
+		copy.setVersion(client.getVersion());
+		return copy;
+	}
+
+	private static class Entry {
+
+		private final Client client;
+		private final long storedAt;
+
+		private Entry(Client client, long storedAt) {
+			this.client = client;
+			this.storedAt = storedAt;
+		}
+
+	}
+
+}
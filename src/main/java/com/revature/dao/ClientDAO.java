@@ -1,8 +1,10 @@
 package com.revature.dao;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 
+import com.revature.dto.AddClientWithAccountsDTO;
 import com.revature.dto.AddOrEditClientDTO;
 import com.revature.model.Client;
 
@@ -10,6 +12,41 @@ public interface ClientDAO {
 
 	public abstract List<Client> getAllClients() throws SQLException;
 	
+	/**
+	 * This method returns every Client together with its accounts, loaded in a single query
+	 * 
+	 * @return a List of Clients whose accounts list is populated (empty for clients without accounts)
+	 */
+	public abstract List<Client> getAllClientsWithAccounts() throws SQLException;
+	
+	/**
+	 * This method returns one page of Clients (with their accounts) using keyset pagination
+	 * 
+	 * @param afterId only clients with an id greater than this are returned
+	 * @param limit the maximum number of clients to return
+	 * @return a List of at most limit Clients ordered by id
+	 */
+	public abstract List<Client> getClientsWithAccountsAfter(int afterId, int limit) throws SQLException;
+	
+	/**
+	 * This method returns one page of the Clients whose age is within the given bounds, served by the age index
+	 * 
+	 * @param minAge the smallest age to include, or null for no lower bound
+	 * @param maxAge the largest age to include, or null for no upper bound
+	 * @param afterId only clients with an id greater than this are returned
+	 * @param limit the maximum number of clients to return
+	 * @param withAccounts whether to load each client's accounts as well. Without them the account table isn't read at
+	 *                     all and the Clients have no accounts list
+	 * @return a List of at most limit Clients ordered by id
+	 */
+	public abstract List<Client> getClientsWithAgeBetween(Integer minAge, Integer maxAge, int afterId, int limit, boolean withAccounts) throws SQLException;
+	
+	/**
+	 * This method passes every Client (with its accounts) to the handler as soon as it has been read,
+	 * instead of collecting them into a List first
+	 */
+	public abstract void streamAllClientsWithAccounts(RowHandler<Client> handler) throws SQLException, IOException;
+	
 	/**
 	 * This method returns a Client from the database
 	 * 
@@ -21,6 +58,20 @@ public interface ClientDAO {
 	
 	public abstract Client addClient(AddOrEditClientDTO client) throws SQLException;
 	
+	/**
+	 * This method inserts the clients and all of their accounts in a single transaction, using JDBC batches
+	 * 
+	 * @param chunkSize how many rows are sent per executeBatch() call
+	 * @return the added Clients (with their added accounts), in the same order as the input
+	 */
+	public abstract List<Client> addClientsWithAccounts(List<AddClientWithAccountsDTO> clients, int chunkSize) throws SQLException;
+	
+	/**
+	 * This method updates a Client's name and age and increments its version
+	 * 
+	 * @param client if its version is set, the update only happens while the client is still at that version
+	 * @return the edited Client with its new version, or null if no client with that id (and version) exists
+	 */
 	public abstract Client editClient(int clientId, AddOrEditClientDTO client) throws SQLException;
 	
 	public abstract void deleteClient(int clientId) throws SQLException;
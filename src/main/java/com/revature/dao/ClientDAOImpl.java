@@ -1,5 +1,6 @@
 package com.revature.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -8,68 +9,265 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.revature.dto.AddClientWithAccountsDTO;
+import com.revature.dto.AddOrEditAccountDTO;
 import com.revature.dto.AddOrEditClientDTO;
+import com.revature.model.Account;
 import com.revature.model.Client;
 import com.revature.util.ConnectionUtility;
 
 public class ClientDAOImpl implements ClientDAO {
 
+	private static final int STREAMING_FETCH_SIZE = 500;
+	
+	// The select list of every client LEFT JOIN account query
+	private final String clientWithAccountColumns;
+	
+	public ClientDAOImpl() {
+		this(StripedBalances.disabled());
+	}
+	
+	public ClientDAOImpl(StripedBalances stripedBalances) {
+		this.clientWithAccountColumns = "SELECT c.id, c.name, c.age, c.version, a.id AS account_id, a.name AS account_name, "
+				+ stripedBalances.balance("a") + " AS balance, " + stripedBalances.version("a") + " AS account_version ";
+	}
+
 	@Override
 	public List<Client> getAllClients() throws SQLException {
 		
 		List<Client> clients = new ArrayList<>();
 		
 		
-		try (Connection con = ConnectionUtility.getConnection()) {
-			Statement stmt = con.createStatement();
+		try (Connection con = ConnectionUtility.getConnection(); Statement stmt = con.createStatement()) {
 			
 			
-			String sql = "SELECT * FROM jdbc_demo.client";
-			ResultSet rs = stmt.executeQuery(sql);
+			String sql = "SELECT id, name, age, version FROM jdbc_demo.client";
 			
+			try (ResultSet rs = stmt.executeQuery(sql)) {
+				while (rs.next()) {
+					
+					
+					int id = rs.getInt("id");
+					String name = rs.getString("name");
+					int age = rs.getInt("age");
+					
+					Client client = new Client(id, name, age);
+					client.setVersion(rs.getInt("version"));
+					
+					clients.add(client);
+				}
+			}
+		}
+		
+		return clients;
+	}
+
+	@Override
+	public List<Client> getAllClientsWithAccounts() throws SQLException {
+		
+		List<Client> clients = new ArrayList<>();
+		
+		try (Connection con = ConnectionUtility.getConnection(); Statement stmt = con.createStatement()) {
 			
-			while (rs.next()) {
-				
-				
-				int id = rs.getInt("id");
-				String name = rs.getString("name");
-				int age = rs.getInt("age");
-				
-				Client client = new Client(id, name, age);
+			// One LEFT JOIN instead of one account query per client. Rows come back grouped by client,
+			// so the accounts can be attached in a single pass over the ResultSet
+			String sql = clientWithAccountColumns
+					+ "FROM jdbc_demo.client c LEFT JOIN jdbc_demo.account a ON a.client_id = c.id "
+					+ "ORDER BY c.id, a.id";
+			
+			try (ResultSet rs = stmt.executeQuery(sql)) {
+				Client current = null;
+				while (rs.next()) {
+					Client client = readClientWithAccountRow(rs, current);
+					
+					if (client != current) {
+						clients.add(client);
+						current = client;
+					}
+				}
+			}
+		}
+		
+		return clients;
+	}
+	
+	@Override
+	public List<Client> getClientsWithAccountsAfter(int afterId, int limit) throws SQLException {
+		
+		List<Client> clients = new ArrayList<>();
+		
+		try (Connection con = ConnectionUtility.getConnection()) {
+			// The LIMIT has to apply to clients, not to joined rows, so the page of clients is picked first
+			// and only then joined with the accounts
+			String sql = clientWithAccountColumns
+					+ "FROM (SELECT id, name, age, version FROM jdbc_demo.client WHERE id > ? ORDER BY id LIMIT ?) c "
+					+ "LEFT JOIN jdbc_demo.account a ON a.client_id = c.id "
+					+ "ORDER BY c.id, a.id";
+			
+			try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+				pstmt.setInt(1, afterId);
+				pstmt.setInt(2, limit);
 				
-				clients.add(client);
+				try (ResultSet rs = pstmt.executeQuery()) {
+					Client current = null;
+					while (rs.next()) {
+						Client client = readClientWithAccountRow(rs, current);
+						
+						if (client != current) {
+							clients.add(client);
+							current = client;
+						}
+					}
+				}
 			}
 		}
 		
 		return clients;
 	}
-
+	
 	@Override
-	public Client getClientById(int id) throws SQLException {
+	public List<Client> getClientsWithAgeBetween(Integer minAge, Integer maxAge, int afterId, int limit, boolean withAccounts) throws SQLException {
+		
+		List<Client> clients = new ArrayList<>();
 		
+		// Only the bounds that were given go into the statement, so an open range doesn't drop clients whose age is NULL
+		// and each of the few combinations is still prepared only once per connection
+		String clientSql = "SELECT id, name, age, version FROM jdbc_demo.client WHERE id > ?"
+				+ (minAge != null ? " AND age >= ?" : "")
+				+ (maxAge != null ? " AND age <= ?" : "")
+				+ " ORDER BY id LIMIT ?";
 		
 		try (Connection con = ConnectionUtility.getConnection()) {
-			String sql = "SELECT * FROM jdbc_demo.client WHERE id = ?";
+			// Like getClientsWithAccountsAfter(), the page of clients is picked before anything is joined to it
+			String sql = withAccounts
+					? clientWithAccountColumns + "FROM (" + clientSql + ") c "
+							+ "LEFT JOIN jdbc_demo.account a ON a.client_id = c.id "
+							+ "ORDER BY c.id, a.id"
+					: clientSql;
 			
-			PreparedStatement pstmt = con.prepareStatement(sql);
+			try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+				int parameter = 1;
+				pstmt.setInt(parameter++, afterId);
+				if (minAge != null) {
+					pstmt.setInt(parameter++, minAge);
+				}
+				if (maxAge != null) {
+					pstmt.setInt(parameter++, maxAge);
+				}
+				pstmt.setInt(parameter, limit);
+				
+				try (ResultSet rs = pstmt.executeQuery()) {
+					Client current = null;
+					while (rs.next()) {
+						if (withAccounts) {
+							Client client = readClientWithAccountRow(rs, current);
+							
+							if (client != current) {
+								clients.add(client);
+								current = client;
+							}
+						} else {
+							Client client = new Client(rs.getInt("id"), rs.getString("name"), rs.getInt("age"));
+							client.setVersion(rs.getInt("version"));
+							clients.add(client);
+						}
+					}
+				}
+			}
+		}
+		
+		return clients;
+	}
+	
+	@Override
+	public void streamAllClientsWithAccounts(RowHandler<Client> handler) throws SQLException, IOException {
+		
+		try (Connection con = ConnectionUtility.getConnection(); Statement stmt = con.createStatement()) {
 			
+			// A positive fetch size makes the MariaDB driver stream the rows instead of
+			// buffering the whole ResultSet in memory
+			stmt.setFetchSize(STREAMING_FETCH_SIZE);
 			
-			pstmt.setInt(1, id);
+			String sql = clientWithAccountColumns
+					+ "FROM jdbc_demo.client c LEFT JOIN jdbc_demo.account a ON a.client_id = c.id "
+					+ "ORDER BY c.id, a.id";
 			
+			try (ResultSet rs = stmt.executeQuery(sql)) {
+				// A client is only complete once a row for the next client (or the end of the ResultSet) shows up
+				Client current = null;
+				while (rs.next()) {
+					Client client = readClientWithAccountRow(rs, current);
+					
+					if (client != current) {
+						if (current != null) {
+							handler.handle(current);
+						}
+						current = client;
+					}
+				}
+				
+				if (current != null) {
+					handler.handle(current);
+				}
+			}
+		}
+	}
+	
+	// Reads one row of a client LEFT JOIN account query. Returns current when the row belongs to the same client,
+	// otherwise a new Client. Either way the row's account (if any) is added to the returned client
+	private static Client readClientWithAccountRow(ResultSet rs, Client current) throws SQLException {
+		int id = rs.getInt("id");
+		
+		Client client = current;
+		if (client == null || client.getId() != id) {
+			String name = rs.getString("name");
+			int age = rs.getInt("age");
 			
-			ResultSet rs = pstmt.executeQuery();
+			client = new Client(id, name, age);
+			client.setVersion(rs.getInt("version"));
+			client.setAccounts(new ArrayList<>());
+		}
+		
+		int accountId = rs.getInt("account_id");
+		if (!rs.wasNull()) {
+			String accountName = rs.getString("account_name");
+			int balance = rs.getInt("balance");
 			
+			Account account = new Account(accountId, accountName, balance, id);
+			account.setVersion(rs.getInt("account_version"));
+			client.getAccounts().add(account);
+		}
+		
+		return client;
+	}
+
+	@Override
+	public Client getClientById(int id) throws SQLException {
+		
+		
+		try (Connection con = ConnectionUtility.getConnection()) {
+			String sql = "SELECT id, name, age, version FROM jdbc_demo.client WHERE id = ?";
 			
-			if (rs.next()) {
-				int client_id = rs.getInt("id");
-				String name = rs.getString("name");
-				int age = rs.getInt("age");
+			try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+				
 				
-				Client client = new Client(client_id, name, age);
+				pstmt.setInt(1, id);
 				
-				return client;
-			} else {
-				return null;
+				
+				try (ResultSet rs = pstmt.executeQuery()) {
+					if (rs.next()) {
+						int client_id = rs.getInt("id");
+						String name = rs.getString("name");
+						int age = rs.getInt("age");
+						
+						Client client = new Client(client_id, name, age);
+						client.setVersion(rs.getInt("version"));
+						
+						return client;
+					} else {
+						return null;
+					}
+				}
 			}
 		}
 	}
@@ -78,46 +276,163 @@ public class ClientDAOImpl implements ClientDAO {
 	public Client addClient(AddOrEditClientDTO client) throws SQLException {
 		try (Connection con = ConnectionUtility.getConnection()) {
 			String sql = "INSERT INTO jdbc_demo.client (name, age) VALUES (?, ?)";
-			PreparedStatement pstmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-			
-			pstmt.setString(1, client.getName());
-			pstmt.setInt(2, client.getAge());
-			
-			int recordsUpdated = pstmt.executeUpdate(); 
-			
-			if (recordsUpdated != 1) {
-				throw new SQLException("Could not insert a client record");
+			try (PreparedStatement pstmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+				
+				pstmt.setString(1, client.getName());
+				pstmt.setInt(2, client.getAge());
+				
+				int recordsUpdated = pstmt.executeUpdate(); 
+				
+				if (recordsUpdated != 1) {
+					throw new SQLException("Could not insert a client record");
+				}
+				
+				
+				try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+					if (generatedKeys.next()) {
+						Client createdClient = new Client(generatedKeys.getInt(1), client.getName(), client.getAge());
+						
+						return createdClient;
+					} else {
+						throw new SQLException("Autogenerated id could not be obtained for Client");
+					}
+				}
 			}
 			
+		}
+	}
+
+	@Override
+	public List<Client> addClientsWithAccounts(List<AddClientWithAccountsDTO> clients, int chunkSize) throws SQLException {
+		try (Connection con = ConnectionUtility.getConnection()) {
+			con.setAutoCommit(false);
 			
-			ResultSet generatedKeys = pstmt.getGeneratedKeys();
-			if (generatedKeys.next()) {
-				Client createdClient = new Client(generatedKeys.getInt(1), client.getName(), client.getAge());
+			try {
+				List<Client> addedClients = new ArrayList<>(clients.size());
+				
+				String clientSql = "INSERT INTO jdbc_demo.client (name, age) VALUES (?, ?)";
+				
+				try (PreparedStatement clientStmt = con.prepareStatement(clientSql, Statement.RETURN_GENERATED_KEYS)) {
+					for (int start = 0; start < clients.size(); start += chunkSize) {
+						List<AddClientWithAccountsDTO> chunk = clients.subList(start, Math.min(start + chunkSize, clients.size()));
+						
+						for (AddClientWithAccountsDTO client : chunk) {
+							clientStmt.setString(1, client.getName());
+							clientStmt.setInt(2, client.getAge());
+							clientStmt.addBatch();
+						}
+						
+						clientStmt.executeBatch();
+						
+						// Generated keys come back in insertion order, which is how each new client id is matched to the
+						// client (and so to the accounts) it belongs to
+						try (ResultSet generatedKeys = clientStmt.getGeneratedKeys()) {
+							for (AddClientWithAccountsDTO client : chunk) {
+								if (!generatedKeys.next()) {
+									throw new SQLException("Autogenerated ids could not be obtained for every Client");
+								}
+								
+								Client addedClient = new Client(generatedKeys.getInt(1), client.getName(), client.getAge());
+								addedClient.setAccounts(new ArrayList<>());
+								addedClients.add(addedClient);
+							}
+						}
+					}
+				}
 				
-				return createdClient;
-			} else {
-				throw new SQLException("Autogenerated id could not be obtained for Client");
+				String accountSql = "INSERT INTO jdbc_demo.account (name, balance, client_id) VALUES (?, ?, ?)";
+				
+				try (PreparedStatement accountStmt = con.prepareStatement(accountSql, Statement.RETURN_GENERATED_KEYS)) {
+					List<AddOrEditAccountDTO> pendingAccounts = new ArrayList<>(chunkSize);
+					List<Client> pendingOwners = new ArrayList<>(chunkSize);
+					
+					for (int i = 0; i < clients.size(); i++) {
+						Client owner = addedClients.get(i);
+						
+						for (AddOrEditAccountDTO account : clients.get(i).getAccounts()) {
+							accountStmt.setString(1, account.getName());
+							accountStmt.setInt(2, account.getBalance());
+							accountStmt.setInt(3, owner.getId());
+							accountStmt.addBatch();
+							
+							pendingAccounts.add(account);
+							pendingOwners.add(owner);
+							
+							if (pendingAccounts.size() == chunkSize) {
+								executeAccountBatch(accountStmt, pendingAccounts, pendingOwners);
+							}
+						}
+					}
+					
+					if (!pendingAccounts.isEmpty()) {
+						executeAccountBatch(accountStmt, pendingAccounts, pendingOwners);
+					}
+				}
+				
+				con.commit();
+				
+				return addedClients;
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
 			}
-			
 		}
 	}
+	
+	private static void executeAccountBatch(PreparedStatement accountStmt, List<AddOrEditAccountDTO> accounts, List<Client> owners) throws SQLException {
+		accountStmt.executeBatch();
+		
+		try (ResultSet generatedKeys = accountStmt.getGeneratedKeys()) {
+			for (int i = 0; i < accounts.size(); i++) {
+				if (!generatedKeys.next()) {
+					throw new SQLException("Autogenerated ids could not be obtained for every Account");
+				}
+				
+				AddOrEditAccountDTO account = accounts.get(i);
+				Client owner = owners.get(i);
+				owner.getAccounts().add(new Account(generatedKeys.getInt(1), account.getName(), account.getBalance(), owner.getId()));
+			}
+		}
+		
+		accounts.clear();
+		owners.clear();
+	}
 
 	@Override
 	public Client editClient(int clientId, AddOrEditClientDTO client) throws SQLException {
 		try (Connection con = ConnectionUtility.getConnection()) {
-			String sql = "UPDATE jdbc_demo.client SET name = ?, age = ? WHERE id = ?";
-			PreparedStatement pstmt = con.prepareStatement(sql);
-			
-			pstmt.setString(1, client.getName());
-			pstmt.setInt(2, client.getAge());
-			pstmt.setInt(3, clientId);
-			
-			int recordsUpdated = pstmt.executeUpdate();
-			if (recordsUpdated != 1) {
-				throw new SQLException("Record was not able to be updated");
+			// LAST_INSERT_ID(expr) hands the new version back as the generated key, so the edited client doesn't have to
+			// be read again. With an expected version the update only matches while the row is still at that version
+			String sql = "UPDATE jdbc_demo.client SET name = ?, age = ?, version = LAST_INSERT_ID(version + 1) WHERE id = ?";
+			if (client.getVersion() != null) {
+				sql += " AND version = ?";
 			}
 			
-			return new Client(clientId, client.getName(), client.getAge());
+			try (PreparedStatement pstmt = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+				
+				pstmt.setString(1, client.getName());
+				pstmt.setInt(2, client.getAge());
+				pstmt.setInt(3, clientId);
+				if (client.getVersion() != null) {
+					pstmt.setInt(4, client.getVersion());
+				}
+				
+				int recordsUpdated = pstmt.executeUpdate();
+				if (recordsUpdated != 1) {
+					return null;
+				}
+				
+				Client editedClient = new Client(clientId, client.getName(), client.getAge());
+				try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+					if (generatedKeys.next()) {
+						editedClient.setVersion(generatedKeys.getInt(1));
+					} else {
+						throw new SQLException("New version could not be obtained for Client");
+					}
+				}
+				
+				return editedClient;
+			}
 		}
 	}
 
@@ -126,15 +441,16 @@ public class ClientDAOImpl implements ClientDAO {
 	
 		try (Connection con = ConnectionUtility.getConnection()) {
 			String sql = "DELETE FROM jdbc_demo.client WHERE id = ?";
-			PreparedStatement pstmt = con.prepareStatement(sql);
-			
-			pstmt.setInt(1, clientId);
-			
-			int recordsDeleted = pstmt.executeUpdate();
-			
-			
-			if (recordsDeleted != 1) {
-				throw new SQLException("Record was not able to be deleted");
+			try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+				
+				pstmt.setInt(1, clientId);
+				
+				int recordsDeleted = pstmt.executeUpdate();
+				
+				
+				if (recordsDeleted != 1) {
+					throw new SQLException("Record was not able to be deleted");
+				}
 			}
 		}
 	}
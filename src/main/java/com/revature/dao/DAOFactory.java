@@ -0,0 +1,106 @@
+package com.revature.dao;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import com.revature.util.ConfigUtility;
+import com.revature.util.MetricsRegistry;
+
+// Hands out the DAO instances the services use by default. ClientService and AccountService must share one
+// ClientDAO, otherwise a client edited through one service could still be served from the other one's cache
+public class DAOFactory {
+
+	private static final MemoryStore MEMORY_STORE;
+	private static final StripedBalances STRIPED_BALANCES;
+	private static final ClientCache CLIENT_CACHE;
+	private static final ClientDAO CLIENT_DAO;
+	private static final AccountDAO ACCOUNT_DAO;
+	
+	static {
+		String engine = ConfigUtility.getString("dao_engine", "jdbc");
+		ClientDAO clientDao;
+		AccountDAO accountDao;
+		if (engine.equals("jdbc")) {
+			MEMORY_STORE = null;
+			STRIPED_BALANCES = StripedBalances.fromConfig();
+			clientDao = new ClientDAOImpl(STRIPED_BALANCES);
+			accountDao = new AccountDAOImpl(STRIPED_BALANCES);
+		} else if (engine.equals("memory")) {
+			MEMORY_STORE = openMemoryStore();
+			STRIPED_BALANCES = StripedBalances.disabled();
+			clientDao = new MemoryClientDAO(MEMORY_STORE);
+			accountDao = new MemoryAccountDAO(MEMORY_STORE);
+		} else {
+			throw new IllegalStateException("dao_engine is configured as " + engine + ", but only jdbc and memory are supported");
+		}
+		
+		// The timers sit underneath the cache, so they measure the calls that actually reach the database
+		if (ConfigUtility.getBoolean("dao_metrics_enabled", true)) {
+			clientDao = TimedDAO.wrap(ClientDAO.class, clientDao, MetricsRegistry.getDefault());
+			accountDao = TimedDAO.wrap(AccountDAO.class, accountDao, MetricsRegistry.getDefault());
+		}
+		ACCOUNT_DAO = accountDao;
+		
+		// The memory engine answers a lookup faster than the cache could, so it only gets one if asked for explicitly
+		if (ConfigUtility.getBoolean("client_cache_enabled", MEMORY_STORE == null)) {
+			CLIENT_CACHE = new ClientCache(ConfigUtility.getInt("client_cache_max_size", 10000),
+					ConfigUtility.getLong("client_cache_ttl_ms", 30000));
+			CLIENT_DAO = new CachingClientDAO(clientDao, CLIENT_CACHE);
+		} else {
+			CLIENT_CACHE = null;
+			CLIENT_DAO = clientDao;
+		}
+	}
+	
+	private DAOFactory() {
+	}
+	
+	private static MemoryStore openMemoryStore() {
+		try {
+			return MemoryStore.open(Paths.get(ConfigUtility.getString("memory_data_dir", "data")),
+					ConfigUtility.getInt("memory_wal_window_bytes", 64 * 1024 * 1024),
+					ConfigUtility.getBoolean("memory_wal_sync", false),
+					ConfigUtility.getLong("memory_snapshot_interval_ms", 60000));
+		} catch (IOException e) {
+			throw new IllegalStateException("The in-memory store could not be loaded", e);
+		}
+	}
+	
+	public static ClientDAO getClientDao() {
+		return CLIENT_DAO;
+	}
+	
+	public static AccountDAO getAccountDao() {
+		return ACCOUNT_DAO;
+	}
+	
+	/**
+	 * @return true if the DAOs go to the database (dao_engine=jdbc). Nothing should ask ConnectionUtility for the pool
+	 *         otherwise, because asking creates it
+	 */
+	public static boolean usesDatabase() {
+		return MEMORY_STORE == null;
+	}
+	
+	/**
+	 * @return the store behind both DAOs, or null unless dao_engine=memory is configured
+	 */
+	public static MemoryStore getMemoryStore() {
+		return MEMORY_STORE;
+	}
+	
+	/**
+	 * @return the striped accounts both DAOs were set up with, which is empty unless striped_accounts is configured
+	 */
+	public static StripedBalances getStripedBalances() {
+		return STRIPED_BALANCES;
+	}
+	
+	/**
+	 * @return the cache behind getClientDao(), or null if caching has been switched off with client_cache_enabled=false
+	 */
+	public static ClientCache getClientCache() {
+		return CLIENT_CACHE;
+	}
+	
+}
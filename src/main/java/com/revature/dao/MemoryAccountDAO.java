@@ -0,0 +1,266 @@
+package com.revature.dao;
+
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.revature.dao.MemoryStore.AccountRecord;
+import com.revature.dao.MemoryStore.ClientRecord;
+import com.revature.dao.MemoryStore.Mutation;
+import com.revature.dto.AddOrEditAccountDTO;
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.TransferResultDTO;
+import com.revature.model.Account;
+
+/**
+ * AccountDAO on top of a MemoryStore instead of the database, with the same results AccountDAOImpl gives for the same
+ * data. Every write holds the store's write lock from its checks to its commit, which does for the balance checks of
+ * changeBalance() and transfer() what the row locks do in the database
+ */
+public class MemoryAccountDAO implements AccountDAO {
+
+	private final MemoryStore store;
+
+	public MemoryAccountDAO(MemoryStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * Walks the client's accounts in the order the query asks for, starting at the first one that can match: ordered
+	 * by id it starts after afterId, ordered by balance at the balance range's lower (or, descending, upper) end
+	 */
+	@Override
+	public List<Account> findAccounts(AccountQuery query) throws SQLException {
+		if (query.getAfterId() != null && query.getSort() != AccountQuery.Sort.ID) {
+			throw new IllegalStateException("after() can only be used when sorting by id");
+		}
+
+		int minBalance = query.getMinBalance() == null ? Integer.MIN_VALUE : query.getMinBalance();
+		int maxBalance = query.getMaxBalance() == null ? Integer.MAX_VALUE : query.getMaxBalance();
+		int limit = query.getLimit() == null ? Integer.MAX_VALUE : query.getLimit();
+
+		store.readLock().lock();
+		try {
+			ClientRecord client = store.client(query.getClientId());
+			if (client == null) {
+				return Collections.emptyList();
+			}
+
+			List<Account> accounts = new ArrayList<>(Math.min(limit, client.accountCount));
+
+			switch (query.getSort()) {
+			case BALANCE_ASC:
+				for (int i = client.firstWithBalanceAtLeast(minBalance); i < client.accountCount && accounts.size() < limit; i++) {
+					if (client.balanceKeys[i] > maxBalance) {
+						break;
+					}
+					accounts.add(readRow(query, store.account(client.balanceIds[i])));
+				}
+				break;
+			case BALANCE_DESC:
+				for (int i = client.endOfBalanceAtMost(maxBalance) - 1; i >= 0 && accounts.size() < limit; i--) {
+					if (client.balanceKeys[i] < minBalance) {
+						break;
+					}
+					accounts.add(readRow(query, store.account(client.balanceIds[i])));
+				}
+				break;
+			default:
+				int start = query.getAfterId() == null ? 0 : client.firstAccountAfter(query.getAfterId());
+				for (int i = start; i < client.accountCount && accounts.size() < limit; i++) {
+					AccountRecord account = store.account(client.accountIds[i]);
+					if (account.balance >= minBalance && account.balance <= maxBalance) {
+						accounts.add(readRow(query, account));
+					}
+				}
+			}
+
+			return accounts;
+		} finally {
+			store.readLock().unlock();
+		}
+	}
+
+	// Fills in the same fields AccountQuery.readRow() does for the query's columns
+	private static Account readRow(AccountQuery query, AccountRecord record) {
+		Account account = new Account();
+		account.setId(record.id);
+		account.setClientId(record.clientId);
+
+		if (query.getColumns().contains(AccountQuery.Column.NAME)) {
+			account.setName(record.name);
+		}
+		if (query.getColumns().contains(AccountQuery.Column.BALANCE)) {
+			account.setBalance(record.balance);
+		}
+		if (query.getColumns().contains(AccountQuery.Column.VERSION)) {
+			account.setVersion(record.version);
+		}
+
+		return account;
+	}
+
+	@Override
+	public Account getAccountById(int clientId, int accountId) throws SQLException {
+		store.readLock().lock();
+		try {
+			AccountRecord account = find(clientId, accountId);
+			return account == null ? null : account.toAccount();
+		} finally {
+			store.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Account addAccount(AddOrEditAccountDTO account) throws SQLException {
+		store.writeLock().lock();
+		try {
+			checkClientExists(account.getClientId());
+
+			int id = store.nextAccountId();
+			store.commit(new Mutation().putAccount(id, account.getClientId(), account.getName(), account.getBalance(), 0));
+
+			return store.account(id).toAccount();
+		} finally {
+			store.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Account> addAccounts(List<AddOrEditAccountDTO> accounts, int chunkSize) throws SQLException {
+		store.writeLock().lock();
+		try {
+			Mutation mutation = new Mutation();
+			int[] ids = new int[accounts.size()];
+
+			for (int i = 0; i < accounts.size(); i++) {
+				AddOrEditAccountDTO account = accounts.get(i);
+				checkClientExists(account.getClientId());
+
+				ids[i] = store.nextAccountId();
+				mutation.putAccount(ids[i], account.getClientId(), account.getName(), account.getBalance(), 0);
+			}
+
+			store.commit(mutation);
+
+			List<Account> addedAccounts = new ArrayList<>(ids.length);
+			for (int id : ids) {
+				addedAccounts.add(store.account(id).toAccount());
+			}
+			return addedAccounts;
+		} finally {
+			store.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public Account editAccount(int clientId, int accountId, AddOrEditAccountDTO account) throws SQLException {
+		store.writeLock().lock();
+		try {
+			AccountRecord current = find(clientId, accountId);
+			if (current == null || (account.getVersion() != null && account.getVersion() != current.version)) {
+				return null;
+			}
+
+			store.commit(new Mutation().putAccount(accountId, clientId, account.getName(), account.getBalance(), current.version + 1));
+
+			return current.toAccount();
+		} finally {
+			store.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean deleteAccount(int clientId, int accountId) throws SQLException {
+		store.writeLock().lock();
+		try {
+			if (find(clientId, accountId) == null) {
+				return false;
+			}
+
+			store.commit(new Mutation().deleteAccount(accountId));
+			return true;
+		} finally {
+			store.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public BalanceDTO changeBalance(int clientId, int accountId, int delta) throws SQLException {
+		store.writeLock().lock();
+		try {
+			AccountRecord account = find(clientId, accountId);
+			if (account == null || (long) account.balance + delta < 0) {
+				return null;
+			}
+
+			store.commit(new Mutation().putAccount(accountId, clientId, account.name, add(account.balance, delta), account.version + 1));
+
+			return new BalanceDTO(clientId, accountId, account.balance, account.version);
+		} finally {
+			store.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public TransferResultDTO transfer(int fromClientId, int fromAccountId, int toClientId, int toAccountId, int amount) throws SQLException {
+		store.writeLock().lock();
+		try {
+			AccountRecord from = find(fromClientId, fromAccountId);
+			AccountRecord to = find(toClientId, toAccountId);
+			if (from == null || to == null || from.balance < amount) {
+				return null;
+			}
+
+			// One entry for both accounts, so a crash can't leave the log with only one side of the transfer
+			store.commit(new Mutation()
+					.putAccount(fromAccountId, fromClientId, from.name, from.balance - amount, from.version + 1)
+					.putAccount(toAccountId, toClientId, to.name, add(to.balance, amount), to.version + 1));
+
+			return new TransferResultDTO(from.toAccount(), to.toAccount());
+		} finally {
+			store.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Balances are never striped in memory: a deposit only holds the write lock for as long as it takes to change one
+	 * int and append to the log
+	 */
+	@Override
+	public List<Integer> findAccountsWithUnfoldedBalance() throws SQLException {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public int foldBalanceSlots(int accountId) throws SQLException {
+		return 0;
+	}
+
+	// What strict mode does in the database when a balance no longer fits the INTEGER column: the write fails instead
+	// of the balance wrapping around
+	private static int add(int balance, int amount) throws SQLException {
+		long sum = (long) balance + amount;
+		if (sum != (int) sum) {
+			throw new SQLDataException("Out of range value for column 'balance' at row 1", "22003");
+		}
+		return (int) sum;
+	}
+
+	// The account, if it exists and belongs to the client
+	private AccountRecord find(int clientId, int accountId) {
+		AccountRecord account = store.account(accountId);
+		return account == null || account.clientId != clientId ? null : account;
+	}
+
+	// What the foreign key on account.client_id does in the database
+	private void checkClientExists(int clientId) throws SQLException {
+		if (store.client(clientId) == null) {
+			throw new SQLIntegrityConstraintViolationException("Cannot add an account for client " + clientId + ", which does not exist");
+		}
+	}
+
+}
@@ -0,0 +1,203 @@
+package com.revature.dao;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.revature.dao.MemoryStore.ClientRecord;
+import com.revature.dao.MemoryStore.Mutation;
+import com.revature.dto.AddClientWithAccountsDTO;
+import com.revature.dto.AddOrEditAccountDTO;
+import com.revature.dto.AddOrEditClientDTO;
+import com.revature.model.Account;
+import com.revature.model.Client;
+
+/**
+ * ClientDAO on top of a MemoryStore instead of the database, with the same results ClientDAOImpl gives for the same
+ * data
+ */
+public class MemoryClientDAO implements ClientDAO {
+
+	// Streaming hands out this many clients per read lock, so a slow handler never holds up writers
+	private static final int STREAMING_PAGE_SIZE = 500;
+
+	private final MemoryStore store;
+
+	public MemoryClientDAO(MemoryStore store) {
+		this.store = store;
+	}
+
+	@Override
+	public List<Client> getAllClients() throws SQLException {
+		store.readLock().lock();
+		try {
+			List<Client> clients = new ArrayList<>(store.clientCount());
+			for (int i = 0; i < store.clientCount(); i++) {
+				clients.add(store.client(store.clientIdAt(i)).toClient());
+			}
+			return clients;
+		} finally {
+			store.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Client> getAllClientsWithAccounts() throws SQLException {
+		return getClientsWithAccountsAfter(0, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public List<Client> getClientsWithAccountsAfter(int afterId, int limit) throws SQLException {
+		store.readLock().lock();
+		try {
+			int start = store.firstClientAfter(afterId);
+			int end = (int) Math.min((long) start + limit, store.clientCount());
+
+			List<Client> clients = new ArrayList<>(end - start);
+			for (int i = start; i < end; i++) {
+				clients.add(withAccounts(store.client(store.clientIdAt(i))));
+			}
+			return clients;
+		} finally {
+			store.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Client> getClientsWithAgeBetween(Integer minAge, Integer maxAge, int afterId, int limit, boolean withAccounts) throws SQLException {
+		store.readLock().lock();
+		try {
+			int[] ids = store.clientIdsWithAgeBetween(minAge == null ? Integer.MIN_VALUE : minAge,
+					maxAge == null ? Integer.MAX_VALUE : maxAge, afterId, limit);
+
+			List<Client> clients = new ArrayList<>(ids.length);
+			for (int id : ids) {
+				ClientRecord record = store.client(id);
+				clients.add(withAccounts ? withAccounts(record) : record.toClient());
+			}
+			return clients;
+		} finally {
+			store.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void streamAllClientsWithAccounts(RowHandler<Client> handler) throws SQLException, IOException {
+		int afterId = 0;
+
+		while (true) {
+			List<Client> page = getClientsWithAccountsAfter(afterId, STREAMING_PAGE_SIZE);
+
+			for (Client client : page) {
+				handler.handle(client);
+			}
+
+			if (page.size() < STREAMING_PAGE_SIZE) {
+				return;
+			}
+			afterId = page.get(page.size() - 1).getId();
+		}
+	}
+
+	private Client withAccounts(ClientRecord record) {
+		Client client = record.toClient();
+
+		List<Account> accounts = new ArrayList<>(record.accountCount);
+		for (int i = 0; i < record.accountCount; i++) {
+			accounts.add(store.account(record.accountIds[i]).toAccount());
+		}
+		client.setAccounts(accounts);
+
+		return client;
+	}
+
+	@Override
+	public Client getClientById(int id) throws SQLException {
+		store.readLock().lock();
+		try {
+			ClientRecord client = store.client(id);
+			return client == null ? null : client.toClient();
+		} finally {
+			store.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Client addClient(AddOrEditClientDTO client) throws SQLException {
+		store.writeLock().lock();
+		try {
+			int id = store.nextClientId();
+			store.commit(new Mutation().putClient(id, client.getName(), client.getAge(), 0));
+
+			return store.client(id).toClient();
+		} finally {
+			store.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Every client and account is written in one log entry, which makes the whole list as atomic as the transaction
+	 * ClientDAOImpl uses. There are no round trips to save, so chunkSize has nothing to do
+	 */
+	@Override
+	public List<Client> addClientsWithAccounts(List<AddClientWithAccountsDTO> clients, int chunkSize) throws SQLException {
+		store.writeLock().lock();
+		try {
+			Mutation mutation = new Mutation();
+			int[] clientIds = new int[clients.size()];
+
+			for (int i = 0; i < clients.size(); i++) {
+				AddClientWithAccountsDTO client = clients.get(i);
+				clientIds[i] = store.nextClientId();
+				mutation.putClient(clientIds[i], client.getName(), client.getAge(), 0);
+
+				for (AddOrEditAccountDTO account : client.getAccounts()) {
+					mutation.putAccount(store.nextAccountId(), clientIds[i], account.getName(), account.getBalance(), 0);
+				}
+			}
+
+			store.commit(mutation);
+
+			List<Client> addedClients = new ArrayList<>(clients.size());
+			for (int clientId : clientIds) {
+				addedClients.add(withAccounts(store.client(clientId)));
+			}
+			return addedClients;
+		} finally {
+			store.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public Client editClient(int clientId, AddOrEditClientDTO client) throws SQLException {
+		store.writeLock().lock();
+		try {
+			ClientRecord current = store.client(clientId);
+			if (current == null || (client.getVersion() != null && client.getVersion() != current.version)) {
+				return null;
+			}
+
+			store.commit(new Mutation().putClient(clientId, client.getName(), client.getAge(), current.version + 1));
+
+			return current.toClient();
+		} finally {
+			store.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void deleteClient(int clientId) throws SQLException {
+		store.writeLock().lock();
+		try {
+			if (store.client(clientId) == null) {
+				throw new SQLException("Record was not able to be deleted");
+			}
+
+			store.commit(new Mutation().deleteClient(clientId));
+		} finally {
+			store.writeLock().unlock();
+		}
+	}
+
+}
@@ -0,0 +1,769 @@
+package com.revature.dao;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.revature.model.Account;
+import com.revature.model.Client;
+import com.revature.util.IntObjectMap;
+
+/**
+ * The data behind MemoryClientDAO and MemoryAccountDAO: every client and account held in memory, indexed the way the
+ * queries need it, and made durable with a write-ahead log plus periodic snapshots in one directory.
+ *
+ * Clients and accounts are kept in int-keyed maps. Each client also keeps the ids of its accounts in two sorted arrays,
+ * one by id and one by (balance, id), which play the part of the primary key and of idx_account_client_balance. The
+ * client ids of each age are kept in sorted arrays of their own, which play the part of idx_client_age.
+ *
+ * Reads share a read lock and writes take the write lock. A write is encoded as one Mutation, appended to the log and
+ * only then applied, by the same code that applies it again when the log is replayed on startup. Snapshots are written
+ * in the background, after which the log they cover is deleted.
+ */
+public class MemoryStore implements Closeable {
+
+	private static Logger logger = LoggerFactory.getLogger(MemoryStore.class);
+
+	private static final String SNAPSHOT_FILE = "snapshot.bin";
+	private static final String WAL_PREFIX = "wal-";
+	private static final String WAL_SUFFIX = ".log";
+
+	private static final int SNAPSHOT_MAGIC = 0x4a44424d;
+	private static final int SNAPSHOT_FORMAT = 1;
+
+	private static final byte PUT_CLIENT = 1;
+	private static final byte DELETE_CLIENT = 2;
+	private static final byte PUT_ACCOUNT = 3;
+	private static final byte DELETE_ACCOUNT = 4;
+
+	private static final int[] NO_IDS = new int[0];
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final IntObjectMap<ClientRecord> clients = new IntObjectMap<>();
+	private final IntObjectMap<AccountRecord> accounts = new IntObjectMap<>();
+
+	// Every client id in ascending order, for listings and keyset pagination
+	private int[] clientIds = new int[16];
+	private int clientCount;
+
+	// The ids of the clients of each age, in ascending order. There are only so many ages, and new ids are the highest
+	// yet, so adding a client is almost always an append to one of these
+	private final TreeMap<Integer, IdList> clientIdsByAge = new TreeMap<>();
+
+	private int nextClientId = 1;
+	private int nextAccountId = 1;
+
+	private final Path directory;
+	private final int walWindowBytes;
+	private final boolean walSync;
+
+	// Swapped by the snapshot while it holds the read lock, which keeps every writer out
+	private volatile WriteAheadLog wal;
+	private volatile long walGeneration;
+	private volatile boolean changedSinceSnapshot;
+
+	private ScheduledExecutorService snapshotter;
+
+	private MemoryStore(Path directory, int walWindowBytes, boolean walSync) {
+		this.directory = directory;
+		this.walWindowBytes = walWindowBytes;
+		this.walSync = walSync;
+	}
+
+	/**
+	 * Loads the latest snapshot in directory and replays the log written after it, then starts a new log
+	 *
+	 * @param walSync                whether every write is forced to disk before it returns, see WriteAheadLog
+	 * @param snapshotIntervalMillis how often a snapshot is written if anything has changed, 0 for only on close()
+	 */
+	public static MemoryStore open(Path directory, int walWindowBytes, boolean walSync, long snapshotIntervalMillis) throws IOException {
+		Files.createDirectories(directory);
+
+		MemoryStore store = new MemoryStore(directory, walWindowBytes, walSync);
+
+		long generation = 0;
+		Path snapshot = directory.resolve(SNAPSHOT_FILE);
+		if (Files.exists(snapshot)) {
+			generation = store.readSnapshot(snapshot);
+		}
+
+		// Logs older than the snapshot are only left over if deleting them failed, the snapshot already has their writes
+		long lastGeneration = generation;
+		int entries = 0;
+		for (long walFile : walGenerations(directory)) {
+			if (walFile >= generation) {
+				entries += WriteAheadLog.replay(walPath(directory, walFile), store::apply);
+				lastGeneration = walFile;
+			}
+		}
+
+		// Appending to the last log could put new entries behind a torn one, where replaying would never reach them
+		store.walGeneration = Math.max(generation, lastGeneration + 1);
+		store.wal = new WriteAheadLog(walPath(directory, store.walGeneration), walWindowBytes, walSync);
+		store.changedSinceSnapshot = entries > 0;
+
+		logger.info("Loaded {} clients and {} accounts from {}, {} of them from the write-ahead log", store.clients.size(),
+				store.accounts.size(), directory, entries);
+
+		if (snapshotIntervalMillis > 0) {
+			store.snapshotter = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+				Thread thread = new Thread(runnable, "memory-store-snapshot");
+				thread.setDaemon(true);
+				return thread;
+			});
+			store.snapshotter.scheduleWithFixedDelay(store::snapshotQuietly, snapshotIntervalMillis, snapshotIntervalMillis,
+					TimeUnit.MILLISECONDS);
+		}
+
+		return store;
+	}
+
+	Lock readLock() {
+		return lock.readLock();
+	}
+
+	Lock writeLock() {
+		return lock.writeLock();
+	}
+
+	/*
+	 * Everything below up to snapshot() must be called while holding the read or the write lock
+	 */
+
+	ClientRecord client(int clientId) {
+		return clients.get(clientId);
+	}
+
+	AccountRecord account(int accountId) {
+		return accounts.get(accountId);
+	}
+
+	int clientCount() {
+		return clientCount;
+	}
+
+	int clientIdAt(int index) {
+		return clientIds[index];
+	}
+
+	/**
+	 * @return the index in the ordered client ids of the first client with an id greater than afterId
+	 */
+	int firstClientAfter(int afterId) {
+		return upperBound(clientIds, clientCount, afterId);
+	}
+
+	/**
+	 * @return the ids, in ascending order, of at most limit clients aged minAge to maxAge with an id greater than afterId
+	 */
+	int[] clientIdsWithAgeBetween(int minAge, int maxAge, int afterId, int limit) {
+		if (minAge > maxAge) {
+			return NO_IDS;
+		}
+
+		// Without bounds the id order already is the answer
+		if (minAge == Integer.MIN_VALUE && maxAge == Integer.MAX_VALUE) {
+			int start = firstClientAfter(afterId);
+			int end = (int) Math.min((long) start + limit, clientCount);
+			return Arrays.copyOfRange(clientIds, start, end);
+		}
+
+		Collection<IdList> ages = clientIdsByAge.subMap(minAge, true, maxAge, true).values();
+
+		// The lowest limit ids of the whole range are among the lowest limit ids of each age
+		int candidates = 0;
+		for (IdList age : ages) {
+			candidates += Math.min(age.count - upperBound(age.ids, age.count, afterId), limit);
+		}
+
+		int[] ids = new int[candidates];
+		int count = 0;
+		for (IdList age : ages) {
+			int start = upperBound(age.ids, age.count, afterId);
+			int taken = Math.min(age.count - start, limit);
+			System.arraycopy(age.ids, start, ids, count, taken);
+			count += taken;
+		}
+
+		Arrays.sort(ids);
+		return ids.length > limit ? Arrays.copyOf(ids, limit) : ids;
+	}
+
+	/*
+	 * Writes, which need the write lock
+	 */
+
+	int nextClientId() {
+		return nextClientId++;
+	}
+
+	int nextAccountId() {
+		return nextAccountId++;
+	}
+
+	/**
+	 * Appends the mutation to the log and then applies it. If the log can't be written, nothing is applied
+	 */
+	void commit(Mutation mutation) throws SQLException {
+		byte[] payload = mutation.toByteArray();
+
+		try {
+			wal.append(payload);
+			apply(payload);
+		} catch (IOException e) {
+			throw new SQLException("Write-ahead log could not be written", e);
+		}
+
+		changedSinceSnapshot = true;
+	}
+
+	private void apply(byte[] payload) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+
+		while (in.available() > 0) {
+			byte op = in.readByte();
+			switch (op) {
+			case PUT_CLIENT:
+				putClient(in.readInt(), in.readUTF(), in.readInt(), in.readInt());
+				break;
+			case DELETE_CLIENT:
+				deleteClient(in.readInt());
+				break;
+			case PUT_ACCOUNT:
+				putAccount(in.readInt(), in.readInt(), in.readUTF(), in.readInt(), in.readInt());
+				break;
+			case DELETE_ACCOUNT:
+				deleteAccount(in.readInt());
+				break;
+			default:
+				throw new IOException("Unknown write-ahead log operation " + op);
+			}
+		}
+	}
+
+	private void putClient(int id, String name, int age, int version) {
+		ClientRecord client = clients.get(id);
+
+		if (client == null) {
+			client = new ClientRecord(id);
+			clients.put(id, client);
+
+			clientIds = insert(clientIds, clientCount, id);
+			clientCount++;
+			nextClientId = Math.max(nextClientId, id + 1);
+
+			clientIdsByAge.computeIfAbsent(age, (key) -> new IdList()).add(id);
+		} else if (client.age != age) {
+			removeFromAge(id, client.age);
+			clientIdsByAge.computeIfAbsent(age, (key) -> new IdList()).add(id);
+		}
+
+		client.name = name;
+		client.age = age;
+		client.version = version;
+	}
+
+	private void deleteClient(int id) {
+		ClientRecord client = clients.remove(id);
+		if (client == null) {
+			return;
+		}
+
+		// ON DELETE CASCADE
+		for (int i = 0; i < client.accountCount; i++) {
+			accounts.remove(client.accountIds[i]);
+		}
+
+		int index = Arrays.binarySearch(clientIds, 0, clientCount, id);
+		System.arraycopy(clientIds, index + 1, clientIds, index, clientCount - index - 1);
+		clientCount--;
+
+		removeFromAge(id, client.age);
+	}
+
+	private void removeFromAge(int id, int age) {
+		IdList ids = clientIdsByAge.get(age);
+		ids.remove(id);
+		if (ids.count == 0) {
+			clientIdsByAge.remove(age);
+		}
+	}
+
+	private void putAccount(int id, int clientId, String name, int balance, int version) throws IOException {
+		AccountRecord account = accounts.get(id);
+
+		if (account == null) {
+			ClientRecord client = clients.get(clientId);
+			if (client == null) {
+				throw new IOException("Account " + id + " belongs to client " + clientId + ", which does not exist");
+			}
+
+			account = new AccountRecord(id, clientId);
+			account.balance = balance;
+			accounts.put(id, account);
+
+			client.addAccount(id, balance);
+			nextAccountId = Math.max(nextAccountId, id + 1);
+		} else if (account.balance != balance) {
+			clients.get(account.clientId).moveAccount(id, account.balance, balance);
+			account.balance = balance;
+		}
+
+		account.name = name;
+		account.version = version;
+	}
+
+	private void deleteAccount(int id) {
+		AccountRecord account = accounts.remove(id);
+		if (account != null) {
+			clients.get(account.clientId).removeAccount(id, account.balance);
+		}
+	}
+
+	/**
+	 * Writes every client and account to a new snapshot and starts a new log, then deletes the logs the snapshot
+	 * replaces. Reads carry on while the snapshot is taken, writes wait until the data has been copied
+	 */
+	public synchronized void snapshot() throws IOException {
+		byte[] state;
+		long generation;
+		WriteAheadLog previousWal;
+
+		lock.readLock().lock();
+		try {
+			if (!changedSinceSnapshot) {
+				return;
+			}
+
+			state = serialize();
+
+			// Holding the read lock means no writer is in commit(), so nothing can be appended to the old log anymore
+			generation = walGeneration + 1;
+			previousWal = wal;
+			wal = new WriteAheadLog(walPath(directory, generation), walWindowBytes, walSync);
+			walGeneration = generation;
+			changedSinceSnapshot = false;
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		previousWal.close();
+
+		// Written next to the current snapshot and then renamed over it, so there is always one complete snapshot
+		Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(ByteBuffer.wrap(state));
+			channel.force(true);
+		}
+		Files.move(temporary, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		for (long walFile : walGenerations(directory)) {
+			if (walFile < generation) {
+				Files.deleteIfExists(walPath(directory, walFile));
+			}
+		}
+	}
+
+	// A failed snapshot is tried again next time, and until then the log still has every write
+	private void snapshotQuietly() {
+		try {
+			snapshot();
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Snapshot of {} could not be written. Message is {}", directory, e.getMessage());
+		}
+	}
+
+	/**
+	 * Stops the background snapshots, writes a last one and closes the log
+	 */
+	@Override
+	public void close() throws IOException {
+		if (snapshotter != null) {
+			snapshotter.shutdown();
+			try {
+				snapshotter.awaitTermination(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		snapshot();
+		wal.close();
+	}
+
+	// The snapshot names the first log generation it doesn't contain, followed by the clients and then the accounts,
+	// and ends with a CRC-32 of everything before it
+	private byte[] serialize() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + accounts.size() * 32);
+		CheckedOutputStream checked = new CheckedOutputStream(bytes, new CRC32());
+		DataOutputStream out = new DataOutputStream(checked);
+
+		out.writeInt(SNAPSHOT_MAGIC);
+		out.writeInt(SNAPSHOT_FORMAT);
+		out.writeLong(walGeneration + 1);
+		out.writeInt(nextClientId);
+		out.writeInt(nextAccountId);
+
+		out.writeInt(clientCount);
+		for (int i = 0; i < clientCount; i++) {
+			ClientRecord client = clients.get(clientIds[i]);
+			out.writeInt(client.id);
+			out.writeUTF(client.name);
+			out.writeInt(client.age);
+			out.writeInt(client.version);
+		}
+
+		out.writeInt(accounts.size());
+		for (int i = 0; i < clientCount; i++) {
+			ClientRecord client = clients.get(clientIds[i]);
+			for (int j = 0; j < client.accountCount; j++) {
+				AccountRecord account = accounts.get(client.accountIds[j]);
+				out.writeInt(account.id);
+				out.writeInt(account.clientId);
+				out.writeUTF(account.name);
+				out.writeInt(account.balance);
+				out.writeInt(account.version);
+			}
+		}
+
+		out.flush();
+		int checksum = (int) checked.getChecksum().getValue();
+		out.writeInt(checksum);
+		out.flush();
+
+		return bytes.toByteArray();
+	}
+
+	private long readSnapshot(Path snapshot) throws IOException {
+		try (CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(snapshot)), new CRC32())) {
+			DataInputStream in = new DataInputStream(checked);
+
+			if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_FORMAT) {
+				throw new IOException(snapshot + " is not a snapshot this version can read");
+			}
+
+			long generation = in.readLong();
+			int snapshotNextClientId = in.readInt();
+			int snapshotNextAccountId = in.readInt();
+
+			int clientTotal = in.readInt();
+			for (int i = 0; i < clientTotal; i++) {
+				putClient(in.readInt(), in.readUTF(), in.readInt(), in.readInt());
+			}
+
+			int accountTotal = in.readInt();
+			for (int i = 0; i < accountTotal; i++) {
+				putAccount(in.readInt(), in.readInt(), in.readUTF(), in.readInt(), in.readInt());
+			}
+
+			int expected = (int) checked.getChecksum().getValue();
+			if (in.readInt() != expected) {
+				throw new IOException(snapshot + " is corrupt, its checksum doesn't match");
+			}
+
+			// Ids are never reused, not even those of clients and accounts deleted before the snapshot
+			nextClientId = Math.max(nextClientId, snapshotNextClientId);
+			nextAccountId = Math.max(nextAccountId, snapshotNextAccountId);
+
+			return generation;
+		}
+	}
+
+	private static Path walPath(Path directory, long generation) {
+		return directory.resolve(String.format("%s%016d%s", WAL_PREFIX, generation, WAL_SUFFIX));
+	}
+
+	private static List<Long> walGenerations(Path directory) throws IOException {
+		List<Long> generations = new ArrayList<>();
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, WAL_PREFIX + "*" + WAL_SUFFIX)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				generations.add(Long.parseLong(name.substring(WAL_PREFIX.length(), name.length() - WAL_SUFFIX.length())));
+			}
+		}
+
+		Collections.sort(generations);
+		return generations;
+	}
+
+	// Inserts value into the first count elements of sorted, growing the array if it is full
+	private static int[] insert(int[] sorted, int count, int value) {
+		int index = upperBound(sorted, count, value);
+
+		// Ids are handed out in ascending order, so this is almost always an append
+		if (count == sorted.length) {
+			sorted = Arrays.copyOf(sorted, Math.max(4, count * 2));
+		}
+		System.arraycopy(sorted, index, sorted, index + 1, count - index);
+		sorted[index] = value;
+
+		return sorted;
+	}
+
+	// The index of the first of the first count elements of sorted that is greater than value
+	private static int upperBound(int[] sorted, int count, int value) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] <= value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	// A growable sorted array of ids
+	private static final class IdList {
+
+		private int[] ids = NO_IDS;
+		private int count;
+
+		private void add(int id) {
+			ids = insert(ids, count, id);
+			count++;
+		}
+
+		private void remove(int id) {
+			int index = Arrays.binarySearch(ids, 0, count, id);
+			System.arraycopy(ids, index + 1, ids, index, count - index - 1);
+			count--;
+		}
+
+	}
+
+	static final class ClientRecord {
+
+		final int id;
+		String name;
+		int age;
+		int version;
+
+		// The client's account ids in ascending order
+		int[] accountIds = NO_IDS;
+		int accountCount;
+
+		// The same accounts ordered by (balance, id): balanceKeys[i] is the balance of account balanceIds[i]. While an
+		// account's balance is being changed, it is briefly missing from these, so they have a count of their own
+		int[] balanceKeys = NO_IDS;
+		int[] balanceIds = NO_IDS;
+		int balanceCount;
+
+		private ClientRecord(int id) {
+			this.id = id;
+		}
+
+		/**
+		 * @return the position in the balance order of the first account with a balance of at least balance
+		 */
+		int firstWithBalanceAtLeast(int balance) {
+			return balancePosition(balance, Integer.MIN_VALUE);
+		}
+
+		/**
+		 * @return the position in the balance order after the last account with a balance of at most balance
+		 */
+		int endOfBalanceAtMost(int balance) {
+			return balancePosition(balance, Integer.MAX_VALUE);
+		}
+
+		/**
+		 * @return the position in the id order of the first account with an id greater than afterId
+		 */
+		int firstAccountAfter(int afterId) {
+			return upperBound(accountIds, accountCount, afterId);
+		}
+
+		Client toClient() {
+			Client client = new Client(id, name, age);
+			client.setVersion(version);
+			return client;
+		}
+
+		private void addAccount(int accountId, int balance) {
+			accountIds = insert(accountIds, accountCount, accountId);
+			accountCount++;
+
+			insertBalance(accountId, balance);
+		}
+
+		private void removeAccount(int accountId, int balance) {
+			int index = Arrays.binarySearch(accountIds, 0, accountCount, accountId);
+			System.arraycopy(accountIds, index + 1, accountIds, index, accountCount - index - 1);
+			accountCount--;
+
+			removeBalance(accountId, balance);
+		}
+
+		private void moveAccount(int accountId, int oldBalance, int newBalance) {
+			removeBalance(accountId, oldBalance);
+			insertBalance(accountId, newBalance);
+		}
+
+		private void insertBalance(int accountId, int balance) {
+			if (balanceCount == balanceIds.length) {
+				int capacity = Math.max(4, balanceCount * 2);
+				balanceKeys = Arrays.copyOf(balanceKeys, capacity);
+				balanceIds = Arrays.copyOf(balanceIds, capacity);
+			}
+
+			int index = balancePosition(balance, accountId);
+			System.arraycopy(balanceKeys, index, balanceKeys, index + 1, balanceCount - index);
+			System.arraycopy(balanceIds, index, balanceIds, index + 1, balanceCount - index);
+			balanceKeys[index] = balance;
+			balanceIds[index] = accountId;
+			balanceCount++;
+		}
+
+		private void removeBalance(int accountId, int balance) {
+			int index = balancePosition(balance, accountId);
+			System.arraycopy(balanceKeys, index + 1, balanceKeys, index, balanceCount - index - 1);
+			System.arraycopy(balanceIds, index + 1, balanceIds, index, balanceCount - index - 1);
+			balanceCount--;
+		}
+
+		// The first position in the balance order whose (balance, id) is not less than the given pair
+		private int balancePosition(int balance, int accountId) {
+			int low = 0;
+			int high = balanceCount;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (balanceKeys[middle] < balance || (balanceKeys[middle] == balance && balanceIds[middle] < accountId)) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+	}
+
+	static final class AccountRecord {
+
+		final int id;
+		final int clientId;
+		String name;
+		int balance;
+		int version;
+
+		private AccountRecord(int id, int clientId) {
+			this.id = id;
+			this.clientId = clientId;
+		}
+
+		Account toAccount() {
+			Account account = new Account(id, name, balance, clientId);
+			account.setVersion(version);
+			return account;
+		}
+
+	}
+
+	/**
+	 * One write, made of any number of row changes that are logged and applied together. Rows are always written
+	 * whole, so applying the same mutation twice leaves the same state as applying it once
+	 */
+	static final class Mutation {
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		private final DataOutputStream out = new DataOutputStream(bytes);
+
+		Mutation putClient(int id, String name, int age, int version) throws SQLException {
+			checkName(name);
+			try {
+				out.writeByte(PUT_CLIENT);
+				out.writeInt(id);
+				out.writeUTF(name);
+				out.writeInt(age);
+				out.writeInt(version);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			return this;
+		}
+
+		Mutation deleteClient(int id) {
+			try {
+				out.writeByte(DELETE_CLIENT);
+				out.writeInt(id);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			return this;
+		}
+
+		Mutation putAccount(int id, int clientId, String name, int balance, int version) throws SQLException {
+			checkName(name);
+			try {
+				out.writeByte(PUT_ACCOUNT);
+				out.writeInt(id);
+				out.writeInt(clientId);
+				out.writeUTF(name);
+				out.writeInt(balance);
+				out.writeInt(version);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			return this;
+		}
+
+		Mutation deleteAccount(int id) {
+			try {
+				out.writeByte(DELETE_ACCOUNT);
+				out.writeInt(id);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			return this;
+		}
+
+		private byte[] toByteArray() {
+			return bytes.toByteArray();
+		}
+
+		// Both tables declare name NOT NULL
+		private static void checkName(String name) throws SQLException {
+			if (name == null) {
+				throw new SQLIntegrityConstraintViolationException("Column 'name' cannot be null");
+			}
+		}
+
+	}
+
+}
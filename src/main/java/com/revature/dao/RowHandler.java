@@ -0,0 +1,12 @@
+package com.revature.dao;
+
+import java.io.IOException;
+
+// Receives rows one at a time while a DAO is still reading them from the ResultSet,
+// so callers can process (for example, write out) a large table without holding all of it in memory
+@FunctionalInterface
+public interface RowHandler<T> {
+
+	public abstract void handle(T row) throws IOException;
+	
+}
@@ -0,0 +1,127 @@
+package com.revature.dao;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.revature.util.ConfigUtility;
+
+/**
+ * Which accounts keep their balance striped over several slot rows (account_balance_slot), and how many slots each
+ * one has. Every deposit to an account row has to wait for the row lock held by the one before it, so an account that
+ * receives a lot of deposits at once can only take them one at a time. Deposits to a striped account instead go to one
+ * of its slots, picked by the depositing thread, so up to that many deposits can be written at the same time. The
+ * account's balance is its own balance column plus whatever its slots hold, until BalanceFoldJob moves the slots back
+ * into the account row.
+ *
+ * Striping is opt-in: with no striped accounts configured, every query reads the balance column as it always did.
+ */
+public class StripedBalances {
+
+	private static final StripedBalances DISABLED = new StripedBalances(Collections.<Integer>emptySet(), 1);
+
+	private final Set<Integer> accountIds;
+	private final int stripes;
+
+	public StripedBalances(Set<Integer> accountIds, int stripes) {
+		if (stripes < 1) {
+			throw new IllegalArgumentException("An account needs at least 1 balance slot, but " + stripes + " were asked for");
+		}
+
+		this.accountIds = Collections.unmodifiableSet(new HashSet<>(accountIds));
+		this.stripes = stripes;
+	}
+
+	public static StripedBalances disabled() {
+		return DISABLED;
+	}
+
+	/**
+	 * striped_accounts is a comma separated list of account ids, and balance_stripes the number of slots each of them
+	 * gets. Removing an account from the list only sends its new deposits back to the account row: whatever its slots
+	 * still hold is folded in by BalanceFoldJob, which only runs while at least one account is striped
+	 */
+	public static StripedBalances fromConfig() {
+		String accounts = ConfigUtility.getString("striped_accounts", "");
+
+		Set<Integer> accountIds = new HashSet<>();
+		for (String account : accounts.split(",")) {
+			if (account.trim().isEmpty()) {
+				continue;
+			}
+
+			try {
+				accountIds.add(Integer.parseInt(account.trim()));
+			} catch (NumberFormatException e) {
+				throw new IllegalStateException("striped_accounts is configured as " + accounts + ", but " + account.trim()
+						+ " is not an int");
+			}
+		}
+
+		if (accountIds.isEmpty()) {
+			return DISABLED;
+		}
+
+		return new StripedBalances(accountIds, ConfigUtility.getInt("balance_stripes", 8));
+	}
+
+	public boolean isEnabled() {
+		return !accountIds.isEmpty();
+	}
+
+	public boolean isStriped(int accountId) {
+		return accountIds.contains(accountId);
+	}
+
+	public Set<Integer> getAccountIds() {
+		return accountIds;
+	}
+
+	public int getStripes() {
+		return stripes;
+	}
+
+	/**
+	 * The slot the current thread deposits into. Requests are served by a fixed set of worker threads, so as long as
+	 * there are at least as many slots as workers, two concurrent deposits rarely land on the same slot
+	 */
+	public int slotForCurrentThread() {
+		long id = Thread.currentThread().getId();
+
+		// Thread ids are handed out sequentially, mixing them keeps consecutive ones from sharing a slot when the number
+		// of slots doesn't divide evenly
+		long mixed = id * 0x9E3779B97F4A7C15L;
+		return (int) ((mixed >>> 32) % stripes);
+	}
+
+	/**
+	 * The SQL for the balance of the account row aliased as alias. Once any account is striped this includes what its
+	 * slots hold, which for an account without slots is a lookup on the slot table's primary key that finds nothing
+	 */
+	public String balance(String alias) {
+		if (!isEnabled()) {
+			return alias + ".balance";
+		}
+
+		return "(" + alias + ".balance + " + slotSum(alias, "amount") + ")";
+	}
+
+	/**
+	 * The SQL for the version of the account row aliased as alias. A deposit to a slot never touches the account row,
+	 * so once any account is striped the version also counts the deposits its slots have taken. That way a deposit
+	 * still makes an edit conditional on the version it had before fail, without having to lock the account row
+	 */
+	public String version(String alias) {
+		if (!isEnabled()) {
+			return alias + ".version";
+		}
+
+		return "(" + alias + ".version + " + slotSum(alias, "deposits") + ")";
+	}
+
+	private static String slotSum(String alias, String column) {
+		return "COALESCE((SELECT SUM(s." + column + ") FROM jdbc_demo.account_balance_slot s WHERE s.account_id = " + alias
+				+ ".id), 0)";
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.revature.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.revature.util.MetricsRegistry;
+import com.revature.util.MetricsRegistry.CallMetrics;
+
+// Wraps a DAO in a proxy that times every call of its interface methods into dao_call_duration_seconds, counting the
+// calls that throw in dao_call_errors_total
+class TimedDAO implements InvocationHandler {
+
+	private final Object target;
+	
+	// Resolved once up front, so timing a call never has to build a metric name
+	private final Map<Method, CallMetrics> metrics = new HashMap<>();
+	
+	private TimedDAO(Object target, Class<?> daoInterface, MetricsRegistry registry) {
+		this.target = target;
+		
+		for (Method method : daoInterface.getMethods()) {
+			metrics.put(method, registry.callMetrics(daoInterface.getSimpleName(), method.getName()));
+		}
+	}
+	
+	static <T> T wrap(Class<T> daoInterface, T target, MetricsRegistry registry) {
+		return daoInterface.cast(Proxy.newProxyInstance(TimedDAO.class.getClassLoader(), new Class<?>[] { daoInterface },
+				new TimedDAO(target, daoInterface, registry)));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		CallMetrics callMetrics = metrics.get(method);
+		if (callMetrics == null) {
+			// equals, hashCode and toString
+			return invokeTarget(method, args);
+		}
+		
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			Object result = invokeTarget(method, args);
+			failed = false;
+			return result;
+		} finally {
+			callMetrics.record(System.nanoTime() - start, failed);
+		}
+	}
+	
+	private Object invokeTarget(Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+	
+}
@@ -0,0 +1,136 @@
+package com.revature.dao;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log file for MemoryStore. Every entry is written into a memory-mapped window of the file, so an append
+ * is a copy into the page cache rather than a system call, and it survives the process crashing as soon as the copy
+ * is done. Surviving a crash of the machine as well needs sync, which forces the window to disk after every append.
+ *
+ * Each entry is its length, its payload and a CRC-32 of the payload. Reading stops at the first entry that is
+ * incomplete or doesn't match its checksum, which is what a crash in the middle of an append leaves behind.
+ */
+class WriteAheadLog implements Closeable {
+
+	private static final int HEADER_SIZE = 4;
+	private static final int TRAILER_SIZE = 4;
+
+	private final FileChannel channel;
+	private final int windowBytes;
+	private final boolean sync;
+
+	private MappedByteBuffer window;
+	private long windowStart;
+
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * @param windowBytes how much of the file is mapped at a time. The file grows by this much whenever an entry doesn't
+	 *                    fit in what is left of the current window
+	 */
+	WriteAheadLog(Path file, int windowBytes, boolean sync) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.windowBytes = windowBytes;
+		this.sync = sync;
+		this.windowStart = channel.size();
+	}
+
+	/**
+	 * Not thread safe, MemoryStore only appends while holding its write lock
+	 */
+	void append(byte[] payload) throws IOException {
+		int size = HEADER_SIZE + payload.length + TRAILER_SIZE;
+
+		if (window == null || window.remaining() < size) {
+			// The next window starts right where the last entry ended, so the entries stay contiguous in the file.
+			// The previous window is unmapped once it has been garbage collected
+			long position = window == null ? windowStart : windowStart + window.position();
+			window = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(windowBytes, size));
+			windowStart = position;
+		}
+
+		crc.reset();
+		crc.update(payload, 0, payload.length);
+
+		window.putInt(payload.length);
+		window.put(payload);
+		window.putInt((int) crc.getValue());
+
+		if (sync) {
+			window.force();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (window != null) {
+			window.force();
+		}
+		channel.close();
+	}
+
+	/**
+	 * Passes the payload of every complete entry in file to handler, in the order they were appended
+	 *
+	 * @return how many entries were read
+	 */
+	static int replay(Path file, EntryHandler handler) throws IOException {
+		int entries = 0;
+		long remaining = Files.size(file);
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			CRC32 crc = new CRC32();
+
+			while (true) {
+				byte[] payload;
+				int checksum;
+				try {
+					int length = in.readInt();
+					remaining -= HEADER_SIZE;
+
+					// A window is mapped ahead of what has been written, so the end of the log is usually zeros. A
+					// length longer than the rest of the file can only be a torn write
+					if (length <= 0 || length > remaining - TRAILER_SIZE) {
+						break;
+					}
+					remaining -= length + TRAILER_SIZE;
+
+					payload = new byte[length];
+					in.readFully(payload);
+					checksum = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+
+				crc.reset();
+				crc.update(payload, 0, payload.length);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+
+				handler.handle(payload);
+				entries++;
+			}
+		}
+
+		return entries;
+	}
+
+	@FunctionalInterface
+	interface EntryHandler {
+
+		void handle(byte[] payload) throws IOException;
+
+	}
+
+}
@@ -0,0 +1,111 @@
+package com.revature.dto;
+
+// How many accounts a client has and what their balances add up to. The minimum and maximum are null for a client
+// without accounts
+public class AccountSummaryDTO {
+
+	private int clientId;
+	private int accountCount;
+	private long totalBalance;
+	private Integer minBalance;
+	private Integer maxBalance;
+
+	public AccountSummaryDTO() {
+		super();
+	}
+
+	public AccountSummaryDTO(int clientId, int accountCount, long totalBalance, Integer minBalance, Integer maxBalance) {
+		this.clientId = clientId;
+		this.accountCount = accountCount;
+		this.totalBalance = totalBalance;
+		this.minBalance = minBalance;
+		this.maxBalance = maxBalance;
+	}
+
+	public int getClientId() {
+		return clientId;
+	}
+
+	public void setClientId(int clientId) {
+		this.clientId = clientId;
+	}
+
+	public int getAccountCount() {
+		return accountCount;
+	}
+
+	public void setAccountCount(int accountCount) {
+		this.accountCount = accountCount;
+	}
+
+	public long getTotalBalance() {
+		return totalBalance;
+	}
+
+	public void setTotalBalance(long totalBalance) {
+		this.totalBalance = totalBalance;
+	}
+
+	public Integer getMinBalance() {
+		return minBalance;
+	}
+
+	public void setMinBalance(Integer minBalance) {
+		this.minBalance = minBalance;
+	}
+
+	public Integer getMaxBalance() {
+		return maxBalance;
+	}
+
+	public void setMaxBalance(Integer maxBalance) {
+		this.maxBalance = maxBalance;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + accountCount;
+		result = prime * result + clientId;
+		result = prime * result + ((maxBalance == null) ? 0 : maxBalance.hashCode());
+		result = prime * result + ((minBalance == null) ? 0 : minBalance.hashCode());
+		result = prime * result + (int) (totalBalance ^ (totalBalance >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		AccountSummaryDTO other = (AccountSummaryDTO) obj;
+		if (accountCount != other.accountCount)
+			return false;
+		if (clientId != other.clientId)
+			return false;
+		if (maxBalance == null) {
+			if (other.maxBalance != null)
+				return false;
+		} else if (!maxBalance.equals(other.maxBalance))
+			return false;
+		if (minBalance == null) {
+			if (other.minBalance != null)
+				return false;
+		} else if (!minBalance.equals(other.minBalance))
+			return false;
+		if (totalBalance != other.totalBalance)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "AccountSummaryDTO [clientId=" + clientId + ", accountCount=" + accountCount + ", totalBalance="
+				+ totalBalance + ", minBalance=" + minBalance + ", maxBalance=" + maxBalance + "]";
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.revature.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AddClientWithAccountsDTO {
+
+	private String name;
+	private int age;
+	private List<AddOrEditAccountDTO> accounts = new ArrayList<>();
+	
+	public AddClientWithAccountsDTO() {
+		super();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public int getAge() {
+		return age;
+	}
+
+	public void setAge(int age) {
+		this.age = age;
+	}
+
+	public List<AddOrEditAccountDTO> getAccounts() {
+		return accounts;
+	}
+
+	public void setAccounts(List<AddOrEditAccountDTO> accounts) {
+		this.accounts = accounts;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + age;
+		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + ((accounts == null) ? 0 : accounts.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		AddClientWithAccountsDTO other = (AddClientWithAccountsDTO) obj;
+		if (age != other.age)
+			return false;
+		if (name == null) {
+			if (other.name != null)
+				return false;
+		} else if (!name.equals(other.name))
+			return false;
+		if (accounts == null) {
+			if (other.accounts != null)
+				return false;
+		} else if (!accounts.equals(other.accounts))
+			return false;
+		return true;
+	}
+	
+}
@@ -8,6 +8,9 @@ public class AddOrEditAccountDTO {
 	private int balance;
 	private int clientId;
 	
+	// Only used by edits: when set, the edit only goes through if the account is still at this version
+	private Integer version;
+	
 	public AddOrEditAccountDTO() {
 		super();
 	}
@@ -18,6 +21,7 @@ public class AddOrEditAccountDTO {
 		int result = 1;
 		result = prime * result + balance;
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + Objects.hashCode(version);
 		return result;
 	}
 
@@ -30,7 +34,7 @@ public class AddOrEditAccountDTO {
 		if (getClass() != obj.getClass())
 			return false;
 		AddOrEditAccountDTO other = (AddOrEditAccountDTO) obj;
-		return balance == other.balance && Objects.equals(name, other.name);
+		return balance == other.balance && Objects.equals(name, other.name) && Objects.equals(version, other.version);
 	}
 
 	public String getName() {
@@ -56,6 +60,14 @@ public class AddOrEditAccountDTO {
 	public void setClientId(int clientId) {
 		this.clientId = clientId;
 	}
+	
+	public Integer getVersion() {
+		return version;
+	}
+	
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
 }
 	
 
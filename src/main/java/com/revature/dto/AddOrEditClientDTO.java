@@ -5,6 +5,9 @@ public class AddOrEditClientDTO {
 	private String name;
 	private int age;
 	
+	// Only used by edits: when set, the edit only goes through if the client is still at this version
+	private Integer version;
+	
 	public AddOrEditClientDTO() {
 		super();
 	}
@@ -25,12 +28,21 @@ public class AddOrEditClientDTO {
 		this.age = age;
 	}
 
+	public Integer getVersion() {
+		return version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + age;
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + ((version == null) ? 0 : version.hashCode());
 		return result;
 	}
 
@@ -50,6 +62,11 @@ public class AddOrEditClientDTO {
 				return false;
 		} else if (!name.equals(other.name))
 			return false;
+		if (version == null) {
+			if (other.version != null)
+				return false;
+		} else if (!version.equals(other.version))
+			return false;
 		return true;
 	}
 	
@@ -0,0 +1,46 @@
+package com.revature.dto;
+
+// The body of a deposit or withdrawal
+public class AmountDTO {
+
+	private int amount;
+	
+	public AmountDTO() {
+		super();
+	}
+	
+	public AmountDTO(int amount) {
+		this.amount = amount;
+	}
+
+	public int getAmount() {
+		return amount;
+	}
+
+	public void setAmount(int amount) {
+		this.amount = amount;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 + amount;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		AmountDTO other = (AmountDTO) obj;
+		return amount == other.amount;
+	}
+
+	@Override
+	public String toString() {
+		return "AmountDTO [amount=" + amount + "]";
+	}
+	
+}
@@ -0,0 +1,87 @@
+package com.revature.dto;
+
+// An account's balance right after a deposit or withdrawal, and the version the change left the account at
+public class BalanceDTO {
+
+	private int clientId;
+	private int accountId;
+	private int balance;
+	private int version;
+	
+	public BalanceDTO() {
+		super();
+	}
+	
+	public BalanceDTO(int clientId, int accountId, int balance) {
+		this.clientId = clientId;
+		this.accountId = accountId;
+		this.balance = balance;
+	}
+	
+	public BalanceDTO(int clientId, int accountId, int balance, int version) {
+		this(clientId, accountId, balance);
+		this.version = version;
+	}
+
+	public int getClientId() {
+		return clientId;
+	}
+
+	public void setClientId(int clientId) {
+		this.clientId = clientId;
+	}
+
+	public int getAccountId() {
+		return accountId;
+	}
+
+	public void setAccountId(int accountId) {
+		this.accountId = accountId;
+	}
+
+	public int getBalance() {
+		return balance;
+	}
+
+	public void setBalance(int balance) {
+		this.balance = balance;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public void setVersion(int version) {
+		this.version = version;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + accountId;
+		result = prime * result + balance;
+		result = prime * result + clientId;
+		result = prime * result + version;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		BalanceDTO other = (BalanceDTO) obj;
+		return accountId == other.accountId && balance == other.balance && clientId == other.clientId && version == other.version;
+	}
+
+	@Override
+	public String toString() {
+		return "BalanceDTO [clientId=" + clientId + ", accountId=" + accountId + ", balance=" + balance + ", version="
+				+ version + "]";
+	}
+	
+}
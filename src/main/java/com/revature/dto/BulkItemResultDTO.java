@@ -0,0 +1,85 @@
+package com.revature.dto;
+
+import com.revature.model.Client;
+
+// The outcome of one item of a bulk request: either the created client or the reason it was rejected
+public class BulkItemResultDTO {
+
+	private int index;
+	private Client client;
+	private String error;
+	
+	public BulkItemResultDTO() {
+		super();
+	}
+	
+	public BulkItemResultDTO(int index, Client client, String error) {
+		this.index = index;
+		this.client = client;
+		this.error = error;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public Client getClient() {
+		return client;
+	}
+
+	public void setClient(Client client) {
+		this.client = client;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + index;
+		result = prime * result + ((client == null) ? 0 : client.hashCode());
+		result = prime * result + ((error == null) ? 0 : error.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		BulkItemResultDTO other = (BulkItemResultDTO) obj;
+		if (index != other.index)
+			return false;
+		if (client == null) {
+			if (other.client != null)
+				return false;
+		} else if (!client.equals(other.client))
+			return false;
+		if (error == null) {
+			if (other.error != null)
+				return false;
+		} else if (!error.equals(other.error))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "BulkItemResultDTO [index=" + index + ", client=" + client + ", error=" + error + "]";
+	}
+	
+}
@@ -0,0 +1,136 @@
+package com.revature.dto;
+
+import com.revature.model.Account;
+import com.revature.model.Client;
+
+// One mutation read back from the journal. Which of client, account, toAccount and amount are set depends on the
+// operation
+public class JournalEntryDTO {
+
+	private long sequence;
+	private long timestamp;
+	private String operation;
+	private Client client;
+	private Account account;
+	private Account toAccount;
+	private int amount;
+
+	public JournalEntryDTO() {
+		super();
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public void setSequence(long sequence) {
+		this.sequence = sequence;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public void setTimestamp(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	public void setOperation(String operation) {
+		this.operation = operation;
+	}
+
+	public Client getClient() {
+		return client;
+	}
+
+	public void setClient(Client client) {
+		this.client = client;
+	}
+
+	public Account getAccount() {
+		return account;
+	}
+
+	public void setAccount(Account account) {
+		this.account = account;
+	}
+
+	public Account getToAccount() {
+		return toAccount;
+	}
+
+	public void setToAccount(Account toAccount) {
+		this.toAccount = toAccount;
+	}
+
+	public int getAmount() {
+		return amount;
+	}
+
+	public void setAmount(int amount) {
+		this.amount = amount;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((account == null) ? 0 : account.hashCode());
+		result = prime * result + amount;
+		result = prime * result + ((client == null) ? 0 : client.hashCode());
+		result = prime * result + ((operation == null) ? 0 : operation.hashCode());
+		result = prime * result + (int) (sequence ^ (sequence >>> 32));
+		result = prime * result + (int) (timestamp ^ (timestamp >>> 32));
+		result = prime * result + ((toAccount == null) ? 0 : toAccount.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		JournalEntryDTO other = (JournalEntryDTO) obj;
+		if (account == null) {
+			if (other.account != null)
+				return false;
+		} else if (!account.equals(other.account))
+			return false;
+		if (amount != other.amount)
+			return false;
+		if (client == null) {
+			if (other.client != null)
+				return false;
+		} else if (!client.equals(other.client))
+			return false;
+		if (operation == null) {
+			if (other.operation != null)
+				return false;
+		} else if (!operation.equals(other.operation))
+			return false;
+		if (sequence != other.sequence)
+			return false;
+		if (timestamp != other.timestamp)
+			return false;
+		if (toAccount == null) {
+			if (other.toAccount != null)
+				return false;
+		} else if (!toAccount.equals(other.toAccount))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "JournalEntryDTO [sequence=" + sequence + ", timestamp=" + timestamp + ", operation=" + operation
+				+ ", client=" + client + ", account=" + account + ", toAccount=" + toAccount + ", amount=" + amount + "]";
+	}
+
+}
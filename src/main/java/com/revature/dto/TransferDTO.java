@@ -0,0 +1,72 @@
+package com.revature.dto;
+
+// The body of a transfer: where the money goes (an account is identified by its client and its own id, like in the
+// URLs) and how much of it
+public class TransferDTO {
+
+	private int toClientId;
+	private int toAccountId;
+	private int amount;
+	
+	public TransferDTO() {
+		super();
+	}
+	
+	public TransferDTO(int toClientId, int toAccountId, int amount) {
+		this.toClientId = toClientId;
+		this.toAccountId = toAccountId;
+		this.amount = amount;
+	}
+
+	public int getToClientId() {
+		return toClientId;
+	}
+
+	public void setToClientId(int toClientId) {
+		this.toClientId = toClientId;
+	}
+
+	public int getToAccountId() {
+		return toAccountId;
+	}
+
+	public void setToAccountId(int toAccountId) {
+		this.toAccountId = toAccountId;
+	}
+
+	public int getAmount() {
+		return amount;
+	}
+
+	public void setAmount(int amount) {
+		this.amount = amount;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + amount;
+		result = prime * result + toAccountId;
+		result = prime * result + toClientId;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		TransferDTO other = (TransferDTO) obj;
+		return amount == other.amount && toAccountId == other.toAccountId && toClientId == other.toClientId;
+	}
+
+	@Override
+	public String toString() {
+		return "TransferDTO [toClientId=" + toClientId + ", toAccountId=" + toAccountId + ", amount=" + amount + "]";
+	}
+	
+}
@@ -0,0 +1,72 @@
+package com.revature.dto;
+
+import com.revature.model.Account;
+
+// Both accounts of a completed transfer, with their balances after it
+public class TransferResultDTO {
+
+	private Account from;
+	private Account to;
+	
+	public TransferResultDTO() {
+		super();
+	}
+	
+	public TransferResultDTO(Account from, Account to) {
+		this.from = from;
+		this.to = to;
+	}
+
+	public Account getFrom() {
+		return from;
+	}
+
+	public void setFrom(Account from) {
+		this.from = from;
+	}
+
+	public Account getTo() {
+		return to;
+	}
+
+	public void setTo(Account to) {
+		this.to = to;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((from == null) ? 0 : from.hashCode());
+		result = prime * result + ((to == null) ? 0 : to.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		TransferResultDTO other = (TransferResultDTO) obj;
+		if (from == null) {
+			if (other.from != null)
+				return false;
+		} else if (!from.equals(other.from))
+			return false;
+		if (to == null) {
+			if (other.to != null)
+				return false;
+		} else if (!to.equals(other.to))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "TransferResultDTO [from=" + from + ", to=" + to + "]";
+	}
+	
+}
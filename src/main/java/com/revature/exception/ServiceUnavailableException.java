@@ -0,0 +1,25 @@
+package com.revature.exception;
+
+public class ServiceUnavailableException extends Exception {
+
+	public ServiceUnavailableException() {
+	}
+
+	public ServiceUnavailableException(String message) {
+		super(message);
+	}
+
+	public ServiceUnavailableException(Throwable cause) {
+		super(cause);
+	}
+
+	public ServiceUnavailableException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public ServiceUnavailableException(String message, Throwable cause, boolean enableSuppression,
+			boolean writableStackTrace) {
+		super(message, cause, enableSuppression, writableStackTrace);
+	}
+
+}
@@ -6,6 +6,7 @@ public class Account {
 	private String name;
 	private int balance;
 	private int clientId;
+	private int version;
 	
 	
 	public Account() {
@@ -50,6 +51,14 @@ public class Account {
 		this.clientId = clientId;
 	}
 	
+	public int getVersion() {
+		return version;
+	}
+	
+	public void setVersion(int version) {
+		this.version = version;
+	}
+	
 
 	@Override
 	public int hashCode() {
@@ -58,6 +67,7 @@ public class Account {
 		result = prime * result + balance;
 		result = prime * result + id;
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + version;
 		return result;
 	}
 
@@ -76,6 +86,8 @@ public class Account {
 			return false;
 		if(clientId != other.clientId)
 			return false;
+		if (version != other.version)
+			return false;
 		if (name == null) {
 			if (other.name != null)
 				return false;
@@ -86,7 +98,7 @@ public class Account {
 
 	@Override
 	public String toString() {
-		return "Account [id=" + id + ", name=" + name + ", balance=" + balance + "]";
+		return "Account [id=" + id + ", name=" + name + ", balance=" + balance + ", version=" + version + "]";
 	}
 	
 }
@@ -2,14 +2,24 @@ package com.revature.model;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.revature.dto.AccountSummaryDTO;
+
 public class Client {
 
 	private int id;
 	private String name;
 	private int age;
+	private int version;
 	
+	// Left out of the JSON when the accounts weren't loaded, rather than looking like a client without any
+	@JsonInclude(JsonInclude.Include.NON_NULL)
 	List<Account> accounts;
 	
+	// Only filled in when asked for, and left out of the JSON otherwise
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private AccountSummaryDTO summary;
+	
 	// No-args constructor
 	public Client() {
 		super();
@@ -32,6 +42,14 @@ public class Client {
 		this.accounts = accounts;
 	}
 	
+	public AccountSummaryDTO getSummary() {
+		return summary;
+	}
+
+	public void setSummary(AccountSummaryDTO summary) {
+		this.summary = summary;
+	}
+	
 	public int getId() {
 		return id;
 	}
@@ -56,6 +74,14 @@ public class Client {
 		this.age = age;
 	}
 
+	public int getVersion() {
+		return version;
+	}
+
+	public void setVersion(int version) {
+		this.version = version;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -63,7 +89,9 @@ public class Client {
 		result = prime * result + age;
 		result = prime * result + id;
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + version;
 		result = prime * result + ((accounts == null) ? 0 : accounts.hashCode());
+		result = prime * result + ((summary == null) ? 0 : summary.hashCode());
 		return result;
 	}
 
@@ -80,6 +108,8 @@ public class Client {
 			return false;
 		if (id != other.id)
 			return false;
+		if (version != other.version)
+			return false;
 		if (name == null) {
 			if (other.name != null)
 				return false;
@@ -90,12 +120,17 @@ public class Client {
 				return false;
 		} else if (!accounts.equals(other.accounts))
 			return false;
+		if (summary == null) {
+			if (other.summary != null)
+				return false;
+		} else if (!summary.equals(other.summary))
+			return false;
 		return true;
 	}
 
 	@Override
 	public String toString() {
-		return "Client [id=" + id + ", name=" + name + ", age=" + age + ", accounts=" + accounts + "]";
+		return "Client [id=" + id + ", name=" + name + ", age=" + age + ", version=" + version + ", accounts=" + accounts + ", summary=" + summary + "]";
 	}
 
 }
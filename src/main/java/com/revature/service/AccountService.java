@@ -5,24 +5,39 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.revature.dao.AccountDAO;
-import com.revature.dao.AccountDAOImpl;
+import com.revature.dao.AccountQuery;
 import com.revature.dao.ClientDAO;
-import com.revature.dao.ClientDAOImpl;
+import com.revature.dao.DAOFactory;
+import com.revature.dto.AccountSummaryDTO;
 import com.revature.dto.AddOrEditAccountDTO;
+import com.revature.dto.AmountDTO;
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.TransferDTO;
+import com.revature.dto.TransferResultDTO;
 import com.revature.exception.BadParameterException;
+import com.revature.exception.ConflictException;
 import com.revature.exception.DatabaseException;
 import com.revature.exception.ClientNotFoundException;
 import com.revature.model.Account;
 import com.revature.model.Client;
+import com.revature.util.ConfigUtility;
 
 public class AccountService {
 
+	private static final int BULK_CHUNK_SIZE = ConfigUtility.getInt("bulk_chunk_size", 1000);
+
 	private AccountDAO accountDao;
 	private ClientDAO clientDao;
+	private ClientVersions versions;
+	private AccountSummaries summaries;
+	private MutationListener mutations;
 	
 	public AccountService() {
-		this.accountDao = new AccountDAOImpl();
-		this.clientDao = new ClientDAOImpl();
+		this.accountDao = DAOFactory.getAccountDao();
+		this.clientDao = DAOFactory.getClientDao();
+		this.versions = ClientVersions.getDefault();
+		this.summaries = AccountSummaries.getDefault();
+		this.mutations = MutationListener.of(summaries, MutationJournal.getDefault(), ChangeEvents.getDefault());
 	}
 	
 	// Define a constructor that takes in AccountDAO and ClientDAO to allow us to "inject" mockito mocked objects into
@@ -30,202 +45,374 @@ public class AccountService {
 	public AccountService(ClientDAO clientDao, AccountDAO accountDao) {
 		this.clientDao = clientDao;
 		this.accountDao = accountDao;
+		this.versions = new ClientVersions();
+		this.summaries = new AccountSummaries(1000);
+		this.mutations = summaries;
+	}
+	
+	// Accounts share the version of the client they belong to, so any filter, order or page of them has the same ETag
+	public String getAccountsETag(String clientIdString) throws BadParameterException {
+		return versions.eTag(parseId(clientIdString));
 	}
 	
 	public List<Account> getAllAccountsFromClient(String clientIdString, String lessThanString, String greaterThanString) throws BadParameterException, DatabaseException, ClientNotFoundException {
-		boolean lessThanValue = false;
-		boolean greaterThanValue = false;
-		int greaterThan = 0;
-		int lessThan = 0;
-		List<Account> accounts = null;
-		try {
-			
-			int clientId = Integer.parseInt(clientIdString);
-			
-			if(clientDao.getClientById(clientId) == null) {
-				throw new ClientNotFoundException("Client with id " + clientId + " was not found");
-			}
+		return getAccountsFromClient(clientIdString, lessThanString, greaterThanString, null, null, null);
+	}
+	
+	// All of the filters, the ordering and the pagination combine into a single AccountQuery, so whatever the user
+	// asks for is answered by one statement
+	public List<Account> getAccountsFromClient(String clientIdString, String lessThanString, String greaterThanString,
+			String afterString, String limitString, String sortString) throws BadParameterException, DatabaseException, ClientNotFoundException {
+		int clientId = parseId(clientIdString);
+		
+		AccountQuery query = AccountQuery.forClient(clientId);
+		
+		if (lessThanString != null) {
 			try {
-				if(lessThanString != null)
-				{
-					lessThan = Integer.parseInt(lessThanString);
-					lessThanValue = true;
-				}
-				
+				query.balanceAtMost(Integer.parseInt(lessThanString));
 			} catch (NumberFormatException e) {
 				throw new BadParameterException(lessThanString + " was passed in by the user as the less than value, " + "but it is not an int");
 			}
+		}
+		
+		if (greaterThanString != null) {
 			try {
-				if(greaterThanString != null)
-				{
-					greaterThan = Integer.parseInt(greaterThanString);
-					greaterThanValue = true;
-				}
-				
+				query.balanceAtLeast(Integer.parseInt(greaterThanString));
 			} catch (NumberFormatException e) {
-				throw new BadParameterException(greaterThanString + " was passed in by the user as the less than value, " + "but it is not an int");
-			}
-			
-			if(lessThanValue && greaterThanValue) {
-				accounts = accountDao.getAccountsBetween(clientId, lessThan, greaterThan);
-				
+				throw new BadParameterException(greaterThanString + " was passed in by the user as the greater than value, " + "but it is not an int");
 			}
-			else if(lessThanValue) {
-				accounts = accountDao.getAccountsLessThan(clientId, lessThan);
-				
-			}
-			else if(greaterThanValue) {
-				accounts = accountDao.getAccountsGreaterThan(clientId, greaterThan);
+		}
+		
+		query.sortBy(parseSort(sortString));
+		
+		if (Pagination.isRequested(afterString, limitString)) {
+			if (afterString != null) {
+				if (query.getSort() != AccountQuery.Sort.ID) {
+					throw new BadParameterException("after can only be used when accounts are sorted by id");
+				}
 				
+				query.after(Pagination.parseAfter(afterString));
 			}
-			else {
 			
-				accounts = accountDao.getAllAccountsFromClient(clientId);	
-			}
-			if(accounts == null) {
-				throw new ClientNotFoundException("No Accounts found for client");
+			query.limit(Pagination.parseLimit(limitString));
+		}
+		
+		try {
+			if(clientDao.getClientById(clientId) == null) {
+				throw new ClientNotFoundException("Client with id " + clientId + " was not found");
 			}
 			
-			
-			return accounts;
-			
+			return accountDao.findAccounts(query);
 		} catch (SQLException e) {
 			throw new DatabaseException(e.getMessage());
-		} catch (NumberFormatException e) {
-			throw new BadParameterException(clientIdString + " was passed in by the user as the id, " + "but it is not an int");
 		}
 	}
-
-	public Account addAccount(AddOrEditAccountDTO account) throws DatabaseException, BadParameterException {
-		if (account.getName().trim().equals("") && account.getBalance() < 0) {
-			throw new BadParameterException("Account name cannot be blank and balance cannot be less than 0");
+	
+	private AccountQuery.Sort parseSort(String sortString) throws BadParameterException {
+		if (sortString == null || sortString.equals("id")) {
+			return AccountQuery.Sort.ID;
 		}
 		
-		if (account.getName().trim().equals("")) {
-			throw new BadParameterException("Account name cannot be blank");
+		if (sortString.equals("balance")) {
+			return AccountQuery.Sort.BALANCE_ASC;
 		}
 		
-		if (account.getBalance() < 0) {
-			throw new BadParameterException("Account balance cannot be less than 0");
+		if (sortString.equals("-balance")) {
+			return AccountQuery.Sort.BALANCE_DESC;
 		}
 		
+		throw new BadParameterException(sortString + " was passed in by the user as the sort, " + "but it is not one of id, balance or -balance");
+	}
+
+	// Kept up to date by every account write, so only the first request for a client reads its accounts
+	public AccountSummaryDTO getAccountSummary(String clientIdString) throws BadParameterException, DatabaseException, ClientNotFoundException {
+		int clientId = parseId(clientIdString);
+		
 		try {
-			Account addedAccount = accountDao.addAccount(account);
+			AccountSummaryDTO summary = summaries.get(clientId, () -> clientDao.getClientById(clientId) == null ? null
+					: accountDao.findAccounts(AccountQuery.forClient(clientId).columns(AccountQuery.Column.BALANCE)));
 			
-			return addedAccount;
+			if (summary == null) {
+				throw new ClientNotFoundException("Client with id " + clientId + " was not found");
+			}
+			
+			return summary;
 		} catch (SQLException e) {
 			throw new DatabaseException(e.getMessage());
 		}
 	}
 
-	public Account getAccountById(String clientIdString, String accountIdString) throws ClientNotFoundException, DatabaseException, BadParameterException {
+	public Account addAccount(AddOrEditAccountDTO account) throws DatabaseException, BadParameterException {
+		validateAccount(account);
+		
+		boolean written = false;
+		summaries.writing(account.getClientId());
 		try {
+			Account addedAccount = accountDao.addAccount(account);
+			written = true;
+			mutations.accountAdded(addedAccount);
 			
-			int clientId = Integer.parseInt(clientIdString);
-			
+			return addedAccount;
+		} catch (SQLException e) {
+			throw new DatabaseException(e.getMessage());
+		} finally {
+			versions.bump(account.getClientId(), written);
+			summaries.written(account.getClientId());
+		}
+	}
+	
+	// Every account is validated before anything is written, then all of them are inserted in one transaction,
+	// so the import either fully succeeds or leaves the database untouched
+	public List<Account> addAccounts(String clientIdString, List<AddOrEditAccountDTO> accounts) throws DatabaseException, BadParameterException, ClientNotFoundException {
+		int clientId = parseId(clientIdString);
+		
+		if (accounts == null || accounts.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		for (int i = 0; i < accounts.size(); i++) {
+			AddOrEditAccountDTO account = accounts.get(i);
 			
-			if(clientDao.getClientById(clientId) == null) {
-				throw new ClientNotFoundException("Client with id " + clientId + " was not found");
+			if (account == null) {
+				throw new BadParameterException("Account at index " + i + " is missing");
 			}
 			
 			try {
-				
-				int accountId = Integer.parseInt(accountIdString);
-				
-				if(accountDao.getAccountById(clientId,accountId) == null) {
-					throw new ClientNotFoundException("Account with id " + accountId + " was not found");
-				}
-				
-				Account targetAccount = accountDao.getAccountById(clientId,accountId);
-				return targetAccount;
-				
-				
-				
-			} catch (SQLException e) {
-				throw new DatabaseException(e.getMessage());
-			} catch (NumberFormatException e) {
-				throw new BadParameterException(accountIdString + " was passed in by the user as the id, " + "but it is not an int");
+				validateAccount(account);
+			} catch (BadParameterException e) {
+				throw new BadParameterException("Account at index " + i + ": " + e.getMessage());
 			}
 			
+			// The client in the path is the one the accounts are imported into, whatever the body says
+			account.setClientId(clientId);
+		}
+		
+		boolean written = false;
+		summaries.writing(clientId);
+		try {
+			if (clientDao.getClientById(clientId) == null) {
+				throw new ClientNotFoundException("Client with id " + clientId + " was not found");
+			}
 			
+			List<Account> addedAccounts = accountDao.addAccounts(accounts, BULK_CHUNK_SIZE);
+			written = true;
+			for (Account addedAccount : addedAccounts) {
+				mutations.accountAdded(addedAccount);
+			}
 			
+			return addedAccounts;
 		} catch (SQLException e) {
 			throw new DatabaseException(e.getMessage());
-		} catch (NumberFormatException e) {
-			throw new BadParameterException(clientIdString + " was passed in by the user as the id, " + "but it is not an int");
+		} finally {
+			versions.bump(clientId, written);
+			summaries.written(clientId);
+		}
+	}
+	
+	static void validateAccount(AddOrEditAccountDTO account) throws BadParameterException {
+		String name = account.getName() == null ? "" : account.getName().trim();
+		
+		if (name.equals("") && account.getBalance() < 0) {
+			throw new BadParameterException("Account name cannot be blank and balance cannot be less than 0");
+		}
+		
+		if (name.equals("")) {
+			throw new BadParameterException("Account name cannot be blank");
+		}
+		
+		if (account.getBalance() < 0) {
+			throw new BadParameterException("Account balance cannot be less than 0");
 		}
 	}
 
-	public Account editAccount(String clientIdString, String accountIdString, AddOrEditAccountDTO accountToEdit) throws ClientNotFoundException, BadParameterException, DatabaseException {
-try {
-			
-			int clientId = Integer.parseInt(clientIdString);
+	public Account getAccountById(String clientIdString, String accountIdString) throws ClientNotFoundException, DatabaseException, BadParameterException {
+		int clientId = parseId(clientIdString);
+		int accountId = parseId(accountIdString);
+		
+		try {
+			// The account lookup is already filtered by client id, so finding the account proves the client exists too
+			Account targetAccount = accountDao.getAccountById(clientId, accountId);
 			
-			if(clientDao.getClientById(clientId) == null) {
-				throw new ClientNotFoundException("Client with id " + clientId + " was not found");
+			if (targetAccount == null) {
+				throw accountOrClientNotFound(clientId, accountId);
 			}
 			
-			try {
-				
-				int accountId = Integer.parseInt(accountIdString);
-				
-				if(accountDao.getAccountById(clientId,accountId) == null) {
-					throw new ClientNotFoundException("Account with id " + accountId + " was not found");
+			return targetAccount;
+		} catch (SQLException e) {
+			throw new DatabaseException(e.getMessage());
+		}
+	}
+
+	public Account editAccount(String clientIdString, String accountIdString, AddOrEditAccountDTO accountToEdit) throws ClientNotFoundException, BadParameterException, DatabaseException, ConflictException {
+		int clientId = parseId(clientIdString);
+		int accountId = parseId(accountIdString);
+		
+		boolean written = false;
+		summaries.editing(clientId);
+		try {
+			// No existence check up front: the UPDATE matching no row is how we find out the account doesn't exist, or
+			// that it is no longer at the version the caller expected
+			Account targetAccount = accountDao.editAccount(clientId, accountId, accountToEdit);
+			
+			if (targetAccount == null) {
+				Account currentAccount = accountDao.getAccountById(clientId, accountId);
+				if (currentAccount == null) {
+					throw accountOrClientNotFound(clientId, accountId);
 				}
-				Account targetAccount = accountDao.editAccount(clientId,accountId, accountToEdit);
 				
-				return targetAccount;
-				
-				
-			} catch (SQLException e) {
-				throw new DatabaseException(e.getMessage());
-			} catch (NumberFormatException e) {
-				throw new BadParameterException(accountIdString + " was passed in by the user as the id, " + "but it is not an int");
+				throw new ConflictException("Account with id " + accountId + " is at version " + currentAccount.getVersion()
+						+ ", but version " + accountToEdit.getVersion() + " was expected");
 			}
 			
+			written = true;
+			mutations.accountEdited(targetAccount);
 			
-			
+			return targetAccount;
 		} catch (SQLException e) {
 			throw new DatabaseException(e.getMessage());
-		} catch (NumberFormatException e) {
-			throw new BadParameterException(clientIdString + " was passed in by the user as the id, " + "but it is not an int");
+		} finally {
+			// Bumped after the write, even a failed one, so a concurrent read can never pair the new ETag with old data
+			versions.bump(clientId, written);
+			summaries.edited(clientId);
 		}
 	}
 
 	public void deleteAccount(String clientIdString, String accountIdString) throws ClientNotFoundException, DatabaseException, BadParameterException {
-try {
+		int clientId = parseId(clientIdString);
+		int accountId = parseId(accountIdString);
+		
+		boolean written = false;
+		summaries.writing(clientId);
+		try {
+			if (!accountDao.deleteAccount(clientId, accountId)) {
+				throw accountOrClientNotFound(clientId, accountId);
+			}
 			
-			int clientId = Integer.parseInt(clientIdString);
+			written = true;
+			mutations.accountDeleted(clientId, accountId);
+		} catch (SQLException e) {
+			throw new DatabaseException(e.getMessage());
+		} finally {
+			versions.bump(clientId, written);
+			summaries.written(clientId);
+		}
+	}
+	
+	public BalanceDTO deposit(String clientIdString, String accountIdString, AmountDTO deposit) throws BadParameterException, ClientNotFoundException, DatabaseException {
+		return changeBalance(clientIdString, accountIdString, deposit, "deposit", 1);
+	}
+	
+	public BalanceDTO withdraw(String clientIdString, String accountIdString, AmountDTO withdrawal) throws BadParameterException, ClientNotFoundException, DatabaseException {
+		return changeBalance(clientIdString, accountIdString, withdrawal, "withdraw", -1);
+	}
+	
+	// One UPDATE does the arithmetic and the balance check together, so callers no longer read, compute and write back
+	// the balance themselves (which loses updates under concurrency). When it matches no row, a second lookup finds out
+	// whether the account is missing or the balance too low
+	private BalanceDTO changeBalance(String clientIdString, String accountIdString, AmountDTO amount, String operation, int sign) throws BadParameterException, ClientNotFoundException, DatabaseException {
+		int clientId = parseId(clientIdString);
+		int accountId = parseId(accountIdString);
+		
+		if (amount == null || amount.getAmount() <= 0) {
+			throw new BadParameterException("Amount to " + operation + " must be greater than 0");
+		}
+		
+		boolean written = false;
+		summaries.writing(clientId);
+		try {
+			BalanceDTO result = accountDao.changeBalance(clientId, accountId, sign * amount.getAmount());
 			
-			if(clientDao.getClientById(clientId) == null) {
-				throw new ClientNotFoundException("Client with id " + clientId + " was not found");
+			if (result == null) {
+				Account account = accountDao.getAccountById(clientId, accountId);
+				if (account == null) {
+					throw accountOrClientNotFound(clientId, accountId);
+				}
+				
+				throw new BadParameterException("Account with id " + accountId + " has a balance of " + account.getBalance()
+						+ ", which is not enough to " + operation + " " + amount.getAmount());
 			}
 			
-			try {
-				
-				int accountId = Integer.parseInt(accountIdString);
-				
-				if(accountDao.getAccountById(clientId,accountId) == null) {
-					throw new ClientNotFoundException("Account with id " + accountId + " was not found");
+			written = true;
+			mutations.balanceChanged(result, sign * amount.getAmount());
+			
+			return result;
+		} catch (SQLException e) {
+			throw new DatabaseException(e.getMessage());
+		} finally {
+			versions.bump(clientId, written);
+			summaries.written(clientId);
+		}
+	}
+	
+	// The transfer is a single transaction that checks everything it needs to while holding the row locks. Only a
+	// transfer that didn't happen pays for looking the accounts up again, to tell the user why
+	public TransferResultDTO transfer(String clientIdString, String accountIdString, TransferDTO transfer) throws BadParameterException, ClientNotFoundException, DatabaseException {
+		int clientId = parseId(clientIdString);
+		int accountId = parseId(accountIdString);
+		
+		if (transfer == null) {
+			throw new BadParameterException("Transfer is missing");
+		}
+		
+		if (transfer.getAmount() <= 0) {
+			throw new BadParameterException("Transfer amount must be greater than 0");
+		}
+		
+		if (transfer.getToClientId() == clientId && transfer.getToAccountId() == accountId) {
+			throw new BadParameterException("An account cannot transfer to itself");
+		}
+		
+		boolean written = false;
+		summaries.writing(clientId);
+		summaries.writing(transfer.getToClientId());
+		try {
+			TransferResultDTO result = accountDao.transfer(clientId, accountId, transfer.getToClientId(), transfer.getToAccountId(), transfer.getAmount());
+			
+			if (result == null) {
+				Account from = accountDao.getAccountById(clientId, accountId);
+				if (from == null) {
+					throw accountOrClientNotFound(clientId, accountId);
 				}
-				accountDao.deleteAccount(clientId,accountId);
-				
 				
+				if (accountDao.getAccountById(transfer.getToClientId(), transfer.getToAccountId()) == null) {
+					throw accountOrClientNotFound(transfer.getToClientId(), transfer.getToAccountId());
+				}
 				
-			} catch (SQLException e) {
-				throw new DatabaseException(e.getMessage());
-			} catch (NumberFormatException e) {
-				throw new BadParameterException(accountIdString + " was passed in by the user as the id, " + "but it is not an int");
+				throw new BadParameterException("Account with id " + accountId + " has a balance of " + from.getBalance()
+						+ ", which is not enough to transfer " + transfer.getAmount());
 			}
 			
+			written = true;
+			mutations.transferred(result, transfer.getAmount());
 			
-			
+			return result;
 		} catch (SQLException e) {
 			throw new DatabaseException(e.getMessage());
-		} catch (NumberFormatException e) {
-			throw new BadParameterException(clientIdString + " was passed in by the user as the id, " + "but it is not an int");
+		} finally {
+			versions.bump(clientId, written);
+			versions.bump(transfer.getToClientId(), written);
+			summaries.written(clientId);
+			summaries.written(transfer.getToClientId());
+		}
+	}
+	
+	// Only used once a statement filtered by client id and account id has matched nothing, to tell the user which of
+	// the two does not exist. The happy path never pays for this extra lookup
+	private ClientNotFoundException accountOrClientNotFound(int clientId, int accountId) throws SQLException {
+		if (clientDao.getClientById(clientId) == null) {
+			return new ClientNotFoundException("Client with id " + clientId + " was not found");
 		}
 		
+		return new ClientNotFoundException("Account with id " + accountId + " was not found");
+	}
+	
+	private int parseId(String idString) throws BadParameterException {
+		try {
+			return Integer.parseInt(idString);
+		} catch (NumberFormatException e) {
+			throw new BadParameterException(idString + " was passed in by the user as the id, " + "but it is not an int");
+		}
 	}
 	
+	
 }
@@ -0,0 +1,326 @@
+package com.revature.service;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.revature.dto.AccountSummaryDTO;
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.TransferResultDTO;
+import com.revature.model.Account;
+import com.revature.model.Client;
+import com.revature.util.ConfigUtility;
+import com.revature.util.IntObjectMap;
+
+/**
+ * The account count and the total, smallest and largest balance of each client, kept up to date from the writes
+ * ClientService and AccountService report instead of being added up from the accounts on every read. A client's
+ * summary is loaded from its balances the first time it is asked for, and the least recently used one is dropped once
+ * account_summaries_max_clients are held.
+ *
+ * Writes are reported after they have committed, so two writes racing on the same client can be reported in the other
+ * order. Deposits, withdrawals and transfers are therefore applied as the amounts they moved, which add up the same in
+ * any order. An edit sets the balance outright, so one that raced with another write to the same client (one under way
+ * when the edit started, or started before the edit was reported) drops the summary and the next read loads it again.
+ *
+ * A write that is under way while a summary loads may or may not be in what the query returns, and would be counted a
+ * second time if it was. Services call writing() before and written() after every write to a client's accounts
+ * (editing() and edited() for an edit), and a load that overlapped one is returned to its caller but not kept.
+ */
+public class AccountSummaries implements MutationListener {
+
+	private static final AccountSummaries DEFAULT = new AccountSummaries(ConfigUtility.getInt("account_summaries_max_clients", 100000));
+
+	private final int maxClients;
+
+	// Everything below is guarded by this. Access-ordered, so the eldest entry is always the least recently used one
+	private final LinkedHashMap<Integer, Summary> summaries = new LinkedHashMap<>(16, 0.75f, true);
+
+	// How many writes to each client have started and not yet finished. Only clients with a write under way are in it
+	private final Map<Integer, Integer> writesInFlight = new HashMap<>();
+	private final List<InFlight> loads = new ArrayList<>();
+	private final List<InFlight> edits = new ArrayList<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public AccountSummaries(int maxClients) {
+		this.maxClients = maxClients;
+	}
+
+	// ClientService and AccountService both write accounts, so they have to keep the same summaries up to date
+	public static AccountSummaries getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Must be called before a write to any of clientId's accounts (or to the client itself, for a delete), and
+	 * written() once it has been reported, whether it succeeded or not
+	 */
+	public synchronized void writing(int clientId) {
+		writesInFlight.merge(clientId, 1, Integer::sum);
+
+		overlap(loads, clientId);
+		overlap(edits, clientId);
+	}
+
+	public synchronized void written(int clientId) {
+		writesInFlight.computeIfPresent(clientId, (id, writes) -> writes == 1 ? null : writes - 1);
+	}
+
+	/**
+	 * writing() for an edit of one of clientId's accounts, which also keeps track of whether any other write to the
+	 * client overlaps it until edited() is called
+	 */
+	public synchronized void editing(int clientId) {
+		InFlight edit = new InFlight(clientId);
+		edit.overlapped = writesInFlight.containsKey(clientId);
+
+		writing(clientId);
+		edits.add(edit);
+	}
+
+	public synchronized void edited(int clientId) {
+		for (Iterator<InFlight> iterator = edits.iterator(); iterator.hasNext();) {
+			if (iterator.next().clientId == clientId) {
+				iterator.remove();
+				break;
+			}
+		}
+
+		written(clientId);
+	}
+
+	private static void overlap(List<InFlight> inFlight, int clientId) {
+		for (InFlight write : inFlight) {
+			if (write.clientId == clientId) {
+				write.overlapped = true;
+			}
+		}
+	}
+
+	/**
+	 * @param loader reads the client's accounts (only the balance is needed) if the summary isn't held yet
+	 * @return the client's summary, or null if loader returned null because the client doesn't exist
+	 */
+	public AccountSummaryDTO get(int clientId, Loader loader) throws SQLException {
+		InFlight load = new InFlight(clientId);
+		synchronized (this) {
+			Summary summary = summaries.get(clientId);
+			if (summary != null) {
+				hits.increment();
+				return summary.toDTO(clientId);
+			}
+
+			load.overlapped = writesInFlight.containsKey(clientId);
+			loads.add(load);
+		}
+		misses.increment();
+
+		Summary loaded = null;
+		try {
+			List<Account> accounts = loader.load();
+			if (accounts == null) {
+				return null;
+			}
+
+			loaded = new Summary(accounts);
+			return loaded.toDTO(clientId);
+		} finally {
+			synchronized (this) {
+				loads.remove(load);
+
+				if (loaded != null && !load.overlapped) {
+					store(clientId, loaded);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds up accounts without keeping the result, for a caller that has just read them anyway
+	 */
+	public static AccountSummaryDTO summarize(int clientId, List<Account> accounts) {
+		return new Summary(accounts).toDTO(clientId);
+	}
+
+	public synchronized int size() {
+		return summaries.size();
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	private void store(int clientId, Summary summary) {
+		summaries.put(clientId, summary);
+
+		Iterator<Summary> eldest = summaries.values().iterator();
+		while (summaries.size() > maxClients && eldest.hasNext()) {
+			eldest.next();
+			eldest.remove();
+			evictions.increment();
+		}
+	}
+
+	@Override
+	public synchronized void clientAdded(Client client) {
+		// A new client has no accounts yet, apart from the ones reported right after it
+		if (!summaries.containsKey(client.getId())) {
+			store(client.getId(), new Summary(new ArrayList<>()));
+		}
+	}
+
+	@Override
+	public void clientEdited(Client client) {
+	}
+
+	@Override
+	public synchronized void clientDeleted(int clientId) {
+		summaries.remove(clientId);
+	}
+
+	@Override
+	public synchronized void accountAdded(Account account) {
+		Summary summary = summaries.get(account.getClientId());
+		if (summary != null) {
+			summary.put(account.getId(), account.getBalance());
+		}
+	}
+
+	@Override
+	public synchronized void accountEdited(Account account) {
+		Summary summary = summaries.get(account.getClientId());
+		if (summary == null) {
+			return;
+		}
+
+		// This write counts itself as one. A write that has already been reported can still have committed after the
+		// edit did, which only the edit having been overlapped tells
+		boolean raced = writesInFlight.getOrDefault(account.getClientId(), 0) > 1;
+		for (InFlight edit : edits) {
+			raced |= edit.clientId == account.getClientId() && edit.overlapped;
+		}
+
+		if (raced) {
+			summaries.remove(account.getClientId());
+			evictions.increment();
+		} else {
+			summary.put(account.getId(), account.getBalance());
+		}
+	}
+
+	@Override
+	public synchronized void accountDeleted(int clientId, int accountId) {
+		Summary summary = summaries.get(clientId);
+		if (summary != null) {
+			summary.remove(accountId);
+		}
+	}
+
+	@Override
+	public synchronized void balanceChanged(BalanceDTO balance, int amount) {
+		change(balance.getClientId(), balance.getAccountId(), amount);
+	}
+
+	@Override
+	public synchronized void transferred(TransferResultDTO transfer, int amount) {
+		change(transfer.getFrom().getClientId(), transfer.getFrom().getId(), -amount);
+		change(transfer.getTo().getClientId(), transfer.getTo().getId(), amount);
+	}
+
+	private void change(int clientId, int accountId, int amount) {
+		Summary summary = summaries.get(clientId);
+		if (summary != null) {
+			summary.change(accountId, amount);
+		}
+	}
+
+	@FunctionalInterface
+	public interface Loader {
+
+		List<Account> load() throws SQLException;
+
+	}
+
+	// A load or an edit under way, which becomes overlapped when another write to the same client starts
+	private static class InFlight {
+
+		private final int clientId;
+		private boolean overlapped;
+
+		private InFlight(int clientId) {
+			this.clientId = clientId;
+		}
+
+	}
+
+	private static class Summary {
+
+		private final IntObjectMap<Integer> balances;
+
+		// How many accounts have each balance, so the smallest and the largest are the first and last keys
+		private final TreeMap<Integer, Integer> counts = new TreeMap<>();
+		private long total;
+
+		private Summary(List<Account> accounts) {
+			balances = new IntObjectMap<>(Math.max(accounts.size(), 4));
+			for (Account account : accounts) {
+				put(account.getId(), account.getBalance());
+			}
+		}
+
+		private void put(int accountId, int balance) {
+			Integer previous = balances.put(accountId, balance);
+			if (previous != null) {
+				removeBalance(previous);
+			}
+			counts.merge(balance, 1, Integer::sum);
+			total += balance;
+		}
+
+		private void remove(int accountId) {
+			Integer previous = balances.remove(accountId);
+			if (previous != null) {
+				removeBalance(previous);
+			}
+		}
+
+		// An account that isn't here any more was deleted, and the change went with it
+		private void change(int accountId, int amount) {
+			Integer previous = balances.get(accountId);
+			if (previous != null) {
+				put(accountId, previous + amount);
+			}
+		}
+
+		private void removeBalance(int balance) {
+			counts.computeIfPresent(balance, (key, count) -> count == 1 ? null : count - 1);
+			total -= balance;
+		}
+
+		private AccountSummaryDTO toDTO(int clientId) {
+			if (counts.isEmpty()) {
+				return new AccountSummaryDTO(clientId, 0, 0, null, null);
+			}
+			return new AccountSummaryDTO(clientId, balances.size(), total, counts.firstKey(), counts.lastKey());
+		}
+
+	}
+
+}
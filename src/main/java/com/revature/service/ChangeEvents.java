@@ -0,0 +1,308 @@
+package com.revature.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.JournalEntryDTO;
+import com.revature.dto.TransferResultDTO;
+import com.revature.exception.BadParameterException;
+import com.revature.exception.ServiceUnavailableException;
+import com.revature.model.Account;
+import com.revature.model.Client;
+import com.revature.util.ConfigUtility;
+
+/**
+ * Hands every committed write to the subscribers of GET /events, as an event shaped like the entries JournalReplay
+ * prints. Each event is turned into its JSON and its text/event-stream frame once, however many subscribers there
+ * are.
+ *
+ * Every subscriber gets a bounded queue. A subscriber that lets its queue fill up is dropped rather than making the
+ * writers wait or the queue grow, and can reconnect with the id of the last event it got. The most recent events are
+ * kept for that, and a subscriber asking for anything older (or for an id from before a restart, which the epoch in
+ * the ids tells apart) is told to start over instead.
+ */
+public class ChangeEvents implements MutationListener {
+
+	private static final ChangeEvents DEFAULT = new ChangeEvents(ConfigUtility.getInt("events_history_size", 10000),
+			ConfigUtility.getInt("events_buffer_size", 1000), ConfigUtility.getInt("events_max_subscribers", 100));
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+	private final Event[] history;
+	private final int bufferSize;
+	private final int maxSubscribers;
+
+	// Guarded by this, which is held for the whole of publishing an event so subscribers see them in offset order
+	private long lastOffset;
+
+	private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+	private final AtomicLong slowSubscriberCount = new AtomicLong();
+
+	public ChangeEvents(int historySize, int bufferSize, int maxSubscribers) {
+		this.history = new Event[historySize];
+		this.bufferSize = bufferSize;
+		this.maxSubscribers = maxSubscribers;
+	}
+
+	// ClientService and AccountService both publish, and their events have to end up in one sequence
+	public static ChangeEvents getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * @param lastEventId the id of the last event the subscriber got, from the Last-Event-ID header of a reconnecting
+	 *                    EventSource, or null to only get events from now on
+	 */
+	public Subscription subscribe(String lastEventId) throws BadParameterException, ServiceUnavailableException {
+		Long after = lastEventId == null ? null : parseOffset(lastEventId);
+
+		synchronized (this) {
+			if (subscriptions.size() >= maxSubscribers) {
+				throw new ServiceUnavailableException("There are already " + maxSubscribers + " subscribers to events");
+			}
+
+			Subscription subscription = new Subscription(bufferSize);
+
+			long oldest = Math.max(1, lastOffset - history.length + 1);
+			if (after != null) {
+				boolean missed = after < 0 || after < oldest - 1 || after > lastOffset || lastOffset - after > bufferSize;
+				if (missed) {
+					subscription.reset = true;
+				} else {
+					for (long offset = after + 1; offset <= lastOffset; offset++) {
+						subscription.queue.add(history[slot(offset)]);
+					}
+				}
+			}
+
+			subscriptions.add(subscription);
+			return subscription;
+		}
+	}
+
+	// -1 for an id from an earlier run, whose events are gone
+	private long parseOffset(String eventId) throws BadParameterException {
+		int dash = eventId.lastIndexOf('-');
+		try {
+			if (dash < 0) {
+				throw new NumberFormatException();
+			}
+			long offset = Long.parseLong(eventId.substring(dash + 1));
+
+			return eventId.substring(0, dash).equals(epoch) ? offset : -1;
+		} catch (NumberFormatException e) {
+			throw new BadParameterException(eventId + " was passed in as the last event id, but it is not an event id");
+		}
+	}
+
+	public int getSubscriberCount() {
+		return subscriptions.size();
+	}
+
+	public synchronized long getLastOffset() {
+		return lastOffset;
+	}
+
+	public long getSlowSubscriberCount() {
+		return slowSubscriberCount.get();
+	}
+
+	private void publish(JournalEntryDTO entry) {
+		synchronized (this) {
+			long offset = lastOffset + 1;
+			entry.setSequence(offset);
+			entry.setTimestamp(System.currentTimeMillis());
+
+			String json;
+			try {
+				json = MAPPER.writeValueAsString(entry);
+			} catch (JsonProcessingException e) {
+				throw new IllegalStateException("Event could not be serialized", e);
+			}
+
+			Event event = new Event(epoch + "-" + offset, entry.getOperation(), json);
+			history[slot(offset)] = event;
+			lastOffset = offset;
+
+			for (Subscription subscription : subscriptions) {
+				if (!subscription.queue.offer(event)) {
+					subscription.slow = true;
+					subscriptions.remove(subscription);
+					slowSubscriberCount.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	private int slot(long offset) {
+		return (int) ((offset - 1) % history.length);
+	}
+
+	private static JournalEntryDTO entry(MutationJournal.Operation operation) {
+		JournalEntryDTO entry = new JournalEntryDTO();
+		entry.setOperation(operation.name());
+		return entry;
+	}
+
+	// Accounts come as events of their own, so a client's event never carries them
+	private static Client withoutAccounts(Client client) {
+		Client copy = new Client(client.getId(), client.getName(), client.getAge());
+		copy.setVersion(client.getVersion());
+		return copy;
+	}
+
+	@Override
+	public void clientAdded(Client client) {
+		JournalEntryDTO entry = entry(MutationJournal.Operation.ADD_CLIENT);
+		entry.setClient(withoutAccounts(client));
+		publish(entry);
+	}
+
+	@Override
+	public void clientEdited(Client client) {
+		JournalEntryDTO entry = entry(MutationJournal.Operation.EDIT_CLIENT);
+		entry.setClient(withoutAccounts(client));
+		publish(entry);
+	}
+
+	@Override
+	public void clientDeleted(int clientId) {
+		JournalEntryDTO entry = entry(MutationJournal.Operation.DELETE_CLIENT);
+		Client client = new Client();
+		client.setId(clientId);
+		entry.setClient(client);
+		publish(entry);
+	}
+
+	@Override
+	public void accountAdded(Account account) {
+		JournalEntryDTO entry = entry(MutationJournal.Operation.ADD_ACCOUNT);
+		entry.setAccount(account);
+		publish(entry);
+	}
+
+	@Override
+	public void accountEdited(Account account) {
+		JournalEntryDTO entry = entry(MutationJournal.Operation.EDIT_ACCOUNT);
+		entry.setAccount(account);
+		publish(entry);
+	}
+
+	@Override
+	public void accountDeleted(int clientId, int accountId) {
+		JournalEntryDTO entry = entry(MutationJournal.Operation.DELETE_ACCOUNT);
+		Account account = new Account();
+		account.setClientId(clientId);
+		account.setId(accountId);
+		entry.setAccount(account);
+		publish(entry);
+	}
+
+	@Override
+	public void balanceChanged(BalanceDTO balance, int amount) {
+		JournalEntryDTO entry = entry(MutationJournal.Operation.CHANGE_BALANCE);
+		Account account = new Account();
+		account.setClientId(balance.getClientId());
+		account.setId(balance.getAccountId());
+		account.setBalance(balance.getBalance());
+		account.setVersion(balance.getVersion());
+		entry.setAccount(account);
+		entry.setAmount(amount);
+		publish(entry);
+	}
+
+	@Override
+	public void transferred(TransferResultDTO transfer, int amount) {
+		JournalEntryDTO entry = entry(MutationJournal.Operation.TRANSFER);
+		entry.setAccount(transfer.getFrom());
+		entry.setToAccount(transfer.getTo());
+		entry.setAmount(amount);
+		publish(entry);
+	}
+
+	public static class Event {
+
+		private final String id;
+		private final String name;
+		private final String data;
+		private final byte[] frame;
+
+		private Event(String id, String name, String data) {
+			this.id = id;
+			this.name = name;
+			this.data = data;
+			this.frame = ("id: " + id + "\nevent: " + name + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getData() {
+			return data;
+		}
+
+		/**
+		 * @return the event as it is written to a text/event-stream, the same array for every subscriber
+		 */
+		public byte[] getFrame() {
+			return frame;
+		}
+
+	}
+
+	/**
+	 * One subscriber's queue of events. Only the thread sending them to the subscriber takes events out
+	 */
+	public class Subscription implements AutoCloseable {
+
+		private final ArrayBlockingQueue<Event> queue;
+		private volatile boolean reset;
+		private volatile boolean slow;
+
+		private Subscription(int bufferSize) {
+			this.queue = new ArrayBlockingQueue<>(bufferSize);
+		}
+
+		/**
+		 * @return the next event, or null if none came within timeout or the subscription has been dropped
+		 */
+		public Event poll(long timeout, TimeUnit unit) throws InterruptedException {
+			return slow ? null : queue.poll(timeout, unit);
+		}
+
+		/**
+		 * @return true if events the subscriber asked to resume from are no longer kept, so it has to load the current
+		 *         state again before the events that follow are of any use
+		 */
+		public boolean isReset() {
+			return reset;
+		}
+
+		/**
+		 * @return true if the subscriber fell so far behind that it was dropped. It gets no more events
+		 */
+		public boolean isSlow() {
+			return slow;
+		}
+
+		@Override
+		public void close() {
+			subscriptions.remove(this);
+		}
+
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.revature.service;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -8,28 +9,42 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.revature.dao.AccountDAO;
-import com.revature.dao.AccountDAOImpl;
+import com.revature.dao.AccountQuery;
 import com.revature.dao.ClientDAO;
-import com.revature.dao.ClientDAOImpl;
+import com.revature.dao.DAOFactory;
+import com.revature.dao.RowHandler;
+import com.revature.dto.AddClientWithAccountsDTO;
+import com.revature.dto.AddOrEditAccountDTO;
 import com.revature.dto.AddOrEditClientDTO;
+import com.revature.dto.BulkItemResultDTO;
 import com.revature.exception.BadParameterException;
+import com.revature.exception.ConflictException;
 import com.revature.exception.DatabaseException;
 import com.revature.exception.ClientNotFoundException;
 import com.revature.model.Account;
 import com.revature.model.Client;
+import com.revature.util.ConfigUtility;
 
 public class ClientService {
 
+	private static final int BULK_CHUNK_SIZE = ConfigUtility.getInt("bulk_chunk_size", 1000);
+
 	private Logger logger = LoggerFactory.getLogger(ClientService.class);
 	
 	// ClientDAO is a dependency of ClientService
 	private ClientDAO clientDao;
 	private AccountDAO accountDao;
+	private ClientVersions versions;
+	private AccountSummaries summaries;
+	private MutationListener mutations;
 	
-	// This constructor will instantiate a REAL ClientDAO object making use of the ClientDAOImpl class
+	// This constructor will use the REAL ClientDAO and AccountDAO objects handed out by DAOFactory
 	public ClientService() {
-		this.clientDao = new ClientDAOImpl();
-		this.accountDao = new AccountDAOImpl();
+		this.clientDao = DAOFactory.getClientDao();
+		this.accountDao = DAOFactory.getAccountDao();
+		this.versions = ClientVersions.getDefault();
+		this.summaries = AccountSummaries.getDefault();
+		this.mutations = MutationListener.of(summaries, MutationJournal.getDefault(), ChangeEvents.getDefault());
 	}
 	
 	// This constructor is used to "inject" a fake ClientDAO object whenever I am instantiating a ClientService object
@@ -37,20 +52,19 @@ public class ClientService {
 	public ClientService(ClientDAO mockedClientDaoObject, AccountDAO mockedAccountDaoObject) {
 		this.clientDao = mockedClientDaoObject;
 		this.accountDao = mockedAccountDaoObject;
+		this.versions = new ClientVersions();
+		this.summaries = new AccountSummaries(1000);
+		this.mutations = summaries;
 	}
 	
 	// This method is dependent on a ClientDAO object to function
-	// Because we're invoking the getAllClients() method from ClientDAO
+	// Because we're invoking the getAllClientsWithAccounts() method from ClientDAO
 	public List<Client> getAllClients() throws DatabaseException {
 		List<Client> clients;
 		try {
 			
-			clients = clientDao.getAllClients();
-			
-			for (Client client : clients) {
-				List<Account> accounts = accountDao.getAllAccountsFromClient(client.getId());
-				client.setAccounts(accounts);
-			}
+			// Clients and their accounts come back from a single query, rather than one account query per client
+			clients = clientDao.getAllClientsWithAccounts();
 			
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -60,6 +74,54 @@ public class ClientService {
 		return clients;
 	}
 	
+	public List<Client> getClientsPage(String afterString, String limitString) throws DatabaseException, BadParameterException {
+		int after = Pagination.parseAfter(afterString);
+		int limit = Pagination.parseLimit(limitString);
+		
+		try {
+			return clientDao.getClientsWithAccountsAfter(after, limit);
+		} catch (SQLException e) {
+			throw new DatabaseException("Something went wrong with our DAO operations");
+		}
+	}
+	
+	// Clients are handed to the handler as they are read from the database, so the whole table is never held in memory.
+	// An IOException means the handler could not write the client out (usually because the caller went away)
+	public void streamAllClients(RowHandler<Client> handler) throws DatabaseException, IOException {
+		try {
+			clientDao.streamAllClientsWithAccounts(handler);
+		} catch (SQLException e) {
+			throw new DatabaseException("Something went wrong with our DAO operations");
+		}
+	}
+	
+	// A client listed with its accounts is summarized from those, so the summary always agrees with the accounts next
+	// to it in the response
+	public Client addSummary(Client client) throws DatabaseException {
+		if (client.getAccounts() != null) {
+			client.setSummary(AccountSummaries.summarize(client.getId(), client.getAccounts()));
+			return client;
+		}
+		
+		try {
+			int id = client.getId();
+			client.setSummary(summaries.get(id, () -> accountDao.findAccounts(AccountQuery.forClient(id).columns(AccountQuery.Column.BALANCE))));
+		} catch (SQLException e) {
+			throw new DatabaseException("Something went wrong with our DAO operations");
+		}
+		
+		return client;
+	}
+	
+	// The ETag of a client covers its accounts as well, since GET /client/:clientid returns both
+	public String getClientETag(String stringId) throws BadParameterException {
+		try {
+			return versions.eTag(Integer.parseInt(stringId));
+		} catch (NumberFormatException e) {
+			throw new BadParameterException(stringId + " was passed in by the user as the id, " + "but it is not an int");
+		}
+	}
+	
 	public Client getClientById(String stringId) throws DatabaseException, ClientNotFoundException, BadParameterException {
 		try {
 			int id = Integer.parseInt(stringId);
@@ -70,7 +132,7 @@ public class ClientService {
 				throw new ClientNotFoundException("Client with id " + id + " was not found");
 			}
 			
-			List<Account> accounts = accountDao.getAllAccountsFromClient(id);
+			List<Account> accounts = accountDao.findAccounts(AccountQuery.forClient(id));
 			client.setAccounts(accounts);
 			
 			return client;
@@ -82,58 +144,166 @@ public class ClientService {
 	}
 	
 	public Client addClient(AddOrEditClientDTO client) throws DatabaseException, BadParameterException {
-		if (client.getName().trim().equals("") && client.getAge() < 0) {
-			throw new BadParameterException("Client name cannot be blank and age cannot be less than 0");
+		validateClient(client.getName(), client.getAge());
+		
+		try {
+			Client addedClient = clientDao.addClient(client);
+			addedClient.setAccounts(new ArrayList<>());
+			versions.bump(addedClient.getId(), true);
+			mutations.clientAdded(addedClient);
+			
+			return addedClient;
+		} catch (SQLException e) {
+			throw new DatabaseException(e.getMessage());
 		}
+	}
+	
+	// Invalid items are reported back individually and skipped, while all of the valid clients (and their accounts)
+	// are inserted together in one transaction
+	public List<BulkItemResultDTO> addClients(List<AddClientWithAccountsDTO> clients) throws DatabaseException {
+		List<BulkItemResultDTO> results = new ArrayList<>();
 		
-		if (client.getName().trim().equals("")) {
-			throw new BadParameterException("Client name cannot be blank");
+		if (clients == null || clients.isEmpty()) {
+			return results;
 		}
 		
-		if (client.getAge() < 0) {
-			throw new BadParameterException("Client age cannot be less than 0");
+		List<AddClientWithAccountsDTO> validClients = new ArrayList<>();
+		List<BulkItemResultDTO> validResults = new ArrayList<>();
+		
+		for (int i = 0; i < clients.size(); i++) {
+			BulkItemResultDTO result = new BulkItemResultDTO();
+			result.setIndex(i);
+			results.add(result);
+			
+			try {
+				validateClientWithAccounts(clients.get(i));
+				
+				validClients.add(clients.get(i));
+				validResults.add(result);
+			} catch (BadParameterException e) {
+				result.setError(e.getMessage());
+			}
+		}
+		
+		if (validClients.isEmpty()) {
+			return results;
 		}
 		
 		try {
-			Client addedClient = clientDao.addClient(client);
-			addedClient.setAccounts(new ArrayList<>());
+			List<Client> addedClients = clientDao.addClientsWithAccounts(validClients, BULK_CHUNK_SIZE);
 			
-			return addedClient;
+			for (int i = 0; i < addedClients.size(); i++) {
+				validResults.get(i).setClient(addedClients.get(i));
+				versions.bump(addedClients.get(i).getId(), true);
+				
+				mutations.clientAdded(addedClients.get(i));
+				for (Account account : addedClients.get(i).getAccounts()) {
+					mutations.accountAdded(account);
+				}
+			}
 		} catch (SQLException e) {
 			throw new DatabaseException(e.getMessage());
 		}
+		
+		return results;
 	}
 	
-	public Client editClient(String stringId, AddOrEditClientDTO client) throws DatabaseException, ClientNotFoundException, BadParameterException {
+	private void validateClientWithAccounts(AddClientWithAccountsDTO client) throws BadParameterException {
+		if (client == null) {
+			throw new BadParameterException("Client is missing");
+		}
 		
-		try {
-			int clientId = Integer.parseInt(stringId);
+		validateClient(client.getName(), client.getAge());
+		
+		if (client.getAccounts() == null) {
+			client.setAccounts(new ArrayList<>());
+		}
+		
+		for (int i = 0; i < client.getAccounts().size(); i++) {
+			AddOrEditAccountDTO account = client.getAccounts().get(i);
+			
+			if (account == null) {
+				throw new BadParameterException("Account at index " + i + " is missing");
+			}
 			
-			// Before we can edit a Client, see if the client already exists, and if not, throw an Exception
-			if (clientDao.getClientById(clientId) == null) {
-				throw new ClientNotFoundException("Client with id " + clientId + " was not found");
+			try {
+				AccountService.validateAccount(account);
+			} catch (BadParameterException e) {
+				throw new BadParameterException("Account at index " + i + ": " + e.getMessage());
 			}
+		}
+	}
+	
+	private void validateClient(String name, int age) throws BadParameterException {
+		String trimmedName = name == null ? "" : name.trim();
+		
+		if (trimmedName.equals("") && age < 0) {
+			throw new BadParameterException("Client name cannot be blank and age cannot be less than 0");
+		}
+		
+		if (trimmedName.equals("")) {
+			throw new BadParameterException("Client name cannot be blank");
+		}
+		
+		if (age < 0) {
+			throw new BadParameterException("Client age cannot be less than 0");
+		}
+	}
+	
+	public Client editClient(String stringId, AddOrEditClientDTO client) throws DatabaseException, ClientNotFoundException, BadParameterException, ConflictException {
+		int clientId;
+		try {
+			clientId = Integer.parseInt(stringId);
+		} catch (NumberFormatException e) {
+			throw new BadParameterException(stringId + " was passed in by the user as the id, " + "but it is not an int");
+		}
+		
+		boolean written = false;
+		try {
 			
-			// If client exists, we proceed to edit the client
+			// No existence check up front: the UPDATE matching no row means the client is missing or, when a version
+			// was sent, that someone else edited it first. Only then is the client read to tell which one it was
 			Client editedClient = clientDao.editClient(clientId, client);
 			
-			List<Account> accounts = accountDao.getAllAccountsFromClient(clientId);
+			if (editedClient == null) {
+				Client currentClient = clientDao.getClientById(clientId);
+				if (currentClient == null) {
+					throw new ClientNotFoundException("Client with id " + clientId + " was not found");
+				}
+				
+				throw new ConflictException("Client with id " + clientId + " is at version " + currentClient.getVersion()
+						+ ", but version " + client.getVersion() + " was expected");
+			}
+			
+			written = true;
+			mutations.clientEdited(editedClient);
+			
+			List<Account> accounts = accountDao.findAccounts(AccountQuery.forClient(clientId));
 			editedClient.setAccounts(accounts);
 			
 			return editedClient;
 		} catch (SQLException e) {
 			throw new DatabaseException(e.getMessage());
-		} catch (NumberFormatException e) {
-			throw new BadParameterException(stringId + " was passed in by the user as the id, " + "but it is not an int");
+		} finally {
+			// Even a failed UPDATE may have gone through, so the ETags handed out so far can't be trusted anymore
+			versions.bump(clientId, written);
 		}
 
 	}
 
 	public void deleteClient(String clientId) throws BadParameterException, DatabaseException, ClientNotFoundException {
 		
+		int id;
+		try {
+			id = Integer.parseInt(clientId);
+		} catch (NumberFormatException e) {
+			throw new BadParameterException(clientId + " was passed in by the user as the id, " + "but it is not an int");
+		}
+		
 		// Check to see if the client exists
+		boolean deleted = false;
+		summaries.writing(id);
 		try {
-			int id = Integer.parseInt(clientId);
 			
 			Client client = clientDao.getClientById(id);
 			if (client == null) {
@@ -141,18 +311,56 @@ public class ClientService {
 			}
 			
 			clientDao.deleteClient(id);
+			deleted = true;
+			mutations.clientDeleted(id);
 			
 		} catch (SQLException e) {
 			throw new DatabaseException(e.getMessage());
-		} catch (NumberFormatException e) {
-			throw new BadParameterException(clientId + " was passed in by the user as the id, " + "but it is not an int");
+		} finally {
+			if (deleted) {
+				versions.clientDeleted(id);
+			} else {
+				versions.bump(id, false);
+			}
+			summaries.written(id);
 		}
 		
 	}
 
-	public void getClientsWithAgeBetween(int i, String queryParam) {
+	// Either bound may be left out. Without after or limit every matching client is returned, like getAllClients()
+	public List<Client> getClientsWithAgeBetween(String ageMinString, String ageMaxString, String afterString, String limitString,
+			boolean withAccounts) throws DatabaseException, BadParameterException {
+		Integer minAge = parseAge(ageMinString, "ageMin");
+		Integer maxAge = parseAge(ageMaxString, "ageMax");
 		
+		if (minAge != null && maxAge != null && minAge > maxAge) {
+			throw new BadParameterException("ageMin cannot be greater than ageMax");
+		}
 		
+		int after = 0;
+		int limit = Integer.MAX_VALUE;
+		if (Pagination.isRequested(afterString, limitString)) {
+			after = Pagination.parseAfter(afterString);
+			limit = Pagination.parseLimit(limitString);
+		}
+		
+		try {
+			return clientDao.getClientsWithAgeBetween(minAge, maxAge, after, limit, withAccounts);
+		} catch (SQLException e) {
+			throw new DatabaseException("Something went wrong with our DAO operations");
+		}
+	}
+	
+	private Integer parseAge(String ageString, String parameter) throws BadParameterException {
+		if (ageString == null) {
+			return null;
+		}
+		
+		try {
+			return Integer.parseInt(ageString);
+		} catch (NumberFormatException e) {
+			throw new BadParameterException(ageString + " was passed in by the user as " + parameter + ", " + "but it is not an int");
+		}
 	}
 	
 }
@@ -0,0 +1,73 @@
+package com.revature.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A version number per client that goes up every time the client or one of its accounts is written, which is what the
+ * ETags of the client and account resources are made of. Comparing an ETag is then a map lookup instead of a query.
+ * 
+ * Versions only live in this process, so the ETags carry an epoch that changes on every restart: an ETag handed out
+ * before a restart never matches again, even though every version starts over from 0.
+ * 
+ * Only clients that have been written since the start hold a version, and a deleted client's is dropped, so requests
+ * for ids that don't exist never make the map grow.
+ */
+public class ClientVersions {
+
+	private static final ClientVersions DEFAULT = new ClientVersions();
+
+	private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+	private final ConcurrentHashMap<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+	private final AtomicLong deletes = new AtomicLong();
+	
+	// ClientService and AccountService both write clients, so they have to share their versions
+	static ClientVersions getDefault() {
+		return DEFAULT;
+	}
+	
+	public long version(int clientId) {
+		AtomicLong version = versions.get(clientId);
+		return version == null ? 0 : version.get();
+	}
+	
+	/**
+	 * Must be called after the write has been committed. Bumping before would let a concurrent read pair the new
+	 * version with the old data, and that stale body would then be served as current until the next write
+	 * 
+	 * @param succeeded false if the write threw. It may still have gone through, so a client that already has a
+	 *                  version is bumped anyway, but an id nothing was ever written to doesn't get one
+	 */
+	public void bump(int clientId, boolean succeeded) {
+		if (succeeded) {
+			versions.computeIfAbsent(clientId, (id) -> new AtomicLong()).incrementAndGet();
+		} else {
+			versions.computeIfPresent(clientId, (id, version) -> {
+				version.incrementAndGet();
+				return version;
+			});
+		}
+	}
+	
+	/**
+	 * Must be called once the delete has been committed, instead of bump()
+	 */
+	public void clientDeleted(int clientId) {
+		deletes.incrementAndGet();
+		versions.remove(clientId);
+	}
+	
+	public String eTag(int clientId) {
+		// A deleted client has no version anymore, just like one that was never written. Those carry how many clients
+		// have been deleted instead, so the ETag a client had before its first write can't match again once it's gone
+		AtomicLong version = versions.get(clientId);
+		String tag = version == null ? "d" + deletes.get() : Long.toString(version.get());
+		
+		return "\"" + epoch + "-" + clientId + "-" + tag + "\"";
+	}
+	
+	int size() {
+		return versions.size();
+	}
+	
+}
@@ -0,0 +1,449 @@
+package com.revature.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.JournalEntryDTO;
+import com.revature.dto.TransferResultDTO;
+import com.revature.model.Account;
+import com.revature.model.Client;
+import com.revature.util.ConfigUtility;
+import com.revature.util.MetricsRegistry;
+import com.revature.util.SegmentedJournal;
+
+/**
+ * Records every write ClientService and AccountService make, after it has been committed, as the rows it left behind.
+ * The journal is what happened and in which order, so it can be replayed into a fresh copy of the data (see rebuild())
+ * or read from any sequence number to feed another system (see JournalReplay).
+ *
+ * Entries are appended in the order the writes finish, which for two writes racing on the same row isn't necessarily
+ * the order they committed in. Balance changes and transfers therefore carry their amount, and rebuild() applies them
+ * as differences, which add up to the same balance in any order. Every entry also carries the version the write left
+ * its row at, which is what rebuild() uses to put edits (which set the whole row) back in commit order.
+ *
+ * The write is already committed by the time it is journaled, so a journal that can't be written is logged and counted
+ * under the "journal" component of the metrics, but doesn't fail the request.
+ */
+public class MutationJournal implements MutationListener, Closeable {
+
+	private static Logger logger = LoggerFactory.getLogger(MutationJournal.class);
+
+	private static final MutationJournal DEFAULT = fromConfig();
+
+	public enum Operation {
+		ADD_CLIENT, EDIT_CLIENT, DELETE_CLIENT, ADD_ACCOUNT, EDIT_ACCOUNT, DELETE_ACCOUNT, CHANGE_BALANCE, TRANSFER;
+
+		private static final Operation[] VALUES = values();
+
+		static Operation fromType(byte type) throws IOException {
+			if (type < 0 || type >= VALUES.length) {
+				throw new IOException("Unknown journal operation " + type);
+			}
+			return VALUES[type];
+		}
+	}
+
+	// null when journaling is switched off
+	private final SegmentedJournal journal;
+	private final boolean waitForSync;
+	private final MetricsRegistry metrics;
+
+	public MutationJournal(SegmentedJournal journal, boolean waitForSync, MetricsRegistry metrics) {
+		this.journal = journal;
+		this.waitForSync = waitForSync;
+		this.metrics = metrics;
+	}
+
+	public static MutationJournal disabled() {
+		return new MutationJournal(null, false, null);
+	}
+
+	/**
+	 * Journaling is off unless journal_enabled=true. journal_wait_for_sync=true makes every write wait until its entry
+	 * is on disk, which costs about one fsync per request instead of a few microseconds
+	 */
+	public static MutationJournal fromConfig() {
+		if (!ConfigUtility.getBoolean("journal_enabled", false)) {
+			return disabled();
+		}
+
+		try {
+			SegmentedJournal journal = new SegmentedJournal(Paths.get(ConfigUtility.getString("journal_dir", "journal")),
+					ConfigUtility.getInt("journal_segment_bytes", 64 * 1024 * 1024),
+					ConfigUtility.getLong("journal_sync_interval_ms", 10));
+			return new MutationJournal(journal, ConfigUtility.getBoolean("journal_wait_for_sync", false), MetricsRegistry.getDefault());
+		} catch (IOException e) {
+			throw new IllegalStateException("The mutation journal could not be opened", e);
+		}
+	}
+
+	// ClientService and AccountService both write, and their entries have to end up in one sequence
+	public static MutationJournal getDefault() {
+		return DEFAULT;
+	}
+
+	public boolean isEnabled() {
+		return journal != null;
+	}
+
+	@Override
+	public void clientAdded(Client client) {
+		if (isEnabled()) {
+			append(Operation.ADD_CLIENT, (out) -> writeClient(out, client));
+		}
+	}
+
+	@Override
+	public void clientEdited(Client client) {
+		if (isEnabled()) {
+			append(Operation.EDIT_CLIENT, (out) -> writeClient(out, client));
+		}
+	}
+
+	// The client's accounts go with it, like ON DELETE CASCADE does in the database
+	@Override
+	public void clientDeleted(int clientId) {
+		if (isEnabled()) {
+			append(Operation.DELETE_CLIENT, (out) -> out.writeInt(clientId));
+		}
+	}
+
+	@Override
+	public void accountAdded(Account account) {
+		if (isEnabled()) {
+			append(Operation.ADD_ACCOUNT, (out) -> writeAccount(out, account));
+		}
+	}
+
+	@Override
+	public void accountEdited(Account account) {
+		if (isEnabled()) {
+			append(Operation.EDIT_ACCOUNT, (out) -> writeAccount(out, account));
+		}
+	}
+
+	@Override
+	public void accountDeleted(int clientId, int accountId) {
+		if (isEnabled()) {
+			append(Operation.DELETE_ACCOUNT, (out) -> {
+				out.writeInt(clientId);
+				out.writeInt(accountId);
+			});
+		}
+	}
+
+	@Override
+	public void balanceChanged(BalanceDTO balance, int amount) {
+		if (isEnabled()) {
+			append(Operation.CHANGE_BALANCE, (out) -> {
+				out.writeInt(balance.getClientId());
+				out.writeInt(balance.getAccountId());
+				out.writeInt(balance.getBalance());
+				out.writeInt(amount);
+				out.writeInt(balance.getVersion());
+			});
+		}
+	}
+
+	@Override
+	public void transferred(TransferResultDTO transfer, int amount) {
+		if (isEnabled()) {
+			append(Operation.TRANSFER, (out) -> {
+				writeAccount(out, transfer.getFrom());
+				writeAccount(out, transfer.getTo());
+				out.writeInt(amount);
+			});
+		}
+	}
+
+	private void append(Operation operation, PayloadWriter writer) {
+		long start = System.nanoTime();
+		boolean failed = false;
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+			DataOutputStream out = new DataOutputStream(bytes);
+			writer.write(out);
+
+			long sequence = journal.append((byte) operation.ordinal(), bytes.toByteArray());
+
+			if (waitForSync) {
+				journal.awaitSync(sequence);
+			}
+		} catch (IOException e) {
+			failed = true;
+			logger.error("{} could not be journaled", operation, e);
+		} catch (InterruptedException e) {
+			failed = true;
+			Thread.currentThread().interrupt();
+			logger.error("Interrupted while waiting for {} to be synced to the journal", operation);
+		} finally {
+			metrics.callMetrics("journal", operation.name()).record(System.nanoTime() - start, failed);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (isEnabled()) {
+			journal.close();
+		}
+	}
+
+	/**
+	 * Reads back every entry in directory from fromSequence on, in the order they were written
+	 *
+	 * @return how many entries were passed to handler
+	 */
+	public static long replay(Path directory, long fromSequence, EntryHandler handler) throws IOException {
+		return SegmentedJournal.read(directory, fromSequence, (entry) -> handler.handle(decode(entry)));
+	}
+
+	/**
+	 * Replays the journal in directory into the clients and accounts it describes, ordered by id. Balance changes to
+	 * accounts the journal never saw being added (before journaling was switched on) have nothing to apply to and are
+	 * skipped.
+	 *
+	 * An edit journaled after a write that committed later than it is put underneath that write: its row is taken,
+	 * and the balance changes with a higher version are added on top again. An edit older than one already applied,
+	 * a balance change the last edit already includes, and a write to a row deleted earlier in the journal are skipped
+	 */
+	public static List<Client> rebuild(Path directory) throws IOException {
+		Map<Integer, Client> clients = new TreeMap<>();
+		Map<Integer, Map<Integer, Account>> accounts = new TreeMap<>();
+		Map<Integer, AppliedChanges> applied = new HashMap<>();
+		Set<Integer> deletedClients = new HashSet<>();
+		Set<Integer> deletedAccounts = new HashSet<>();
+
+		replay(directory, 0, (entry) -> {
+			switch (Operation.valueOf(entry.getOperation())) {
+			case ADD_CLIENT:
+			case EDIT_CLIENT:
+				Client client = entry.getClient();
+				Client current = clients.get(client.getId());
+				if (!deletedClients.contains(client.getId()) && (current == null || client.getVersion() > current.getVersion())) {
+					clients.put(client.getId(), client);
+					accounts.computeIfAbsent(client.getId(), (id) -> new TreeMap<>());
+				}
+				break;
+			case DELETE_CLIENT:
+				clients.remove(entry.getClient().getId());
+				deletedClients.add(entry.getClient().getId());
+				Map<Integer, Account> deleted = accounts.remove(entry.getClient().getId());
+				if (deleted != null) {
+					deletedAccounts.addAll(deleted.keySet());
+				}
+				break;
+			case ADD_ACCOUNT:
+			case EDIT_ACCOUNT:
+				if (!deletedAccounts.contains(entry.getAccount().getId())) {
+					putAccount(accounts, applied, entry.getAccount());
+				}
+				break;
+			case DELETE_ACCOUNT:
+				accountsOf(accounts, entry.getAccount().getClientId()).remove(entry.getAccount().getId());
+				deletedAccounts.add(entry.getAccount().getId());
+				break;
+			case CHANGE_BALANCE:
+				addToBalance(accounts, applied, entry.getAccount(), entry.getAmount());
+				break;
+			case TRANSFER:
+				addToBalance(accounts, applied, entry.getAccount(), -entry.getAmount());
+				addToBalance(accounts, applied, entry.getToAccount(), entry.getAmount());
+				break;
+			}
+		});
+
+		List<Client> result = new ArrayList<>(clients.size());
+		for (Client client : clients.values()) {
+			client.setAccounts(new ArrayList<>(accounts.get(client.getId()).values()));
+			result.add(client);
+		}
+		return result;
+	}
+
+	private static void putAccount(Map<Integer, Map<Integer, Account>> accounts, Map<Integer, AppliedChanges> applied, Account account) {
+		Map<Integer, Account> clientAccounts = accountsOf(accounts, account.getClientId());
+		AppliedChanges changes = applied.computeIfAbsent(account.getId(), (id) -> new AppliedChanges());
+
+		if (clientAccounts.containsKey(account.getId()) && account.getVersion() <= changes.editVersion) {
+			return;
+		}
+
+		// The balance changes that committed after this edit, although they were journaled before it
+		int version = account.getVersion();
+		for (Iterator<int[]> iterator = changes.changes.iterator(); iterator.hasNext();) {
+			int[] change = iterator.next();
+			if (change[0] > account.getVersion()) {
+				account.setBalance(account.getBalance() + change[1]);
+				version = Math.max(version, change[0]);
+			} else {
+				iterator.remove();
+			}
+		}
+
+		changes.editVersion = account.getVersion();
+		account.setVersion(version);
+		clientAccounts.put(account.getId(), account);
+	}
+
+	private static void addToBalance(Map<Integer, Map<Integer, Account>> accounts, Map<Integer, AppliedChanges> applied, Account changed, int amount) {
+		Account account = accountsOf(accounts, changed.getClientId()).get(changed.getId());
+		if (account == null) {
+			return;
+		}
+
+		// Entries journaled before balance changes carried their version have 0, and can only be applied in the order
+		// they come in. Every balance change bumps the version in the database as well
+		if (changed.getVersion() == 0) {
+			account.setBalance(account.getBalance() + amount);
+			account.setVersion(account.getVersion() + 1);
+			return;
+		}
+
+		AppliedChanges changes = applied.computeIfAbsent(changed.getId(), (id) -> new AppliedChanges());
+		if (changed.getVersion() <= changes.editVersion) {
+			return;
+		}
+
+		account.setBalance(account.getBalance() + amount);
+		account.setVersion(Math.max(account.getVersion(), changed.getVersion()));
+		changes.changes.add(new int[] { changed.getVersion(), amount });
+	}
+
+	private static Map<Integer, Account> accountsOf(Map<Integer, Map<Integer, Account>> accounts, int clientId) {
+		return accounts.computeIfAbsent(clientId, (id) -> new TreeMap<>());
+	}
+
+	private static JournalEntryDTO decode(SegmentedJournal.Entry entry) throws IOException {
+		Operation operation = Operation.fromType(entry.getType());
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry.getPayload()));
+
+		JournalEntryDTO decoded = new JournalEntryDTO();
+		decoded.setSequence(entry.getSequence());
+		decoded.setTimestamp(entry.getTimestamp());
+		decoded.setOperation(operation.name());
+
+		switch (operation) {
+		case ADD_CLIENT:
+		case EDIT_CLIENT:
+			decoded.setClient(readClient(in));
+			break;
+		case DELETE_CLIENT:
+			Client client = new Client();
+			client.setId(in.readInt());
+			decoded.setClient(client);
+			break;
+		case ADD_ACCOUNT:
+		case EDIT_ACCOUNT:
+			decoded.setAccount(readAccount(in));
+			break;
+		case DELETE_ACCOUNT:
+			Account deleted = new Account();
+			deleted.setClientId(in.readInt());
+			deleted.setId(in.readInt());
+			decoded.setAccount(deleted);
+			break;
+		case CHANGE_BALANCE:
+			Account changed = new Account();
+			changed.setClientId(in.readInt());
+			changed.setId(in.readInt());
+			changed.setBalance(in.readInt());
+			decoded.setAccount(changed);
+			decoded.setAmount(in.readInt());
+			// Not there in entries journaled before balance changes carried their version
+			if (in.available() >= 4) {
+				changed.setVersion(in.readInt());
+			}
+			break;
+		case TRANSFER:
+			decoded.setAccount(readAccount(in));
+			decoded.setToAccount(readAccount(in));
+			decoded.setAmount(in.readInt());
+			break;
+		}
+
+		return decoded;
+	}
+
+	private static void writeClient(DataOutputStream out, Client client) throws IOException {
+		out.writeInt(client.getId());
+		writeName(out, client.getName());
+		out.writeInt(client.getAge());
+		out.writeInt(client.getVersion());
+	}
+
+	private static Client readClient(DataInputStream in) throws IOException {
+		Client client = new Client(in.readInt(), readName(in), in.readInt());
+		client.setVersion(in.readInt());
+		return client;
+	}
+
+	private static void writeAccount(DataOutputStream out, Account account) throws IOException {
+		out.writeInt(account.getId());
+		out.writeInt(account.getClientId());
+		writeName(out, account.getName());
+		out.writeInt(account.getBalance());
+		out.writeInt(account.getVersion());
+	}
+
+	private static Account readAccount(DataInputStream in) throws IOException {
+		Account account = new Account();
+		account.setId(in.readInt());
+		account.setClientId(in.readInt());
+		account.setName(readName(in));
+		account.setBalance(in.readInt());
+		account.setVersion(in.readInt());
+		return account;
+	}
+
+	private static void writeName(DataOutputStream out, String name) throws IOException {
+		out.writeBoolean(name != null);
+		if (name != null) {
+			out.writeUTF(name);
+		}
+	}
+
+	private static String readName(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	// An account's last edit rebuild() applied, and the balance changes (version and amount) applied since
+	private static class AppliedChanges {
+
+		private int editVersion;
+		private final List<int[]> changes = new ArrayList<>();
+
+	}
+
+	@FunctionalInterface
+	private interface PayloadWriter {
+
+		void write(DataOutputStream out) throws IOException;
+
+	}
+
+	@FunctionalInterface
+	public interface EntryHandler {
+
+		void handle(JournalEntryDTO entry) throws IOException;
+
+	}
+
+}
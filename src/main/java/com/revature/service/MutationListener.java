@@ -0,0 +1,98 @@
+package com.revature.service;
+
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.TransferResultDTO;
+import com.revature.model.Account;
+import com.revature.model.Client;
+
+/**
+ * Told about every write ClientService and AccountService make, right after it has been committed, with the rows it
+ * left behind
+ */
+public interface MutationListener {
+
+	void clientAdded(Client client);
+
+	void clientEdited(Client client);
+
+	void clientDeleted(int clientId);
+
+	void accountAdded(Account account);
+
+	void accountEdited(Account account);
+
+	void accountDeleted(int clientId, int accountId);
+
+	/**
+	 * @param amount what was added to the balance, negative for a withdrawal
+	 */
+	void balanceChanged(BalanceDTO balance, int amount);
+
+	void transferred(TransferResultDTO transfer, int amount);
+
+	/**
+	 * Passes every call on to each of listeners, in order
+	 */
+	static MutationListener of(MutationListener... listeners) {
+		return new MutationListener() {
+
+			@Override
+			public void clientAdded(Client client) {
+				for (MutationListener listener : listeners) {
+					listener.clientAdded(client);
+				}
+			}
+
+			@Override
+			public void clientEdited(Client client) {
+				for (MutationListener listener : listeners) {
+					listener.clientEdited(client);
+				}
+			}
+
+			@Override
+			public void clientDeleted(int clientId) {
+				for (MutationListener listener : listeners) {
+					listener.clientDeleted(clientId);
+				}
+			}
+
+			@Override
+			public void accountAdded(Account account) {
+				for (MutationListener listener : listeners) {
+					listener.accountAdded(account);
+				}
+			}
+
+			@Override
+			public void accountEdited(Account account) {
+				for (MutationListener listener : listeners) {
+					listener.accountEdited(account);
+				}
+			}
+
+			@Override
+			public void accountDeleted(int clientId, int accountId) {
+				for (MutationListener listener : listeners) {
+					listener.accountDeleted(clientId, accountId);
+				}
+			}
+
+			@Override
+			public void balanceChanged(BalanceDTO balance, int amount) {
+				for (MutationListener listener : listeners) {
+					listener.balanceChanged(balance, amount);
+				}
+			}
+
+			@Override
+			public void transferred(TransferResultDTO transfer, int amount) {
+				for (MutationListener listener : listeners) {
+					listener.transferred(transfer, amount);
+				}
+			}
+
+		};
+	}
+
+}
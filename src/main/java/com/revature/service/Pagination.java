@@ -0,0 +1,50 @@
+package com.revature.service;
+
+import com.revature.exception.BadParameterException;
+import com.revature.util.ConfigUtility;
+
+// Parses and validates the ?after=<id>&limit=<n> keyset pagination parameters shared by the listing endpoints
+class Pagination {
+
+	static final int DEFAULT_LIMIT = 100;
+	static final int MAX_LIMIT = ConfigUtility.getInt("page_max_limit", 1000);
+	
+	private Pagination() {
+	}
+	
+	static boolean isRequested(String afterString, String limitString) {
+		return afterString != null || limitString != null;
+	}
+	
+	static int parseAfter(String afterString) throws BadParameterException {
+		if (afterString == null) {
+			return 0;
+		}
+		
+		try {
+			return Integer.parseInt(afterString);
+		} catch (NumberFormatException e) {
+			throw new BadParameterException(afterString + " was passed in by the user as the after value, " + "but it is not an int");
+		}
+	}
+	
+	static int parseLimit(String limitString) throws BadParameterException {
+		if (limitString == null) {
+			return DEFAULT_LIMIT;
+		}
+		
+		int limit;
+		try {
+			limit = Integer.parseInt(limitString);
+		} catch (NumberFormatException e) {
+			throw new BadParameterException(limitString + " was passed in by the user as the limit, " + "but it is not an int");
+		}
+		
+		if (limit < 1 || limit > MAX_LIMIT) {
+			throw new BadParameterException("Limit must be between 1 and " + MAX_LIMIT);
+		}
+		
+		return limit;
+	}
+	
+}
@@ -0,0 +1,153 @@
+package com.revature.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An access log that keeps logging off the request threads. Recording a request only claims a slot in a preallocated
+ * ring buffer and copies a few fields into it; a single background thread formats the entries and hands them to the
+ * "access" logger. If the writer falls behind and the ring is full, new entries are dropped (and counted) rather than
+ * making requests wait.
+ *
+ * Errors (status 400 and up) are always logged. Successful requests are sampled, one in every successSampleEvery.
+ */
+public class AccessLog {
+
+	private static Logger logger = LoggerFactory.getLogger("access");
+
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final Entry[] ring;
+	private final int mask;
+	private final int successSampleEvery;
+
+	// The next sequence a request thread will claim, and the next one the writer will read. A slot can be claimed
+	// again once the writer has moved past it
+	private final AtomicLong claimed = new AtomicLong();
+	private volatile long consumed;
+
+	private final AtomicLong successes = new AtomicLong();
+	private final LongAdder dropped = new LongAdder();
+
+	private final Thread writer;
+	private volatile boolean running = true;
+
+	/**
+	 * @param capacity           the number of ring slots, rounded up to a power of two
+	 * @param successSampleEvery log one successful request in this many, 1 to log all of them
+	 */
+	public AccessLog(int capacity, int successSampleEvery) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+
+		this.ring = new Entry[size];
+		for (int i = 0; i < size; i++) {
+			ring[i] = new Entry();
+		}
+		this.mask = size - 1;
+		this.successSampleEvery = Math.max(successSampleEvery, 1);
+
+		this.writer = new Thread(this::drain, "access-log-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	public void record(String method, String route, int status, long latencyMicros, long bytes) {
+		// Counting instead of drawing a random number keeps the sample rate exact, and unsampled requests stop here
+		if (status < 400 && successSampleEvery > 1 && successes.getAndIncrement() % successSampleEvery != 0) {
+			return;
+		}
+
+		long sequence;
+		do {
+			sequence = claimed.get();
+			if (sequence - consumed >= ring.length) {
+				dropped.increment();
+				return;
+			}
+		} while (!claimed.compareAndSet(sequence, sequence + 1));
+
+		Entry entry = ring[(int) (sequence & mask)];
+		entry.timestamp = System.currentTimeMillis();
+		entry.method = method;
+		entry.route = route;
+		entry.status = status;
+		entry.latencyMicros = latencyMicros;
+		entry.bytes = bytes;
+
+		// Publishing the sequence last is what tells the writer the fields above are complete
+		entry.published = sequence;
+	}
+
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Stops the writer once everything recorded so far has been written
+	 */
+	public void close() {
+		running = false;
+		LockSupport.unpark(writer);
+		try {
+			writer.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void drain() {
+		StringBuilder line = new StringBuilder(128);
+		long next = 0;
+
+		while (true) {
+			Entry entry = ring[(int) (next & mask)];
+
+			if (entry.published != next) {
+				if (!running && next == claimed.get()) {
+					return;
+				}
+
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+				continue;
+			}
+
+			line.setLength(0);
+			line.append("ts=").append(entry.timestamp)
+					.append(" method=").append(entry.method)
+					.append(" route=").append(entry.route)
+					.append(" status=").append(entry.status)
+					.append(" latency_us=").append(entry.latencyMicros)
+					.append(" bytes=").append(entry.bytes);
+			int status = entry.status;
+
+			// The entry has been copied out, so the slot can be reused
+			next++;
+			consumed = next;
+
+			if (status >= 500) {
+				logger.warn(line.toString());
+			} else {
+				logger.info(line.toString());
+			}
+		}
+	}
+
+	private static class Entry {
+
+		private volatile long published = -1;
+
+		private long timestamp;
+		private String method;
+		private String route;
+		private int status;
+		private long latencyMicros;
+		private long bytes;
+
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.revature.util;
+
+public class ConfigUtility {
+
+	private ConfigUtility() {
+	}
+
+	// Settings are read from environment variables (like db_url), but a JVM system property with the same name
+	// takes precedence so that tests and benchmarks can override them without touching the environment
+	public static String getString(String name, String defaultValue) {
+		String value = System.getProperty(name);
+
+		if (value == null) {
+			value = System.getenv(name);
+		}
+
+		if (value == null || value.trim().equals("")) {
+			return defaultValue;
+		}
+
+		return value.trim();
+	}
+
+	public static int getInt(String name, int defaultValue) {
+		String value = getString(name, null);
+
+		if (value == null) {
+			return defaultValue;
+		}
+
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalStateException(name + " is configured as " + value + ", but it is not an int");
+		}
+	}
+
+	public static long getLong(String name, long defaultValue) {
+		String value = getString(name, null);
+
+		if (value == null) {
+			return defaultValue;
+		}
+
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalStateException(name + " is configured as " + value + ", but it is not a long");
+		}
+	}
+
+	public static boolean getBoolean(String name, boolean defaultValue) {
+		String value = getString(name, null);
+
+		if (value == null) {
+			return defaultValue;
+		}
+
+		return Boolean.parseBoolean(value);
+	}
+
+}
@@ -0,0 +1,401 @@
+package com.revature.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded pool of physical database connections. Connections handed out by {@link #getConnection()} are proxies
+ * whose close() returns the physical connection to the pool instead of closing it, so DAOs keep using
+ * try-with-resources exactly like they did with DriverManager.
+ *
+ * Each physical connection also keeps its prepared statements open in a {@link StatementCache}, so preparing the same
+ * SQL again on a later borrow of that connection reuses the statement instead of parsing it again.
+ */
+public class ConnectionPool {
+
+	private static Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+	// A connection that was returned less than this long ago is assumed to still be alive, which saves a ping
+	// round trip on every borrow under load
+	private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+	private final String url;
+	private final String username;
+	private final String password;
+
+	private final int minSize;
+	private final int maxSize;
+	private final long acquireTimeoutMillis;
+	private final long idleTimeoutNanos;
+	private final long leakDetectionNanos;
+	private final int validationTimeoutSeconds;
+	private final int statementCacheSize;
+
+	// Idle connections are taken from the front (most recently used) and evicted from the back (least recently used)
+	private final LinkedBlockingDeque<PhysicalConnection> idle = new LinkedBlockingDeque<>();
+	private final Set<PhysicalConnection> borrowed = ConcurrentHashMap.newKeySet();
+
+	// One permit per connection that may exist, so at most maxSize connections are ever open at once
+	private final Semaphore permits;
+
+	private final AtomicInteger total = new AtomicInteger();
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final LatencyHistogram acquireLatency = new LatencyHistogram();
+	private final LongAdder statementCacheHits = new LongAdder();
+	private final LongAdder statementCacheMisses = new LongAdder();
+
+	private final ScheduledExecutorService housekeeper;
+
+	private volatile boolean closed;
+
+	public ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+			long acquireTimeoutMillis, long idleTimeoutMillis, long leakDetectionMillis, int validationTimeoutSeconds,
+			int statementCacheSize) {
+		if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+			throw new IllegalArgumentException("Pool sizes must satisfy 0 <= min (" + minSize + ") <= max (" + maxSize
+					+ ") and max >= 1");
+		}
+
+		this.url = url;
+		this.username = username;
+		this.password = password;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+		this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+		this.leakDetectionNanos = TimeUnit.MILLISECONDS.toNanos(leakDetectionMillis);
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+		this.statementCacheSize = statementCacheSize;
+		this.permits = new Semaphore(maxSize, true);
+
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.housekeeper.scheduleWithFixedDelay(this::houseKeep, 0, 5, TimeUnit.SECONDS);
+	}
+
+	public Connection getConnection() throws SQLException {
+		if (closed) {
+			throw new SQLException("Connection pool has been shut down");
+		}
+
+		long start = System.nanoTime();
+
+		waiting.incrementAndGet();
+		try {
+			if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				throw new SQLException("Timed out after " + acquireTimeoutMillis
+						+ "ms waiting for a database connection (" + maxSize + " of " + maxSize + " in use)");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection", e);
+		} finally {
+			waiting.decrementAndGet();
+		}
+
+		try {
+			PhysicalConnection physical = takeIdleOrCreate();
+			physical.borrowedAt = System.nanoTime();
+			physical.leakReported = false;
+			physical.borrowSite = leakDetectionNanos > 0 ? new Exception("Connection borrowed here") : null;
+			borrowed.add(physical);
+
+			acquireLatency.record(System.nanoTime() - start);
+
+			return physical.newHandle();
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	private PhysicalConnection takeIdleOrCreate() throws SQLException {
+		PhysicalConnection physical;
+		while ((physical = idle.pollFirst()) != null) {
+			if (isAlive(physical)) {
+				return physical;
+			}
+
+			discard(physical);
+		}
+
+		return create();
+	}
+
+	private boolean isAlive(PhysicalConnection physical) {
+		if (System.nanoTime() - physical.lastUsed < VALIDATION_BYPASS_NANOS) {
+			return true;
+		}
+
+		try {
+			return physical.connection.isValid(validationTimeoutSeconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private PhysicalConnection create() throws SQLException {
+		Connection connection = DriverManager.getConnection(url, username, password);
+		total.incrementAndGet();
+
+		return new PhysicalConnection(connection);
+	}
+
+	private void discard(PhysicalConnection physical) {
+		total.decrementAndGet();
+		try {
+			if (physical.statements != null) {
+				physical.statements.closeAll();
+			}
+
+			physical.connection.close();
+		} catch (SQLException e) {
+			logger.debug("Failed to close a discarded connection", e);
+		}
+	}
+
+	private void giveBack(PhysicalConnection physical) {
+		borrowed.remove(physical);
+
+		boolean reusable = !closed;
+		try {
+			if (reusable && physical.connection.isClosed()) {
+				reusable = false;
+			}
+
+			// Never hand the next borrower a connection in the middle of someone else's transaction
+			if (reusable && !physical.connection.getAutoCommit()) {
+				physical.connection.rollback();
+				physical.connection.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			reusable = false;
+		}
+
+		if (reusable) {
+			physical.lastUsed = System.nanoTime();
+			idle.offerFirst(physical);
+		} else {
+			discard(physical);
+		}
+
+		permits.release();
+	}
+
+	private void houseKeep() {
+		try {
+			evictIdle();
+			fillToMinimum();
+			detectLeaks();
+		} catch (RuntimeException e) {
+			logger.error("Connection pool housekeeping failed", e);
+		}
+	}
+
+	private void evictIdle() {
+		long now = System.nanoTime();
+
+		// The back of the deque holds the connections that have been idle the longest
+		int candidates = idle.size();
+		for (int i = 0; i < candidates && total.get() > minSize; i++) {
+			PhysicalConnection oldest = idle.pollLast();
+			if (oldest == null) {
+				return;
+			}
+
+			if (now - oldest.lastUsed > idleTimeoutNanos) {
+				discard(oldest);
+			} else {
+				idle.offerLast(oldest);
+				return;
+			}
+		}
+	}
+
+	private void fillToMinimum() {
+		while (!closed && total.get() < minSize && permits.tryAcquire()) {
+			try {
+				PhysicalConnection physical = create();
+				physical.lastUsed = System.nanoTime();
+				idle.offerLast(physical);
+			} catch (SQLException e) {
+				logger.warn("Could not open a connection while filling the pool to its minimum size: {}", e.getMessage());
+				return;
+			} finally {
+				permits.release();
+			}
+		}
+	}
+
+	private void detectLeaks() {
+		if (leakDetectionNanos <= 0) {
+			return;
+		}
+
+		long now = System.nanoTime();
+		for (PhysicalConnection physical : borrowed) {
+			if (!physical.leakReported && now - physical.borrowedAt > leakDetectionNanos) {
+				physical.leakReported = true;
+				logger.warn("Possible connection leak: a connection has been borrowed for more than "
+						+ TimeUnit.NANOSECONDS.toMillis(leakDetectionNanos) + "ms without being closed",
+						physical.borrowSite);
+			}
+		}
+	}
+
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+
+		PhysicalConnection physical;
+		while ((physical = idle.pollFirst()) != null) {
+			discard(physical);
+		}
+	}
+
+	public int getActiveCount() {
+		return borrowed.size();
+	}
+
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	public int getWaitingCount() {
+		return waiting.get();
+	}
+
+	public int getTotalCount() {
+		return total.get();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public LatencyHistogram getAcquireLatency() {
+		return acquireLatency;
+	}
+
+	public long getStatementCacheHits() {
+		return statementCacheHits.sum();
+	}
+
+	public long getStatementCacheMisses() {
+		return statementCacheMisses.sum();
+	}
+
+	private class PhysicalConnection {
+
+		private final Connection connection;
+
+		// null when statement caching is turned off
+		private final StatementCache statements;
+
+		private volatile long lastUsed = System.nanoTime();
+		private volatile long borrowedAt;
+		private volatile boolean leakReported;
+		private volatile Exception borrowSite;
+
+		private PhysicalConnection(Connection connection) {
+			this.connection = connection;
+			this.statements = statementCacheSize > 0
+					? new StatementCache(connection, statementCacheSize, statementCacheHits, statementCacheMisses)
+					: null;
+		}
+
+		private Connection newHandle() {
+			return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new Handle(this));
+		}
+
+	}
+
+	// Each borrow gets its own handle, so a stale reference kept after close() can't touch a connection that has
+	// since been lent to somebody else
+	private class Handle implements InvocationHandler {
+
+		private PhysicalConnection physical;
+
+		private Handle(PhysicalConnection physical) {
+			this.physical = physical;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+
+			if (name.equals("close")) {
+				PhysicalConnection returning = physical;
+				physical = null;
+				if (returning != null) {
+					if (returning.statements != null) {
+						returning.statements.releaseAll();
+					}
+					giveBack(returning);
+				}
+				return null;
+			}
+
+			if (name.equals("isClosed")) {
+				return physical == null;
+			}
+
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+
+			if (name.equals("toString")) {
+				return "PooledConnection[" + physical + "]";
+			}
+
+			if (physical == null) {
+				throw new SQLException("Connection has already been returned to the pool");
+			}
+
+			if (name.equals("prepareStatement") && physical.statements != null && isCacheable(args)) {
+				int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+				return physical.statements.prepare((Connection) proxy, (String) args[0], autoGeneratedKeys);
+			}
+
+			try {
+				return method.invoke(physical.connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+	}
+
+	// Only prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys) are cached, which covers
+	// every statement the DAOs prepare
+	private static boolean isCacheable(Object[] args) {
+		return args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+	}
+
+}
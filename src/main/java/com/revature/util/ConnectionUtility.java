@@ -8,22 +8,55 @@ import org.mariadb.jdbc.Driver;
 
 public class ConnectionUtility {
 
-	private ConnectionUtility() {	
+	private ConnectionUtility() {
 	}
-	
+
+	// The pool is created the first time a connection is requested (initialization-on-demand holder),
+	// so the driver is registered and the settings are read exactly once
+	private static class PoolHolder {
+
+		private static final ConnectionPool POOL = createPool();
+
+		private static ConnectionPool createPool() {
+			try {
+				DriverManager.registerDriver(new Driver());
+			} catch (SQLException e) {
+				throw new IllegalStateException("Could not register the MariaDB driver", e);
+			}
+
+			String url = withDriverDefaults(ConfigUtility.getString("db_url", null));
+			String username = ConfigUtility.getString("db_username", null);
+			String password = ConfigUtility.getString("db_password", null);
+
+			return new ConnectionPool(url, username, password,
+					ConfigUtility.getInt("db_pool_min_size", 2),
+					ConfigUtility.getInt("db_pool_max_size", 10),
+					ConfigUtility.getLong("db_pool_acquire_timeout_ms", 5000),
+					ConfigUtility.getLong("db_pool_idle_timeout_ms", 600000),
+					ConfigUtility.getLong("db_pool_leak_detection_ms", 0),
+					ConfigUtility.getInt("db_pool_validation_timeout_s", 2),
+					ConfigUtility.getInt("db_statement_cache_size", 64));
+		}
+
+		// Asks MariaDB to prepare statements on the server, so a cached statement skips parsing there as well as in
+		// the driver. Options already present in db_url are left alone
+		private static String withDriverDefaults(String url) {
+			if (url == null || !url.startsWith("jdbc:mariadb:") || url.contains("useServerPrepStmts")
+					|| !ConfigUtility.getBoolean("db_server_prepare", true)) {
+				return url;
+			}
+
+			return url + (url.contains("?") ? "&" : "?") + "useServerPrepStmts=true";
+		}
+
+	}
+
 	public static Connection getConnection() throws SQLException {
-		
-		DriverManager.registerDriver(new Driver());
-		
-		
-		String url = System.getenv("db_url");
-		String username = System.getenv("db_username");
-		String password = System.getenv("db_password");
-		
-		Connection connection = DriverManager.getConnection(url, username, password);
-		
-		
-		return connection;
+		return PoolHolder.POOL.getConnection();
 	}
-	
+
+	public static ConnectionPool getPool() {
+		return PoolHolder.POOL;
+	}
+
 }
@@ -0,0 +1,181 @@
+package com.revature.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip compression with pooled Deflaters. A Deflater holds a few hundred KB of native memory and its setup is a good
+ * share of the cost of compressing a small response, so instead of one per response (which is what GZIPOutputStream
+ * does) a fixed number of them are reset and reused, together with their output buffer and checksum.
+ *
+ * The pool never blocks: when every Deflater is in use a new one is created, and it is thrown away afterwards if the
+ * pool is already full again.
+ */
+public class GzipPool {
+
+	// Magic number, deflate, no flags, no modification time, no extra flags, unknown OS
+	private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+	private static final int TRAILER_SIZE = 8;
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	private final int level;
+	private final ArrayBlockingQueue<Compressor> idle;
+
+	public GzipPool(int level, int poolSize) {
+		this.level = level;
+		this.idle = new ArrayBlockingQueue<>(Math.max(poolSize, 1));
+	}
+
+	public byte[] compress(byte[] data) {
+		Compressor compressor = borrow();
+		try {
+			// JSON usually shrinks to well under a quarter of its size, so this rarely has to grow
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + HEADER.length + TRAILER_SIZE);
+			out.write(HEADER, 0, HEADER.length);
+
+			compressor.crc.update(data, 0, data.length);
+			compressor.deflater.setInput(data, 0, data.length);
+			compressor.deflater.finish();
+			while (!compressor.deflater.finished()) {
+				int length = compressor.deflater.deflate(compressor.buffer);
+				out.write(compressor.buffer, 0, length);
+			}
+
+			byte[] trailer = trailer(compressor.crc.getValue(), data.length);
+			out.write(trailer, 0, trailer.length);
+			return out.toByteArray();
+		} finally {
+			giveBack(compressor);
+		}
+	}
+
+	/**
+	 * Returns a stream that gzips everything written to it into out. Closing it finishes the gzip data, returns the
+	 * Deflater to the pool and closes out; a stream that is abandoned without being closed simply doesn't give its
+	 * Deflater back
+	 */
+	public OutputStream wrap(OutputStream out) throws IOException {
+		out.write(HEADER);
+		return new GzipStream(out, borrow());
+	}
+
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	private Compressor borrow() {
+		Compressor compressor = idle.poll();
+		return compressor == null ? new Compressor(level) : compressor;
+	}
+
+	private void giveBack(Compressor compressor) {
+		compressor.deflater.reset();
+		compressor.crc.reset();
+
+		if (!idle.offer(compressor)) {
+			compressor.deflater.end();
+		}
+	}
+
+	// CRC-32 and the uncompressed size modulo 2^32, both little endian
+	private static byte[] trailer(long crc, long size) {
+		byte[] trailer = new byte[TRAILER_SIZE];
+		for (int i = 0; i < 4; i++) {
+			trailer[i] = (byte) (crc >> (8 * i));
+			trailer[i + 4] = (byte) (size >> (8 * i));
+		}
+		return trailer;
+	}
+
+	private static class Compressor {
+
+		private final Deflater deflater;
+		private final CRC32 crc = new CRC32();
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+
+		private Compressor(int level) {
+			// nowrap, because the gzip header and trailer are written here rather than the zlib ones
+			this.deflater = new Deflater(level, true);
+		}
+
+	}
+
+	private class GzipStream extends OutputStream {
+
+		private final OutputStream out;
+		private Compressor compressor;
+		private long size;
+
+		private GzipStream(OutputStream out, Compressor compressor) {
+			this.out = out;
+			this.compressor = compressor;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (compressor == null) {
+				throw new IOException("Stream has already been closed");
+			}
+
+			compressor.crc.update(b, off, len);
+			size += len;
+
+			compressor.deflater.setInput(b, off, len);
+			while (!compressor.deflater.needsInput()) {
+				drain(Deflater.NO_FLUSH);
+			}
+		}
+
+		// A sync flush pushes out everything written so far, so a streamed response still reaches the client as it is
+		// produced instead of waiting for the Deflater to fill a block
+		@Override
+		public void flush() throws IOException {
+			if (compressor != null) {
+				int length;
+				do {
+					length = drain(Deflater.SYNC_FLUSH);
+				} while (length == compressor.buffer.length);
+			}
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (compressor == null) {
+				return;
+			}
+
+			try {
+				compressor.deflater.finish();
+				while (!compressor.deflater.finished()) {
+					drain(Deflater.NO_FLUSH);
+				}
+				out.write(trailer(compressor.crc.getValue(), size));
+			} finally {
+				giveBack(compressor);
+				compressor = null;
+			}
+
+			out.close();
+		}
+
+		private int drain(int flush) throws IOException {
+			int length = compressor.deflater.deflate(compressor.buffer, 0, compressor.buffer.length, flush);
+			if (length > 0) {
+				out.write(compressor.buffer, 0, length);
+			}
+			return length;
+		}
+
+	}
+
+}
@@ -0,0 +1,162 @@
+package com.revature.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from int keys to objects, for the in-memory DAOs. The keys are kept in a plain int[] with open addressing
+ * (linear probing), so a lookup neither boxes the key nor follows a pointer to an entry object. It is not thread safe.
+ *
+ * Removal shifts the following entries of the same probe run back instead of leaving a tombstone, so lookups never
+ * slow down after many removals.
+ */
+public class IntObjectMap<V> {
+
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private int[] keys;
+	private Object[] values;
+	private int size;
+	private int resizeAt;
+
+	public IntObjectMap() {
+		this(16);
+	}
+
+	public IntObjectMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), 2) - 1) << 1;
+		allocate(capacity);
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		int mask = keys.length - 1;
+		for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return (V) values[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param value must not be null, an empty slot is what a null value marks
+	 * @return the value previously mapped to key, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("IntObjectMap can't hold null values");
+		}
+
+		int mask = keys.length - 1;
+		int i = slot(key, mask);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				V previous = (V) values[i];
+				values[i] = value;
+				return previous;
+			}
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		if (++size > resizeAt) {
+			resize();
+		}
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int mask = keys.length - 1;
+		int i = slot(key, mask);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				break;
+			}
+		}
+
+		if (values[i] == null) {
+			return null;
+		}
+
+		V removed = (V) values[i];
+		values[i] = null;
+		size--;
+
+		// Move later entries of the run into the gap if their home slot is at or before it, so every remaining key is
+		// still reachable from its home slot without crossing an empty one
+		int gap = i;
+		for (int j = (gap + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+			int home = slot(keys[j], mask);
+			if (((j - home) & mask) >= ((j - gap) & mask)) {
+				keys[gap] = keys[j];
+				values[gap] = values[j];
+				values[j] = null;
+				gap = j;
+			}
+		}
+
+		return removed;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * Calls visitor with every entry, in no particular order. The map must not be changed while this runs
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(Visitor<V> visitor) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				visitor.visit(keys[i], (V) values[i]);
+			}
+		}
+	}
+
+	private void resize() {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+
+		allocate(keys.length * 2);
+		int mask = keys.length - 1;
+
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				int j = slot(oldKeys[i], mask);
+				while (values[j] != null) {
+					j = (j + 1) & mask;
+				}
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		resizeAt = (int) (capacity * LOAD_FACTOR);
+	}
+
+	// Ids are sequential, so they are mixed before masking to keep them from filling one contiguous run of slots
+	private static int slot(int key, int mask) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	@FunctionalInterface
+	public interface Visitor<V> {
+
+		void visit(int key, V value);
+
+	}
+
+}
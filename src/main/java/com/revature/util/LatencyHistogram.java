@@ -0,0 +1,77 @@
+package com.revature.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+
+	// Upper bounds of the buckets in seconds, which is the unit Prometheus expects for latencies
+	private static final double[] BUCKET_BOUNDS = { 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05,
+			0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+
+	private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS.length];
+
+	static {
+		for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+			BUCKET_BOUNDS_NANOS[i] = (long) (BUCKET_BOUNDS[i] * 1_000_000_000L);
+		}
+	}
+
+	// One extra bucket at the end for everything above the largest bound (+Inf)
+	private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+	private final LongAdder sumNanos = new LongAdder();
+
+	public LatencyHistogram() {
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	public void record(long nanos) {
+		int i = 0;
+		while (i < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[i]) {
+			i++;
+		}
+
+		buckets[i].increment();
+		sumNanos.add(nanos);
+	}
+
+	public long getCount() {
+		long count = 0;
+		for (LongAdder bucket : buckets) {
+			count += bucket.sum();
+		}
+
+		return count;
+	}
+
+	public double getSumSeconds() {
+		return sumNanos.sum() / 1_000_000_000.0;
+	}
+
+	/**
+	 * Appends this histogram in the Prometheus text exposition format
+	 *
+	 * @param sb     the builder the metric lines are appended to
+	 * @param name   the metric name, without the _bucket/_sum/_count suffixes
+	 * @param labels extra labels such as route="/client", or an empty String
+	 */
+	public void writePrometheus(StringBuilder sb, String name, String labels) {
+		String separator = labels.isEmpty() ? "" : ",";
+
+		long cumulative = 0;
+		for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+			cumulative += buckets[i].sum();
+			sb.append(name).append("_bucket{").append(labels).append(separator).append("le=\"").append(BUCKET_BOUNDS[i])
+					.append("\"} ").append(cumulative).append('\n');
+		}
+		cumulative += buckets[BUCKET_BOUNDS.length].sum();
+		sb.append(name).append("_bucket{").append(labels).append(separator).append("le=\"+Inf\"} ").append(cumulative)
+				.append('\n');
+
+		String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+		sb.append(name).append("_sum").append(braces).append(' ').append(getSumSeconds()).append('\n');
+		sb.append(name).append("_count").append(braces).append(' ').append(cumulative).append('\n');
+	}
+
+}
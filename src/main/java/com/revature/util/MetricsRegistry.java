@@ -0,0 +1,123 @@
+package com.revature.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request and DAO call metrics. Recording only touches ConcurrentHashMap lookups and LongAdders, so request threads
+ * never block on each other; a series is created the first time its route (or DAO method) is seen and kept from then
+ * on, which is fine because routes and DAO methods are a small fixed set.
+ */
+public class MetricsRegistry {
+
+	private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+	private final ConcurrentHashMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, CallMetrics> calls = new ConcurrentHashMap<>();
+
+	public static MetricsRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * @param route the route pattern (/client/:clientid) rather than the actual path, so that every client shares
+	 *              one series
+	 */
+	public void recordRequest(String method, String route, int status, long nanos) {
+		String key = method + ' ' + route;
+
+		RouteMetrics metrics = routes.get(key);
+		if (metrics == null) {
+			metrics = routes.computeIfAbsent(key, (k) -> new RouteMetrics(method, route));
+		}
+
+		metrics.record(status, nanos);
+	}
+
+	/**
+	 * Returns the metrics of one named call site (such as ClientDAO.getClientById). Callers that record a lot keep
+	 * the returned object instead of looking it up every time
+	 */
+	public CallMetrics callMetrics(String component, String method) {
+		return calls.computeIfAbsent(component + '.' + method, (k) -> new CallMetrics(component, method));
+	}
+
+	public void writePrometheus(StringBuilder sb) {
+		// Sorted so the output is stable from one scrape to the next
+		Map<String, RouteMetrics> sortedRoutes = new TreeMap<>(routes);
+		Map<String, CallMetrics> sortedCalls = new TreeMap<>(calls);
+
+		sb.append("# TYPE http_requests_total counter\n");
+		for (RouteMetrics metrics : sortedRoutes.values()) {
+			Map<Integer, LongAdder> statuses = new TreeMap<>(metrics.statuses);
+			for (Map.Entry<Integer, LongAdder> status : statuses.entrySet()) {
+				sb.append("http_requests_total{").append(metrics.labels).append(",status=\"").append(status.getKey())
+						.append("\"} ").append(status.getValue().sum()).append('\n');
+			}
+		}
+
+		sb.append("# TYPE http_request_duration_seconds histogram\n");
+		for (RouteMetrics metrics : sortedRoutes.values()) {
+			metrics.latency.writePrometheus(sb, "http_request_duration_seconds", metrics.labels);
+		}
+
+		sb.append("# TYPE dao_call_errors_total counter\n");
+		for (CallMetrics metrics : sortedCalls.values()) {
+			sb.append("dao_call_errors_total{").append(metrics.labels).append("} ").append(metrics.errors.sum())
+					.append('\n');
+		}
+
+		sb.append("# TYPE dao_call_duration_seconds histogram\n");
+		for (CallMetrics metrics : sortedCalls.values()) {
+			metrics.latency.writePrometheus(sb, "dao_call_duration_seconds", metrics.labels);
+		}
+	}
+
+	private static String escape(String labelValue) {
+		return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private static class RouteMetrics {
+
+		private final String labels;
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final ConcurrentHashMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+		private RouteMetrics(String method, String route) {
+			this.labels = "method=\"" + escape(method) + "\",route=\"" + escape(route) + "\"";
+		}
+
+		private void record(int status, long nanos) {
+			latency.record(nanos);
+
+			LongAdder count = statuses.get(status);
+			if (count == null) {
+				count = statuses.computeIfAbsent(status, (s) -> new LongAdder());
+			}
+			count.increment();
+		}
+
+	}
+
+	public static class CallMetrics {
+
+		private final String labels;
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder errors = new LongAdder();
+
+		private CallMetrics(String component, String method) {
+			this.labels = "dao=\"" + escape(component) + "\",method=\"" + escape(method) + "\"";
+		}
+
+		public void record(long nanos, boolean failed) {
+			latency.record(nanos);
+			if (failed) {
+				errors.increment();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,382 @@
+package com.revature.util;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only journal of numbered entries, split over segment files of a fixed size. An append copies the entry into
+ * a memory-mapped segment and returns, so it costs about as much as the copy. A background thread forces what has been
+ * appended to disk every syncIntervalMillis, which is group commit: one fsync covers every entry appended since the last
+ * one. A caller that must not return before its entry is on disk waits for the next sync with awaitSync().
+ *
+ * Each segment is named after the sequence number of its first entry, and a new one is started whenever the current one
+ * is full and every time the journal is opened. Segments are never deleted, the journal is the history.
+ *
+ * Each entry is its length, then the sequence number, the time it was appended, a type and the payload, followed by a
+ * CRC-32 of everything after the length. A length of 0 marks the end of a segment.
+ */
+public class SegmentedJournal implements Closeable {
+
+	private static Logger logger = LoggerFactory.getLogger(SegmentedJournal.class);
+
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final String SEGMENT_SUFFIX = ".journal";
+
+	private static final int LENGTH_SIZE = 4;
+	private static final int HEADER_SIZE = 8 + 8 + 1;
+	private static final int CRC_SIZE = 4;
+
+	private final Path directory;
+	private final int segmentBytes;
+
+	private MappedByteBuffer segment;
+	private long lastSequence;
+	private final CRC32 crc = new CRC32();
+
+	// Full segments that may still have entries the sync thread hasn't forced yet
+	private final List<MappedByteBuffer> unsyncedSegments = new ArrayList<>();
+
+	private final Object syncMonitor = new Object();
+	private volatile long syncedSequence;
+	private boolean syncRequested;
+	private volatile boolean closed;
+	private final Thread syncThread;
+
+	/**
+	 * Starts a new segment after the last entry already in directory
+	 *
+	 * @param segmentBytes     the size of each segment file. An entry bigger than this gets a segment of its own
+	 * @param syncIntervalMillis how long entries may wait for a sync, and so how much a crash of the machine can lose
+	 */
+	public SegmentedJournal(Path directory, int segmentBytes, long syncIntervalMillis) throws IOException {
+		this.directory = directory;
+		this.segmentBytes = segmentBytes;
+
+		Files.createDirectories(directory);
+
+		List<Long> segments = segments(directory);
+		if (!segments.isEmpty()) {
+			long first = segments.get(segments.size() - 1);
+			lastSequence = first - 1;
+			readSegment(segmentPath(directory, first), 0, (entry) -> lastSequence = entry.getSequence());
+		}
+		syncedSequence = lastSequence;
+
+		startSegment(0);
+
+		syncThread = new Thread(() -> syncLoop(syncIntervalMillis), "journal-sync");
+		syncThread.setDaemon(true);
+		syncThread.start();
+	}
+
+	/**
+	 * @return the sequence number the entry was given, which is what awaitSync() takes
+	 */
+	public synchronized long append(byte type, byte[] payload) throws IOException {
+		if (closed) {
+			throw new IOException("Journal in " + directory + " is closed");
+		}
+
+		int bodySize = HEADER_SIZE + payload.length;
+		if (segment.remaining() < LENGTH_SIZE + bodySize + CRC_SIZE + LENGTH_SIZE) {
+			if (segment.remaining() >= LENGTH_SIZE) {
+				segment.putInt(0);
+			}
+			unsyncedSegments.add(segment);
+			startSegment(LENGTH_SIZE + bodySize + CRC_SIZE + LENGTH_SIZE);
+		}
+
+		long sequence = lastSequence + 1;
+		long timestamp = System.currentTimeMillis();
+
+		segment.putInt(bodySize);
+		int bodyStart = segment.position();
+		segment.putLong(sequence);
+		segment.putLong(timestamp);
+		segment.put(type);
+		segment.put(payload);
+
+		ByteBuffer body = segment.duplicate();
+		body.position(bodyStart);
+		body.limit(bodyStart + bodySize);
+		crc.reset();
+		crc.update(body);
+		segment.putInt((int) crc.getValue());
+
+		lastSequence = sequence;
+		return sequence;
+	}
+
+	/**
+	 * Blocks until the entry with sequence, and every one before it, has been forced to disk. Asks the sync thread to
+	 * sync right away instead of at the end of its interval, so the wait is about one fsync, shared with every other
+	 * waiting caller
+	 */
+	public void awaitSync(long sequence) throws InterruptedException, IOException {
+		synchronized (syncMonitor) {
+			while (syncedSequence < sequence) {
+				if (closed) {
+					throw new IOException("Journal in " + directory + " was closed before entry " + sequence + " was synced");
+				}
+				// Only the first waiter wakes the sync thread. Every waiter waking all the others again would keep the
+				// monitor too busy for the sync thread to report back
+				if (!syncRequested) {
+					syncRequested = true;
+					syncMonitor.notifyAll();
+				}
+				syncMonitor.wait();
+			}
+		}
+	}
+
+	public long getLastSequence() {
+		synchronized (this) {
+			return lastSequence;
+		}
+	}
+
+	public long getSyncedSequence() {
+		return syncedSequence;
+	}
+
+	private void syncLoop(long syncIntervalMillis) {
+		while (true) {
+			synchronized (syncMonitor) {
+				if (!syncRequested && !closed) {
+					try {
+						syncMonitor.wait(syncIntervalMillis);
+					} catch (InterruptedException e) {
+						// close() interrupts to get the last sync done now rather than after the interval
+					}
+				}
+				syncRequested = false;
+			}
+
+			// Read before syncing: once closed is set nothing can be appended, so this sync then covers every entry
+			boolean last = closed;
+
+			sync();
+
+			if (last) {
+				return;
+			}
+		}
+	}
+
+	private void sync() {
+		long sequence;
+		MappedByteBuffer current;
+		List<MappedByteBuffer> full;
+		synchronized (this) {
+			sequence = lastSequence;
+			current = segment;
+			full = new ArrayList<>(unsyncedSegments);
+			unsyncedSegments.clear();
+		}
+
+		if (sequence == syncedSequence) {
+			return;
+		}
+
+		try {
+			// Forcing a mapping doesn't need its position, so appends to the current segment carry on meanwhile
+			for (MappedByteBuffer buffer : full) {
+				buffer.force();
+			}
+			current.force();
+		} catch (UncheckedIOException e) {
+			logger.warn("Journal in {} could not be synced. Message is {}", directory, e.getMessage());
+			synchronized (this) {
+				unsyncedSegments.addAll(0, full);
+			}
+			return;
+		}
+
+		synchronized (syncMonitor) {
+			syncedSequence = sequence;
+			syncMonitor.notifyAll();
+		}
+	}
+
+	// The channel can be closed right away, a mapping stays valid until it is garbage collected
+	private void startSegment(int minimumBytes) throws IOException {
+		Path file = segmentPath(directory, lastSequence + 1);
+
+		// Only the last segment of a previous run can have this name, and only if it holds no complete entry
+		Files.deleteIfExists(file);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentBytes, minimumBytes));
+		}
+	}
+
+	/**
+	 * Syncs everything appended so far and stops the sync thread. Appending afterwards fails
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+
+		syncThread.interrupt();
+		try {
+			syncThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		synchronized (syncMonitor) {
+			syncMonitor.notifyAll();
+		}
+	}
+
+	/**
+	 * Passes every complete entry in directory with a sequence number of at least fromSequence to handler, in order. A
+	 * segment is read up to its end marker or its first torn entry, which only the segment that was being written when
+	 * the process died can have
+	 *
+	 * @return how many entries were passed to handler
+	 */
+	public static long read(Path directory, long fromSequence, EntryHandler handler) throws IOException {
+		List<Long> segments = segments(directory);
+		long entries = 0;
+
+		for (int i = 0; i < segments.size(); i++) {
+			// Everything in this segment comes before the first entry of the next one
+			if (i + 1 < segments.size() && segments.get(i + 1) <= fromSequence) {
+				continue;
+			}
+			entries += readSegment(segmentPath(directory, segments.get(i)), fromSequence, handler);
+		}
+
+		return entries;
+	}
+
+	private static long readSegment(Path file, long fromSequence, EntryHandler handler) throws IOException {
+		long entries = 0;
+		long remaining = Files.size(file);
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			CRC32 crc = new CRC32();
+
+			while (true) {
+				Entry entry;
+				try {
+					int bodySize = in.readInt();
+					remaining -= LENGTH_SIZE;
+
+					if (bodySize < HEADER_SIZE || bodySize > remaining - CRC_SIZE) {
+						break;
+					}
+					remaining -= bodySize + CRC_SIZE;
+
+					byte[] body = new byte[bodySize];
+					in.readFully(body);
+					int checksum = in.readInt();
+
+					crc.reset();
+					crc.update(body, 0, body.length);
+					if ((int) crc.getValue() != checksum) {
+						break;
+					}
+
+					ByteBuffer header = ByteBuffer.wrap(body);
+					entry = new Entry(header.getLong(), header.getLong(), header.get(),
+							Arrays.copyOfRange(body, HEADER_SIZE, body.length));
+				} catch (EOFException e) {
+					break;
+				}
+
+				if (entry.getSequence() >= fromSequence) {
+					handler.handle(entry);
+					entries++;
+				}
+			}
+		}
+
+		return entries;
+	}
+
+	private static Path segmentPath(Path directory, long firstSequence) {
+		return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+	}
+
+	// The first sequence number of every segment in directory, in order
+	private static List<Long> segments(Path directory) throws IOException {
+		if (!Files.isDirectory(directory)) {
+			return new ArrayList<>();
+		}
+
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.map((file) -> file.getFileName().toString())
+					.filter((name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+					.map((name) -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	public static class Entry {
+
+		private final long sequence;
+		private final long timestamp;
+		private final byte type;
+		private final byte[] payload;
+
+		public Entry(long sequence, long timestamp, byte type, byte[] payload) {
+			this.sequence = sequence;
+			this.timestamp = timestamp;
+			this.type = type;
+			this.payload = payload;
+		}
+
+		public long getSequence() {
+			return sequence;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		public byte getType() {
+			return type;
+		}
+
+		public byte[] getPayload() {
+			return payload;
+		}
+
+	}
+
+	@FunctionalInterface
+	public interface EntryHandler {
+
+		void handle(Entry entry) throws IOException;
+
+	}
+
+}
@@ -0,0 +1,218 @@
+package com.revature.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The prepared statements of one physical connection, kept open across borrows and keyed by their SQL. A statement
+ * handed out by {@link #prepare(String, int)} is a proxy whose close() puts the statement back in the cache, so DAOs
+ * close their statements as usual while the same SQL is only ever prepared once per connection.
+ *
+ * Only one borrower uses a physical connection at a time, so this class is not thread safe.
+ */
+class StatementCache {
+
+	private static Logger logger = LoggerFactory.getLogger(StatementCache.class);
+
+	private final Connection connection;
+	private final int maxSize;
+	private final LongAdder hits;
+	private final LongAdder misses;
+
+	// Access ordered, so the eldest entry is the statement that was least recently prepared
+	private final LinkedHashMap<String, CachedStatement> statements;
+
+	// Statements currently lent out, so the ones that were never closed can be cleaned up when the connection is
+	// returned to the pool
+	private final List<CachedStatement> inUse = new ArrayList<>();
+
+	StatementCache(Connection connection, int maxSize, LongAdder hits, LongAdder misses) {
+		this.connection = connection;
+		this.maxSize = maxSize;
+		this.hits = hits;
+		this.misses = misses;
+		this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+				if (size() <= StatementCache.this.maxSize) {
+					return false;
+				}
+
+				CachedStatement evicted = eldest.getValue();
+				evicted.evicted = true;
+				if (!evicted.lent) {
+					closeQuietly(evicted);
+				}
+				return true;
+			}
+
+		};
+	}
+
+	PreparedStatement prepare(Connection handle, String sql, int autoGeneratedKeys) throws SQLException {
+		String key = autoGeneratedKeys + ":" + sql;
+
+		CachedStatement cached = statements.get(key);
+		if (cached == null) {
+			misses.increment();
+
+			cached = new CachedStatement(connection.prepareStatement(sql, autoGeneratedKeys));
+			statements.put(key, cached);
+		} else if (cached.lent) {
+			// The same SQL is already open on this connection (for example a nested query), so this one can't share it
+			misses.increment();
+
+			return connection.prepareStatement(sql, autoGeneratedKeys);
+		} else {
+			hits.increment();
+		}
+
+		cached.lent = true;
+		inUse.add(cached);
+
+		return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, new StatementHandle(handle, cached));
+	}
+
+	private void giveBack(CachedStatement cached) {
+		inUse.remove(cached);
+		cached.lent = false;
+
+		if (cached.evicted) {
+			closeQuietly(cached);
+			return;
+		}
+
+		try {
+			cached.statement.clearParameters();
+			cached.statement.clearBatch();
+		} catch (SQLException e) {
+			// A statement that can't be reset is not worth keeping
+			statements.values().remove(cached);
+			closeQuietly(cached);
+		}
+	}
+
+	/**
+	 * Called when the connection goes back to the pool. Statements the borrower never closed are dropped rather than
+	 * reused, because whoever leaked them could still be holding a reference
+	 */
+	void releaseAll() {
+		for (Iterator<CachedStatement> it = inUse.iterator(); it.hasNext();) {
+			CachedStatement leaked = it.next();
+			it.remove();
+
+			statements.values().remove(leaked);
+			closeQuietly(leaked);
+		}
+	}
+
+	void closeAll() {
+		for (CachedStatement cached : statements.values()) {
+			closeQuietly(cached);
+		}
+		statements.clear();
+		inUse.clear();
+	}
+
+	int size() {
+		return statements.size();
+	}
+
+	private static void closeQuietly(CachedStatement cached) {
+		try {
+			cached.statement.close();
+		} catch (SQLException e) {
+			logger.debug("Failed to close a cached statement", e);
+		}
+	}
+
+	private static class CachedStatement {
+
+		private final PreparedStatement statement;
+
+		private boolean lent;
+		private boolean evicted;
+
+		private CachedStatement(PreparedStatement statement) {
+			this.statement = statement;
+		}
+
+	}
+
+	// Like connection handles, every prepare gets its own statement handle, so a reference kept after close() stops
+	// working instead of reaching into the next borrower's statement
+	private class StatementHandle implements InvocationHandler {
+
+		private final Connection connectionHandle;
+		private CachedStatement cached;
+
+		private StatementHandle(Connection connectionHandle, CachedStatement cached) {
+			this.connectionHandle = connectionHandle;
+			this.cached = cached;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+
+			if (name.equals("close")) {
+				CachedStatement returning = cached;
+				cached = null;
+				if (returning != null && returning.lent) {
+					giveBack(returning);
+				}
+				return null;
+			}
+
+			if (name.equals("isClosed")) {
+				return cached == null || cached.statement.isClosed();
+			}
+
+			if (name.equals("getConnection")) {
+				return connectionHandle;
+			}
+
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+
+			if (name.equals("toString")) {
+				return "CachedStatement[" + (cached == null ? "closed" : cached.statement) + "]";
+			}
+
+			if (cached == null) {
+				throw new SQLException("Statement has already been closed");
+			}
+
+			try {
+				return method.invoke(cached.statement, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.revature.controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClientDocumentCacheTest {
+
+	private ClientDocumentCache cache;
+	
+	@Before
+	public void setUp() {
+		this.cache = new ClientDocumentCache(2, 60000);
+	}
+	
+	@Test
+	public void test_get_servesDocumentUnderSameETag() {
+		byte[] json = json("Jolly Roger");
+		cache.put(1, "\"e-1-0\"", json);
+		
+		assertArrayEquals(json, cache.get(1, "\"e-1-0\""));
+		assertEquals(1, cache.getHitCount());
+	}
+	
+	@Test
+	public void test_get_dropsDocumentOnceETagChanged() {
+		cache.put(1, "\"e-1-0\"", json("Jolly Roger"));
+		
+		assertNull(cache.get(1, "\"e-1-1\""));
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.getMissCount());
+	}
+	
+	@Test
+	public void test_get_expiredDocument() throws InterruptedException {
+		cache = new ClientDocumentCache(2, 1);
+		cache.put(1, "\"e-1-0\"", json("Jolly Roger"));
+		
+		Thread.sleep(5);
+		
+		assertNull(cache.get(1, "\"e-1-0\""));
+	}
+	
+	@Test
+	public void test_put_evictsLeastRecentlyUsed() {
+		cache.put(1, "\"e-1-0\"", json("Jolly Roger"));
+		cache.put(2, "\"e-2-0\"", json("Black Pearl"));
+		cache.get(1, "\"e-1-0\"");
+		
+		cache.put(3, "\"e-3-0\"", json("Flying Dutchman"));
+		
+		assertNull(cache.get(2, "\"e-2-0\""));
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+	}
+	
+	private static byte[] json(String name) {
+		return ("{\"name\":\"" + name + "\"}").getBytes(StandardCharsets.UTF_8);
+	}
+	
+}
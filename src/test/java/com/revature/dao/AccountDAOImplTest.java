@@ -0,0 +1,155 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.revature.dto.AddOrEditAccountDTO;
+import com.revature.dto.BalanceDTO;
+import com.revature.model.Account;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+// Runs against an embedded MariaDB loaded with project0_script.sql, because what is tested here is the locking the
+// SQL does. Account 1 (client 1, balance 500) and account 2 (client 1, balance 2500) come from the script
+public class AccountDAOImplTest {
+
+	private static DB db;
+
+	private AccountDAOImpl accountDao = new AccountDAOImpl(new StripedBalances(new HashSet<>(Arrays.asList(1, 2)), 4));
+
+	@BeforeClass
+	public static void startDatabase() throws ManagedProcessException, SQLException, IOException {
+		DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+		config.setPort(0);
+
+		// mysqld refuses to start as root unless it is told to
+		if ("root".equals(System.getProperty("user.name"))) {
+			config.addArg("--user=root");
+		}
+
+		db = DB.newEmbeddedDB(config.build());
+		db.start();
+
+		String serverUrl = "jdbc:mariadb://localhost:" + config.getPort() + "/";
+		try (Connection con = DriverManager.getConnection(serverUrl, "root", ""); Statement stmt = con.createStatement()) {
+			stmt.execute("CREATE DATABASE jdbc_demo");
+			stmt.execute("USE jdbc_demo");
+
+			StringBuilder script = new StringBuilder();
+			for (String line : Files.readAllLines(Paths.get("project0_script.sql"), StandardCharsets.UTF_8)) {
+				if (!line.trim().startsWith("--")) {
+					script.append(line).append('\n');
+				}
+			}
+
+			for (String sql : script.toString().split(";")) {
+				if (!sql.trim().isEmpty()) {
+					stmt.execute(sql);
+				}
+			}
+		}
+
+		System.setProperty("db_url", serverUrl + "jdbc_demo");
+		System.setProperty("db_username", "root");
+		System.setProperty("db_password", "");
+	}
+
+	@AfterClass
+	public static void stopDatabase() throws ManagedProcessException {
+		System.clearProperty("db_url");
+		System.clearProperty("db_username");
+		System.clearProperty("db_password");
+
+		db.stop();
+	}
+
+	@Test
+	public void test_editAccount_stripedDepositAfterReadConflicts() throws SQLException {
+		Account read = accountDao.getAccountById(1, 1);
+
+		assertEquals(new BalanceDTO(1, 1, 600, read.getVersion() + 1), accountDao.changeBalance(1, 1, 100));
+
+		// The deposit went to a slot, but the edit still has to notice it
+		assertNull(accountDao.editAccount(1, 1, edit("Checking", 0, read.getVersion())));
+
+		Account current = accountDao.getAccountById(1, 1);
+		assertEquals(600, current.getBalance());
+		assertEquals(read.getVersion() + 1, current.getVersion());
+
+		Account edited = accountDao.editAccount(1, 1, edit("Checking", 50, current.getVersion()));
+		assertNotNull(edited);
+		assertEquals(current.getVersion() + 1, edited.getVersion());
+		assertEquals(edited, accountDao.getAccountById(1, 1));
+	}
+
+	@Test
+	public void test_editAccount_stripedVersionSurvivesFold() throws SQLException {
+		accountDao.changeBalance(1, 2, 100);
+		Account read = accountDao.getAccountById(1, 2);
+
+		accountDao.changeBalance(1, 2, 100);
+		accountDao.foldBalanceSlots(2);
+
+		assertEquals(read.getBalance() + 100, accountDao.getAccountById(1, 2).getBalance());
+		assertNull(accountDao.editAccount(1, 2, edit("Saving", 0, read.getVersion())));
+
+		// Without a version the edit always goes through, and clears what the slots held
+		Account edited = accountDao.editAccount(1, 2, edit("Saving", 10, null));
+		accountDao.changeBalance(1, 2, 5);
+		assertEquals(15, accountDao.getAccountById(1, 2).getBalance());
+		assertEquals(edited.getVersion() + 1, accountDao.getAccountById(1, 2).getVersion());
+	}
+
+	@Test
+	public void test_changeBalance_returnsBalanceAndVersion() throws SQLException {
+		AccountDAOImpl unstriped = new AccountDAOImpl();
+		Account read = unstriped.getAccountById(2, 3);
+		
+		assertEquals(new BalanceDTO(2, 3, 0, read.getVersion() + 1), unstriped.changeBalance(2, 3, -read.getBalance()));
+		assertNull(unstriped.changeBalance(2, 3, -1));
+		assertEquals(new BalanceDTO(2, 3, 25, read.getVersion() + 2), unstriped.changeBalance(2, 3, 25));
+		assertEquals(read.getVersion() + 2, unstriped.getAccountById(2, 3).getVersion());
+	}
+	
+	@Test
+	public void test_foldOnce_givesSlotsBackAfterStripingIsSwitchedOff() throws SQLException {
+		AccountDAOImpl unstriped = new AccountDAOImpl();
+		AddOrEditAccountDTO added = edit("Holiday", 100, null);
+		added.setClientId(2);
+		int accountId = unstriped.addAccount(added).getId();
+		
+		new AccountDAOImpl(new StripedBalances(new HashSet<>(Arrays.asList(accountId)), 4)).changeBalance(2, accountId, 40);
+		
+		// A run without striped accounts doesn't read the slots, which is why they are folded when it starts
+		assertEquals(100, unstriped.getAccountById(2, accountId).getBalance());
+		BalanceFoldJob.foldOnce(unstriped);
+		assertEquals(140, unstriped.getAccountById(2, accountId).getBalance());
+	}
+	
+	private static AddOrEditAccountDTO edit(String name, int balance, Integer version) {
+		AddOrEditAccountDTO account = new AddOrEditAccountDTO();
+		account.setName(name);
+		account.setBalance(balance);
+		account.setVersion(version);
+		return account;
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class AccountQueryTest {
+
+	@Test
+	public void test_toSql_clientOnly() {
+		String sql = AccountQuery.forClient(1).toSql();
+		
+		assertEquals("SELECT a.id, a.name, a.balance, a.version FROM jdbc_demo.account a WHERE a.client_id = ? ORDER BY a.id", sql);
+	}
+	
+	@Test
+	public void test_toSql_everyOption() {
+		String sql = AccountQuery.forClient(1).balanceAtLeast(400).balanceAtMost(2000).after(3).limit(10)
+				.columns(AccountQuery.Column.BALANCE).toSql();
+		
+		assertEquals("SELECT a.id, a.balance FROM jdbc_demo.account a WHERE a.client_id = ? AND a.balance >= ? "
+				+ "AND a.balance <= ? AND a.id > ? ORDER BY a.id LIMIT ?", sql);
+	}
+	
+	@Test
+	public void test_toSql_sameShapeForSameOptions() {
+		String first = AccountQuery.forClient(1).balanceAtMost(100).sortBy(AccountQuery.Sort.BALANCE_DESC).toSql();
+		String second = AccountQuery.forClient(2).balanceAtMost(5000).sortBy(AccountQuery.Sort.BALANCE_DESC).toSql();
+		
+		assertEquals(first, second);
+		assertEquals("SELECT a.id, a.name, a.balance, a.version FROM jdbc_demo.account a WHERE a.client_id = ? AND a.balance <= ? "
+				+ "ORDER BY a.balance DESC, a.id DESC", first);
+	}
+	
+	@Test
+	public void test_toSql_stripedBalance() {
+		String sql = AccountQuery.forClient(1).balanceAtLeast(400).sortBy(AccountQuery.Sort.BALANCE_ASC)
+				.columns(AccountQuery.Column.BALANCE).toSql("(a.balance + 1)");
+		
+		assertEquals("SELECT a.id, (a.balance + 1) AS balance FROM jdbc_demo.account a WHERE a.client_id = ? "
+				+ "AND (a.balance + 1) >= ? ORDER BY (a.balance + 1), a.id", sql);
+	}
+	
+	@Test
+	public void test_toSql_stripedVersion() {
+		String sql = AccountQuery.forClient(1).toSql("(a.balance + 1)", "(a.version + 2)");
+		
+		assertEquals("SELECT a.id, a.name, (a.balance + 1) AS balance, (a.version + 2) AS version FROM jdbc_demo.account a "
+				+ "WHERE a.client_id = ? ORDER BY a.id", sql);
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void test_toSql_afterRequiresIdOrder() {
+		AccountQuery.forClient(1).after(3).sortBy(AccountQuery.Sort.BALANCE_ASC).toSql();
+	}
+	
+	@Test
+	public void test_bind_followsPlaceholderOrder() throws SQLException {
+		PreparedStatement pstmt = mock(PreparedStatement.class);
+		
+		AccountQuery.forClient(1).balanceAtMost(2000).after(3).limit(10).bind(pstmt);
+		
+		InOrder order = inOrder(pstmt);
+		order.verify(pstmt).setInt(1, 1);
+		order.verify(pstmt).setInt(2, 2000);
+		order.verify(pstmt).setInt(3, 3);
+		order.verify(pstmt).setInt(4, 10);
+		verifyNoMoreInteractions(pstmt);
+	}
+	
+}
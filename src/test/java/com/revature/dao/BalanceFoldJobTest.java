@@ -0,0 +1,89 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BalanceFoldJobTest {
+
+	private AccountDAO accountDao;
+	private BalanceFoldJob foldJob;
+	
+	@Before
+	public void setUp() {
+		this.accountDao = mock(AccountDAO.class);
+		
+		// Long enough that the scheduled runs never get in the way, the tests call foldAll() themselves
+		this.foldJob = new BalanceFoldJob(accountDao, 3600000);
+	}
+	
+	@After
+	public void tearDown() {
+		foldJob.close();
+	}
+	
+	@Test
+	public void test_foldAll_foldsEveryAccountWithUnfoldedBalance() throws SQLException {
+		when(accountDao.findAccountsWithUnfoldedBalance()).thenReturn(Arrays.asList(3, 7));
+		when(accountDao.foldBalanceSlots(eq(3))).thenReturn(250);
+		when(accountDao.foldBalanceSlots(eq(7))).thenReturn(40);
+		
+		foldJob.foldAll();
+		
+		verify(accountDao).foldBalanceSlots(eq(3));
+		verify(accountDao).foldBalanceSlots(eq(7));
+		assertEquals(2, foldJob.getFoldCount());
+	}
+	
+	@Test
+	public void test_foldAll_continuesAfterAFailedAccount() throws SQLException {
+		when(accountDao.findAccountsWithUnfoldedBalance()).thenReturn(Arrays.asList(3, 7));
+		when(accountDao.foldBalanceSlots(eq(3))).thenThrow(SQLException.class);
+		when(accountDao.foldBalanceSlots(eq(7))).thenReturn(40);
+		
+		foldJob.foldAll();
+		
+		verify(accountDao).foldBalanceSlots(eq(7));
+		assertEquals(1, foldJob.getFoldCount());
+	}
+	
+	@Test
+	public void test_close_foldsOneLastTime() throws SQLException {
+		when(accountDao.findAccountsWithUnfoldedBalance()).thenReturn(Arrays.asList(3));
+		when(accountDao.foldBalanceSlots(eq(3))).thenReturn(250);
+		
+		foldJob.close();
+		
+		verify(accountDao).foldBalanceSlots(eq(3));
+		assertEquals(1, foldJob.getFoldCount());
+	}
+	
+	@Test
+	public void test_foldOnce_withoutJob() throws SQLException {
+		when(accountDao.findAccountsWithUnfoldedBalance()).thenReturn(Arrays.asList(3, 7));
+		when(accountDao.foldBalanceSlots(eq(3))).thenReturn(250);
+		when(accountDao.foldBalanceSlots(eq(7))).thenReturn(0);
+		
+		assertEquals(1, BalanceFoldJob.foldOnce(accountDao));
+		assertEquals(0, foldJob.getFoldCount());
+	}
+	
+	@Test
+	public void test_foldAll_survivesDatabaseFailure() throws SQLException {
+		when(accountDao.findAccountsWithUnfoldedBalance()).thenThrow(SQLException.class);
+		
+		foldJob.foldAll();
+		
+		assertEquals(0, foldJob.getFoldCount());
+	}
+	
+}
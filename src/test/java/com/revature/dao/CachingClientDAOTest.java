@@ -0,0 +1,135 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.dto.AddOrEditClientDTO;
+import com.revature.model.Client;
+
+public class CachingClientDAOTest {
+
+	private ClientDAO clientDao;
+	private ClientCache cache;
+	private CachingClientDAO cachingClientDao;
+	
+	@Before
+	public void setUp() {
+		this.clientDao = mock(ClientDAO.class);
+		this.cache = new ClientCache(2, 60000);
+		
+		this.cachingClientDao = new CachingClientDAO(clientDao, cache);
+	}
+	
+	@Test
+	public void test_getClientById_secondCallIsServedFromCache() throws SQLException {
+		when(clientDao.getClientById(eq(1))).thenReturn(new Client(1, "Black Pearl", 40));
+		
+		Client first = cachingClientDao.getClientById(1);
+		Client second = cachingClientDao.getClientById(1);
+		
+		assertEquals(new Client(1, "Black Pearl", 40), first);
+		assertEquals(new Client(1, "Black Pearl", 40), second);
+		verify(clientDao, times(1)).getClientById(eq(1));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+	
+	@Test
+	public void test_getClientById_callersCannotChangeTheCachedClient() throws SQLException {
+		when(clientDao.getClientById(eq(1))).thenReturn(new Client(1, "Black Pearl", 40));
+		
+		cachingClientDao.getClientById(1).setAccounts(new ArrayList<>());
+		
+		assertNull(cachingClientDao.getClientById(1).getAccounts());
+	}
+	
+	@Test
+	public void test_getClientById_missingClientIsNotCached() throws SQLException {
+		assertNull(cachingClientDao.getClientById(10));
+		assertNull(cachingClientDao.getClientById(10));
+		
+		verify(clientDao, times(2)).getClientById(eq(10));
+	}
+	
+	@Test
+	public void test_editClient_invalidatesCachedClient() throws SQLException {
+		AddOrEditClientDTO dto = new AddOrEditClientDTO();
+		dto.setName("Royal Fortune");
+		dto.setAge(50);
+		
+		when(clientDao.getClientById(eq(1))).thenReturn(new Client(1, "Black Pearl", 40), new Client(1, "Royal Fortune", 50));
+		when(clientDao.editClient(eq(1), eq(dto))).thenReturn(new Client(1, "Royal Fortune", 50));
+		
+		cachingClientDao.getClientById(1);
+		cachingClientDao.editClient(1, dto);
+		Client actual = cachingClientDao.getClientById(1);
+		
+		assertEquals(new Client(1, "Royal Fortune", 50), actual);
+		verify(clientDao, times(2)).getClientById(eq(1));
+	}
+	
+	@Test
+	public void test_deleteClient_invalidatesCachedClient() throws SQLException {
+		when(clientDao.getClientById(eq(1))).thenReturn(new Client(1, "Black Pearl", 40), (Client) null);
+		
+		cachingClientDao.getClientById(1);
+		cachingClientDao.deleteClient(1);
+		
+		assertNull(cachingClientDao.getClientById(1));
+	}
+	
+	@Test
+	public void test_deleteClient_invalidatesEvenWhenDeleteFails() throws SQLException {
+		when(clientDao.getClientById(eq(1))).thenReturn(new Client(1, "Black Pearl", 40));
+		doThrow(SQLException.class).when(clientDao).deleteClient(eq(1));
+		
+		cachingClientDao.getClientById(1);
+		try {
+			cachingClientDao.deleteClient(1);
+		} catch (SQLException e) {
+		}
+		cachingClientDao.getClientById(1);
+		
+		verify(clientDao, times(2)).getClientById(eq(1));
+	}
+	
+	@Test
+	public void test_put_evictsLeastRecentlyUsedClientWhenFull() throws SQLException {
+		when(clientDao.getClientById(anyInt())).thenAnswer((invocation) -> new Client(invocation.getArgument(0), "client", 20));
+		
+		cachingClientDao.getClientById(1);
+		cachingClientDao.getClientById(2);
+		cachingClientDao.getClientById(1); // 2 is now the least recently used client
+		cachingClientDao.getClientById(3);
+		
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		
+		cachingClientDao.getClientById(1);
+		verify(clientDao, times(1)).getClientById(eq(1));
+	}
+	
+	@Test
+	public void test_put_skippedWhenInvalidatedDuringLoad() {
+		long generation = cache.currentGeneration();
+		cache.invalidate(1);
+		
+		cache.put(new Client(1, "Black Pearl", 40), generation);
+		
+		assertNull(cache.get(1));
+	}
+	
+}
@@ -0,0 +1,377 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.revature.dto.AddClientWithAccountsDTO;
+import com.revature.dto.AddOrEditAccountDTO;
+import com.revature.dto.AddOrEditClientDTO;
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.TransferResultDTO;
+import com.revature.model.Account;
+import com.revature.model.Client;
+
+public class MemoryStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private Path directory;
+	private List<MemoryStore> openStores = new ArrayList<>();
+	
+	@Before
+	public void setUp() throws IOException {
+		directory = folder.getRoot().toPath();
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		for (MemoryStore store : openStores) {
+			store.close();
+		}
+	}
+	
+	// Opening a store without ever closing the previous one is what restarting after a crash looks like
+	private MemoryStore open() throws IOException {
+		MemoryStore store = MemoryStore.open(directory, 4096, false, 0);
+		openStores.add(store);
+		return store;
+	}
+	
+	private static AddOrEditClientDTO client(String name, int age) {
+		AddOrEditClientDTO client = new AddOrEditClientDTO();
+		client.setName(name);
+		client.setAge(age);
+		return client;
+	}
+	
+	private static AddOrEditAccountDTO account(int clientId, String name, int balance) {
+		AddOrEditAccountDTO account = new AddOrEditAccountDTO();
+		account.setClientId(clientId);
+		account.setName(name);
+		account.setBalance(balance);
+		return account;
+	}
+	
+	private static List<Integer> ids(List<Account> accounts) {
+		return accounts.stream().map(Account::getId).collect(Collectors.toList());
+	}
+	
+	private List<Path> walFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter((file) -> file.getFileName().toString().startsWith("wal-")).sorted().collect(Collectors.toList());
+		}
+	}
+	
+	@Test
+	public void test_reopen_replaysWriteAheadLog() throws IOException, SQLException {
+		MemoryStore store = open();
+		MemoryClientDAO clientDao = new MemoryClientDAO(store);
+		MemoryAccountDAO accountDao = new MemoryAccountDAO(store);
+		
+		Client client = clientDao.addClient(client("Bach Tran", 40));
+		Account checking = accountDao.addAccount(account(client.getId(), "Checking", 100));
+		Account savings = accountDao.addAccount(account(client.getId(), "Savings", 50));
+		clientDao.editClient(client.getId(), client("Bach Tran", 41));
+		accountDao.transfer(client.getId(), checking.getId(), client.getId(), savings.getId(), 30);
+		Client deleted = clientDao.addClient(client("John Doe", 20));
+		clientDao.deleteClient(deleted.getId());
+		
+		MemoryStore reopened = open();
+		MemoryClientDAO reopenedClientDao = new MemoryClientDAO(reopened);
+		MemoryAccountDAO reopenedAccountDao = new MemoryAccountDAO(reopened);
+		
+		Client expectedClient = new Client(client.getId(), "Bach Tran", 41);
+		expectedClient.setVersion(1);
+		assertEquals(expectedClient, reopenedClientDao.getClientById(client.getId()));
+		assertNull(reopenedClientDao.getClientById(deleted.getId()));
+		assertEquals(70, reopenedAccountDao.getAccountById(client.getId(), checking.getId()).getBalance());
+		assertEquals(80, reopenedAccountDao.getAccountById(client.getId(), savings.getId()).getBalance());
+		
+		// Ids carry on after the highest one in the log, including the deleted client's
+		assertEquals(deleted.getId() + 1, reopenedClientDao.addClient(client("Jane Doe", 30)).getId());
+	}
+	
+	@Test
+	public void test_close_writesSnapshotAndDeletesOldLogs() throws IOException, SQLException {
+		MemoryStore store = MemoryStore.open(directory, 4096, false, 0);
+		MemoryClientDAO clientDao = new MemoryClientDAO(store);
+		MemoryAccountDAO accountDao = new MemoryAccountDAO(store);
+		
+		Client client = clientDao.addClient(client("Bach Tran", 40));
+		accountDao.addAccount(account(client.getId(), "Checking", 100));
+		store.close();
+		
+		assertTrue(Files.exists(directory.resolve("snapshot.bin")));
+		assertEquals(1, walFiles().size());
+		
+		MemoryStore reopened = open();
+		List<Client> clients = new MemoryClientDAO(reopened).getAllClientsWithAccounts();
+		
+		assertEquals(1, clients.size());
+		assertEquals("Bach Tran", clients.get(0).getName());
+		assertEquals(1, clients.get(0).getAccounts().size());
+		assertEquals(100, clients.get(0).getAccounts().get(0).getBalance());
+	}
+	
+	@Test
+	public void test_reopen_replaysLogWrittenAfterSnapshot() throws IOException, SQLException {
+		MemoryStore store = open();
+		MemoryClientDAO clientDao = new MemoryClientDAO(store);
+		
+		Client first = clientDao.addClient(client("Bach Tran", 40));
+		store.snapshot();
+		Client second = clientDao.addClient(client("John Doe", 20));
+		
+		MemoryClientDAO reopenedClientDao = new MemoryClientDAO(open());
+		
+		assertEquals(Arrays.asList(first.getId(), second.getId()),
+				reopenedClientDao.getAllClients().stream().map(Client::getId).collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void test_reopen_stopsAtCorruptEntry() throws IOException, SQLException {
+		MemoryStore store = open();
+		MemoryClientDAO clientDao = new MemoryClientDAO(store);
+		
+		clientDao.addClient(client("Bach Tran", 40));
+		clientDao.addClient(client("John Doe", 20));
+		clientDao.addClient(client("Jane Doe", 30));
+		
+		// Flip the first payload byte of the second entry, as if the machine had crashed halfway through writing it
+		Path wal = walFiles().get(0);
+		try (RandomAccessFile file = new RandomAccessFile(wal.toFile(), "rw")) {
+			int firstLength = file.readInt();
+			long secondPayload = 4 + firstLength + 4 + 4;
+			file.seek(secondPayload);
+			int b = file.read();
+			file.seek(secondPayload);
+			file.write(b ^ 0xff);
+		}
+		
+		MemoryClientDAO reopenedClientDao = new MemoryClientDAO(open());
+		
+		List<Client> clients = reopenedClientDao.getAllClients();
+		assertEquals(1, clients.size());
+		assertEquals("Bach Tran", clients.get(0).getName());
+	}
+	
+	@Test
+	public void test_findAccounts_usesBalanceOrder() throws IOException, SQLException {
+		MemoryStore store = open();
+		MemoryClientDAO clientDao = new MemoryClientDAO(store);
+		MemoryAccountDAO accountDao = new MemoryAccountDAO(store);
+		
+		int clientId = clientDao.addClient(client("Bach Tran", 40)).getId();
+		int a = accountDao.addAccount(account(clientId, "A", 300)).getId();
+		int b = accountDao.addAccount(account(clientId, "B", 100)).getId();
+		int c = accountDao.addAccount(account(clientId, "C", 200)).getId();
+		int d = accountDao.addAccount(account(clientId, "D", 100)).getId();
+		accountDao.changeBalance(clientId, a, -250);
+		
+		assertEquals(Arrays.asList(a, b, d, c),
+				ids(accountDao.findAccounts(AccountQuery.forClient(clientId).sortBy(AccountQuery.Sort.BALANCE_ASC))));
+		assertEquals(Arrays.asList(c, d, b),
+				ids(accountDao.findAccounts(AccountQuery.forClient(clientId).balanceAtLeast(100).sortBy(AccountQuery.Sort.BALANCE_DESC))));
+		assertEquals(Arrays.asList(b, d),
+				ids(accountDao.findAccounts(AccountQuery.forClient(clientId).balanceAtLeast(100).balanceAtMost(150)
+						.sortBy(AccountQuery.Sort.BALANCE_ASC))));
+		assertEquals(Arrays.asList(c, d),
+				ids(accountDao.findAccounts(AccountQuery.forClient(clientId).after(b).limit(2))));
+	}
+	
+	@Test
+	public void test_findAccounts_onlyRequestedColumns() throws IOException, SQLException {
+		MemoryStore store = open();
+		int clientId = new MemoryClientDAO(store).addClient(client("Bach Tran", 40)).getId();
+		MemoryAccountDAO accountDao = new MemoryAccountDAO(store);
+		int accountId = accountDao.addAccount(account(clientId, "Checking", 100)).getId();
+		
+		Account expected = new Account();
+		expected.setId(accountId);
+		expected.setClientId(clientId);
+		expected.setBalance(100);
+		
+		assertEquals(Arrays.asList(expected),
+				accountDao.findAccounts(AccountQuery.forClient(clientId).columns(AccountQuery.Column.BALANCE)));
+	}
+	
+	private static List<Integer> clientIds(List<Client> clients) {
+		return clients.stream().map(Client::getId).collect(Collectors.toList());
+	}
+	
+	@Test
+	public void test_getClientsWithAgeBetween_usesAgeOrder() throws IOException, SQLException {
+		MemoryStore store = open();
+		MemoryClientDAO clientDao = new MemoryClientDAO(store);
+		MemoryAccountDAO accountDao = new MemoryAccountDAO(store);
+		
+		int a = clientDao.addClient(client("A", 40)).getId();
+		int b = clientDao.addClient(client("B", 20)).getId();
+		int c = clientDao.addClient(client("C", 30)).getId();
+		int d = clientDao.addClient(client("D", 40)).getId();
+		int e = clientDao.addClient(client("E", 35)).getId();
+		accountDao.addAccount(account(c, "Checking", 100));
+		clientDao.editClient(b, client("B", 33));
+		clientDao.deleteClient(e);
+		
+		assertEquals(Arrays.asList(b, c), clientIds(clientDao.getClientsWithAgeBetween(30, 35, 0, 100, true)));
+		assertEquals(Arrays.asList(a, b, d), clientIds(clientDao.getClientsWithAgeBetween(31, null, 0, 100, true)));
+		assertEquals(Arrays.asList(d), clientIds(clientDao.getClientsWithAgeBetween(31, null, b, 1, true)));
+		assertEquals(Arrays.asList(a, b), clientIds(clientDao.getClientsWithAgeBetween(null, null, 0, 2, false)));
+		assertEquals(Arrays.asList(), clientIds(clientDao.getClientsWithAgeBetween(41, 30, 0, 100, true)));
+		
+		assertEquals(1, clientDao.getClientsWithAgeBetween(30, 30, 0, 100, true).get(0).getAccounts().size());
+		assertNull(clientDao.getClientsWithAgeBetween(30, 30, 0, 100, false).get(0).getAccounts());
+		
+		store.close();
+		assertEquals(Arrays.asList(b, c), clientIds(new MemoryClientDAO(open()).getClientsWithAgeBetween(30, 35, 0, 100, false)));
+	}
+	
+	@Test
+	public void test_changeBalance_insufficientFunds() throws IOException, SQLException {
+		MemoryStore store = open();
+		int clientId = new MemoryClientDAO(store).addClient(client("Bach Tran", 40)).getId();
+		MemoryAccountDAO accountDao = new MemoryAccountDAO(store);
+		int accountId = accountDao.addAccount(account(clientId, "Checking", 100)).getId();
+		
+		assertNull(accountDao.changeBalance(clientId, accountId, -101));
+		assertEquals(new BalanceDTO(clientId, accountId, 0, 1), accountDao.changeBalance(clientId, accountId, -100));
+		assertNull(accountDao.transfer(clientId, accountId, clientId, accountId, 1));
+	}
+	
+	@Test
+	public void test_transfer() throws IOException, SQLException {
+		MemoryStore store = open();
+		int clientId = new MemoryClientDAO(store).addClient(client("Bach Tran", 40)).getId();
+		MemoryAccountDAO accountDao = new MemoryAccountDAO(store);
+		int from = accountDao.addAccount(account(clientId, "Checking", 100)).getId();
+		int to = accountDao.addAccount(account(clientId, "Savings", 0)).getId();
+		
+		TransferResultDTO result = accountDao.transfer(clientId, from, clientId, to, 40);
+		
+		assertEquals(60, result.getFrom().getBalance());
+		assertEquals(1, result.getFrom().getVersion());
+		assertEquals(40, result.getTo().getBalance());
+		assertEquals(1, result.getTo().getVersion());
+	}
+	
+	@Test
+	public void test_changeBalance_overflowFails() throws IOException, SQLException {
+		MemoryStore store = open();
+		int clientId = new MemoryClientDAO(store).addClient(client("Bach Tran", 40)).getId();
+		MemoryAccountDAO accountDao = new MemoryAccountDAO(store);
+		int accountId = accountDao.addAccount(account(clientId, "Checking", Integer.MAX_VALUE - 5)).getId();
+		
+		try {
+			accountDao.changeBalance(clientId, accountId, 10);
+			fail("A deposit past Integer.MAX_VALUE was accepted");
+		} catch (SQLDataException e) {
+		}
+		
+		assertEquals(Integer.MAX_VALUE - 5, accountDao.getAccountById(clientId, accountId).getBalance());
+		assertEquals(0, accountDao.getAccountById(clientId, accountId).getVersion());
+	}
+	
+	@Test
+	public void test_transfer_overflowFails() throws IOException, SQLException {
+		MemoryStore store = open();
+		int clientId = new MemoryClientDAO(store).addClient(client("Bach Tran", 40)).getId();
+		MemoryAccountDAO accountDao = new MemoryAccountDAO(store);
+		int from = accountDao.addAccount(account(clientId, "Checking", 100)).getId();
+		int to = accountDao.addAccount(account(clientId, "Savings", Integer.MAX_VALUE - 5)).getId();
+		
+		try {
+			accountDao.transfer(clientId, from, clientId, to, 10);
+			fail("A transfer past Integer.MAX_VALUE was accepted");
+		} catch (SQLDataException e) {
+		}
+		
+		// Neither side of the transfer was written
+		assertEquals(100, accountDao.getAccountById(clientId, from).getBalance());
+		assertEquals(Integer.MAX_VALUE - 5, accountDao.getAccountById(clientId, to).getBalance());
+		
+		MemoryStore reopened = open();
+		assertEquals(100, new MemoryAccountDAO(reopened).getAccountById(clientId, from).getBalance());
+	}
+	
+	@Test
+	public void test_editAccount_versionMismatch() throws IOException, SQLException {
+		MemoryStore store = open();
+		int clientId = new MemoryClientDAO(store).addClient(client("Bach Tran", 40)).getId();
+		MemoryAccountDAO accountDao = new MemoryAccountDAO(store);
+		int accountId = accountDao.addAccount(account(clientId, "Checking", 100)).getId();
+		
+		AddOrEditAccountDTO edit = account(clientId, "Savings", 100);
+		edit.setVersion(1);
+		
+		assertNull(accountDao.editAccount(clientId, accountId, edit));
+		assertNull(accountDao.editAccount(clientId + 1, accountId, account(clientId, "Savings", 100)));
+		
+		edit.setVersion(0);
+		assertEquals(1, accountDao.editAccount(clientId, accountId, edit).getVersion());
+	}
+	
+	@Test
+	public void test_deleteClient_deletesAccounts() throws IOException, SQLException {
+		MemoryStore store = open();
+		MemoryClientDAO clientDao = new MemoryClientDAO(store);
+		MemoryAccountDAO accountDao = new MemoryAccountDAO(store);
+		
+		int clientId = clientDao.addClient(client("Bach Tran", 40)).getId();
+		int accountId = accountDao.addAccount(account(clientId, "Checking", 100)).getId();
+		clientDao.deleteClient(clientId);
+		
+		assertNull(accountDao.getAccountById(clientId, accountId));
+		assertFalse(accountDao.deleteAccount(clientId, accountId));
+	}
+	
+	@Test(expected = SQLIntegrityConstraintViolationException.class)
+	public void test_addAccount_clientDoesNotExist() throws IOException, SQLException {
+		new MemoryAccountDAO(open()).addAccount(account(1, "Checking", 100));
+	}
+	
+	@Test
+	public void test_addClientsWithAccounts_nullNameAddsNothing() throws IOException, SQLException {
+		MemoryStore store = open();
+		MemoryClientDAO clientDao = new MemoryClientDAO(store);
+		
+		AddClientWithAccountsDTO valid = new AddClientWithAccountsDTO();
+		valid.setName("Bach Tran");
+		valid.setAge(40);
+		valid.setAccounts(Arrays.asList(account(0, "Checking", 100)));
+		AddClientWithAccountsDTO invalid = new AddClientWithAccountsDTO();
+		invalid.setAge(20);
+		invalid.setAccounts(new ArrayList<>());
+		
+		try {
+			clientDao.addClientsWithAccounts(Arrays.asList(valid, invalid), 100);
+		} catch (SQLIntegrityConstraintViolationException e) {
+		}
+		
+		assertTrue(clientDao.getAllClients().isEmpty());
+	}
+	
+}
@@ -0,0 +1,81 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class StripedBalancesTest {
+
+	@After
+	public void tearDown() {
+		System.clearProperty("striped_accounts");
+		System.clearProperty("balance_stripes");
+	}
+	
+	@Test
+	public void test_fromConfig_disabledByDefault() {
+		StripedBalances stripedBalances = StripedBalances.fromConfig();
+		
+		assertFalse(stripedBalances.isEnabled());
+		assertEquals("a.balance", stripedBalances.balance("a"));
+		assertEquals("a.version", stripedBalances.version("a"));
+	}
+	
+	@Test
+	public void test_fromConfig_readsAccountsAndStripes() {
+		System.setProperty("striped_accounts", "3, 17");
+		System.setProperty("balance_stripes", "4");
+		
+		StripedBalances stripedBalances = StripedBalances.fromConfig();
+		
+		assertTrue(stripedBalances.isStriped(3));
+		assertTrue(stripedBalances.isStriped(17));
+		assertFalse(stripedBalances.isStriped(4));
+		assertEquals(4, stripedBalances.getStripes());
+		assertEquals("(p.balance + COALESCE((SELECT SUM(s.amount) FROM jdbc_demo.account_balance_slot s WHERE s.account_id = p.id), 0))",
+				stripedBalances.balance("p"));
+		assertEquals("(p.version + COALESCE((SELECT SUM(s.deposits) FROM jdbc_demo.account_balance_slot s WHERE s.account_id = p.id), 0))",
+				stripedBalances.version("p"));
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void test_fromConfig_invalidAccountId() {
+		System.setProperty("striped_accounts", "3,abc");
+		
+		StripedBalances.fromConfig();
+	}
+	
+	@Test
+	public void test_slotForCurrentThread_spreadsThreadsOverSlots() throws InterruptedException {
+		StripedBalances stripedBalances = new StripedBalances(new HashSet<>(Arrays.asList(1)), 8);
+		
+		Set<Integer> slots = new HashSet<>();
+		AtomicInteger outOfRange = new AtomicInteger();
+		for (int i = 0; i < 32; i++) {
+			Thread thread = new Thread(() -> {
+				int slot = stripedBalances.slotForCurrentThread();
+				if (slot < 0 || slot >= 8) {
+					outOfRange.incrementAndGet();
+				}
+				synchronized (slots) {
+					slots.add(slot);
+				}
+			});
+			thread.start();
+			thread.join();
+		}
+		
+		assertEquals(0, outOfRange.get());
+		// 32 consecutive thread ids shouldn't all end up in a handful of the 8 slots
+		assertTrue(slots.size() >= 6);
+	}
+	
+}
@@ -0,0 +1,65 @@
+package com.revature.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.model.Client;
+import com.revature.util.MetricsRegistry;
+
+public class TimedDAOTest {
+
+	private ClientDAO clientDao;
+	private MetricsRegistry registry;
+	private ClientDAO timedClientDao;
+	
+	@Before
+	public void setUp() {
+		this.clientDao = mock(ClientDAO.class);
+		this.registry = new MetricsRegistry();
+		
+		this.timedClientDao = TimedDAO.wrap(ClientDAO.class, clientDao, registry);
+	}
+	
+	@Test
+	public void test_call_isPassedThroughAndTimed() throws SQLException {
+		Client client = new Client(1, "Black Pearl", 40);
+		when(clientDao.getClientById(eq(1))).thenReturn(client);
+		
+		assertEquals(client, timedClientDao.getClientById(1));
+		
+		String output = metrics();
+		assertTrue(output.contains("dao_call_duration_seconds_count{dao=\"ClientDAO\",method=\"getClientById\"} 1\n"));
+		assertTrue(output.contains("dao_call_errors_total{dao=\"ClientDAO\",method=\"getClientById\"} 0\n"));
+	}
+	
+	@Test
+	public void test_call_exceptionIsRethrownAndCounted() throws SQLException {
+		when(clientDao.getClientById(eq(1))).thenThrow(new SQLException("connection refused"));
+		
+		try {
+			timedClientDao.getClientById(1);
+			
+			fail();
+		} catch (SQLException e) {
+			assertEquals("connection refused", e.getMessage());
+		}
+		
+		assertTrue(metrics().contains("dao_call_errors_total{dao=\"ClientDAO\",method=\"getClientById\"} 1\n"));
+	}
+	
+	private String metrics() {
+		StringBuilder sb = new StringBuilder();
+		registry.writePrometheus(sb);
+		return sb.toString();
+	}
+	
+}
@@ -1,11 +1,15 @@
 package com.revature.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.SQLException;
@@ -14,12 +18,20 @@ import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import com.revature.dao.AccountDAO;
+import com.revature.dao.AccountQuery;
 import com.revature.dao.ClientDAO;
+import com.revature.dto.AccountSummaryDTO;
 import com.revature.dto.AddOrEditAccountDTO;
 import com.revature.dto.AddOrEditClientDTO;
+import com.revature.dto.AmountDTO;
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.TransferDTO;
+import com.revature.dto.TransferResultDTO;
 import com.revature.exception.BadParameterException;
+import com.revature.exception.ConflictException;
 import com.revature.exception.DatabaseException;
 import com.revature.exception.ClientNotFoundException;
 import com.revature.model.Account;
@@ -51,7 +63,7 @@ public class AccountServiceTest {
 		mockAccounts.add(new Account(1, "account1", 30, 10));
 		mockAccounts.add(new Account(2, "account2", 33, 10));
 		
-		when(accountDao.getAllAccountsFromClient(eq(10))).thenReturn(mockAccounts);
+		when(accountDao.findAccounts(any(AccountQuery.class))).thenReturn(mockAccounts);
 		
 		List<Account> actualAccounts = accountService.getAllAccountsFromClient("10", null, null);
 		
@@ -92,13 +104,57 @@ public class AccountServiceTest {
 	}
 	
 	@Test(expected = DatabaseException.class)
-	public void test_getAllAccountsFromClient_SQLExceptionEncountered_fromAccountDao_getAllAccountsFromClient() throws SQLException, BadParameterException, DatabaseException, ClientNotFoundException {
+	public void test_getAllAccountsFromClient_SQLExceptionEncountered_fromAccountDao_findAccounts() throws SQLException, BadParameterException, DatabaseException, ClientNotFoundException {
 		when(clientDao.getClientById(eq(10))).thenReturn(new Client(10, "jim", 25));
 		
-		when(accountDao.getAllAccountsFromClient(eq(10))).thenThrow(SQLException.class);
+		when(accountDao.findAccounts(any(AccountQuery.class))).thenThrow(SQLException.class);
 		
 		accountService.getAllAccountsFromClient("10", null, null);
 	}
+	@Test
+	public void test_getAccountsFromClient_filtersAndPaginationCombined() throws BadParameterException, DatabaseException, ClientNotFoundException, SQLException {
+		when(clientDao.getClientById(eq(10))).thenReturn(new Client(10, "jim", 25));
+		
+		List<Account> mockAccounts = new ArrayList<>();
+		mockAccounts.add(new Account(7, "account7", 500, 10));
+		
+		ArgumentCaptor<AccountQuery> query = ArgumentCaptor.forClass(AccountQuery.class);
+		when(accountDao.findAccounts(query.capture())).thenReturn(mockAccounts);
+		
+		List<Account> actualAccounts = accountService.getAccountsFromClient("10", "2000", "400", "5", "20", null);
+		
+		assertEquals(mockAccounts, actualAccounts);
+		assertEquals(Integer.valueOf(400), query.getValue().getMinBalance());
+		assertEquals(Integer.valueOf(2000), query.getValue().getMaxBalance());
+		assertEquals(Integer.valueOf(5), query.getValue().getAfterId());
+		assertEquals(Integer.valueOf(20), query.getValue().getLimit());
+		verify(accountDao, times(1)).findAccounts(any(AccountQuery.class));
+	}
+	
+	@Test
+	public void test_getAccountsFromClient_afterWithBalanceSort() throws DatabaseException, ClientNotFoundException, SQLException {
+		try {
+			accountService.getAccountsFromClient("10", null, null, "5", null, "-balance");
+			
+			fail();
+		} catch (BadParameterException e) {
+			assertEquals("after can only be used when accounts are sorted by id", e.getMessage());
+		}
+		
+		verify(accountDao, never()).findAccounts(any(AccountQuery.class));
+	}
+	
+	@Test
+	public void test_getAccountsFromClient_invalidSort() throws DatabaseException, ClientNotFoundException {
+		try {
+			accountService.getAccountsFromClient("10", null, null, null, null, "name");
+			
+			fail();
+		} catch (BadParameterException e) {
+			assertEquals("name was passed in by the user as the sort, but it is not one of id, balance or -balance", e.getMessage());
+		}
+	}
+	
 	/*
 	 * getAccountById
 	 */
@@ -137,6 +193,29 @@ public class AccountServiceTest {
 	}
 	
 	
+	@Test
+	public void test_getAccountById_singleDaoCall() throws SQLException, DatabaseException, ClientNotFoundException, BadParameterException {
+		when(accountDao.getAccountById(eq(1), eq(1))).thenReturn(new Account(1, "checking", 100, 1));
+		
+		accountService.getAccountById("1", "1");
+		
+		verify(accountDao, times(1)).getAccountById(eq(1), eq(1));
+		verify(clientDao, never()).getClientById(anyInt());
+	}
+	
+	@Test
+	public void test_getAccountById_clientExistsButAccountDoesNot() throws SQLException, DatabaseException, BadParameterException {
+		when(clientDao.getClientById(eq(1))).thenReturn(new Client(1, "bill", 32));
+		
+		try {
+			accountService.getAccountById("1", "10");
+			
+			fail();
+		} catch (ClientNotFoundException e) {
+			assertEquals("Account with id 10 was not found", e.getMessage());
+		}
+	}
+	
 	/*
 	 * addAccount
 	 */
@@ -234,11 +313,102 @@ public class AccountServiceTest {
 		accountService.addAccount(dto);
 	}
 	
+	/*
+	 * addAccounts
+	 */
+	@Test
+	public void test_addAccounts_positivePath() throws SQLException, DatabaseException, BadParameterException, ClientNotFoundException {
+		AddOrEditAccountDTO checking = new AddOrEditAccountDTO();
+		checking.setName("checking");
+		checking.setBalance(100);
+		
+		AddOrEditAccountDTO saving = new AddOrEditAccountDTO();
+		saving.setName("saving");
+		saving.setBalance(2500);
+		saving.setClientId(99); // should be overridden by the client id in the path
+		
+		List<AddOrEditAccountDTO> dtos = new ArrayList<>();
+		dtos.add(checking);
+		dtos.add(saving);
+		
+		List<Account> addedAccounts = new ArrayList<>();
+		addedAccounts.add(new Account(1, "checking", 100, 3));
+		addedAccounts.add(new Account(2, "saving", 2500, 3));
+		
+		when(clientDao.getClientById(eq(3))).thenReturn(new Client(3, "bill", 32));
+		when(accountDao.addAccounts(eq(dtos), anyInt())).thenReturn(addedAccounts);
+		
+		List<Account> actual = accountService.addAccounts("3", dtos);
+		
+		assertEquals(addedAccounts, actual);
+		assertEquals(3, checking.getClientId());
+		assertEquals(3, saving.getClientId());
+		verify(accountDao, never()).addAccount(any());
+	}
+	
+	@Test
+	public void test_addAccounts_invalidAccountIsReportedWithItsIndex() throws DatabaseException, ClientNotFoundException, SQLException {
+		AddOrEditAccountDTO checking = new AddOrEditAccountDTO();
+		checking.setName("checking");
+		checking.setBalance(100);
+		
+		AddOrEditAccountDTO negative = new AddOrEditAccountDTO();
+		negative.setName("saving");
+		negative.setBalance(-5);
+		
+		List<AddOrEditAccountDTO> dtos = new ArrayList<>();
+		dtos.add(checking);
+		dtos.add(negative);
+		
+		try {
+			accountService.addAccounts("3", dtos);
+			
+			fail();
+		} catch (BadParameterException e) {
+			assertEquals("Account at index 1: Account balance cannot be less than 0", e.getMessage());
+		}
+		
+		verify(accountDao, never()).addAccounts(any(), anyInt());
+	}
+	
+	@Test
+	public void test_addAccounts_clientDoesNotExist() throws DatabaseException, BadParameterException {
+		AddOrEditAccountDTO checking = new AddOrEditAccountDTO();
+		checking.setName("checking");
+		checking.setBalance(100);
+		
+		List<AddOrEditAccountDTO> dtos = new ArrayList<>();
+		dtos.add(checking);
+		
+		try {
+			accountService.addAccounts("1000", dtos);
+			
+			fail();
+		} catch (ClientNotFoundException e) {
+			assertEquals("Client with id 1000 was not found", e.getMessage());
+		}
+	}
+	
+	@Test(expected = DatabaseException.class)
+	public void test_addAccounts_SQLExceptionEncountered() throws SQLException, DatabaseException, BadParameterException, ClientNotFoundException {
+		AddOrEditAccountDTO checking = new AddOrEditAccountDTO();
+		checking.setName("checking");
+		checking.setBalance(100);
+		
+		List<AddOrEditAccountDTO> dtos = new ArrayList<>();
+		dtos.add(checking);
+		
+		when(clientDao.getClientById(eq(3))).thenReturn(new Client(3, "bill", 32));
+		when(accountDao.addAccounts(any(), anyInt())).thenThrow(SQLException.class);
+		
+		accountService.addAccounts("3", dtos);
+	}
+	
 	/*
 	 * editAccount
 	 */
 	@Test
-	public void test_editAccount_positivePath() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+	public void test_editAccount_positivePath() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException, ConflictException {
 		AddOrEditAccountDTO dto = new AddOrEditAccountDTO();
 		dto.setName("checking");
 		dto.setBalance(100);
@@ -260,7 +430,7 @@ public class AccountServiceTest {
 	}
 	
 	@Test
-	public void test_editAccount_clientDoesNotExist() throws DatabaseException, BadParameterException {
+	public void test_editAccount_clientDoesNotExist() throws DatabaseException, BadParameterException, ConflictException {
 		AddOrEditAccountDTO dto = new AddOrEditAccountDTO();
 		dto.setName("Black Pearl");
 		dto.setBalance(100);
@@ -277,7 +447,7 @@ public class AccountServiceTest {
 	}
 	
 	@Test(expected = BadParameterException.class)
-	public void test_editAccount_invalidId() throws DatabaseException, ClientNotFoundException, BadParameterException {
+	public void test_editAccount_invalidId() throws DatabaseException, ClientNotFoundException, BadParameterException, ConflictException {
 		AddOrEditAccountDTO dto = new AddOrEditAccountDTO();
 		dto.setName("checking");
 		dto.setBalance(100);
@@ -287,7 +457,7 @@ public class AccountServiceTest {
 	}
 	
 	@Test(expected = DatabaseException.class)
-	public void test_editAccount_SQLExceptionEncountered() throws SQLException, DatabaseException, ClientNotFoundException, BadParameterException {
+	public void test_editAccount_SQLExceptionEncountered() throws SQLException, DatabaseException, ClientNotFoundException, BadParameterException, ConflictException {
 		AddOrEditAccountDTO dto = new AddOrEditAccountDTO();
 		dto.setName("checking");
 		dto.setBalance(100);
@@ -300,7 +470,82 @@ public class AccountServiceTest {
 		accountService.editAccount("3", "10", dto);
 	}
 	
+	@Test
+	public void test_editAccount_noExistenceCheckBeforeUpdate() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException, ConflictException {
+		AddOrEditAccountDTO dto = new AddOrEditAccountDTO();
+		dto.setName("checking");
+		dto.setBalance(100);
+		
+		when(accountDao.editAccount(eq(10), eq(1), eq(dto))).thenReturn(new Account(1, "checking", 100, 10));
+		
+		accountService.editAccount("10", "1", dto);
+		
+		verify(accountDao, never()).getAccountById(anyInt(), anyInt());
+		verify(clientDao, never()).getClientById(anyInt());
+	}
+	
+	@Test
+	public void test_editAccount_accountDoesNotExist() throws DatabaseException, BadParameterException, SQLException, ConflictException {
+		AddOrEditAccountDTO dto = new AddOrEditAccountDTO();
+		dto.setName("checking");
+		dto.setBalance(100);
+		
+		when(clientDao.getClientById(eq(10))).thenReturn(new Client(10, "bill", 32));
+		
+		try {
+			accountService.editAccount("10", "5", dto);
+			
+			fail();
+		} catch (ClientNotFoundException e) {
+			assertEquals("Account with id 5 was not found", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_editAccount_versionConflict() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+		AddOrEditAccountDTO dto = new AddOrEditAccountDTO();
+		dto.setName("checking");
+		dto.setBalance(100);
+		dto.setVersion(2);
+		
+		Account currentAccount = new Account(1, "checking", 250, 10);
+		currentAccount.setVersion(7);
+		when(accountDao.getAccountById(eq(10), eq(1))).thenReturn(currentAccount);
+		
+		try {
+			accountService.editAccount("10", "1", dto);
+			
+			fail();
+		} catch (ConflictException e) {
+			assertEquals("Account with id 1 is at version 7, but version 2 was expected", e.getMessage());
+		}
+	}
+	
 	// deleteAccount
+	@Test
+	public void test_deleteAccount_positivePath() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+		when(accountDao.deleteAccount(eq(10), eq(1))).thenReturn(true);
+		
+		accountService.deleteAccount("10", "1");
+		
+		verify(accountDao, times(1)).deleteAccount(eq(10), eq(1));
+		verify(accountDao, never()).getAccountById(anyInt(), anyInt());
+		verify(clientDao, never()).getClientById(anyInt());
+	}
+	
+	@Test
+	public void test_deleteAccount_accountDoesNotExist() throws DatabaseException, BadParameterException, SQLException {
+		when(clientDao.getClientById(eq(10))).thenReturn(new Client(10, "bill", 32));
+		
+		try {
+			accountService.deleteAccount("10", "1");
+			
+			fail();
+		} catch (ClientNotFoundException e) {
+			assertEquals("Account with id 1 was not found", e.getMessage());
+		}
+	}
+	
 	@Test
 	public void test_deleteAccount_clientDoesNotExist() throws DatabaseException, BadParameterException {
 		
@@ -320,4 +565,223 @@ public class AccountServiceTest {
 		
 		accountService.deleteAccount("abc", "abc");
 	}
+	
+	// getAccountsETag
+	@Test
+	public void test_getAccountsETag_changesAfterDelete() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+		when(accountDao.deleteAccount(eq(10), eq(1))).thenReturn(true);
+		
+		String before = accountService.getAccountsETag("10");
+		accountService.deleteAccount("10", "1");
+		
+		assertNotEquals(before, accountService.getAccountsETag("10"));
+	}
+	
+	@Test
+	public void test_getAccountsETag_changesAfterFailedEdit() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException, ConflictException {
+		AddOrEditAccountDTO dto = new AddOrEditAccountDTO();
+		dto.setName("Savings");
+		dto.setBalance(100);
+		
+		when(accountDao.editAccount(eq(10), eq(1), eq(dto))).thenThrow(SQLException.class);
+		when(accountDao.deleteAccount(eq(10), eq(2))).thenReturn(true);
+		
+		// Only a client that has been written before has a version for the failed edit to bump
+		accountService.deleteAccount("10", "2");
+		
+		String before = accountService.getAccountsETag("10");
+		try {
+			accountService.editAccount("10", "1", dto);
+			
+			fail();
+		} catch (DatabaseException e) {
+			// The UPDATE may still have been applied, so the old ETag must not match anymore
+			assertNotEquals(before, accountService.getAccountsETag("10"));
+		} catch (ClientNotFoundException e) {
+			fail();
+		}
+	}
+	
+	@Test(expected = BadParameterException.class)
+	public void test_getAccountsETag_invalidId() throws BadParameterException {
+		accountService.getAccountsETag("abc");
+	}
+	
+	// transfer
+	@Test
+	public void test_transfer_positivePath() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+		TransferResultDTO expected = new TransferResultDTO(new Account(1, "Checking", 400, 10), new Account(3, "Saving", 700, 20));
+		when(accountDao.transfer(eq(10), eq(1), eq(20), eq(3), eq(100))).thenReturn(expected);
+		
+		TransferResultDTO actual = accountService.transfer("10", "1", new TransferDTO(20, 3, 100));
+		
+		assertEquals(expected, actual);
+		verify(accountDao, never()).getAccountById(anyInt(), anyInt());
+	}
+	
+	@Test
+	public void test_transfer_insufficientBalance() throws DatabaseException, ClientNotFoundException, SQLException {
+		when(accountDao.getAccountById(eq(10), eq(1))).thenReturn(new Account(1, "Checking", 50, 10));
+		when(accountDao.getAccountById(eq(20), eq(3))).thenReturn(new Account(3, "Saving", 600, 20));
+		
+		try {
+			accountService.transfer("10", "1", new TransferDTO(20, 3, 100));
+			
+			fail();
+		} catch (BadParameterException e) {
+			assertEquals("Account with id 1 has a balance of 50, which is not enough to transfer 100", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_transfer_destinationDoesNotExist() throws DatabaseException, BadParameterException, SQLException {
+		when(accountDao.getAccountById(eq(10), eq(1))).thenReturn(new Account(1, "Checking", 500, 10));
+		when(clientDao.getClientById(eq(20))).thenReturn(new Client(20, "bill", 32));
+		
+		try {
+			accountService.transfer("10", "1", new TransferDTO(20, 3, 100));
+			
+			fail();
+		} catch (ClientNotFoundException e) {
+			assertEquals("Account with id 3 was not found", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_transfer_sourceClientDoesNotExist() throws DatabaseException, BadParameterException {
+		
+		try {
+			accountService.transfer("1000", "1", new TransferDTO(20, 3, 100));
+			
+			fail();
+		} catch (ClientNotFoundException e) {
+			assertEquals("Client with id 1000 was not found", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_transfer_amountNotPositive() throws DatabaseException, ClientNotFoundException, SQLException {
+		
+		try {
+			accountService.transfer("10", "1", new TransferDTO(20, 3, 0));
+			
+			fail();
+		} catch (BadParameterException e) {
+			assertEquals("Transfer amount must be greater than 0", e.getMessage());
+		}
+		
+		verify(accountDao, never()).transfer(anyInt(), anyInt(), anyInt(), anyInt(), anyInt());
+	}
+	
+	@Test(expected = BadParameterException.class)
+	public void test_transfer_toItself() throws DatabaseException, ClientNotFoundException, BadParameterException {
+		accountService.transfer("10", "1", new TransferDTO(10, 1, 100));
+	}
+	
+	@Test
+	public void test_transfer_bumpsBothClientETags() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+		when(accountDao.transfer(eq(10), eq(1), eq(20), eq(3), eq(100))).thenReturn(new TransferResultDTO(new Account(1, "checking", 400, 10), new Account(3, "savings", 100, 20)));
+		
+		String fromBefore = accountService.getAccountsETag("10");
+		String toBefore = accountService.getAccountsETag("20");
+		accountService.transfer("10", "1", new TransferDTO(20, 3, 100));
+		
+		assertNotEquals(fromBefore, accountService.getAccountsETag("10"));
+		assertNotEquals(toBefore, accountService.getAccountsETag("20"));
+	}
+	
+	// deposit and withdraw
+	@Test
+	public void test_deposit_positivePath() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+		when(accountDao.changeBalance(eq(10), eq(1), eq(250))).thenReturn(new BalanceDTO(10, 1, 750));
+		
+		BalanceDTO actual = accountService.deposit("10", "1", new AmountDTO(250));
+		
+		assertEquals(new BalanceDTO(10, 1, 750), actual);
+		verify(accountDao, never()).getAccountById(anyInt(), anyInt());
+	}
+	
+	@Test
+	public void test_withdraw_positivePath() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+		when(accountDao.changeBalance(eq(10), eq(1), eq(-500))).thenReturn(new BalanceDTO(10, 1, 0));
+		
+		BalanceDTO actual = accountService.withdraw("10", "1", new AmountDTO(500));
+		
+		assertEquals(new BalanceDTO(10, 1, 0), actual);
+	}
+	
+	@Test
+	public void test_withdraw_insufficientBalance() throws DatabaseException, ClientNotFoundException, SQLException {
+		when(accountDao.changeBalance(eq(10), eq(1), eq(-100))).thenReturn(null);
+		when(accountDao.getAccountById(eq(10), eq(1))).thenReturn(new Account(1, "Checking", 50, 10));
+		
+		try {
+			accountService.withdraw("10", "1", new AmountDTO(100));
+			
+			fail();
+		} catch (BadParameterException e) {
+			assertEquals("Account with id 1 has a balance of 50, which is not enough to withdraw 100", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_deposit_accountDoesNotExist() throws DatabaseException, BadParameterException, SQLException {
+		when(accountDao.changeBalance(eq(10), eq(5), eq(100))).thenReturn(null);
+		when(clientDao.getClientById(eq(10))).thenReturn(new Client(10, "bill", 32));
+		
+		try {
+			accountService.deposit("10", "5", new AmountDTO(100));
+			
+			fail();
+		} catch (ClientNotFoundException e) {
+			assertEquals("Account with id 5 was not found", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_deposit_amountNotPositive() throws DatabaseException, ClientNotFoundException, SQLException {
+		
+		try {
+			accountService.deposit("10", "1", new AmountDTO(-5));
+			
+			fail();
+		} catch (BadParameterException e) {
+			assertEquals("Amount to deposit must be greater than 0", e.getMessage());
+		}
+		
+		verify(accountDao, never()).changeBalance(anyInt(), anyInt(), anyInt());
+	}
+	
+	// getAccountSummary
+	@Test
+	public void test_getAccountSummary_loadsOnceThenFollowsWrites() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+		List<Account> accounts = new ArrayList<>();
+		accounts.add(new Account(1, null, 100, 10));
+		accounts.add(new Account(2, null, 40, 10));
+		when(clientDao.getClientById(eq(10))).thenReturn(new Client(10, "bill", 32));
+		when(accountDao.findAccounts(any(AccountQuery.class))).thenReturn(accounts);
+		when(accountDao.changeBalance(eq(10), eq(2), eq(-30))).thenReturn(new BalanceDTO(10, 2, 10));
+		
+		assertEquals(new AccountSummaryDTO(10, 2, 140, 40, 100), accountService.getAccountSummary("10"));
+		
+		accountService.withdraw("10", "2", new AmountDTO(30));
+		
+		assertEquals(new AccountSummaryDTO(10, 2, 110, 10, 100), accountService.getAccountSummary("10"));
+		verify(accountDao, times(1)).findAccounts(any(AccountQuery.class));
+	}
+	
+	@Test
+	public void test_getAccountSummary_clientDoesNotExist() throws DatabaseException, BadParameterException, SQLException {
+		when(clientDao.getClientById(eq(10))).thenReturn(null);
+		
+		try {
+			accountService.getAccountSummary("10");
+			
+			fail();
+		} catch (ClientNotFoundException e) {
+			assertEquals("Client with id 10 was not found", e.getMessage());
+		}
+		
+		verify(accountDao, never()).findAccounts(any(AccountQuery.class));
+	}
 }
@@ -0,0 +1,194 @@
+package com.revature.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.revature.dto.AccountSummaryDTO;
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.TransferResultDTO;
+import com.revature.model.Account;
+import com.revature.model.Client;
+
+public class AccountSummariesTest {
+
+	private AccountSummaries summaries;
+	private int loads;
+	
+	@Before
+	public void setUp() {
+		summaries = new AccountSummaries(10);
+		loads = 0;
+	}
+	
+	private AccountSummaryDTO get(int clientId, Account... accounts) throws Exception {
+		return summaries.get(clientId, () -> {
+			loads++;
+			return new ArrayList<>(Arrays.asList(accounts));
+		});
+	}
+	
+	@Test
+	public void test_get_loadsOnce() throws Exception {
+		assertEquals(new AccountSummaryDTO(1, 2, 600, 100, 500), get(1, new Account(1, null, 100, 1), new Account(2, null, 500, 1)));
+		assertEquals(new AccountSummaryDTO(1, 2, 600, 100, 500), get(1));
+		
+		assertEquals(1, loads);
+		assertEquals(1, summaries.getHitCount());
+		assertEquals(1, summaries.getMissCount());
+	}
+	
+	@Test
+	public void test_get_clientDoesNotExist() throws Exception {
+		assertEquals(null, summaries.get(1, () -> null));
+		assertEquals(0, summaries.size());
+	}
+	
+	@Test
+	public void test_writes_updateSummary() throws Exception {
+		get(1, new Account(1, null, 100, 1), new Account(2, null, 500, 1));
+		
+		summaries.accountAdded(new Account(3, null, 50, 1));
+		summaries.balanceChanged(new BalanceDTO(1, 2, 520), 20);
+		summaries.accountDeleted(1, 1);
+		summaries.accountEdited(new Account(3, null, 70, 1));
+		
+		assertEquals(new AccountSummaryDTO(1, 2, 590, 70, 520), get(1));
+		assertEquals(1, loads);
+	}
+	
+	@Test
+	public void test_transfer_movesBetweenClients() throws Exception {
+		get(1, new Account(1, null, 100, 1));
+		get(2, new Account(2, null, 0, 2));
+		
+		summaries.transferred(new TransferResultDTO(new Account(1, null, 60, 1), new Account(2, null, 40, 2)), 40);
+		
+		assertEquals(new AccountSummaryDTO(1, 1, 60, 60, 60), get(1));
+		assertEquals(new AccountSummaryDTO(2, 1, 40, 40, 40), get(2));
+	}
+	
+	@Test
+	public void test_lastAccountDeleted_noMinOrMax() throws Exception {
+		get(1, new Account(1, null, 100, 1));
+		
+		summaries.accountDeleted(1, 1);
+		
+		assertEquals(new AccountSummaryDTO(1, 0, 0, null, null), get(1));
+	}
+	
+	@Test
+	public void test_clientAdded_summarizedWithoutLoading() throws Exception {
+		summaries.clientAdded(new Client(1, "Bach Tran", 40));
+		summaries.accountAdded(new Account(1, null, 100, 1));
+		
+		assertEquals(new AccountSummaryDTO(1, 1, 100, 100, 100), get(1));
+		assertEquals(0, loads);
+	}
+	
+	@Test
+	public void test_clientDeleted_dropsSummary() throws Exception {
+		get(1, new Account(1, null, 100, 1));
+		
+		summaries.clientDeleted(1);
+		
+		assertEquals(0, summaries.size());
+	}
+	
+	@Test
+	public void test_loadOverlappingWrite_notKept() throws Exception {
+		summaries.get(1, () -> {
+			// The write may or may not be in what the query returned
+			summaries.writing(1);
+			summaries.balanceChanged(new BalanceDTO(1, 1, 150), 50);
+			summaries.written(1);
+			
+			List<Account> accounts = new ArrayList<>();
+			accounts.add(new Account(1, null, 150, 1));
+			return accounts;
+		});
+		
+		assertEquals(0, summaries.size());
+	}
+	
+	@Test
+	public void test_loadDuringWrite_notKept() throws Exception {
+		summaries.writing(1);
+		get(1, new Account(1, null, 100, 1));
+		summaries.written(1);
+		
+		assertEquals(0, summaries.size());
+		
+		get(1, new Account(1, null, 100, 1));
+		assertEquals(1, summaries.size());
+	}
+	
+	@Test
+	public void test_editRacingAnotherWrite_dropsSummary() throws Exception {
+		get(1, new Account(1, null, 100, 1));
+		
+		summaries.writing(1);
+		summaries.writing(1);
+		summaries.accountEdited(new Account(1, null, 70, 1));
+		
+		assertEquals(0, summaries.size());
+		assertEquals(1, summaries.getEvictionCount());
+	}
+	
+	@Test
+	public void test_editOverlappedByReportedWrite_dropsSummary() throws Exception {
+		get(1, new Account(1, null, 100, 1));
+		
+		// The edit commits 50, then a deposit of 10 commits on top of it and is reported before the edit is
+		summaries.editing(1);
+		summaries.writing(1);
+		summaries.balanceChanged(new BalanceDTO(1, 1, 60), 10);
+		summaries.written(1);
+		summaries.accountEdited(new Account(1, null, 50, 1));
+		summaries.edited(1);
+		
+		assertEquals(0, summaries.size());
+		assertEquals(1, summaries.getEvictionCount());
+	}
+	
+	@Test
+	public void test_editAfterOtherWrite_keepsSummary() throws Exception {
+		get(1, new Account(1, null, 100, 1));
+		
+		summaries.writing(1);
+		summaries.balanceChanged(new BalanceDTO(1, 1, 110), 10);
+		summaries.written(1);
+		summaries.editing(1);
+		summaries.accountEdited(new Account(1, null, 50, 1));
+		summaries.edited(1);
+		
+		assertEquals(1, summaries.size());
+		assertEquals(new AccountSummaryDTO(1, 1, 50, 50, 50), summaries.get(1, () -> null));
+	}
+	
+	@Test
+	public void test_leastRecentlyUsedEvicted() throws Exception {
+		for (int i = 1; i <= 11; i++) {
+			get(i);
+		}
+		
+		assertEquals(10, summaries.size());
+		assertEquals(1, summaries.getEvictionCount());
+		
+		get(1);
+		assertEquals(12, loads);
+	}
+	
+	@Test
+	public void test_summarize() {
+		List<Account> accounts = Arrays.asList(new Account(1, null, 300, 1), new Account(2, null, 300, 1), new Account(3, null, 5, 1));
+		
+		assertEquals(new AccountSummaryDTO(1, 3, 605, 5, 300), AccountSummaries.summarize(1, accounts));
+	}
+	
+}
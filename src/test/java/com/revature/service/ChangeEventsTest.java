@@ -0,0 +1,122 @@
+package com.revature.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.revature.dto.BalanceDTO;
+import com.revature.exception.BadParameterException;
+import com.revature.exception.ServiceUnavailableException;
+import com.revature.model.Client;
+import com.revature.service.ChangeEvents.Event;
+import com.revature.service.ChangeEvents.Subscription;
+
+public class ChangeEventsTest {
+
+	private static Event next(Subscription subscription) throws InterruptedException {
+		return subscription.poll(0, TimeUnit.MILLISECONDS);
+	}
+	
+	@Test
+	public void test_subscribe_onlyNewEvents() throws Exception {
+		ChangeEvents events = new ChangeEvents(10, 10, 10);
+		events.clientAdded(new Client(1, "Bach Tran", 40));
+		
+		Subscription subscription = events.subscribe(null);
+		events.clientDeleted(1);
+		
+		Event event = next(subscription);
+		assertEquals("DELETE_CLIENT", event.getName());
+		assertTrue(event.getId().endsWith("-2"));
+		assertTrue(new String(event.getFrame(), "UTF-8").startsWith("id: " + event.getId() + "\nevent: DELETE_CLIENT\ndata: {"));
+		assertNull(next(subscription));
+		assertFalse(subscription.isReset());
+	}
+	
+	@Test
+	public void test_subscribe_resumesAfterLastEventId() throws Exception {
+		ChangeEvents events = new ChangeEvents(10, 10, 10);
+		Subscription first = events.subscribe(null);
+		events.clientAdded(new Client(1, "Bach Tran", 40));
+		events.balanceChanged(new BalanceDTO(1, 1, 105), 5);
+		events.clientDeleted(1);
+		
+		String lastEventId = next(first).getId();
+		
+		Subscription resumed = events.subscribe(lastEventId);
+		
+		assertFalse(resumed.isReset());
+		assertEquals("CHANGE_BALANCE", next(resumed).getName());
+		assertEquals("DELETE_CLIENT", next(resumed).getName());
+		assertNull(next(resumed));
+	}
+	
+	@Test
+	public void test_subscribe_resetWhenEventsAreGone() throws Exception {
+		ChangeEvents events = new ChangeEvents(2, 10, 10);
+		Subscription first = events.subscribe(null);
+		for (int i = 0; i < 5; i++) {
+			events.clientDeleted(i);
+		}
+		
+		Subscription resumed = events.subscribe(next(first).getId());
+		
+		assertTrue(resumed.isReset());
+		assertNull(next(resumed));
+	}
+	
+	@Test
+	public void test_subscribe_resetForIdFromEarlierRun() throws Exception {
+		ChangeEvents events = new ChangeEvents(10, 10, 10);
+		events.clientDeleted(1);
+		
+		assertTrue(events.subscribe("abc-1").isReset());
+	}
+	
+	@Test(expected = BadParameterException.class)
+	public void test_subscribe_invalidLastEventId() throws Exception {
+		new ChangeEvents(10, 10, 10).subscribe("abc");
+	}
+	
+	@Test(expected = ServiceUnavailableException.class)
+	public void test_subscribe_tooManySubscribers() throws Exception {
+		ChangeEvents events = new ChangeEvents(10, 10, 1);
+		events.subscribe(null);
+		
+		events.subscribe(null);
+	}
+	
+	@Test
+	public void test_publish_dropsSlowSubscriber() throws Exception {
+		ChangeEvents events = new ChangeEvents(10, 2, 10);
+		Subscription slow = events.subscribe(null);
+		Subscription fast = events.subscribe(null);
+		
+		for (int i = 0; i < 3; i++) {
+			events.clientDeleted(i);
+			next(fast);
+		}
+		
+		assertTrue(slow.isSlow());
+		assertNull(next(slow));
+		assertFalse(fast.isSlow());
+		assertEquals(1, events.getSubscriberCount());
+		assertEquals(1, events.getSlowSubscriberCount());
+	}
+	
+	@Test
+	public void test_close_unsubscribes() throws Exception {
+		ChangeEvents events = new ChangeEvents(10, 10, 10);
+		Subscription subscription = events.subscribe(null);
+		
+		subscription.close();
+		
+		assertEquals(0, events.getSubscriberCount());
+	}
+	
+}
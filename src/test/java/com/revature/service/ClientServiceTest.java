@@ -1,6 +1,7 @@
 package com.revature.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.fail;
 // You may need to type this import manually to make use of 
 // the argument matchers for Mockito, such as eq() or any()
@@ -8,6 +9,9 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.SQLException;
@@ -18,9 +22,14 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.revature.dao.AccountDAO;
+import com.revature.dao.AccountQuery;
 import com.revature.dao.ClientDAO;
+import com.revature.dto.AddClientWithAccountsDTO;
+import com.revature.dto.AddOrEditAccountDTO;
 import com.revature.dto.AddOrEditClientDTO;
+import com.revature.dto.BulkItemResultDTO;
 import com.revature.exception.BadParameterException;
+import com.revature.exception.ConflictException;
 import com.revature.exception.DatabaseException;
 import com.revature.exception.ClientNotFoundException;
 import com.revature.model.Account;
@@ -46,21 +55,23 @@ public class ClientServiceTest {
 	@Test
 	public void test_getAllClients_positive() throws DatabaseException, SQLException {
 		// Because we're not using a real ClientDAO object and instead a mocked ClientDAO, 
-		// we need to actually specify what we want the mocked ClientDAO to return whenever we invoke the clientDao.getAllClients() method
-		List<Client> mockReturnValues = new ArrayList<>();
-		mockReturnValues.add(new Client(1, "Black Pearl", 40));
-		mockReturnValues.add(new Client(2, "Royal Fortune", 10));
-		when(clientDao.getAllClients()).thenReturn(mockReturnValues);
-		
+		// we need to actually specify what we want the mocked ClientDAO to return whenever we invoke the clientDao.getAllClientsWithAccounts() method
 		List<Account> blackPearlAccounts = new ArrayList<>();
 		blackPearlAccounts.add(new Account(1, "Jack Sparrow", 28, 1));
 		blackPearlAccounts.add(new Account(2, "Captain Hook", 60, 1));
-		when(accountDao.getAllAccountsFromClient(eq(1))).thenReturn(blackPearlAccounts);
 		
 		List<Account> royalFortuneAccounts = new ArrayList<>();
 		royalFortuneAccounts.add(new Account(10, "test1", 100, 2));
 		royalFortuneAccounts.add(new Account(53, "test2", 101, 2));
-		when(accountDao.getAllAccountsFromClient(eq(2))).thenReturn(royalFortuneAccounts);
+		
+		List<Client> mockReturnValues = new ArrayList<>();
+		Client blackPearl = new Client(1, "Black Pearl", 40);
+		blackPearl.setAccounts(blackPearlAccounts);
+		Client royalFortune = new Client(2, "Royal Fortune", 10);
+		royalFortune.setAccounts(royalFortuneAccounts);
+		mockReturnValues.add(blackPearl);
+		mockReturnValues.add(royalFortune);
+		when(clientDao.getAllClientsWithAccounts()).thenReturn(mockReturnValues);
 		
 		// actual = the real data being returned by the getAllClients method from clientService
 		List<Client> actual = clientService.getAllClients();
@@ -81,10 +92,27 @@ public class ClientServiceTest {
 		assertEquals(expected, actual);
 	}
 	
+	@Test
+	public void test_getAllClients_singleDaoCall() throws DatabaseException, SQLException {
+		List<Client> mockReturnValues = new ArrayList<>();
+		for (int i = 1; i <= 100; i++) {
+			Client client = new Client(i, "client" + i, 20);
+			client.setAccounts(new ArrayList<>());
+			mockReturnValues.add(client);
+		}
+		when(clientDao.getAllClientsWithAccounts()).thenReturn(mockReturnValues);
+		
+		clientService.getAllClients();
+		
+		// No matter how many clients there are, the accounts must not be fetched client by client
+		verify(clientDao, times(1)).getAllClientsWithAccounts();
+		verify(accountDao, never()).findAccounts(any(AccountQuery.class));
+	}
+	
 	@Test
 	public void test_getAllClients_negative() throws SQLException {
-		when(clientDao.getAllClients()).thenThrow(SQLException.class);
-		// Simulate a situation where clientDao.getAllClients() throws a SQLException
+		when(clientDao.getAllClientsWithAccounts()).thenThrow(SQLException.class);
+		// Simulate a situation where clientDao.getAllClientsWithAccounts() throws a SQLException
 		
 		try {
 			clientService.getAllClients();
@@ -100,6 +128,79 @@ public class ClientServiceTest {
 	}
 	
 
+	/*
+	 * getClientsWithAgeBetween
+	 */
+	@Test
+	public void test_getClientsWithAgeBetween_positive() throws DatabaseException, BadParameterException, SQLException {
+		List<Client> mockReturnValues = new ArrayList<>();
+		mockReturnValues.add(new Client(3, "Bach Tran", 40));
+		when(clientDao.getClientsWithAgeBetween(eq(30), eq(50), eq(0), eq(Integer.MAX_VALUE), eq(false))).thenReturn(mockReturnValues);
+		
+		List<Client> actual = clientService.getClientsWithAgeBetween("30", "50", null, null, false);
+		
+		assertEquals(mockReturnValues, actual);
+		verify(accountDao, never()).findAccounts(any(AccountQuery.class));
+	}
+	
+	@Test
+	public void test_getClientsWithAgeBetween_openRangeWithPage() throws DatabaseException, BadParameterException, SQLException {
+		clientService.getClientsWithAgeBetween(null, "30", "10", null, true);
+		
+		verify(clientDao).getClientsWithAgeBetween(eq(null), eq(30), eq(10), eq(100), eq(true));
+	}
+	
+	@Test
+	public void test_getClientsWithAgeBetween_ageIsNotAnInt() throws DatabaseException {
+		try {
+			clientService.getClientsWithAgeBetween("thirty", null, null, null, true);
+			
+			fail();
+		} catch (BadParameterException e) {
+			assertEquals("thirty was passed in by the user as ageMin, but it is not an int", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_getClientsWithAgeBetween_minGreaterThanMax() throws DatabaseException, SQLException {
+		try {
+			clientService.getClientsWithAgeBetween("50", "30", null, null, true);
+			
+			fail();
+		} catch (BadParameterException e) {
+			assertEquals("ageMin cannot be greater than ageMax", e.getMessage());
+		}
+		
+		verify(clientDao, never()).getClientsWithAgeBetween(any(), any(), anyInt(), anyInt(), eq(true));
+	}
+	
+	@Test
+	public void test_getClientsWithAgeBetween_SQLExceptionEncountered() throws SQLException, BadParameterException {
+		when(clientDao.getClientsWithAgeBetween(any(), any(), anyInt(), anyInt(), eq(true))).thenThrow(SQLException.class);
+		
+		try {
+			clientService.getClientsWithAgeBetween("30", null, null, null, true);
+			
+			fail();
+		} catch (DatabaseException e) {
+			assertEquals("Something went wrong with our DAO operations", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void test_addSummary_withoutAccountsLoadsBalancesOnce() throws DatabaseException, SQLException {
+		List<Account> accounts = new ArrayList<>();
+		accounts.add(new Account(1, null, 250, 3));
+		when(accountDao.findAccounts(any(AccountQuery.class))).thenReturn(accounts);
+		
+		Client client = clientService.addSummary(new Client(3, "Bach Tran", 40));
+		clientService.addSummary(new Client(3, "Bach Tran", 40));
+		
+		assertEquals(1, client.getSummary().getAccountCount());
+		assertEquals(250, client.getSummary().getTotalBalance());
+		verify(accountDao, times(1)).findAccounts(any(AccountQuery.class));
+	}
+
 	/*
 	 * getClientById
 	 */
@@ -244,12 +345,93 @@ public class ClientServiceTest {
 		clientService.addClient(dto);
 	}
 	
+	/*
+	 * addClients
+	 */
+	@Test
+	public void test_addClients_invalidItemsAreReportedAndValidOnesAdded() throws SQLException, DatabaseException {
+		AddOrEditAccountDTO checking = new AddOrEditAccountDTO();
+		checking.setName("checking");
+		checking.setBalance(100);
+		
+		AddClientWithAccountsDTO blackPearl = new AddClientWithAccountsDTO();
+		blackPearl.setName("Black Pearl");
+		blackPearl.setAge(10);
+		blackPearl.getAccounts().add(checking);
+		
+		AddClientWithAccountsDTO blankName = new AddClientWithAccountsDTO();
+		blankName.setName("");
+		blankName.setAge(10);
+		
+		AddOrEditAccountDTO negative = new AddOrEditAccountDTO();
+		negative.setName("saving");
+		negative.setBalance(-1);
+		
+		AddClientWithAccountsDTO badAccount = new AddClientWithAccountsDTO();
+		badAccount.setName("Royal Fortune");
+		badAccount.setAge(20);
+		badAccount.getAccounts().add(negative);
+		
+		List<AddClientWithAccountsDTO> dtos = new ArrayList<>();
+		dtos.add(blackPearl);
+		dtos.add(blankName);
+		dtos.add(badAccount);
+		
+		List<AddClientWithAccountsDTO> expectedToBeAdded = new ArrayList<>();
+		expectedToBeAdded.add(blackPearl);
+		
+		Client addedBlackPearl = new Client(1, "Black Pearl", 10);
+		addedBlackPearl.setAccounts(new ArrayList<>());
+		addedBlackPearl.getAccounts().add(new Account(1, "checking", 100, 1));
+		
+		List<Client> addedClients = new ArrayList<>();
+		addedClients.add(addedBlackPearl);
+		when(clientDao.addClientsWithAccounts(eq(expectedToBeAdded), anyInt())).thenReturn(addedClients);
+		
+		List<BulkItemResultDTO> actual = clientService.addClients(dtos);
+		
+		List<BulkItemResultDTO> expected = new ArrayList<>();
+		expected.add(new BulkItemResultDTO(0, addedBlackPearl, null));
+		expected.add(new BulkItemResultDTO(1, null, "Client name cannot be blank"));
+		expected.add(new BulkItemResultDTO(2, null, "Account at index 0: Account balance cannot be less than 0"));
+		
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void test_addClients_nothingValidMeansNoDaoCall() throws SQLException, DatabaseException {
+		AddClientWithAccountsDTO blankName = new AddClientWithAccountsDTO();
+		blankName.setName("   ");
+		blankName.setAge(10);
+		
+		List<AddClientWithAccountsDTO> dtos = new ArrayList<>();
+		dtos.add(blankName);
+		
+		clientService.addClients(dtos);
+		
+		verify(clientDao, never()).addClientsWithAccounts(any(), anyInt());
+	}
+	
+	@Test(expected = DatabaseException.class)
+	public void test_addClients_SQLExceptionEncountered() throws SQLException, DatabaseException {
+		AddClientWithAccountsDTO blackPearl = new AddClientWithAccountsDTO();
+		blackPearl.setName("Black Pearl");
+		blackPearl.setAge(10);
+		
+		List<AddClientWithAccountsDTO> dtos = new ArrayList<>();
+		dtos.add(blackPearl);
+		
+		when(clientDao.addClientsWithAccounts(any(), anyInt())).thenThrow(SQLException.class);
+		
+		clientService.addClients(dtos);
+	}
+	
 	/*
 	 * editClient
 	 */
 	
 	@Test
-	public void test_editClient_positivePath() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+	public void test_editClient_positivePath() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException, ConflictException {
 		AddOrEditClientDTO dto = new AddOrEditClientDTO();
 		dto.setName("Black Pearl");
 		dto.setAge(100);
@@ -268,7 +450,7 @@ public class ClientServiceTest {
 	}
 	
 	@Test
-	public void test_editClient_clientDoesNotExist() throws DatabaseException, BadParameterException {
+	public void test_editClient_clientDoesNotExist() throws DatabaseException, BadParameterException, ConflictException {
 		AddOrEditClientDTO dto = new AddOrEditClientDTO();
 		dto.setName("Black Pearl");
 		dto.setAge(100);
@@ -284,7 +466,7 @@ public class ClientServiceTest {
 	}
 	
 	@Test(expected = BadParameterException.class)
-	public void test_editClient_invalidId() throws DatabaseException, ClientNotFoundException, BadParameterException {
+	public void test_editClient_invalidId() throws DatabaseException, ClientNotFoundException, BadParameterException, ConflictException {
 		AddOrEditClientDTO dto = new AddOrEditClientDTO();
 		dto.setName("Black Pearl");
 		dto.setAge(100);
@@ -293,7 +475,7 @@ public class ClientServiceTest {
 	}
 	
 	@Test(expected = DatabaseException.class)
-	public void test_editClient_SQLExceptionEncountered() throws SQLException, DatabaseException, ClientNotFoundException, BadParameterException {
+	public void test_editClient_SQLExceptionEncountered() throws SQLException, DatabaseException, ClientNotFoundException, BadParameterException, ConflictException {
 		AddOrEditClientDTO dto = new AddOrEditClientDTO();
 		dto.setName("Black Pearl");
 		dto.setAge(100);
@@ -304,6 +486,43 @@ public class ClientServiceTest {
 		clientService.editClient("10", dto);
 	}
 	
+	@Test
+	public void test_editClient_noExistenceCheckBeforeUpdate() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException, ConflictException {
+		AddOrEditClientDTO dto = new AddOrEditClientDTO();
+		dto.setName("Black Pearl");
+		dto.setAge(100);
+		dto.setVersion(3);
+		
+		Client editedClient = new Client(10, "Black Pearl", 100);
+		editedClient.setVersion(4);
+		when(clientDao.editClient(eq(10), eq(dto))).thenReturn(editedClient);
+		
+		Client actual = clientService.editClient("10", dto);
+		
+		assertEquals(4, actual.getVersion());
+		verify(clientDao, never()).getClientById(anyInt());
+	}
+	
+	@Test
+	public void test_editClient_versionConflict() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+		AddOrEditClientDTO dto = new AddOrEditClientDTO();
+		dto.setName("Black Pearl");
+		dto.setAge(100);
+		dto.setVersion(3);
+		
+		Client currentClient = new Client(10, "Jolly Roger", 5);
+		currentClient.setVersion(5);
+		when(clientDao.getClientById(eq(10))).thenReturn(currentClient);
+		
+		try {
+			clientService.editClient("10", dto);
+			
+			fail();
+		} catch (ConflictException e) {
+			assertEquals("Client with id 10 is at version 5, but version 3 was expected", e.getMessage());
+		}
+	}
+	
 	@Test
 	public void test_deleteClient_clientDoesNotExist() throws DatabaseException, BadParameterException {
 		
@@ -325,6 +544,52 @@ public class ClientServiceTest {
 	}
 	
 	
+	/*
+	 * getClientETag
+	 */
+	@Test
+	public void test_getClientETag_unchangedByReads() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+		when(clientDao.getClientById(eq(10))).thenReturn(new Client(10, "Jolly Roger", 5));
+		
+		String before = clientService.getClientETag("10");
+		clientService.getClientById("10");
+		
+		assertEquals(before, clientService.getClientETag("10"));
+	}
+	
+	@Test
+	public void test_getClientETag_changesAfterEdit() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException, ConflictException {
+		AddOrEditClientDTO dto = new AddOrEditClientDTO();
+		dto.setName("Black Pearl");
+		dto.setAge(100);
+		
+		when(clientDao.getClientById(eq(10))).thenReturn(new Client(10, "Jolly Roger", 5));
+		when(clientDao.editClient(eq(10), eq(dto))).thenReturn(new Client(10, "Black Pearl", 100));
+		
+		String before = clientService.getClientETag("10");
+		String otherClientBefore = clientService.getClientETag("11");
+		clientService.editClient("10", dto);
+		
+		assertNotEquals(before, clientService.getClientETag("10"));
+		assertEquals(otherClientBefore, clientService.getClientETag("11"));
+	}
+	
+	@Test
+	public void test_getClientETag_changesAfterDelete() throws DatabaseException, ClientNotFoundException, BadParameterException, SQLException {
+		when(clientDao.getClientById(eq(10))).thenReturn(new Client(10, "Jolly Roger", 5));
+		
+		String before = clientService.getClientETag("10");
+		clientService.deleteClient("10");
+		
+		assertNotEquals(before, clientService.getClientETag("10"));
+	}
+	
+	@Test(expected = BadParameterException.class)
+	public void test_getClientETag_invalidId() throws BadParameterException {
+		clientService.getClientETag("abc");
+	}
+	
+	
 	/*
 	 * Exercise: Create tests for DeleteClient and have full test coverage
 	 */
@@ -0,0 +1,65 @@
+package com.revature.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClientVersionsTest {
+
+	private ClientVersions versions;
+	
+	@Before
+	public void setUp() {
+		versions = new ClientVersions();
+	}
+	
+	@Test
+	public void test_bump_failedWriteToUnknownIdKeepsNothing() {
+		String before = versions.eTag(1);
+		
+		for (int i = 0; i < 1000; i++) {
+			versions.bump(i, false);
+		}
+		
+		assertEquals(0, versions.size());
+		assertEquals(before, versions.eTag(1));
+	}
+	
+	@Test
+	public void test_bump_failedWriteToWrittenClient() {
+		versions.bump(1, true);
+		String before = versions.eTag(1);
+		
+		versions.bump(1, false);
+		
+		assertEquals(2, versions.version(1));
+		assertNotEquals(before, versions.eTag(1));
+	}
+	
+	@Test
+	public void test_clientDeleted_dropsVersion() {
+		versions.bump(1, true);
+		versions.bump(2, true);
+		String before = versions.eTag(1);
+		
+		versions.clientDeleted(1);
+		
+		assertEquals(1, versions.size());
+		assertEquals(0, versions.version(1));
+		assertNotEquals(before, versions.eTag(1));
+	}
+	
+	@Test
+	public void test_clientDeleted_neverWrittenClientGetsNewETag() {
+		String before = versions.eTag(1);
+		
+		versions.clientDeleted(1);
+		
+		// Otherwise a conditional request with the ETag from before the delete would still match
+		assertNotEquals(before, versions.eTag(1));
+		assertEquals(0, versions.size());
+	}
+	
+}
@@ -0,0 +1,135 @@
+package com.revature.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.revature.dto.BalanceDTO;
+import com.revature.dto.JournalEntryDTO;
+import com.revature.dto.TransferResultDTO;
+import com.revature.model.Account;
+import com.revature.model.Client;
+import com.revature.util.MetricsRegistry;
+import com.revature.util.SegmentedJournal;
+
+public class MutationJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private static Account account(int id, String name, int balance, int clientId, int version) {
+		Account account = new Account(id, name, balance, clientId);
+		account.setVersion(version);
+		return account;
+	}
+	
+	@Test
+	public void test_rebuild() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		
+		try (MutationJournal journal = new MutationJournal(new SegmentedJournal(directory, 4096, 10), false, new MetricsRegistry())) {
+			journal.clientAdded(new Client(1, "Bach Tran", 40));
+			journal.accountAdded(account(1, "Checking", 100, 1, 0));
+			journal.accountAdded(account(2, "Savings", 50, 1, 0));
+			journal.clientAdded(new Client(2, "John Doe", 20));
+			journal.accountAdded(account(3, "Checking", 10, 2, 0));
+			
+			Client edited = new Client(1, "Bach Tran", 41);
+			edited.setVersion(1);
+			journal.clientEdited(edited);
+			
+			journal.balanceChanged(new BalanceDTO(1, 1, 130), 30);
+			
+			// Journaled out of order: the transfer committed before the withdrawal, whose balance doesn't include it
+			journal.transferred(new TransferResultDTO(account(1, "Checking", 110, 1, 2), account(2, "Savings", 70, 1, 1)), 20);
+			journal.balanceChanged(new BalanceDTO(1, 1, 125), -5);
+			
+			journal.accountDeleted(1, 2);
+			journal.clientDeleted(2);
+		}
+		
+		Client expected = new Client(1, "Bach Tran", 41);
+		expected.setVersion(1);
+		expected.setAccounts(Arrays.asList(account(1, "Checking", 105, 1, 3)));
+		
+		assertEquals(Arrays.asList(expected), MutationJournal.rebuild(directory));
+	}
+	
+	@Test
+	public void test_rebuild_putsEditsInCommitOrder() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		
+		try (MutationJournal journal = new MutationJournal(new SegmentedJournal(directory, 4096, 10), false, new MetricsRegistry())) {
+			journal.clientAdded(new Client(1, "Bach Tran", 40));
+			journal.accountAdded(account(1, "Checking", 100, 1, 0));
+			journal.accountAdded(account(2, "Savings", 100, 1, 0));
+			journal.accountAdded(account(3, "Brokerage", 100, 1, 0));
+			
+			// The edit to 50 committed first, then the deposit of 10 on top of it, but the deposit was journaled first
+			journal.balanceChanged(new BalanceDTO(1, 1, 60, 2), 10);
+			journal.accountEdited(account(1, "Checking", 50, 1, 1));
+			
+			// The deposit committed before the edit, which includes it, but was journaled after it
+			journal.accountEdited(account(2, "Savings", 0, 1, 2));
+			journal.balanceChanged(new BalanceDTO(1, 2, 105, 1), 5);
+			
+			// Two edits racing on the same rows, journaled in the reverse order
+			journal.accountEdited(account(3, "Retirement", 20, 1, 2));
+			journal.accountEdited(account(3, "Brokerage", 10, 1, 1));
+			Client newer = new Client(1, "Bach Tran", 42);
+			newer.setVersion(2);
+			Client older = new Client(1, "Bach Tran", 41);
+			older.setVersion(1);
+			journal.clientEdited(newer);
+			journal.clientEdited(older);
+		}
+		
+		Client expected = new Client(1, "Bach Tran", 42);
+		expected.setVersion(2);
+		expected.setAccounts(Arrays.asList(account(1, "Checking", 60, 1, 2), account(2, "Savings", 0, 1, 2),
+				account(3, "Retirement", 20, 1, 2)));
+		
+		assertEquals(Arrays.asList(expected), MutationJournal.rebuild(directory));
+	}
+	
+	@Test
+	public void test_replay_fromSequence() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		
+		try (MutationJournal journal = new MutationJournal(new SegmentedJournal(directory, 4096, 10), false, new MetricsRegistry())) {
+			journal.clientAdded(new Client(1, "Bach Tran", 40));
+			journal.balanceChanged(new BalanceDTO(1, 1, 130), 30);
+			journal.accountDeleted(1, 1);
+		}
+		
+		List<JournalEntryDTO> entries = new ArrayList<>();
+		assertEquals(2, MutationJournal.replay(directory, 2, entries::add));
+		
+		assertEquals(2, entries.get(0).getSequence());
+		assertEquals("CHANGE_BALANCE", entries.get(0).getOperation());
+		assertEquals(130, entries.get(0).getAccount().getBalance());
+		assertEquals(30, entries.get(0).getAmount());
+		assertEquals("DELETE_ACCOUNT", entries.get(1).getOperation());
+		assertEquals(1, entries.get(1).getAccount().getId());
+	}
+	
+	@Test
+	public void test_disabled() throws IOException {
+		MutationJournal journal = MutationJournal.disabled();
+		
+		journal.clientAdded(new Client(1, "Bach Tran", 40));
+		journal.close();
+		
+		assertFalse(journal.isEnabled());
+	}
+	
+}
@@ -0,0 +1,62 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+public class AccessLogTest {
+
+	private Logger accessLogger;
+	private ListAppender<ILoggingEvent> appender;
+	
+	@Before
+	public void setUp() {
+		this.accessLogger = (Logger) LoggerFactory.getLogger("access");
+		this.appender = new ListAppender<>();
+		this.appender.start();
+		this.accessLogger.addAppender(appender);
+	}
+	
+	@After
+	public void tearDown() {
+		this.accessLogger.detachAppender(appender);
+	}
+	
+	@Test
+	public void test_record_isWrittenByTheBackgroundWriter() {
+		AccessLog accessLog = new AccessLog(16, 1);
+		
+		accessLog.record("GET", "/client/:clientid", 200, 1500, 42);
+		accessLog.close();
+		
+		List<ILoggingEvent> events = appender.list;
+		assertEquals(1, events.size());
+		assertTrue(events.get(0).getFormattedMessage().endsWith(" method=GET route=/client/:clientid status=200 latency_us=1500 bytes=42"));
+	}
+	
+	@Test
+	public void test_record_successesAreSampledAndErrorsAreNot() {
+		AccessLog accessLog = new AccessLog(64, 10);
+		
+		for (int i = 0; i < 20; i++) {
+			accessLog.record("GET", "/client", 200, 100, 10);
+		}
+		accessLog.record("GET", "/client/:clientid", 404, 100, 10);
+		accessLog.record("GET", "/client/:clientid", 500, 100, 10);
+		accessLog.close();
+		
+		assertEquals(4, appender.list.size());
+		assertEquals("WARN", appender.list.get(3).getLevel().toString());
+	}
+	
+}
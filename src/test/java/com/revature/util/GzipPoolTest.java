@@ -0,0 +1,84 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GzipPoolTest {
+
+	private GzipPool pool;
+	
+	@Before
+	public void setUp() {
+		this.pool = new GzipPool(6, 2);
+	}
+	
+	@Test
+	public void test_compress_roundTripsThroughGZIPInputStream() throws IOException {
+		byte[] json = json(1000);
+		
+		byte[] compressed = pool.compress(json);
+		
+		assertTrue(compressed.length < json.length / 4);
+		assertArrayEquals(json, gunzip(compressed));
+	}
+	
+	@Test
+	public void test_compress_reusesDeflaters() throws IOException {
+		byte[] first = json(10);
+		byte[] second = json(500);
+		
+		// A Deflater that wasn't reset properly would leak state from the first body into the second
+		assertArrayEquals(first, gunzip(pool.compress(first)));
+		assertArrayEquals(second, gunzip(pool.compress(second)));
+		assertEquals(1, pool.getIdleCount());
+	}
+	
+	@Test
+	public void test_wrap_streamsWithFlushes() throws IOException {
+		byte[] json = json(1000);
+		
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		try (OutputStream out = pool.wrap(target)) {
+			out.write(json, 0, 1);
+			out.flush();
+			out.write(json, 1, json.length - 1);
+		}
+		
+		assertArrayEquals(json, gunzip(target.toByteArray()));
+		assertEquals(1, pool.getIdleCount());
+	}
+	
+	private static byte[] json(int accounts) {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < accounts; i++) {
+			sb.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"Account ").append(i)
+					.append("\",\"balance\":").append(i * 37 % 5000).append(",\"clientId\":1}");
+		}
+		return sb.append("]").toString().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private static byte[] gunzip(byte[] compressed) throws IOException {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int length;
+			while ((length = in.read(buffer)) > 0) {
+				out.write(buffer, 0, length);
+			}
+			return out.toByteArray();
+		}
+	}
+	
+}
@@ -0,0 +1,70 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IntObjectMapTest {
+
+	@Test
+	public void test_putAndGet() {
+		IntObjectMap<String> map = new IntObjectMap<>();
+		
+		assertNull(map.put(1, "one"));
+		assertNull(map.put(2, "two"));
+		assertEquals("one", map.put(1, "uno"));
+		
+		assertEquals("uno", map.get(1));
+		assertEquals("two", map.get(2));
+		assertNull(map.get(3));
+		assertEquals(2, map.size());
+	}
+	
+	@Test
+	public void test_remove() {
+		IntObjectMap<String> map = new IntObjectMap<>();
+		map.put(1, "one");
+		
+		assertEquals("one", map.remove(1));
+		assertNull(map.remove(1));
+		assertNull(map.get(1));
+		assertEquals(0, map.size());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void test_put_nullValue() {
+		new IntObjectMap<String>().put(1, null);
+	}
+	
+	@Test
+	public void test_matchesHashMap_afterRandomPutsAndRemoves() {
+		IntObjectMap<Integer> map = new IntObjectMap<>(4);
+		Map<Integer, Integer> expected = new HashMap<>();
+		Random random = new Random(42);
+		
+		// A small key range, so that removals keep landing in the middle of probe runs
+		for (int i = 0; i < 100000; i++) {
+			int key = random.nextInt(2000) - 1000;
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), map.remove(key));
+			} else {
+				assertEquals(expected.put(key, i), map.put(key, i));
+			}
+		}
+		
+		assertEquals(expected.size(), map.size());
+		for (int key = -1000; key < 1000; key++) {
+			assertEquals(expected.get(key), map.get(key));
+		}
+		
+		Map<Integer, Integer> visited = new HashMap<>();
+		map.forEach(visited::put);
+		assertEquals(expected, visited);
+	}
+	
+}
@@ -0,0 +1,46 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+	private MetricsRegistry registry;
+	
+	@Before
+	public void setUp() {
+		this.registry = new MetricsRegistry();
+	}
+	
+	@Test
+	public void test_recordRequest_countsPerRouteAndStatus() {
+		registry.recordRequest("GET", "/client/:clientid", 200, 1_000_000);
+		registry.recordRequest("GET", "/client/:clientid", 200, 2_000_000);
+		registry.recordRequest("GET", "/client/:clientid", 404, 500_000);
+		
+		StringBuilder sb = new StringBuilder();
+		registry.writePrometheus(sb);
+		String output = sb.toString();
+		
+		assertTrue(output.contains("http_requests_total{method=\"GET\",route=\"/client/:clientid\",status=\"200\"} 2\n"));
+		assertTrue(output.contains("http_requests_total{method=\"GET\",route=\"/client/:clientid\",status=\"404\"} 1\n"));
+		assertTrue(output.contains("http_request_duration_seconds_count{method=\"GET\",route=\"/client/:clientid\"} 3\n"));
+		assertTrue(output.contains("http_request_duration_seconds_bucket{method=\"GET\",route=\"/client/:clientid\",le=\"0.001\"} 2\n"));
+	}
+	
+	@Test
+	public void test_callMetrics_countsErrors() {
+		registry.callMetrics("ClientDAO", "getClientById").record(1_000, false);
+		registry.callMetrics("ClientDAO", "getClientById").record(1_000, true);
+		
+		StringBuilder sb = new StringBuilder();
+		registry.writePrometheus(sb);
+		String output = sb.toString();
+		
+		assertTrue(output.contains("dao_call_errors_total{dao=\"ClientDAO\",method=\"getClientById\"} 1\n"));
+		assertTrue(output.contains("dao_call_duration_seconds_count{dao=\"ClientDAO\",method=\"getClientById\"} 2\n"));
+	}
+	
+}
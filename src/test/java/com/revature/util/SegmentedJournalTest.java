@@ -0,0 +1,158 @@
+package com.revature.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SegmentedJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private List<String> readAll(Path directory, long fromSequence) throws IOException {
+		List<String> entries = new ArrayList<>();
+		SegmentedJournal.read(directory, fromSequence,
+				(entry) -> entries.add(entry.getSequence() + ":" + entry.getType() + ":" + new String(entry.getPayload(), StandardCharsets.UTF_8)));
+		return entries;
+	}
+	
+	private List<Path> segments(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.sorted().collect(Collectors.toList());
+		}
+	}
+	
+	@Test
+	public void test_appendAndRead() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		
+		try (SegmentedJournal journal = new SegmentedJournal(directory, 4096, 10)) {
+			assertEquals(1, journal.append((byte) 1, bytes("first")));
+			assertEquals(2, journal.append((byte) 2, bytes("second")));
+		}
+		
+		List<String> expected = new ArrayList<>();
+		expected.add("1:1:first");
+		expected.add("2:2:second");
+		assertEquals(expected, readAll(directory, 0));
+	}
+	
+	@Test
+	public void test_append_rollsFullSegments() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		
+		// 64 bytes hold two of these entries (4 + 17 + 5 + 4 each) and the end marker
+		try (SegmentedJournal journal = new SegmentedJournal(directory, 64, 10)) {
+			for (int i = 0; i < 5; i++) {
+				journal.append((byte) 0, bytes("entry"));
+			}
+		}
+		
+		assertEquals(3, segments(directory).size());
+		assertEquals(5, readAll(directory, 0).size());
+		assertEquals("4:0:entry", readAll(directory, 4).get(0));
+	}
+	
+	@Test
+	public void test_append_entryBiggerThanSegment() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		byte[] big = new byte[1000];
+		
+		try (SegmentedJournal journal = new SegmentedJournal(directory, 64, 10)) {
+			journal.append((byte) 0, bytes("small"));
+			journal.append((byte) 0, big);
+		}
+		
+		List<byte[]> payloads = new ArrayList<>();
+		SegmentedJournal.read(directory, 2, (entry) -> payloads.add(entry.getPayload()));
+		assertEquals(1, payloads.size());
+		assertArrayEquals(big, payloads.get(0));
+	}
+	
+	@Test
+	public void test_reopen_continuesSequenceInNewSegment() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		
+		try (SegmentedJournal journal = new SegmentedJournal(directory, 4096, 10)) {
+			journal.append((byte) 0, bytes("a"));
+			journal.append((byte) 0, bytes("b"));
+		}
+		try (SegmentedJournal journal = new SegmentedJournal(directory, 4096, 10)) {
+			assertEquals(2, journal.getLastSequence());
+			assertEquals(3, journal.append((byte) 0, bytes("c")));
+		}
+		
+		assertEquals(2, segments(directory).size());
+		assertEquals(3, readAll(directory, 0).size());
+	}
+	
+	@Test
+	public void test_read_skipsTornTailOfSegment() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		
+		try (SegmentedJournal journal = new SegmentedJournal(directory, 4096, 10)) {
+			journal.append((byte) 0, bytes("a"));
+			journal.append((byte) 0, bytes("b"));
+		}
+		
+		// Flip the last payload byte of the second entry, as if the machine had died while writing it
+		Path first = segments(directory).get(0);
+		try (RandomAccessFile file = new RandomAccessFile(first.toFile(), "rw")) {
+			long offset = 2 * (4 + 17 + 1 + 4) - 4 - 1;
+			file.seek(offset);
+			int b = file.read();
+			file.seek(offset);
+			file.write(b ^ 0xff);
+		}
+		
+		// Reopening starts a new segment after the last complete entry, so nothing is written behind the torn one
+		try (SegmentedJournal journal = new SegmentedJournal(directory, 4096, 10)) {
+			assertEquals(2, journal.append((byte) 0, bytes("c")));
+		}
+		
+		List<String> expected = new ArrayList<>();
+		expected.add("1:0:a");
+		expected.add("2:0:c");
+		assertEquals(expected, readAll(directory, 0));
+	}
+	
+	@Test
+	public void test_awaitSync() throws IOException, InterruptedException {
+		Path directory = folder.getRoot().toPath();
+		
+		// The interval is far longer than the test may take, so only awaitSync() asking for a sync can finish it
+		try (SegmentedJournal journal = new SegmentedJournal(directory, 4096, 60000)) {
+			long sequence = journal.append((byte) 0, bytes("a"));
+			journal.awaitSync(sequence);
+			
+			assertTrue(journal.getSyncedSequence() >= sequence);
+		}
+	}
+	
+	@Test(expected = IOException.class)
+	public void test_append_afterClose() throws IOException {
+		SegmentedJournal journal = new SegmentedJournal(folder.getRoot().toPath(), 4096, 10);
+		journal.close();
+		
+		journal.append((byte) 0, bytes("a"));
+	}
+	
+}